@@ -74,6 +74,32 @@ public class JdbcSinkConfig extends AbstractConfig {
     public static final String BATCH_SIZE = "batch.size";
     private static final int BATCH_SIZE_DEFAULT = 100;
 
+    /**
+     * parallel flush
+     */
+    public static final String PARALLEL_FLUSH_ENABLED = "parallel.flush.enabled";
+    private static final boolean PARALLEL_FLUSH_ENABLED_DEFAULT = false;
+    private static final String PARALLEL_FLUSH_ENABLED_DOC =
+            "Whether to flush the records of different tables concurrently, each table over its own connection. "
+                    + "The connections are committed one after another, so a failed commit may leave the tables of "
+                    + "the other connections written and the records are written again on retry, it requires the "
+                    + "idempotent upsert or update insert mode.";
+
+    public static final String PARALLEL_FLUSH_MAX_CONNECTIONS = "parallel.flush.max.connections";
+    private static final int PARALLEL_FLUSH_MAX_CONNECTIONS_DEFAULT = 4;
+    private static final String PARALLEL_FLUSH_MAX_CONNECTIONS_DOC =
+            "The maximum number of connections used to flush tables concurrently.";
+
+    /**
+     * statement cache
+     */
+    public static final String STATEMENT_CACHE_SIZE = "statement.cache.size";
+    private static final int STATEMENT_CACHE_SIZE_DEFAULT = 0;
+    private static final String STATEMENT_CACHE_SIZE_DOC =
+            "The maximum number of table and schema versions whose prepared statements are kept open on each "
+                    + "connection, the least recently used are closed first. 0 prepares the statements again at "
+                    + "every write.";
+
 
     public static final String DELETE_ENABLED = "delete.enabled";
     private static final boolean DELETE_ENABLED_DEFAULT = false;
@@ -170,6 +196,9 @@ public class JdbcSinkConfig extends AbstractConfig {
     private int maxRetries;
     private int retryBackoffMs;
     private int batchSize;
+    private boolean parallelFlushEnabled;
+    private int parallelFlushMaxConnections;
+    private int statementCacheSize;
     private boolean deleteEnabled;
     private boolean autoCreate;
     private boolean autoEvolve;
@@ -187,6 +216,11 @@ public class JdbcSinkConfig extends AbstractConfig {
         tableNameFormat = config.getString(TABLE_NAME_FORMAT, TABLE_NAME_FORMAT_DEFAULT).trim();
         tableFromHeader = getBoolean(config, TABLE_NAME_FROM_HEADER, false);
         batchSize = config.getInt(BATCH_SIZE, BATCH_SIZE_DEFAULT);
+        parallelFlushEnabled = Boolean.parseBoolean(
+                config.getString(PARALLEL_FLUSH_ENABLED, String.valueOf(PARALLEL_FLUSH_ENABLED_DEFAULT)));
+        parallelFlushMaxConnections = Math.max(1,
+                config.getInt(PARALLEL_FLUSH_MAX_CONNECTIONS, PARALLEL_FLUSH_MAX_CONNECTIONS_DEFAULT));
+        statementCacheSize = Math.max(0, config.getInt(STATEMENT_CACHE_SIZE, STATEMENT_CACHE_SIZE_DEFAULT));
         deleteEnabled = getBoolean(config, DELETE_ENABLED, DELETE_ENABLED_DEFAULT);
         maxRetries = config.getInt(MAX_RETRIES, MAX_RETRIES_DEFAULT);
         retryBackoffMs = config.getInt(RETRY_BACKOFF_MS, RETRY_BACKOFF_MS_DEFAULT);
@@ -195,6 +229,10 @@ public class JdbcSinkConfig extends AbstractConfig {
         if (Objects.nonNull(config.getString(INSERT_MODE))) {
             insertMode = InsertMode.valueOf(config.getString(INSERT_MODE, INSERT_MODE_DEFAULT).toUpperCase());
         }
+        if (parallelFlushEnabled && insertMode != InsertMode.UPSERT && insertMode != InsertMode.UPDATE) {
+            throw new IllegalArgumentException(String.format("%s requires %s upsert or update, but was %s",
+                    PARALLEL_FLUSH_ENABLED, INSERT_MODE, insertMode == null ? INSERT_MODE_DEFAULT : insertMode.name().toLowerCase()));
+        }
 
         pkMode = PrimaryKeyMode.valueOf(config.getString(PK_MODE, PK_MODE_DEFAULT).toUpperCase());
         pkFields = getList(config, PK_FIELDS);
@@ -228,6 +266,18 @@ public class JdbcSinkConfig extends AbstractConfig {
         return batchSize;
     }
 
+    public boolean isParallelFlushEnabled() {
+        return parallelFlushEnabled;
+    }
+
+    public int getParallelFlushMaxConnections() {
+        return parallelFlushMaxConnections;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
     public boolean isDeleteEnabled() {
         return deleteEnabled;
     }
@@ -73,6 +73,25 @@ public class JdbcSourceConfig extends AbstractConfig {
     public static final String BATCH_MAX_ROWS_CONFIG = "batch.max.rows";
     public static final int BATCH_MAX_ROWS_DEFAULT = 100;
 
+    // querier threads, 0 to run the queriers one after another in poll
+    public static final String POLL_THREADS_CONFIG = "poll.threads";
+    private static final String POLL_THREADS_DOC = "Number of threads running the table queries concurrently, "
+            + "each thread with its own connection. 0 runs one query at a time in poll.";
+    public static final int POLL_THREADS_DEFAULT = 0;
+
+    // records queried by the querier threads and not polled yet
+    public static final String POLL_QUEUE_SIZE_CONFIG = "poll.queue.size";
+    private static final String POLL_QUEUE_SIZE_DOC = "Max number of records queried by the querier threads and "
+            + "waiting to be polled, the queries block when it is full.";
+    public static final int POLL_QUEUE_SIZE_DEFAULT = 10000;
+
+    // rows per keyset query of the bulk mode, 0 to read the whole table with one query
+    public static final String BULK_CHUNK_SIZE_CONFIG = "bulk.chunk.size";
+    private static final String BULK_CHUNK_SIZE_DOC = "Max number of rows read by one query of the bulk mode, the table "
+            + "is read in primary key order and the last key read is kept in the offset. 0 reads the whole table with "
+            + "one query.";
+    public static final int BULK_CHUNK_SIZE_DEFAULT = 0;
+
     // numeric precision mapping
     public static final String NUMERIC_PRECISION_MAPPING_CONFIG = "numeric.precision.mapping";
     public static final boolean NUMERIC_PRECISION_MAPPING_DEFAULT = false;
@@ -200,6 +219,9 @@ public class JdbcSourceConfig extends AbstractConfig {
 
     private int pollIntervalMs;
     private int batchMaxRows;
+    private int pollThreads;
+    private int pollQueueSize;
+    private int bulkChunkSize;
     private Boolean numericPrecisionMapping;
     private String numericMapping;
     private String dialectName;
@@ -224,6 +246,9 @@ public class JdbcSourceConfig extends AbstractConfig {
         super(config);
         this.pollIntervalMs = config.getInt(POLL_INTERVAL_MS_CONFIG, POLL_INTERVAL_MS_DEFAULT);
         this.batchMaxRows = config.getInt(BATCH_MAX_ROWS_CONFIG, BATCH_MAX_ROWS_DEFAULT);
+        this.pollThreads = config.getInt(POLL_THREADS_CONFIG, POLL_THREADS_DEFAULT);
+        this.pollQueueSize = config.getInt(POLL_QUEUE_SIZE_CONFIG, POLL_QUEUE_SIZE_DEFAULT);
+        this.bulkChunkSize = config.getInt(BULK_CHUNK_SIZE_CONFIG, BULK_CHUNK_SIZE_DEFAULT);
         this.numericPrecisionMapping = getBoolean(config, NUMERIC_PRECISION_MAPPING_CONFIG, NUMERIC_PRECISION_MAPPING_DEFAULT);
         this.numericMapping = config.getString(NUMERIC_MAPPING_CONFIG, NUMERIC_MAPPING_DEFAULT);
         this.dialectName = config.getString(DIALECT_NAME_CONFIG, DIALECT_NAME_DEFAULT);
@@ -259,6 +284,18 @@ public class JdbcSourceConfig extends AbstractConfig {
         return batchMaxRows;
     }
 
+    public int getPollThreads() {
+        return pollThreads;
+    }
+
+    public int getPollQueueSize() {
+        return pollQueueSize;
+    }
+
+    public int getBulkChunkSize() {
+        return bulkChunkSize;
+    }
+
     public Boolean getNumericPrecisionMapping() {
         return numericPrecisionMapping;
     }
@@ -25,6 +25,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.rocketmq.connect.jdbc.dialect.DatabaseDialect;
 import org.apache.rocketmq.connect.jdbc.dialect.DatabaseDialectFactory;
 import org.apache.rocketmq.connect.jdbc.dialect.provider.CachedConnectionProvider;
+import org.apache.rocketmq.connect.jdbc.source.QuerierScheduler;
 import org.apache.rocketmq.connect.jdbc.source.offset.SourceOffsetCompute;
 import org.apache.rocketmq.connect.jdbc.source.querier.BulkQuerier;
 import org.apache.rocketmq.connect.jdbc.source.querier.Querier;
@@ -53,10 +54,12 @@ public class JdbcSourceTask extends SourceTask {
 
     private static final Logger log = LoggerFactory.getLogger(JdbcSourceTask.class);
     private static final int CONSECUTIVE_EMPTY_RESULTS_BEFORE_RETURN = 3;
+    private static final long SCHEDULED_POLL_TIMEOUT_MS = 1000;
 
     private JdbcSourceTaskConfig config;
     private DatabaseDialect dialect;
     private CachedConnectionProvider cachedConnectionProvider;
+    private volatile QuerierScheduler querierScheduler;
 
     BlockingQueue<Querier> tableQueue = new LinkedBlockingQueue<Querier>();
     private final AtomicBoolean running = new AtomicBoolean(false);
@@ -64,10 +67,14 @@ public class JdbcSourceTask extends SourceTask {
     @Override
     public List<ConnectRecord> poll() {
         log.trace(" Polling for new data");
+        final QuerierScheduler scheduler = querierScheduler;
+        if (scheduler != null) {
+            return pollScheduled(scheduler);
+        }
         Map<Querier, Integer> consecutiveEmptyResults = tableQueue.stream().collect(Collectors.toMap(Function.identity(), (q) -> 0));
         while (running.get()) {
             final Querier querier = tableQueue.peek();
-            if (!querier.querying()) {
+            if (!querier.querying() && !querier.hasPendingQuery()) {
                 // If not in the middle of an update, wait for next update time
                 final long nextUpdate = querier.getLastUpdate() + config.getPollIntervalMs();
                 final long now = System.currentTimeMillis();
@@ -133,6 +140,28 @@ public class JdbcSourceTask extends SourceTask {
         return null;
     }
 
+    /**
+     * poll the records queried by the querier threads
+     *
+     * @param scheduler
+     * @return
+     */
+    private List<ConnectRecord> pollScheduled(QuerierScheduler scheduler) {
+        try {
+            List<ConnectRecord> results = scheduler.poll(
+                    config.getBatchMaxRows(),
+                    Math.min(config.getPollIntervalMs(), SCHEDULED_POLL_TIMEOUT_MS)
+            );
+            if (results != null) {
+                log.debug("Returning {} records from the querier threads", results.size());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
     private void resetAndRequeueHead(Querier querier) {
         log.debug("Resetting querier {}", querier.toString());
         tableQueue.poll();
@@ -176,6 +205,16 @@ public class JdbcSourceTask extends SourceTask {
             );
         }
         running.set(true);
+        if (config.getPollThreads() > 0) {
+            querierScheduler = new QuerierScheduler(
+                    new ArrayList<>(tableQueue),
+                    () -> connectionProvider(config.getAttempts(), config.getBackoffMs()),
+                    config.getPollThreads(),
+                    config.getPollIntervalMs(),
+                    config.getPollQueueSize()
+            );
+            querierScheduler.start();
+        }
         log.info("Started JDBC source task");
     }
 
@@ -203,7 +242,9 @@ public class JdbcSourceTask extends SourceTask {
                         tableOrQuery,
                         topicPrefix,
                         querySuffix,
-                        this.config.getOffsetSuffix()
+                        this.config.getOffsetSuffix(),
+                        this.config.getBulkChunkSize(),
+                        offset
                 );
                 tableQueue.add(querier);
                 break;
@@ -296,7 +337,12 @@ public class JdbcSourceTask extends SourceTask {
 
     @Override
     public void stop() {
-        running.set(true);
+        running.set(false);
+        if (querierScheduler != null) {
+            querierScheduler.stop();
+            querierScheduler = null;
+            closeResources();
+        }
     }
 
 
@@ -202,6 +202,47 @@ public interface DatabaseDialect extends ConnectionProvider {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Whether one insert or upsert statement can write several rows, see
+     * {@link #buildMultiRowInsertStatement(TableId, Collection, Collection, int)} and
+     * {@link #buildMultiRowUpsertStatement(TableId, Collection, Collection, int)}.
+     *
+     * @return
+     */
+    default boolean supportsMultiRowStatements() {
+        return false;
+    }
+
+    /**
+     * insert statement of several rows, the values of every row are bound like
+     * {@link #buildInsertStatement(TableId, Collection, Collection)} one after the other
+     *
+     * @param table
+     * @param keyColumns
+     * @param nonKeyColumns
+     * @param rowNums
+     * @return
+     */
+    default String buildMultiRowInsertStatement(TableId table, Collection<ColumnId> keyColumns,
+        Collection<ColumnId> nonKeyColumns, int rowNums) {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * upsert statement of several rows, the values of every row are bound like
+     * {@link #buildUpsertQueryStatement(TableId, Collection, Collection)} one after the other
+     *
+     * @param table
+     * @param keyColumns
+     * @param nonKeyColumns
+     * @param rowNums
+     * @return
+     */
+    default String buildMultiRowUpsertStatement(TableId table, Collection<ColumnId> keyColumns,
+        Collection<ColumnId> nonKeyColumns, int rowNums) {
+        throw new UnsupportedOperationException();
+    }
+
 
     /**
      * build select table
@@ -318,6 +359,19 @@ public interface DatabaseDialect extends ConnectionProvider {
          * @throws SQLException
          */
         void bindRecord(ConnectRecord record) throws SQLException;
+
+        /**
+         * bind the values of an inserted or upserted record as one row of a multi-row statement, without adding a
+         * batch
+         *
+         * @param record
+         * @param index index of the first parameter of the row
+         * @return index of the first parameter of the next row
+         * @throws SQLException
+         */
+        default int bindRow(ConnectRecord record, int index) throws SQLException {
+            throw new UnsupportedOperationException();
+        }
     }
 
 
@@ -74,8 +74,7 @@ public class PreparedStatementBinder implements DatabaseDialect.StatementBinder
             switch (insertMode) {
                 case INSERT:
                 case UPSERT:
-                    index = bindKeyFields(record, index);
-                    bindNonKeyFields(record, index);
+                    bindRow(record, index);
                     break;
 
                 case UPDATE:
@@ -90,6 +89,12 @@ public class PreparedStatementBinder implements DatabaseDialect.StatementBinder
         statement.addBatch();
     }
 
+    @Override
+    public int bindRow(ConnectRecord record, int index) throws SQLException {
+        index = bindKeyFields(record, index);
+        return bindNonKeyFields(record, index);
+    }
+
     protected int bindKeyFields(ConnectRecord record, int index) throws SQLException {
         switch (pkMode) {
             case NONE:
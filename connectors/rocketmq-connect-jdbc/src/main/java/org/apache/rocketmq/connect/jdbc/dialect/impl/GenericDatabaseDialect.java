@@ -1437,6 +1437,16 @@ public class GenericDatabaseDialect implements DatabaseDialect {
             TableId table,
             Collection<ColumnId> keyColumns,
             Collection<ColumnId> nonKeyColumns
+    ) {
+        return buildMultiRowInsertStatement(table, keyColumns, nonKeyColumns, 1);
+    }
+
+    @Override
+    public String buildMultiRowInsertStatement(
+            TableId table,
+            Collection<ColumnId> keyColumns,
+            Collection<ColumnId> nonKeyColumns,
+            int rowNums
     ) {
         ExpressionBuilder builder = expressionBuilder();
         builder.append("INSERT INTO ");
@@ -1446,12 +1456,29 @@ public class GenericDatabaseDialect implements DatabaseDialect {
                 .delimitedBy(",")
                 .transformedBy(ExpressionBuilder.columnNames())
                 .of(keyColumns, nonKeyColumns);
-        builder.append(") VALUES(");
-        builder.appendMultiple(",", "?", keyColumns.size() + nonKeyColumns.size());
-        builder.append(")");
+        builder.append(") VALUES");
+        appendMultiRowValues(builder, keyColumns.size() + nonKeyColumns.size(), rowNums);
         return builder.toString();
     }
 
+    /**
+     * append the placeholders of several rows, as in {@code (?,?),(?,?)}
+     *
+     * @param builder
+     * @param columnNums
+     * @param rowNums
+     */
+    protected void appendMultiRowValues(ExpressionBuilder builder, int columnNums, int rowNums) {
+        for (int i = 0; i < rowNums; i++) {
+            if (i > 0) {
+                builder.append(",");
+            }
+            builder.append("(");
+            builder.appendMultiple(",", "?", columnNums);
+            builder.append(")");
+        }
+    }
+
     @Override
     public String buildUpdateStatement(
             TableId table,
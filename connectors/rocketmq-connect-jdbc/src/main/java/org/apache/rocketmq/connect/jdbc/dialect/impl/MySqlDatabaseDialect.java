@@ -113,6 +113,21 @@ public class MySqlDatabaseDialect extends GenericDatabaseDialect {
             TableId table,
             Collection<ColumnId> keyColumns,
             Collection<ColumnId> nonKeyColumns
+    ) {
+        return buildMultiRowUpsertStatement(table, keyColumns, nonKeyColumns, 1);
+    }
+
+    @Override
+    public boolean supportsMultiRowStatements() {
+        return true;
+    }
+
+    @Override
+    public String buildMultiRowUpsertStatement(
+            TableId table,
+            Collection<ColumnId> keyColumns,
+            Collection<ColumnId> nonKeyColumns,
+            int rowNums
     ) {
         //MySql doesn't support SQL 2003:merge so here how the upsert is handled
         final ExpressionBuilder.Transform<ColumnId> transform = (builder, col) -> {
@@ -130,9 +145,9 @@ public class MySqlDatabaseDialect extends GenericDatabaseDialect {
                 .delimitedBy(",")
                 .transformedBy(ExpressionBuilder.columnNames())
                 .of(keyColumns, nonKeyColumns);
-        builder.append(") values(");
-        builder.appendMultiple(",", "?", keyColumns.size() + nonKeyColumns.size());
-        builder.append(") on duplicate key update ");
+        builder.append(") values");
+        appendMultiRowValues(builder, keyColumns.size() + nonKeyColumns.size(), rowNums);
+        builder.append(" on duplicate key update ");
         builder.appendList()
                 .delimitedBy(",")
                 .transformedBy(transform)
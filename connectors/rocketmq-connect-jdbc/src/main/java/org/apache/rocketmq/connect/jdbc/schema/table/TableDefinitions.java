@@ -22,8 +22,8 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A simple cache of {@link TableDefinition} keyed.
@@ -32,7 +32,7 @@ public class TableDefinitions {
 
     private static final Logger log = LoggerFactory.getLogger(TableDefinitions.class);
 
-    private final Map<TableId, TableDefinition> cache = new HashMap<>();
+    private final Map<TableId, TableDefinition> cache = new ConcurrentHashMap<>();
     private final DatabaseDialect dialect;
 
     /**
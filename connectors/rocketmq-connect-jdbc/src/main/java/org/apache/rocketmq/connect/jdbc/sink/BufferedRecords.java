@@ -51,6 +51,11 @@ import static java.util.Objects.nonNull;
 public class BufferedRecords {
     private static final Logger log = LoggerFactory.getLogger(BufferedRecords.class);
 
+    /**
+     * Max number of parameters of one statement, the limit of MySQL.
+     */
+    private static final int MAX_STATEMENT_PARAMS = 65535;
+
     private final TableId tableId;
     private final JdbcSinkConfig config;
     private final DatabaseDialect dbDialect;
@@ -59,11 +64,16 @@ public class BufferedRecords {
 
     private List<ConnectRecord> records = new ArrayList<>();
     private Schema schema;
+    private String fingerprint;
     private FieldsMetadata fieldsMetadata;
-    private PreparedStatement updatePreparedStatement;
-    private PreparedStatement deletePreparedStatement;
-    private DatabaseDialect.StatementBinder updateStatementBinder;
-    private DatabaseDialect.StatementBinder deleteStatementBinder;
+    private SchemaPair schemaPair;
+
+    /**
+     * Statements of the current schema, taken from {@link #statementCache} when it is set, otherwise owned and closed
+     * by this buffer.
+     */
+    private StatementCache.Statements statements;
+    private final StatementCache statementCache;
 
     public BufferedRecords(
             JdbcSinkConfig config,
@@ -71,12 +81,24 @@ public class BufferedRecords {
             DatabaseDialect dbDialect,
             DbStructure dbStructure,
             Connection connection
+    ) {
+        this(config, tableId, dbDialect, dbStructure, connection, null);
+    }
+
+    public BufferedRecords(
+            JdbcSinkConfig config,
+            TableId tableId,
+            DatabaseDialect dbDialect,
+            DbStructure dbStructure,
+            Connection connection,
+            StatementCache statementCache
     ) {
         this.tableId = tableId;
         this.config = config;
         this.dbDialect = dbDialect;
         this.dbStructure = dbStructure;
         this.connection = connection;
+        this.statementCache = statementCache;
     }
 
     /**
@@ -88,66 +110,27 @@ public class BufferedRecords {
      */
     public List<ConnectRecord> add(ConnectRecord record) throws SQLException {
         final List<ConnectRecord> flushed = new ArrayList<>();
-        boolean schemaChanged = false;
-        // check and update schema
-        if (!Objects.equals(schema, record.getSchema())) {
+        // check and update schema, a new schema instance with the same fields keeps the statements
+        String recordFingerprint = fingerprint;
+        if (schema != record.getSchema()) {
             schema = record.getSchema();
-            schemaChanged = true;
+            recordFingerprint = StatementCache.fingerprint(schema);
         }
 
-        if (schemaChanged || updateStatementBinder == null) {
+        if (!Objects.equals(recordFingerprint, fingerprint) || statements == null) {
             // Each batch needs to have the same schemas, so get the buffered records out
             flushed.addAll(flush());
-            // re-initialize everything that depends on the record schema
-            final SchemaPair schemaPair = new SchemaPair(
-                    record.getSchema(),
-                    record.getExtensions()
-            );
-            // extract field
-            fieldsMetadata = FieldsMetadata.extract(
-                    tableId.tableName(),
-                    config.pkMode,
-                    config.getPkFields(),
-                    config.getFieldsWhitelist(),
-                    schemaPair
-            );
-            // create or alter table
-            dbStructure.createOrAmendIfNecessary(
-                    config,
-                    connection,
-                    tableId,
-                    fieldsMetadata
-            );
-            final String insertSql = getInsertSql();
-            final String deleteSql = getDeleteSql();
-            log.debug(
-                    "{} sql: {} deleteSql: {} meta: {}",
-                    config.getInsertMode(),
-                    insertSql,
-                    deleteSql,
-                    fieldsMetadata
-            );
+            fingerprint = recordFingerprint;
             close();
-            updatePreparedStatement = dbDialect.createPreparedStatement(connection, insertSql);
-            updateStatementBinder = dbDialect.statementBinder(
-                    updatePreparedStatement,
-                    config.pkMode,
-                    schemaPair,
-                    fieldsMetadata,
-                    dbStructure.tableDefinition(connection, tableId),
-                    config.getInsertMode()
-            );
-            if (config.isDeleteEnabled() && nonNull(deleteSql)) {
-                deletePreparedStatement = dbDialect.createPreparedStatement(connection, deleteSql);
-                deleteStatementBinder = dbDialect.statementBinder(
-                        deletePreparedStatement,
-                        config.pkMode,
-                        schemaPair,
-                        fieldsMetadata,
-                        dbStructure.tableDefinition(connection, tableId),
-                        config.getInsertMode()
-                );
+            statements = statementCache == null ? null : statementCache.acquire(tableId, fingerprint);
+            if (statements == null) {
+                statements = prepareStatements(record);
+                if (statementCache != null) {
+                    statementCache.put(tableId, fingerprint, statements);
+                }
             }
+            schemaPair = statements.schemaPair;
+            fieldsMetadata = statements.fieldsMetadata;
         }
 
         records.add(record);
@@ -157,21 +140,100 @@ public class BufferedRecords {
         return flushed;
     }
 
+    /**
+     * prepare the statements of the record schema, creating or altering the table as needed
+     */
+    private StatementCache.Statements prepareStatements(ConnectRecord record) throws SQLException {
+        // re-initialize everything that depends on the record schema
+        schemaPair = new SchemaPair(
+                record.getSchema(),
+                record.getExtensions()
+        );
+        // extract field
+        fieldsMetadata = FieldsMetadata.extract(
+                tableId.tableName(),
+                config.pkMode,
+                config.getPkFields(),
+                config.getFieldsWhitelist(),
+                schemaPair
+        );
+        // create or alter table
+        dbStructure.createOrAmendIfNecessary(
+                config,
+                connection,
+                tableId,
+                fieldsMetadata
+        );
+        final String insertSql = getInsertSql();
+        final String deleteSql = getDeleteSql();
+        log.debug(
+                "{} sql: {} deleteSql: {} meta: {}",
+                config.getInsertMode(),
+                insertSql,
+                deleteSql,
+                fieldsMetadata
+        );
+        PreparedStatement updatePreparedStatement = dbDialect.createPreparedStatement(connection, insertSql);
+        DatabaseDialect.StatementBinder updateStatementBinder = dbDialect.statementBinder(
+                updatePreparedStatement,
+                config.pkMode,
+                schemaPair,
+                fieldsMetadata,
+                dbStructure.tableDefinition(connection, tableId),
+                config.getInsertMode()
+        );
+        PreparedStatement deletePreparedStatement = null;
+        DatabaseDialect.StatementBinder deleteStatementBinder = null;
+        if (config.isDeleteEnabled() && nonNull(deleteSql)) {
+            deletePreparedStatement = dbDialect.createPreparedStatement(connection, deleteSql);
+            deleteStatementBinder = dbDialect.statementBinder(
+                    deletePreparedStatement,
+                    config.pkMode,
+                    schemaPair,
+                    fieldsMetadata,
+                    dbStructure.tableDefinition(connection, tableId),
+                    config.getInsertMode()
+            );
+        }
+        return new StatementCache.Statements(
+                schemaPair,
+                fieldsMetadata,
+                getMaxMultiRowNums(),
+                updatePreparedStatement,
+                updateStatementBinder,
+                deletePreparedStatement,
+                deleteStatementBinder
+        );
+    }
+
     public List<ConnectRecord> flush() throws SQLException {
         if (records.isEmpty()) {
             log.debug("Records is empty");
             return new ArrayList<>();
         }
         log.debug("Flushing {} buffered records", records.size());
-        for (ConnectRecord record : records) {
-            if (isNull(record.getData()) && nonNull(deleteStatementBinder)) {
-                deleteStatementBinder.bindRecord(record);
-            } else {
-                updateStatementBinder.bindRecord(record);
+        List<ConnectRecord> rows = new ArrayList<>(records.size());
+        final Optional<Long> totalUpdateCount;
+        final long totalDeleteCount;
+        try {
+            for (ConnectRecord record : records) {
+                if (isNull(record.getData()) && nonNull(statements.deleteStatementBinder)) {
+                    statements.deleteStatementBinder.bindRecord(record);
+                } else if (statements.maxMultiRowNums > 0) {
+                    rows.add(record);
+                } else {
+                    statements.updateStatementBinder.bindRecord(record);
+                }
+            }
+            totalUpdateCount = statements.maxMultiRowNums > 0 ? executeMultiRowUpdates(rows) : executeUpdates();
+            totalDeleteCount = executeDeletes();
+        } catch (SQLException | RuntimeException e) {
+            if (nonNull(statementCache)) {
+                // a failed batch may be left bound to the statements, they are not reused
+                statementCache.invalidate(tableId, fingerprint);
             }
+            throw e;
         }
-        Optional<Long> totalUpdateCount = executeUpdates();
-        long totalDeleteCount = executeDeletes();
         final long expectedCount = updateRecordCount();
         log.trace("{} records:{} resulting in totalUpdateCount:{} totalDeleteCount:{}",
                 config.getInsertMode(),
@@ -211,6 +273,7 @@ public class BufferedRecords {
      */
     private Optional<Long> executeUpdates() throws SQLException {
         Optional<Long> count = Optional.empty();
+        final PreparedStatement updatePreparedStatement = statements.updatePreparedStatement;
         if (nonNull(updatePreparedStatement)) {
             try {
                 for (int updateCount : updatePreparedStatement.executeBatch()) {
@@ -239,8 +302,84 @@ public class BufferedRecords {
         return count;
     }
 
+    /**
+     * Write the rows with multi-row statements.
+     *
+     * @return an optional count of all updated rows or an empty optional if no info is available
+     */
+    private Optional<Long> executeMultiRowUpdates(List<ConnectRecord> rows) throws SQLException {
+        Optional<Long> count = Optional.empty();
+        int offset = 0;
+        while (offset < rows.size()) {
+            int remaining = rows.size() - offset;
+            int rowNums = remaining >= statements.maxMultiRowNums
+                    ? statements.maxMultiRowNums
+                    : Integer.highestOneBit(remaining);
+            PreparedStatement statement = getMultiRowStatement(rowNums);
+            DatabaseDialect.StatementBinder binder = statements.multiRowStatementBinders.get(rowNums);
+            int index = 1;
+            for (int i = 0; i < rowNums; i++) {
+                index = binder.bindRow(rows.get(offset + i), index);
+            }
+            try {
+                int updateCount = statement.executeUpdate();
+                if (updateCount != Statement.SUCCESS_NO_INFO) {
+                    count = Optional.of(count.orElse(0L) + updateCount);
+                }
+            } catch (SQLException e) {
+                log.error("multi-row statement executeUpdate failed, " +
+                                "rows={}, " +
+                                "errCode={}, " +
+                                "sqlState={}, " +
+                                "error msg={}",
+                        rowNums,
+                        e.getErrorCode(),
+                        e.getSQLState(),
+                        e.getMessage()
+                );
+                throw e;
+            }
+            offset += rowNums;
+        }
+        return count;
+    }
+
+    private PreparedStatement getMultiRowStatement(int rowNums) throws SQLException {
+        PreparedStatement statement = statements.multiRowStatements.get(rowNums);
+        if (isNull(statement)) {
+            final String sql = getMultiRowInsertSql(rowNums);
+            log.debug("{} multi-row sql: {}", config.getInsertMode(), sql);
+            statement = dbDialect.createPreparedStatement(connection, sql);
+            statements.multiRowStatements.put(rowNums, statement);
+            statements.multiRowStatementBinders.put(rowNums, dbDialect.statementBinder(
+                    statement,
+                    config.pkMode,
+                    schemaPair,
+                    fieldsMetadata,
+                    dbStructure.tableDefinition(connection, tableId),
+                    config.getInsertMode()
+            ));
+        }
+        return statement;
+    }
+
+    /**
+     * @return max rows of one multi-row statement, 0 if the dialect or the insert mode does not support them
+     */
+    private int getMaxMultiRowNums() {
+        if (!dbDialect.supportsMultiRowStatements()
+                || (config.getInsertMode() != JdbcSinkConfig.InsertMode.INSERT
+                && config.getInsertMode() != JdbcSinkConfig.InsertMode.UPSERT)) {
+            return 0;
+        }
+        int columnNums = Math.max(1, fieldsMetadata.keyFieldNames.size() + fieldsMetadata.nonKeyFieldNames.size());
+        int maxRowNums = Math.min(config.getBatchSize(), MAX_STATEMENT_PARAMS / columnNums);
+        return maxRowNums > 1 ? maxRowNums : 0;
+    }
+
     private long executeDeletes() throws SQLException {
         long totalDeleteCount = 0;
+        final PreparedStatement deletePreparedStatement = statements.deletePreparedStatement;
         if (nonNull(deletePreparedStatement)) {
             for (int updateCount : deletePreparedStatement.executeBatch()) {
                 if (updateCount != Statement.SUCCESS_NO_INFO) {
@@ -260,18 +399,21 @@ public class BufferedRecords {
     }
 
     public void close() throws SQLException {
+        if (isNull(statements)) {
+            return;
+        }
         log.debug(
                 "Closing BufferedRecords with updatePreparedStatement: {} deletePreparedStatement: {}",
-                updatePreparedStatement,
-                deletePreparedStatement
+                statements.updatePreparedStatement,
+                statements.deletePreparedStatement
         );
-        if (nonNull(updatePreparedStatement)) {
-            updatePreparedStatement.close();
-            updatePreparedStatement = null;
-        }
-        if (nonNull(deletePreparedStatement)) {
-            deletePreparedStatement.close();
-            deletePreparedStatement = null;
+        final StatementCache.Statements closed = statements;
+        statements = null;
+        if (nonNull(statementCache)) {
+            // cached statements stay open for the next records of the schema
+            statementCache.release(closed);
+        } else {
+            closed.close();
         }
     }
 
@@ -315,6 +457,23 @@ public class BufferedRecords {
         }
     }
 
+    private String getMultiRowInsertSql(int rowNums) {
+        if (config.getInsertMode() == JdbcSinkConfig.InsertMode.UPSERT) {
+            return dbDialect.buildMultiRowUpsertStatement(
+                    tableId,
+                    asColumns(fieldsMetadata.keyFieldNames),
+                    asColumns(fieldsMetadata.nonKeyFieldNames),
+                    rowNums
+            );
+        }
+        return dbDialect.buildMultiRowInsertStatement(
+                tableId,
+                asColumns(fieldsMetadata.keyFieldNames),
+                asColumns(fieldsMetadata.nonKeyFieldNames),
+                rowNums
+        );
+    }
+
     private String getDeleteSql() {
         String sql = null;
         if (config.isDeleteEnabled()) {
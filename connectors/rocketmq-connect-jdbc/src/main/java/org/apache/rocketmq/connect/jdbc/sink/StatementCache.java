@@ -0,0 +1,241 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.connect.jdbc.sink;
+
+import io.openmessaging.connector.api.data.Field;
+import io.openmessaging.connector.api.data.Schema;
+import org.apache.rocketmq.connect.jdbc.dialect.DatabaseDialect;
+import org.apache.rocketmq.connect.jdbc.schema.table.TableId;
+import org.apache.rocketmq.connect.jdbc.sink.metadata.FieldsMetadata;
+import org.apache.rocketmq.connect.jdbc.sink.metadata.SchemaPair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * LRU cache of the prepared statements of one connection, keyed by table and schema fingerprint, so records that
+ * alternate between a few schema versions of a table reuse the statements of each version instead of preparing them
+ * again at every schema change. The statements of an evicted entry are closed once no buffer uses them. A connection
+ * is used by one thread at a time, so is its cache.
+ */
+public class StatementCache {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementCache.class);
+
+    private final Connection connection;
+    private final Map<Key, Statements> statements;
+
+    public StatementCache(Connection connection, int maxSize) {
+        this.connection = connection;
+        this.statements = new LinkedHashMap<Key, Statements>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Statements> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                log.debug("Evicting statements of table {} schema {}", eldest.getKey().tableId,
+                        eldest.getKey().fingerprint);
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    public Connection connection() {
+        return connection;
+    }
+
+    /**
+     * take the statements of the table and schema, release them once they are not used
+     *
+     * @return the statements, null if they are not cached
+     */
+    public Statements acquire(TableId tableId, String fingerprint) {
+        Statements cached = statements.get(new Key(tableId, fingerprint));
+        if (cached != null) {
+            cached.users++;
+        }
+        return cached;
+    }
+
+    /**
+     * cache the prepared statements of the table and schema, taken by the caller until it releases them
+     */
+    public void put(TableId tableId, String fingerprint, Statements prepared) {
+        prepared.users++;
+        Statements replaced = statements.put(new Key(tableId, fingerprint), prepared);
+        if (replaced != null && replaced != prepared) {
+            replaced.evict();
+        }
+    }
+
+    /**
+     * drop the statements of the table and schema, they are closed once no buffer uses them
+     */
+    public void invalidate(TableId tableId, String fingerprint) {
+        Statements removed = statements.remove(new Key(tableId, fingerprint));
+        if (removed != null) {
+            removed.evict();
+        }
+    }
+
+    public void release(Statements used) {
+        used.users--;
+        if (used.evicted && used.users == 0) {
+            used.closeQuietly();
+        }
+    }
+
+    public boolean isConnectionClosed() {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    public void close() {
+        for (Statements cached : statements.values()) {
+            cached.evict();
+        }
+        statements.clear();
+    }
+
+    /**
+     * fingerprint of the structure of a schema, schemas with the same fields bind their records the same way
+     */
+    public static String fingerprint(Schema schema) {
+        StringBuilder builder = new StringBuilder();
+        appendFingerprint(builder, schema);
+        return builder.toString();
+    }
+
+    private static void appendFingerprint(StringBuilder builder, Schema schema) {
+        if (schema == null) {
+            builder.append("null");
+            return;
+        }
+        builder.append(schema.getName()).append(':').append(schema.getFieldType());
+        if (schema.getFields() != null) {
+            builder.append('{');
+            for (Field field : schema.getFields()) {
+                builder.append(field.getIndex()).append(' ').append(field.getName()).append(' ');
+                appendFingerprint(builder, field.getSchema());
+                builder.append(',');
+            }
+            builder.append('}');
+        }
+    }
+
+    /**
+     * statements of one table and schema version with the metadata they were built from
+     */
+    public static class Statements {
+        final SchemaPair schemaPair;
+        final FieldsMetadata fieldsMetadata;
+        final int maxMultiRowNums;
+        final PreparedStatement updatePreparedStatement;
+        final PreparedStatement deletePreparedStatement;
+        final DatabaseDialect.StatementBinder updateStatementBinder;
+        final DatabaseDialect.StatementBinder deleteStatementBinder;
+        final Map<Integer, PreparedStatement> multiRowStatements = new HashMap<>();
+        final Map<Integer, DatabaseDialect.StatementBinder> multiRowStatementBinders = new HashMap<>();
+        private int users;
+        private boolean evicted;
+
+        Statements(
+                SchemaPair schemaPair,
+                FieldsMetadata fieldsMetadata,
+                int maxMultiRowNums,
+                PreparedStatement updatePreparedStatement,
+                DatabaseDialect.StatementBinder updateStatementBinder,
+                PreparedStatement deletePreparedStatement,
+                DatabaseDialect.StatementBinder deleteStatementBinder
+        ) {
+            this.schemaPair = schemaPair;
+            this.fieldsMetadata = fieldsMetadata;
+            this.maxMultiRowNums = maxMultiRowNums;
+            this.updatePreparedStatement = updatePreparedStatement;
+            this.updateStatementBinder = updateStatementBinder;
+            this.deletePreparedStatement = deletePreparedStatement;
+            this.deleteStatementBinder = deleteStatementBinder;
+        }
+
+        private void evict() {
+            evicted = true;
+            if (users == 0) {
+                closeQuietly();
+            }
+        }
+
+        void close() throws SQLException {
+            if (updatePreparedStatement != null) {
+                updatePreparedStatement.close();
+            }
+            if (deletePreparedStatement != null) {
+                deletePreparedStatement.close();
+            }
+            for (PreparedStatement statement : multiRowStatements.values()) {
+                statement.close();
+            }
+            multiRowStatements.clear();
+            multiRowStatementBinders.clear();
+        }
+
+        private void closeQuietly() {
+            try {
+                close();
+            } catch (SQLException e) {
+                log.warn("Failed to close the cached statements", e);
+            }
+        }
+    }
+
+    private static final class Key {
+        private final TableId tableId;
+        private final String fingerprint;
+
+        Key(TableId tableId, String fingerprint) {
+            this.tableId = tableId;
+            this.fingerprint = fingerprint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return Objects.equals(tableId, that.tableId) && Objects.equals(fingerprint, that.fingerprint);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(tableId, fingerprint);
+        }
+    }
+}
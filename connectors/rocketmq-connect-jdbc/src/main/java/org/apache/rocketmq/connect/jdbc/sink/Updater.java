@@ -17,6 +17,7 @@
 package org.apache.rocketmq.connect.jdbc.sink;
 
 import io.openmessaging.connector.api.data.ConnectRecord;
+import org.apache.rocketmq.common.ThreadFactoryImpl;
 import org.apache.rocketmq.connect.jdbc.connector.JdbcSinkConfig;
 import org.apache.rocketmq.connect.jdbc.dialect.DatabaseDialect;
 import org.apache.rocketmq.connect.jdbc.dialect.provider.CachedConnectionProvider;
@@ -28,9 +29,19 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * jdbc db updater
@@ -43,6 +54,18 @@ public class Updater {
     private final DbStructure dbStructure;
     final CachedConnectionProvider cachedConnectionProvider;
 
+    /**
+     * Connections of the parallel flush, the first one is {@link #cachedConnectionProvider}. Empty when the tables are
+     * flushed one after another.
+     */
+    private final List<CachedConnectionProvider> flushConnectionProviders = new ArrayList<>();
+    private final ExecutorService flushExecutor;
+
+    /**
+     * Statement caches of the connections in use, empty when statements are prepared again at every write.
+     */
+    private final Map<Connection, StatementCache> statementCaches = new ConcurrentHashMap<>();
+
     public Updater(final JdbcSinkConfig config, DatabaseDialect dbDialect, DbStructure dbStructure) {
         this.config = config;
         this.dbDialect = dbDialect;
@@ -52,6 +75,18 @@ public class Updater {
                 config.getAttempts(),
                 config.getRetryBackoffMs()
         );
+        if (config.isParallelFlushEnabled()) {
+            flushConnectionProviders.add(cachedConnectionProvider);
+            for (int i = 1; i < config.getParallelFlushMaxConnections(); i++) {
+                flushConnectionProviders.add(connectionProvider(config.getAttempts(), config.getRetryBackoffMs()));
+            }
+            this.flushExecutor = Executors.newFixedThreadPool(
+                    flushConnectionProviders.size(),
+                    new ThreadFactoryImpl("JdbcSinkFlushThread_")
+            );
+        } else {
+            this.flushExecutor = null;
+        }
     }
 
     protected CachedConnectionProvider connectionProvider(int maxConnAttempts, long retryBackoff) {
@@ -65,9 +100,13 @@ public class Updater {
 
     public void write(final Collection<ConnectRecord> records)
             throws SQLException, TableAlterOrCreateException {
+        if (flushExecutor != null) {
+            writeParallel(records);
+            return;
+        }
         final Connection connection = cachedConnectionProvider.getConnection();
+        final Map<TableId, BufferedRecords> bufferByTable = new HashMap<>();
         try {
-            final Map<TableId, BufferedRecords> bufferByTable = new HashMap<>();
             for (ConnectRecord record : records) {
                 // destination table
                 final TableId tableId = destinationTable(record);
@@ -76,7 +115,8 @@ public class Updater {
                 }
                 BufferedRecords buffer = bufferByTable.get(tableId);
                 if (buffer == null) {
-                    buffer = new BufferedRecords(config, tableId, dbDialect, dbStructure, connection);
+                    buffer = new BufferedRecords(config, tableId, dbDialect, dbStructure, connection,
+                            statementCache(connection));
                     bufferByTable.put(tableId, buffer);
                 }
                 buffer.add(record);
@@ -91,10 +131,174 @@ public class Updater {
             connection.commit();
         } catch (SQLException | TableAlterOrCreateException e) {
             connection.rollback();
+        } finally {
+            for (BufferedRecords buffer : bufferByTable.values()) {
+                closeQuietly(buffer);
+            }
         }
     }
 
+    /**
+     * Flush the tables concurrently, each connection takes the next table once it flushed the previous one, so the
+     * records of a table are written in order over a single connection. The connections are committed after every
+     * table was flushed, or all rolled back if any table failed, and the failures are thrown to retry the records.
+     * Every connection is acquired before the first table is flushed, so a failed connect leaves nothing to roll back.
+     * The commits are not atomic across connections, a failed commit leaves the tables committed before it written and
+     * the retry writes them again, which is why parallel flush is only allowed with the upsert and update modes.
+     *
+     * @param records
+     * @throws SQLException
+     * @throws TableAlterOrCreateException
+     */
+    private void writeParallel(final Collection<ConnectRecord> records)
+            throws SQLException, TableAlterOrCreateException {
+        final Map<TableId, List<ConnectRecord>> recordsByTable = new LinkedHashMap<>();
+        for (ConnectRecord record : records) {
+            // destination table
+            final TableId tableId = destinationTable(record);
+            if (!config.filterWhiteTable(dbDialect, tableId)) {
+                continue;
+            }
+            recordsByTable.computeIfAbsent(tableId, k -> new ArrayList<>()).add(record);
+        }
+        if (recordsByTable.isEmpty()) {
+            return;
+        }
+        final Queue<Map.Entry<TableId, List<ConnectRecord>>> pendingTables =
+                new ConcurrentLinkedQueue<>(recordsByTable.entrySet());
+        final int connectionNums = Math.min(flushConnectionProviders.size(), recordsByTable.size());
+        final List<Connection> connections = new ArrayList<>(connectionNums);
+        final List<Future<Void>> futures = new ArrayList<>(connectionNums);
+        for (int i = 0; i < connectionNums; i++) {
+            connections.add(flushConnectionProviders.get(i).getConnection());
+        }
+        for (final Connection connection : connections) {
+            futures.add(flushExecutor.submit(() -> {
+                Map.Entry<TableId, List<ConnectRecord>> entry;
+                while ((entry = pendingTables.poll()) != null) {
+                    flushTable(connection, entry.getKey(), entry.getValue());
+                }
+                return null;
+            }));
+        }
+
+        final List<Throwable> failures = new ArrayList<>();
+        boolean interrupted = false;
+        for (Future<Void> future : futures) {
+            // wait for every connection, a connection must not be rolled back while it is flushing
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        for (Connection connection : connections) {
+            try {
+                if (failures.isEmpty()) {
+                    connection.commit();
+                } else {
+                    connection.rollback();
+                }
+            } catch (SQLException e) {
+                log.error("Failed to {} the flushed tables", failures.isEmpty() ? "commit" : "roll back", e);
+                failures.add(e);
+            }
+        }
+        for (Throwable failure : failures) {
+            // a table that can not be created or altered is not retried
+            if (failure instanceof TableAlterOrCreateException) {
+                throw (TableAlterOrCreateException) failure;
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw writeFailure(failures, recordsByTable.size());
+        }
+    }
+
+    private void flushTable(Connection connection, TableId tableId, List<ConnectRecord> records)
+            throws SQLException {
+        BufferedRecords buffer = new BufferedRecords(config, tableId, dbDialect, dbStructure, connection,
+                statementCache(connection));
+        try {
+            for (ConnectRecord record : records) {
+                buffer.add(record);
+            }
+            log.debug("Flushing records in JDBC Writer for table ID: {}", tableId);
+            buffer.flush();
+            buffer.close();
+        } finally {
+            closeQuietly(buffer);
+        }
+    }
+
+    private void closeQuietly(BufferedRecords buffer) {
+        try {
+            buffer.close();
+        } catch (SQLException e) {
+            log.warn("Failed to close the statements of the buffered records", e);
+        }
+    }
+
+    /**
+     * The statement cache of the connection, caches of connections closed by a reconnect are dropped.
+     *
+     * @return null if the statements are not cached
+     */
+    private StatementCache statementCache(Connection connection) {
+        if (config.getStatementCacheSize() <= 0) {
+            return null;
+        }
+        StatementCache cache = statementCaches.get(connection);
+        if (cache == null) {
+            for (StatementCache stale : statementCaches.values()) {
+                if (stale.isConnectionClosed()) {
+                    statementCaches.remove(stale.connection());
+                    stale.close();
+                }
+            }
+            cache = new StatementCache(connection, config.getStatementCacheSize());
+            statementCaches.put(connection, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Combine the failures of a parallel flush into one exception chain.
+     */
+    private SQLException writeFailure(List<Throwable> failures, int tableNums) {
+        SQLException sqlException = new SQLException(
+                String.format("Parallel flush of %d tables failed with %d errors", tableNums, failures.size()),
+                failures.get(0)
+        );
+        for (Throwable failure : failures) {
+            sqlException.setNextException(failure instanceof SQLException
+                    ? (SQLException) failure
+                    : new SQLException(failure));
+        }
+        return sqlException;
+    }
+
     public void closeQuietly() {
+        if (flushExecutor != null) {
+            flushExecutor.shutdown();
+        }
+        for (StatementCache cache : statementCaches.values()) {
+            cache.close();
+        }
+        statementCaches.clear();
+        for (CachedConnectionProvider provider : flushConnectionProviders) {
+            provider.close();
+        }
         cachedConnectionProvider.close();
     }
 
@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.connect.jdbc.source;
+
+import io.openmessaging.connector.api.data.ConnectRecord;
+import io.openmessaging.connector.api.errors.ConnectException;
+import org.apache.rocketmq.common.ThreadFactoryImpl;
+import org.apache.rocketmq.connect.jdbc.dialect.provider.CachedConnectionProvider;
+import org.apache.rocketmq.connect.jdbc.source.querier.Querier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs the queriers of a source task on a bounded thread pool. Every querier runs again once the poll interval passed
+ * since its last run ended, a run reads the whole result set into a bounded queue that poll drains, so a full queue
+ * holds the queries back. A querier never runs on two threads at once, so the records of a table are queued in order.
+ * Each thread queries over its own connection.
+ */
+public class QuerierScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(QuerierScheduler.class);
+
+    private static final long OFFER_TIMEOUT_MS = 100;
+
+    private static final long STOP_TIMEOUT_MS = 5000;
+
+    private final List<Querier> queriers;
+    private final int pollIntervalMs;
+    private final BlockingQueue<ConnectRecord> records;
+    private final ScheduledExecutorService executor;
+    private final Supplier<CachedConnectionProvider> connectionProviderFactory;
+    private final List<CachedConnectionProvider> connectionProviders = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<CachedConnectionProvider> connectionProvider;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean running;
+
+    public QuerierScheduler(
+            List<Querier> queriers,
+            Supplier<CachedConnectionProvider> connectionProviderFactory,
+            int threadNums,
+            int pollIntervalMs,
+            int queueSize
+    ) {
+        this.queriers = new ArrayList<>(queriers);
+        this.connectionProviderFactory = connectionProviderFactory;
+        this.pollIntervalMs = pollIntervalMs;
+        this.records = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        this.executor = Executors.newScheduledThreadPool(
+                Math.max(1, threadNums),
+                new ThreadFactoryImpl("JdbcSourceQuerierThread_")
+        );
+        this.connectionProvider = ThreadLocal.withInitial(() -> {
+            CachedConnectionProvider provider = this.connectionProviderFactory.get();
+            connectionProviders.add(provider);
+            return provider;
+        });
+    }
+
+    public void start() {
+        running = true;
+        for (Querier querier : queriers) {
+            executor.scheduleWithFixedDelay(() -> run(querier), 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("Started {} queriers on the querier threads", queriers.size());
+    }
+
+    /**
+     * Take the queried records, waiting for the first one up to the given time.
+     *
+     * @param batchMaxRows
+     * @param timeoutMs
+     * @return up to batchMaxRows records, null if none was queried in time
+     * @throws InterruptedException
+     */
+    public List<ConnectRecord> poll(int batchMaxRows, long timeoutMs) throws InterruptedException {
+        Throwable t = failure.getAndSet(null);
+        if (t != null) {
+            throw new ConnectException(t);
+        }
+        ConnectRecord first = records.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return null;
+        }
+        List<ConnectRecord> results = new ArrayList<>(Math.min(batchMaxRows, records.size() + 1));
+        results.add(first);
+        records.drainTo(results, batchMaxRows - 1);
+        return results;
+    }
+
+    /**
+     * Stop scheduling, wait for the running queries and close the connections. Records not polled yet are dropped,
+     * their offsets were not committed.
+     */
+    public void stop() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(STOP_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        for (CachedConnectionProvider provider : connectionProviders) {
+            provider.close();
+        }
+        connectionProviders.clear();
+        records.clear();
+    }
+
+    /**
+     * run the querier, again right away while it has a pending query such as the next chunk of a bulk table
+     */
+    private void run(Querier querier) {
+        while (running && runOnce(querier) && querier.hasPendingQuery()) {
+            log.debug("Running pending query of {}", querier);
+        }
+    }
+
+    /**
+     * @return true if the query read its whole result set
+     */
+    private boolean runOnce(Querier querier) {
+        if (!running) {
+            return false;
+        }
+        try {
+            log.debug("Checking for next block of results from {}", querier);
+            querier.maybeStartQuery(connectionProvider.get());
+            while (running && querier.hasNext()) {
+                ConnectRecord record = querier.extractRecord();
+                while (!records.offer(record, OFFER_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                    if (!running) {
+                        return false;
+                    }
+                }
+            }
+            return running;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            // thrown by the next poll, the querier runs again after the interval
+            log.error("Failed to run query for table {}", querier, t);
+            failure.compareAndSet(null, t);
+        } finally {
+            querier.reset(running ? System.currentTimeMillis() : 0);
+        }
+        return false;
+    }
+}
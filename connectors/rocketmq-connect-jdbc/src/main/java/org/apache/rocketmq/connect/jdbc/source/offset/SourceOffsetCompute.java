@@ -107,7 +107,7 @@ public class SourceOffsetCompute {
         Querier.QueryMode queryMode = !StringUtils.isEmpty(query) ? Querier.QueryMode.QUERY : Querier.QueryMode.TABLE;
 
         // step 1 -——-- compute partitions
-        Map<String, RecordPartition> partitionsByTableFqn = buildTablePartitions(mode, queryMode, tables, dialect, config.getOffsetSuffix(), config.getTopicPrefix());
+        Map<String, RecordPartition> partitionsByTableFqn = buildTablePartitions(mode, queryMode, tables, dialect, config.getOffsetSuffix(), config.getTopicPrefix(), config.getBulkChunkSize() > 0);
         // step 2 ----- get last time offset
         Map<RecordPartition, RecordOffset> offsets = null;
         if (partitionsByTableFqn != null) {
@@ -166,7 +166,7 @@ public class SourceOffsetCompute {
                     throw new ConnectException("Unexpected query mode: " + queryMode);
             }
             Map<String, Object> offset = null;
-            if (offsets != null && tablePartitionsToCheck != null) {
+            if (offsets != null && tablePartitionsToCheck != null && offsets.get(tablePartitionsToCheck) != null) {
                 offset = (Map<String, Object>) offsets.get(tablePartitionsToCheck).getOffset();
             }
             offset = computeInitialOffset(
@@ -296,6 +296,7 @@ public class SourceOffsetCompute {
      * @param queryMode
      * @param tables
      * @param dialect
+     * @param bulkChunked whether the bulk mode keeps the last key read in the offset
      * @return
      */
     private static Map<String, RecordPartition> buildTablePartitions(
@@ -303,10 +304,13 @@ public class SourceOffsetCompute {
             Querier.QueryMode queryMode,
             List<String> tables,
             DatabaseDialect dialect,
-            String offsetSuffix, String topicPrefix) {
+            String offsetSuffix, String topicPrefix,
+            boolean bulkChunked) {
 
         Map<String, RecordPartition> partitionsByTableFqn = new HashMap<>();
-        if (tableLoadMode == JdbcSourceConfig.TableLoadMode.MODE_INCREMENTING
+        if (tableLoadMode == JdbcSourceConfig.TableLoadMode.MODE_BULK && bulkChunked
+                && queryMode == Querier.QueryMode.TABLE
+                || tableLoadMode == JdbcSourceConfig.TableLoadMode.MODE_INCREMENTING
                 || tableLoadMode == JdbcSourceConfig.TableLoadMode.MODE_TIMESTAMP
                 || tableLoadMode == JdbcSourceConfig.TableLoadMode.MODE_TIMESTAMP_INCREMENTING) {
             switch (queryMode) {
@@ -66,7 +66,8 @@ public class TimestampIncrementingOffset {
             return new TimestampIncrementingOffset(null, null);
         }
 
-        Long incr = Long.valueOf(map.get(INCREMENTING_FIELD).toString());
+        Object incrValue = map.get(INCREMENTING_FIELD);
+        Long incr = incrValue == null ? null : Long.valueOf(incrValue.toString());
         Long millis = (Long) map.get(TIMESTAMP_FIELD);
         Timestamp ts = null;
         if (millis != null) {
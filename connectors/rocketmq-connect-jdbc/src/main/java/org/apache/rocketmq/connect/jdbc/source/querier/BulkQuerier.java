@@ -23,25 +23,57 @@ import io.openmessaging.connector.api.data.Schema;
 import io.openmessaging.connector.api.errors.ConnectException;
 import org.apache.rocketmq.connect.jdbc.common.JdbcSourceConfigConstants;
 import org.apache.rocketmq.connect.jdbc.dialect.DatabaseDialect;
+import org.apache.rocketmq.connect.jdbc.dialect.provider.CachedConnectionProvider;
+import org.apache.rocketmq.connect.jdbc.schema.column.ColumnDefinition;
+import org.apache.rocketmq.connect.jdbc.schema.table.TableId;
 import org.apache.rocketmq.connect.jdbc.source.metadata.SchemaMapping;
+import org.apache.rocketmq.connect.jdbc.source.offset.SourceOffsetCompute;
 import org.apache.rocketmq.connect.jdbc.util.ExpressionBuilder;
+import org.apache.rocketmq.connect.jdbc.util.QuoteMethod;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 
 /**
- * bulk mode
+ * bulk mode, a table is read with one query or, when a chunk size is set, in primary key order by keyset queries of
+ * up to chunk size rows. The key of the last row read is kept in the record offset, so a restarted task goes on after
+ * it instead of reading the table from the start. Key values that do not survive the json round trip of the offset,
+ * timestamps, dates, times and decimals, are kept as strings and bound back with the sql type of their column.
  */
 public class BulkQuerier extends Querier {
     private static final Logger log = LoggerFactory.getLogger(BulkQuerier.class);
 
+    /**
+     * prefix of the offset fields holding the key of the last row read
+     */
+    public static final String LAST_KEY_FIELD_PREFIX = "bulk.key.";
+
+    private final int chunkSize;
+    private boolean chunked;
+    private List<String> keyColumns;
+    // sql type of each key column
+    private Map<String, Integer> keyTypes;
+    // key of the last row read, null at the start of a pass over the table
+    private Map<String, Object> lastKey;
+    private int chunkRows;
+    private boolean chunkPending;
+
     public BulkQuerier(
             DatabaseDialect dialect,
             QueryMode mode,
@@ -49,12 +81,58 @@ public class BulkQuerier extends Querier {
             String topicPrefix,
             String suffix,
             String offsetSuffix
+    ) {
+        this(dialect, mode, name, topicPrefix, suffix, offsetSuffix, 0, null);
+    }
+
+    public BulkQuerier(
+            DatabaseDialect dialect,
+            QueryMode mode,
+            String name,
+            String topicPrefix,
+            String suffix,
+            String offsetSuffix,
+            int chunkSize,
+            Map<String, Object> offset
     ) {
         super(dialect, mode, name, topicPrefix, suffix, offsetSuffix);
+        this.chunkSize = chunkSize;
+        this.chunked = chunkSize > 0 && mode == QueryMode.TABLE;
+        if (chunked) {
+            this.lastKey = lastKey(offset);
+        }
+    }
+
+    /**
+     * the last key stored in the offset, null if the offset has none
+     */
+    private static Map<String, Object> lastKey(Map<String, Object> offset) {
+        if (offset == null) {
+            return null;
+        }
+        Map<String, Object> key = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : offset.entrySet()) {
+            if (entry.getKey().startsWith(LAST_KEY_FIELD_PREFIX)) {
+                key.put(entry.getKey().substring(LAST_KEY_FIELD_PREFIX.length()), entry.getValue());
+            }
+        }
+        return key.isEmpty() ? null : key;
     }
 
     @Override
     protected void createPreparedStatement(Connection db) throws SQLException {
+        if (chunked && keyColumns == null) {
+            keyColumns = primaryKeyColumns(db);
+            if (keyColumns.isEmpty()) {
+                log.warn("Table {} has no primary key, it is read with one query instead of chunks of {} rows",
+                        tableId, chunkSize);
+                chunked = false;
+            } else if (lastKey != null && !lastKey.keySet().containsAll(keyColumns)) {
+                log.warn("Offset key {} does not match the primary key {} of table {}, reading it from the start",
+                        lastKey, keyColumns, tableId);
+                lastKey = null;
+            }
+        }
         ExpressionBuilder builder = dialect.expressionBuilder();
         switch (mode) {
             case TABLE:
@@ -66,15 +144,116 @@ public class BulkQuerier extends Querier {
             default:
                 throw new ConnectException("Unknown mode: " + mode);
         }
+        if (chunked) {
+            keysetClause(builder);
+        }
 
         String queryStr = builder.toString();
         recordQuery(queryStr);
         log.debug("{} prepared SQL query: {}", this, queryStr);
         stmt = dialect.createPreparedStatement(db, queryStr);
+        if (chunked) {
+            stmt.setMaxRows(chunkSize);
+        }
+    }
+
+    /**
+     * the primary key columns in the order of the key, the sequence reported by the database metadata
+     */
+    private List<String> primaryKeyColumns(Connection db) throws SQLException {
+        String table = ExpressionBuilder.create().append(tableId, QuoteMethod.NEVER).toString();
+        keyTypes = new HashMap<>();
+        TableId keyTable = null;
+        for (ColumnDefinition defn : dialect.describeColumns(db, table, null).values()) {
+            if (defn.isPrimaryKey()) {
+                keyTypes.put(defn.id().name(), defn.type());
+                keyTable = defn.tableId();
+            }
+        }
+        List<String> columns = new ArrayList<>(keyTypes.keySet());
+        if (keyTable == null) {
+            return columns;
+        }
+        Map<String, Integer> keySeqs = new HashMap<>();
+        try (ResultSet rs = db.getMetaData().getPrimaryKeys(
+                keyTable.catalogName(), keyTable.schemaName(), keyTable.tableName())) {
+            while (rs.next()) {
+                keySeqs.put(rs.getString(4), rs.getInt(5));
+            }
+        }
+        columns.sort(Comparator.comparing((String column) -> keySeqs.getOrDefault(column, Integer.MAX_VALUE))
+                .thenComparing(Comparator.naturalOrder()));
+        return columns;
+    }
+
+    /**
+     * rows after the last key in key order, as (k1 > ?) OR (k1 = ? AND k2 > ?) ... for a composite key
+     */
+    private void keysetClause(ExpressionBuilder builder) {
+        if (lastKey != null) {
+            builder.append(" WHERE ");
+            for (int i = 0; i < keyColumns.size(); i++) {
+                if (i > 0) {
+                    builder.append(" OR ");
+                }
+                builder.append("(");
+                for (int j = 0; j < i; j++) {
+                    builder.appendColumnName(keyColumns.get(j)).append(" = ? AND ");
+                }
+                builder.appendColumnName(keyColumns.get(i)).append(" > ?)");
+            }
+        }
+        builder.append(" ORDER BY ");
+        for (int i = 0; i < keyColumns.size(); i++) {
+            if (i > 0) {
+                builder.append(",");
+            }
+            builder.appendColumnName(keyColumns.get(i)).append(" ASC");
+        }
+    }
+
+    @Override
+    public void maybeStartQuery(CachedConnectionProvider provider) throws SQLException {
+        if (resultSet == null) {
+            chunkPending = false;
+            chunkRows = 0;
+        }
+        super.maybeStartQuery(provider);
+    }
+
+    /**
+     * whether the last chunk was full, so the next one is read without waiting for the poll interval
+     */
+    @Override
+    public boolean hasPendingQuery() {
+        return chunkPending;
+    }
+
+    @Override
+    public boolean hasNext() throws SQLException {
+        boolean hasNext = super.hasNext();
+        if (!hasNext && chunked) {
+            // a chunk shorter than the chunk size ends the pass, the next one starts from the first key
+            chunkPending = chunkRows >= chunkSize;
+            if (!chunkPending) {
+                lastKey = null;
+            }
+        }
+        return hasNext;
     }
 
     @Override
     protected ResultSet executeQuery() throws SQLException {
+        if (chunked && lastKey != null) {
+            int index = 1;
+            for (int i = 0; i < keyColumns.size(); i++) {
+                for (int j = 0; j <= i; j++) {
+                    String column = keyColumns.get(j);
+                    int type = keyTypes.get(column);
+                    stmt.setObject(index++, decodeKey(type, lastKey.get(column)), type);
+                }
+            }
+        }
         log.info("Bulk executeQuery {}", stmt);
         long begin = System.currentTimeMillis();
         ResultSet resultSet = stmt.executeQuery();
@@ -97,6 +276,9 @@ public class BulkQuerier extends Querier {
                 throw new SQLException(e);
             }
         }
+        if (chunked) {
+            return extractChunkRecord(schema, payload);
+        }
         // TODO: key from primary key? partition?
         final String topic;
         final Map<String, String> partition = new HashMap<>();
@@ -130,10 +312,78 @@ public class BulkQuerier extends Querier {
         return record;
     }
 
+    private ConnectRecord extractChunkRecord(Schema schema, Object[] payload) throws SQLException {
+        Map<String, Object> key = new LinkedHashMap<>();
+        Map<String, Object> offset = new HashMap<>();
+        for (String column : keyColumns) {
+            Object value = encodeKey(keyTypes.get(column), column);
+            key.put(column, value);
+            offset.put(LAST_KEY_FIELD_PREFIX + column, value);
+        }
+        lastKey = key;
+        chunkRows++;
+        return new ConnectRecord(
+                new RecordPartition(SourceOffsetCompute.sourcePartitions(topicPrefix, tableId, offsetSuffix)),
+                new RecordOffset(offset),
+                System.currentTimeMillis(),
+                schema,
+                payload
+        );
+    }
+
+    /**
+     * the key value of the current row as it is stored in the offset
+     */
+    private Object encodeKey(int type, String column) throws SQLException {
+        switch (type) {
+            case Types.TIMESTAMP:
+                Timestamp timestamp = resultSet.getTimestamp(column);
+                return timestamp == null ? null : timestamp.getTime() + ":" + timestamp.getNanos();
+            case Types.DATE:
+                Date date = resultSet.getDate(column);
+                return date == null ? null : String.valueOf(date.getTime());
+            case Types.TIME:
+                Time time = resultSet.getTime(column);
+                return time == null ? null : String.valueOf(time.getTime());
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                BigDecimal decimal = resultSet.getBigDecimal(column);
+                return decimal == null ? null : decimal.toString();
+            default:
+                return resultSet.getObject(column);
+        }
+    }
+
+    /**
+     * the key value to bind from its offset form
+     */
+    private static Object decodeKey(int type, Object value) {
+        if (value == null) {
+            return null;
+        }
+        switch (type) {
+            case Types.TIMESTAMP:
+                String encoded = value.toString();
+                int separator = encoded.indexOf(':');
+                Timestamp timestamp = new Timestamp(Long.parseLong(encoded.substring(0, separator)));
+                timestamp.setNanos(Integer.parseInt(encoded.substring(separator + 1)));
+                return timestamp;
+            case Types.DATE:
+                return new Date(Long.parseLong(value.toString()));
+            case Types.TIME:
+                return new Time(Long.parseLong(value.toString()));
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return new BigDecimal(value.toString());
+            default:
+                return value;
+        }
+    }
+
     @Override
     public String toString() {
         return "BulkTableQuerier{" + "table='" + tableId + '\'' + ", query='" + query + '\''
-                + ", topicPrefix='" + topicPrefix + '\'' + '}';
+                + ", topicPrefix='" + topicPrefix + '\'' + ", chunkSize=" + chunkSize + '}';
     }
 
 }
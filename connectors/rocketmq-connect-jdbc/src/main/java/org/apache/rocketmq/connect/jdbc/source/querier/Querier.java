@@ -89,6 +89,13 @@ public abstract class Querier {
         return resultSet != null;
     }
 
+    /**
+     * whether the next query is due right after the last one, without waiting for the poll interval
+     */
+    public boolean hasPendingQuery() {
+        return false;
+    }
+
     public void maybeStartQuery(CachedConnectionProvider provider) throws SQLException {
         if (resultSet == null) {
             this.db = provider.getConnection();
@@ -0,0 +1,30 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.connect.jdbc;
+
+import org.junit.Assume;
+
+public class TestUtils {
+
+    /**
+     * Skip a test that compares timings or memory unless it runs with {@code -Dconnect.benchmark=true}, the results
+     * depend on the machine and the load of the build host.
+     */
+    public static void assumeBenchmark() {
+        Assume.assumeTrue("benchmark, run with -Dconnect.benchmark=true", Boolean.getBoolean("connect.benchmark"));
+    }
+}
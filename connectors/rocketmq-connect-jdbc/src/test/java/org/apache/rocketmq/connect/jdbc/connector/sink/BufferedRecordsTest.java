@@ -0,0 +1,244 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.connect.jdbc.connector.sink;
+
+import io.openmessaging.KeyValue;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import io.openmessaging.connector.api.data.Field;
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import io.openmessaging.connector.api.data.Schema;
+import io.openmessaging.connector.api.data.SchemaBuilder;
+import io.openmessaging.internal.DefaultKeyValue;
+import org.apache.rocketmq.connect.jdbc.TestUtils;
+import org.apache.rocketmq.connect.jdbc.connector.JdbcSinkConfig;
+import org.apache.rocketmq.connect.jdbc.dialect.impl.MySqlDatabaseDialect;
+import org.apache.rocketmq.connect.jdbc.schema.column.ColumnId;
+import org.apache.rocketmq.connect.jdbc.schema.db.DbStructure;
+import org.apache.rocketmq.connect.jdbc.schema.table.TableId;
+import org.apache.rocketmq.connect.jdbc.sink.BufferedRecords;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Multi-row statements of the sink, written to an in-memory H2 database in MySQL mode.
+ */
+public class BufferedRecordsTest {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:buffered_records;MODE=MySQL;DATABASE_TO_LOWER=TRUE";
+    private static final String TABLE_NAME = "sink_table";
+    private static final int COLUMN_NUMS = 5;
+
+    private Connection connection;
+    private Schema schema;
+
+    @Before
+    public void before() throws SQLException {
+        connection = DriverManager.getConnection(JDBC_URL);
+        schema = SchemaBuilder.struct().name(TABLE_NAME).build();
+        schema.addField(new Field(0, "id", SchemaBuilder.int32().build()));
+        for (int i = 1; i < COLUMN_NUMS; i++) {
+            schema.addField(new Field(i, "c" + i, SchemaBuilder.int32().build()));
+        }
+    }
+
+    @After
+    public void after() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("drop table if exists " + TABLE_NAME);
+        }
+        connection.close();
+    }
+
+    @Test
+    public void testMultiRowStatements() {
+        MySqlDatabaseDialect dialect = new MySqlDatabaseDialect(buildConfig("insert", 10));
+        TableId tableId = new TableId(null, null, TABLE_NAME);
+        ColumnId id = new ColumnId(tableId, "id");
+        ColumnId c1 = new ColumnId(tableId, "c1");
+        assertEquals(
+                "INSERT INTO \"sink_table\"(\"id\",\"c1\") VALUES(?,?),(?,?),(?,?)",
+                dialect.buildMultiRowInsertStatement(tableId, Arrays.asList(id), Arrays.asList(c1), 3)
+        );
+        assertEquals(
+                "insert into \"sink_table\"(\"id\",\"c1\") values(?,?),(?,?) "
+                        + "on duplicate key update \"c1\"=values(\"c1\")",
+                dialect.buildMultiRowUpsertStatement(tableId, Arrays.asList(id), Arrays.asList(c1), 2)
+        );
+        // the single-row statements are the multi-row ones of one row
+        assertEquals(
+                "INSERT INTO \"sink_table\"(\"id\",\"c1\") VALUES(?,?)",
+                dialect.buildInsertStatement(tableId, Arrays.asList(id), Arrays.asList(c1))
+        );
+        assertEquals(
+                "insert into \"sink_table\"(\"id\",\"c1\") values(?,?) on duplicate key update \"c1\"=values(\"c1\")",
+                dialect.buildUpsertQueryStatement(tableId, Arrays.asList(id), Arrays.asList(c1))
+        );
+    }
+
+    @Test
+    public void testInsertRemainingRows() throws SQLException {
+        createTable();
+        // 37 rows flushed by statements of 16, 16, 4 and 1 rows
+        BufferedRecords buffer = bufferedRecords(buildConfig("insert", 16), true);
+        int flushedNums = 0;
+        for (int i = 0; i < 37; i++) {
+            flushedNums += buffer.add(record(i, i)).size();
+        }
+        flushedNums += buffer.flush().size();
+        buffer.close();
+        assertEquals(37, flushedNums);
+        assertEquals(37, countRows());
+        assertEquals(36 * 37 / 2 * (COLUMN_NUMS - 1), sumValues());
+    }
+
+    @Test
+    public void testUpsert() throws SQLException {
+        createTable();
+        BufferedRecords buffer = bufferedRecords(buildConfig("upsert", 100), true);
+        for (int i = 0; i < 50; i++) {
+            buffer.add(record(i, 1));
+        }
+        buffer.flush();
+        for (int i = 0; i < 50; i++) {
+            buffer.add(record(i, 2));
+        }
+        buffer.flush();
+        buffer.close();
+        assertEquals(50, countRows());
+        assertEquals(50 * 2 * (COLUMN_NUMS - 1), sumValues());
+    }
+
+    /**
+     * Insert 20000 rows of 5 columns per batch size with a batch of single-row statements and with multi-row
+     * statements, the multi-row statements must be faster for batches of 100 rows and more.
+     */
+    @Test
+    public void testMultiRowThroughput() throws SQLException {
+        TestUtils.assumeBenchmark();
+        int rowNums = 20000;
+        for (int batchSize : new int[] {1, 10, 100, 1000}) {
+            double[] throughputs = new double[2];
+            for (int round = 0; round < 2; round++) {
+                for (int multiRow = 0; multiRow < 2; multiRow++) {
+                    createTable();
+                    BufferedRecords buffer = bufferedRecords(buildConfig("insert", batchSize), multiRow == 1);
+                    long start = System.nanoTime();
+                    for (int i = 0; i < rowNums; i++) {
+                        buffer.add(record(i, i));
+                    }
+                    buffer.flush();
+                    long costNanos = System.nanoTime() - start;
+                    buffer.close();
+                    assertEquals(rowNums, countRows());
+                    throughputs[multiRow] = rowNums * 1e9 / costNanos;
+                    dropTable();
+                }
+            }
+            if (batchSize >= 100) {
+                assertTrue(String.format("batch size %d: single-row %.0f rows/sec, multi-row %.0f rows/sec",
+                        batchSize, throughputs[0], throughputs[1]), throughputs[1] > throughputs[0]);
+            }
+        }
+    }
+
+    private BufferedRecords bufferedRecords(JdbcSinkConfig config, boolean multiRow) {
+        MySqlDatabaseDialect dialect = new MySqlDatabaseDialect(config) {
+            @Override
+            protected void initializePreparedStatement(PreparedStatement stmt) {
+                // H2 rejects the streaming fetch size of MySQL
+            }
+
+            @Override
+            public boolean supportsMultiRowStatements() {
+                return multiRow;
+            }
+        };
+        TableId tableId = new TableId(null, null, TABLE_NAME);
+        return new BufferedRecords(config, tableId, dialect, new DbStructure(dialect), connection);
+    }
+
+    private JdbcSinkConfig buildConfig(String insertMode, int batchSize) {
+        KeyValue config = new DefaultKeyValue();
+        config.put("connection.url", JDBC_URL);
+        config.put("insert.mode", insertMode);
+        config.put("pk.mode", "record_value");
+        config.put("pk.fields", "id");
+        config.put("batch.size", batchSize);
+        config.put("table.types", "TABLE");
+        return new JdbcSinkConfig(config);
+    }
+
+    private ConnectRecord record(int id, int value) {
+        Object[] payload = new Object[COLUMN_NUMS];
+        payload[0] = id;
+        for (int i = 1; i < COLUMN_NUMS; i++) {
+            payload[i] = value;
+        }
+        return new ConnectRecord(
+                new RecordPartition(new ConcurrentHashMap<>()),
+                new RecordOffset(new HashMap<>()),
+                System.currentTimeMillis(),
+                schema,
+                payload
+        );
+    }
+
+    private void createTable() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("drop table if exists " + TABLE_NAME);
+            stmt.execute(String.format("create table %s(id int primary key, c1 int, c2 int, c3 int, c4 int)",
+                    TABLE_NAME));
+        }
+    }
+
+    private void dropTable() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("drop table " + TABLE_NAME);
+        }
+    }
+
+    private long countRows() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(*) from " + TABLE_NAME)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private long sumValues() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("select sum(c1 + c2 + c3 + c4) from " + TABLE_NAME)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.connect.jdbc.connector.sink;
+
+import io.openmessaging.KeyValue;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import io.openmessaging.connector.api.data.Field;
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import io.openmessaging.connector.api.data.Schema;
+import io.openmessaging.connector.api.data.SchemaBuilder;
+import io.openmessaging.connector.api.errors.ConnectException;
+import io.openmessaging.internal.DefaultKeyValue;
+import org.apache.rocketmq.connect.jdbc.TestUtils;
+import org.apache.rocketmq.connect.jdbc.connector.JdbcSinkConfig;
+import org.apache.rocketmq.connect.jdbc.dialect.impl.MySqlDatabaseDialect;
+import org.apache.rocketmq.connect.jdbc.schema.db.DbStructure;
+import org.apache.rocketmq.connect.jdbc.sink.Updater;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Serial and parallel flush of the sink updater, written to an in-memory H2 database in MySQL mode.
+ */
+public class UpdaterTest {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:updater;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    private static final int TABLE_NUMS = 20;
+    private static final String VERSIONED_TABLE = "versioned_table";
+    private static final AtomicInteger PREPARED_NUMS = new AtomicInteger();
+
+    private Connection connection;
+    private final List<Schema> schemas = new ArrayList<>();
+    private final AtomicInteger connectNums = new AtomicInteger();
+    private int failedConnect;
+
+    @Before
+    public void before() throws SQLException {
+        connection = DriverManager.getConnection(JDBC_URL);
+        try (Statement stmt = connection.createStatement()) {
+            for (int i = 0; i < TABLE_NUMS; i++) {
+                stmt.execute(String.format("create table %s(id int primary key, c1 int not null)", tableName(i)));
+                Schema schema = SchemaBuilder.struct().name(tableName(i)).build();
+                schema.addField(new Field(0, "id", SchemaBuilder.int32().build()));
+                schema.addField(new Field(1, "c1", SchemaBuilder.int32().build()));
+                schemas.add(schema);
+            }
+        }
+    }
+
+    @After
+    public void after() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (int i = 0; i < TABLE_NUMS; i++) {
+                stmt.execute("drop table if exists " + tableName(i));
+            }
+            stmt.execute("drop table if exists " + VERSIONED_TABLE);
+        }
+        connection.close();
+    }
+
+    @Test
+    public void testParallelWriteKeepsTableOrder() throws SQLException {
+        Updater updater = updater(true, 0);
+        // every key is written five times, the last value must win in every table
+        List<ConnectRecord> records = new ArrayList<>();
+        for (int round = 0; round < 5; round++) {
+            for (int table = 0; table < TABLE_NUMS; table++) {
+                for (int id = 0; id < 20; id++) {
+                    records.add(record(table, id, round));
+                }
+            }
+        }
+        updater.write(records);
+        updater.closeQuietly();
+        for (int table = 0; table < TABLE_NUMS; table++) {
+            assertEquals(20, countRows(table));
+            assertEquals(20 * 4, sumValues(table));
+        }
+    }
+
+    @Test
+    public void testParallelWriteFailure() throws SQLException {
+        Updater updater = updater(true, 0);
+        List<ConnectRecord> records = new ArrayList<>();
+        for (int table = 0; table < TABLE_NUMS; table++) {
+            for (int id = 0; id < 20; id++) {
+                records.add(record(table, id, id));
+            }
+        }
+        records.add(record(5, 100, null));
+        try {
+            updater.write(records);
+            fail("the null value must fail the write");
+        } catch (SQLException e) {
+            assertTrue(e.getMessage().contains("Parallel flush of 20 tables failed"));
+        }
+        updater.closeQuietly();
+        // every table is rolled back with the failed one
+        for (int table = 0; table < TABLE_NUMS; table++) {
+            assertEquals(0, countRows(table));
+        }
+    }
+
+    @Test
+    public void testParallelConnectFailure() throws SQLException {
+        failedConnect = 3;
+        Updater updater = updater(true, 0);
+        PREPARED_NUMS.set(0);
+        List<ConnectRecord> records = new ArrayList<>();
+        for (int table = 0; table < TABLE_NUMS; table++) {
+            records.add(record(table, 0, 0));
+        }
+        try {
+            updater.write(records);
+            fail("the third connection must fail the write");
+        } catch (ConnectException e) {
+            assertEquals(3, connectNums.get());
+        }
+        updater.closeQuietly();
+        // no table was flushed over the connections opened before the failed one
+        assertEquals(0, PREPARED_NUMS.get());
+        for (int table = 0; table < TABLE_NUMS; table++) {
+            assertEquals(0, countRows(table));
+        }
+    }
+
+    @Test
+    public void testParallelFlushRequiresIdempotentMode() {
+        for (String insertMode : new String[] {null, "insert"}) {
+            KeyValue keyValue = new DefaultKeyValue();
+            keyValue.put("connection.url", JDBC_URL);
+            if (insertMode != null) {
+                keyValue.put("insert.mode", insertMode);
+            }
+            keyValue.put("parallel.flush.enabled", "true");
+            try {
+                new JdbcSinkConfig(keyValue);
+                fail("parallel flush must be rejected in insert mode");
+            } catch (IllegalArgumentException e) {
+                assertTrue(e.getMessage().contains("insert.mode"));
+            }
+        }
+        KeyValue keyValue = new DefaultKeyValue();
+        keyValue.put("connection.url", JDBC_URL);
+        keyValue.put("insert.mode", "update");
+        keyValue.put("parallel.flush.enabled", "true");
+        assertTrue(new JdbcSinkConfig(keyValue).isParallelFlushEnabled());
+    }
+
+    /**
+     * Put 100 records to each of 20 tables over connections that take 2 ms per round trip, the parallel flush over 4
+     * connections must take less time per put than the serial flush.
+     */
+    @Test
+    public void testPutLatency() throws SQLException {
+        TestUtils.assumeBenchmark();
+        int puts = 20;
+        double[] latencies = new double[2];
+        for (int parallel = 0; parallel < 2; parallel++) {
+            Updater updater = updater(parallel == 1, 2);
+            long costNanos = 0;
+            for (int put = 0; put < puts; put++) {
+                List<ConnectRecord> records = new ArrayList<>();
+                for (int id = 0; id < 100; id++) {
+                    for (int table = 0; table < TABLE_NUMS; table++) {
+                        records.add(record(table, put * 100 + id, id));
+                    }
+                }
+                long start = System.nanoTime();
+                updater.write(records);
+                costNanos += System.nanoTime() - start;
+            }
+            updater.closeQuietly();
+            for (int table = 0; table < TABLE_NUMS; table++) {
+                assertEquals(puts * 100, countRows(table));
+            }
+            latencies[parallel] = costNanos / 1e6 / puts;
+            truncateTables();
+        }
+        assertTrue(String.format("serial %.1f ms, parallel %.1f ms per put", latencies[0], latencies[1]),
+                latencies[1] < latencies[0]);
+    }
+
+    /**
+     * Write records of three schema versions of a table that alternate every 10 records, each record with its own
+     * schema instance as a converter builds them. The statement cache prepares the statements of each version once.
+     */
+    @Test
+    public void testAlternatingSchemaVersions() throws SQLException {
+        int uncachedPreparedNums = (int) writeVersionedRecords(0, 0)[0];
+        int cachedPreparedNums = (int) writeVersionedRecords(0, 16)[0];
+        // one statement per row count of each schema version
+        assertTrue(String.format("%d prepares without cache, %d with cache", uncachedPreparedNums, cachedPreparedNums),
+                cachedPreparedNums <= 9 && cachedPreparedNums < uncachedPreparedNums);
+    }
+
+    /**
+     * The records of {@link #testAlternatingSchemaVersions()} over connections that take 1 ms per round trip, the
+     * writes with the statement cache must take less time.
+     */
+    @Test
+    public void testAlternatingSchemaVersionsLatency() throws SQLException {
+        TestUtils.assumeBenchmark();
+        double uncachedLatency = writeVersionedRecords(1, 0)[1];
+        double cachedLatency = writeVersionedRecords(1, 16)[1];
+        assertTrue(String.format("write latency without cache %.1f ms, with cache %.1f ms",
+                uncachedLatency, cachedLatency), cachedLatency < uncachedLatency);
+    }
+
+    /**
+     * Write 20 times 300 records alternating between the schema versions.
+     *
+     * @return the prepared statements and the latency per write in ms
+     */
+    private double[] writeVersionedRecords(long roundTripMs, int statementCacheSize) throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(String.format("create table if not exists %s(id int primary key, c1 int, c2 int, c3 int)",
+                    VERSIONED_TABLE));
+        }
+        int writes = 20;
+        Updater updater = updater(false, roundTripMs, statementCacheSize);
+        PREPARED_NUMS.set(0);
+        long costNanos = 0;
+        for (int write = 0; write < writes; write++) {
+            List<ConnectRecord> records = new ArrayList<>();
+            for (int i = 0; i < 300; i++) {
+                records.add(versionedRecord(i / 10 % 3 + 1, write * 300 + i));
+            }
+            long start = System.nanoTime();
+            updater.write(records);
+            costNanos += System.nanoTime() - start;
+        }
+        updater.closeQuietly();
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(*), sum(c1) from " + VERSIONED_TABLE)) {
+            rs.next();
+            assertEquals(writes * 300, rs.getLong(1));
+            assertEquals((long) writes * 300 * (writes * 300 - 1) / 2, rs.getLong(2));
+            stmt.execute("truncate table " + VERSIONED_TABLE);
+        }
+        return new double[] {PREPARED_NUMS.get(), costNanos / 1e6 / writes};
+    }
+
+    /**
+     * A record of schema version 1 to 3, version n writes the columns c1 to cn.
+     */
+    private ConnectRecord versionedRecord(int version, int id) {
+        Schema schema = SchemaBuilder.struct().name(VERSIONED_TABLE).build();
+        schema.addField(new Field(0, "id", SchemaBuilder.int32().build()));
+        Object[] payload = new Object[version + 1];
+        payload[0] = id;
+        for (int i = 1; i <= version; i++) {
+            schema.addField(new Field(i, "c" + i, SchemaBuilder.int32().build()));
+            payload[i] = id;
+        }
+        return new ConnectRecord(
+                new RecordPartition(new ConcurrentHashMap<>()),
+                new RecordOffset(new HashMap<>()),
+                System.currentTimeMillis(),
+                schema,
+                payload
+        );
+    }
+
+    private Updater updater(boolean parallel, long roundTripMs) {
+        return updater(parallel, roundTripMs, 0);
+    }
+
+    private Updater updater(boolean parallel, long roundTripMs, int statementCacheSize) {
+        KeyValue keyValue = new DefaultKeyValue();
+        keyValue.put("connection.url", JDBC_URL);
+        keyValue.put("connection.attempts", 1);
+        keyValue.put("insert.mode", "upsert");
+        keyValue.put("pk.mode", "record_value");
+        keyValue.put("pk.fields", "id");
+        keyValue.put("batch.size", 1000);
+        keyValue.put("table.types", "TABLE");
+        keyValue.put("parallel.flush.enabled", String.valueOf(parallel));
+        keyValue.put("parallel.flush.max.connections", 4);
+        keyValue.put("statement.cache.size", statementCacheSize);
+        JdbcSinkConfig config = new JdbcSinkConfig(keyValue);
+        MySqlDatabaseDialect dialect = new MySqlDatabaseDialect(config) {
+            @Override
+            protected void initializePreparedStatement(PreparedStatement stmt) {
+                // H2 rejects the streaming fetch size of MySQL
+            }
+
+            @Override
+            public Connection getConnection() throws SQLException {
+                if (connectNums.incrementAndGet() == failedConnect) {
+                    throw new SQLException("connect #" + failedConnect + " refused");
+                }
+                return roundTripConnection(super.getConnection(), roundTripMs);
+            }
+        };
+        return new Updater(config, dialect, new DbStructure(dialect));
+    }
+
+    /**
+     * Wrap a connection so that every statement preparation, execution and commit takes the given round trip time.
+     */
+    private static Connection roundTripConnection(Connection connection, long roundTripMs) {
+        return (Connection) Proxy.newProxyInstance(
+                UpdaterTest.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    if ("prepareStatement".equals(method.getName())) {
+                        PREPARED_NUMS.incrementAndGet();
+                    }
+                    if ("commit".equals(method.getName()) || "prepareStatement".equals(method.getName())) {
+                        TimeUnit.MILLISECONDS.sleep(roundTripMs);
+                    }
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement) {
+                        return roundTripStatement((PreparedStatement) result, roundTripMs);
+                    }
+                    return result;
+                }
+        );
+    }
+
+    private static PreparedStatement roundTripStatement(PreparedStatement statement, long roundTripMs) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                UpdaterTest.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        TimeUnit.MILLISECONDS.sleep(roundTripMs);
+                    }
+                    return invoke(statement, method, args);
+                }
+        );
+    }
+
+    private static Object invoke(Object target, java.lang.reflect.Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private ConnectRecord record(int table, int id, Integer value) {
+        Object[] payload = new Object[] {id, value};
+        return new ConnectRecord(
+                new RecordPartition(new ConcurrentHashMap<>()),
+                new RecordOffset(new HashMap<>()),
+                System.currentTimeMillis(),
+                schemas.get(table),
+                payload
+        );
+    }
+
+    private static String tableName(int table) {
+        return "sink_table_" + table;
+    }
+
+    private void truncateTables() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            for (int i = 0; i < TABLE_NUMS; i++) {
+                stmt.execute("truncate table " + tableName(i));
+            }
+        }
+    }
+
+    private long countRows(int table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("select count(*) from " + tableName(table))) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private long sumValues(int table) throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("select coalesce(sum(c1), 0) from " + tableName(table))) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.connect.jdbc.connector.source;
+
+import com.alibaba.fastjson.JSON;
+import io.openmessaging.KeyValue;
+import io.openmessaging.connector.api.component.task.source.SourceTaskContext;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import io.openmessaging.connector.api.storage.OffsetStorageReader;
+import io.openmessaging.internal.DefaultKeyValue;
+import org.apache.rocketmq.connect.jdbc.connector.JdbcSourceTask;
+import org.apache.rocketmq.connect.jdbc.connector.JdbcSourceTaskConfig;
+import org.apache.rocketmq.connect.jdbc.dialect.impl.GenericDatabaseDialect;
+import org.apache.rocketmq.connect.jdbc.dialect.provider.CachedConnectionProvider;
+import org.apache.rocketmq.connect.jdbc.dialect.provider.ConnectionProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Chunked bulk mode of the source task, reading from a file based H2 database.
+ */
+public class BulkQuerierTest {
+
+    private static final int ROW_NUMS = 1000000;
+    private static final int CHUNK_SIZE = 10000;
+
+    private File dir;
+    private String url;
+    private Connection connection;
+
+    @Before
+    public void before() throws Exception {
+        dir = Files.createTempDirectory("bulk_querier").toFile();
+        url = "jdbc:h2:" + new File(dir, "source").getAbsolutePath() + ";DATABASE_TO_LOWER=TRUE";
+        connection = DriverManager.getConnection(url);
+    }
+
+    @After
+    public void after() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("drop all objects delete files");
+        }
+        connection.close();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    /**
+     * Read half of a table of 1M rows, restart the task with the committed offset and read the rest. No query
+     * fetches more than a chunk of rows, and the restarted task goes on right after the last row read.
+     */
+    @Test
+    public void testResumeAfterRestart() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("create table bulk_table(id bigint primary key, name varchar(64) not null)");
+            // inserted out of key order, the chunks are read in key order
+            stmt.execute("insert into bulk_table select " + (ROW_NUMS + 1) + " - r.x, concat('name-', r.x) "
+                    + "from (select \"X\" as x from system_range(1, " + ROW_NUMS + ")) r");
+        }
+        Map<RecordPartition, RecordOffset> offsets = new HashMap<>();
+        RowCounter rowCounter = new RowCounter();
+
+        JdbcSourceTask task = new RowCountingSourceTask(rowCounter);
+        task.init(buildConfig());
+        task.start(new StoredOffsetContext(offsets));
+        long nextId = 1;
+        while (nextId <= ROW_NUMS / 2) {
+            List<ConnectRecord> records = task.poll();
+            for (ConnectRecord record : records) {
+                assertEquals(nextId++, ((Number) ((Object[]) record.getData())[0]).longValue());
+                offsets.put(record.getPosition().getPartition(), record.getPosition().getOffset());
+            }
+        }
+        task.stop();
+        long resumeId = nextId;
+        assertEquals(1, offsets.size());
+
+        task = new RowCountingSourceTask(rowCounter);
+        task.init(buildConfig());
+        task.start(new StoredOffsetContext(offsets));
+        List<ConnectRecord> records = task.poll();
+        assertFalse(records.isEmpty());
+        // every polled record was committed, the restarted task goes on right after the last one
+        long firstId = ((Number) ((Object[]) records.get(0).getData())[0]).longValue();
+        assertEquals(resumeId, firstId);
+        nextId = firstId;
+        while (true) {
+            for (ConnectRecord record : records) {
+                assertEquals(nextId++, ((Number) ((Object[]) record.getData())[0]).longValue());
+            }
+            if (nextId > ROW_NUMS) {
+                break;
+            }
+            records = task.poll();
+        }
+        task.stop();
+        assertEquals(ROW_NUMS + 1, nextId);
+        // the table is never read at once, every query fetched at most one chunk
+        assertEquals(CHUNK_SIZE, rowCounter.maxRows.get());
+        assertTrue(String.format("%d queries", rowCounter.queryNums.get()),
+                rowCounter.queryNums.get() >= ROW_NUMS / CHUNK_SIZE);
+    }
+
+    /**
+     * Read a table keyed by a varchar and a nanosecond timestamp, declared in the reverse of alphabetical order,
+     * restarting the task after every poll with the offset stored as json. Every row is read once in key order.
+     */
+    @Test
+    public void testResumeTypedCompositeKey() throws SQLException {
+        int zoneNums = 3;
+        int rowsPerZone = 4;
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("create table event_table(zone varchar(16) not null, created_at timestamp(9) not null, "
+                    + "id int not null, primary key (zone, created_at))");
+            for (int zone = 0; zone < zoneNums; zone++) {
+                for (int i = 0; i < rowsPerZone; i++) {
+                    // later zones are older, the order of created_at alone differs from the key order
+                    stmt.execute(String.format("insert into event_table values('zone-%d', "
+                            + "timestamp '2024-01-01 00:00:0%d.00000000%d', %d)",
+                            zone, zoneNums - zone, i + 1, zone * rowsPerZone + i + 1));
+                }
+            }
+        }
+        Map<RecordPartition, RecordOffset> offsets = new HashMap<>();
+        List<Integer> ids = new ArrayList<>();
+        while (ids.size() < zoneNums * rowsPerZone) {
+            JdbcSourceTask task = new JdbcSourceTask();
+            task.init(buildConfig("event_table", 2));
+            task.start(new StoredOffsetContext(offsets));
+            for (ConnectRecord record : task.poll()) {
+                ids.add(((Number) ((Object[]) record.getData())[2]).intValue());
+                // the offset is stored as json, the way the worker keeps it
+                Map<String, Object> offset = JSON.parseObject(JSON.toJSONString(record.getPosition().getOffset()
+                        .getOffset()));
+                offsets.put(record.getPosition().getPartition(), new RecordOffset(offset));
+            }
+            task.stop();
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1, ids.get(i).intValue());
+        }
+    }
+
+    private KeyValue buildConfig() {
+        return buildConfig("bulk_table", CHUNK_SIZE);
+    }
+
+    private KeyValue buildConfig(String table, int chunkSize) {
+        KeyValue config = new DefaultKeyValue();
+        config.put("connection.url", url);
+        config.put("dialect.name", "GenericDatabaseDialect");
+        config.put("mode", "bulk");
+        config.put("tables", table);
+        config.put("bulk.chunk.size", chunkSize);
+        config.put("batch.max.rows", Math.min(chunkSize, 1000));
+        config.put("poll.interval.ms", 3600 * 1000);
+        config.put("timestamp.delay.interval.ms", 0L);
+        config.put("timestamp.initial", -1L);
+        config.put("topic.prefix", "");
+        return config;
+    }
+
+    /**
+     * Rows fetched by the queries of the source tasks.
+     */
+    private static class RowCounter {
+        private final AtomicInteger queryNums = new AtomicInteger();
+        private final AtomicInteger maxRows = new AtomicInteger();
+    }
+
+    /**
+     * Source task counting the rows fetched by every query.
+     */
+    private static class RowCountingSourceTask extends JdbcSourceTask {
+
+        private final RowCounter rowCounter;
+        private JdbcSourceTaskConfig config;
+
+        RowCountingSourceTask(RowCounter rowCounter) {
+            this.rowCounter = rowCounter;
+        }
+
+        @Override
+        public void init(KeyValue props) {
+            config = new JdbcSourceTaskConfig(props);
+            super.init(props);
+        }
+
+        @Override
+        protected CachedConnectionProvider connectionProvider(int maxConnAttempts, long retryBackoff) {
+            GenericDatabaseDialect dialect = new GenericDatabaseDialect(config);
+            ConnectionProvider provider = new ConnectionProvider() {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return proxy(Connection.class, dialect.getConnection());
+                }
+
+                @Override
+                public boolean isConnectionValid(Connection connection, int timeout) throws SQLException {
+                    return connection.isValid(timeout);
+                }
+
+                @Override
+                public void close() {
+                    dialect.close();
+                }
+            };
+            return new CachedConnectionProvider(provider, maxConnAttempts, retryBackoff) {
+                @Override
+                protected void onConnect(final Connection connection) throws SQLException {
+                    connection.setAutoCommit(false);
+                }
+            };
+        }
+
+        /**
+         * wrap the connection, its prepared statements and their result sets, counting the rows of every result set
+         */
+        private <T> T proxy(Class<T> type, T target) {
+            AtomicInteger rows = new AtomicInteger();
+            if (type == ResultSet.class) {
+                rowCounter.queryNums.incrementAndGet();
+            }
+            return type.cast(Proxy.newProxyInstance(
+                    BulkQuerierTest.class.getClassLoader(),
+                    new Class<?>[] {type},
+                    (proxy, method, args) -> {
+                        Object result;
+                        try {
+                            result = method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        if (result instanceof PreparedStatement) {
+                            return proxy(PreparedStatement.class, (PreparedStatement) result);
+                        }
+                        if (result instanceof ResultSet && "executeQuery".equals(method.getName())) {
+                            return proxy(ResultSet.class, (ResultSet) result);
+                        }
+                        if (type == ResultSet.class && "next".equals(method.getName()) && (Boolean) result) {
+                            rowCounter.maxRows.accumulateAndGet(rows.incrementAndGet(), Math::max);
+                        }
+                        return result;
+                    }
+            ));
+        }
+    }
+
+    private static class StoredOffsetContext implements SourceTaskContext {
+
+        private final Map<RecordPartition, RecordOffset> offsets;
+
+        StoredOffsetContext(Map<RecordPartition, RecordOffset> offsets) {
+            this.offsets = offsets;
+        }
+
+        @Override
+        public OffsetStorageReader offsetStorageReader() {
+            return new OffsetStorageReader() {
+                @Override
+                public RecordOffset readOffset(RecordPartition partition) {
+                    return offsets.get(partition);
+                }
+
+                @Override
+                public Map<RecordPartition, RecordOffset> readOffsets(Collection<RecordPartition> partitions) {
+                    Map<RecordPartition, RecordOffset> result = new HashMap<>();
+                    for (RecordPartition partition : partitions) {
+                        if (offsets.containsKey(partition)) {
+                            result.put(partition, offsets.get(partition));
+                        }
+                    }
+                    return result;
+                }
+            };
+        }
+
+        @Override
+        public String getConnectorName() {
+            return "jdbc-source";
+        }
+
+        @Override
+        public String getTaskName() {
+            return "jdbc-source-task";
+        }
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.connect.jdbc.connector.source;
+
+import io.openmessaging.KeyValue;
+import io.openmessaging.connector.api.component.task.source.SourceTaskContext;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import io.openmessaging.connector.api.storage.OffsetStorageReader;
+import io.openmessaging.internal.DefaultKeyValue;
+import org.apache.rocketmq.connect.jdbc.TestUtils;
+import org.apache.rocketmq.connect.jdbc.connector.JdbcSourceTask;
+import org.apache.rocketmq.connect.jdbc.connector.JdbcSourceTaskConfig;
+import org.apache.rocketmq.connect.jdbc.dialect.impl.GenericDatabaseDialect;
+import org.apache.rocketmq.connect.jdbc.dialect.provider.CachedConnectionProvider;
+import org.apache.rocketmq.connect.jdbc.dialect.provider.ConnectionProvider;
+import org.junit.Test;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Serial and scheduled queriers of the source task, reading from an in-memory H2 database.
+ */
+public class QuerierSchedulerTest {
+
+    private static final long ROUND_TRIP_MS = 2;
+
+    /**
+     * Every row inserted into 20 tables while polling is polled once and in order, by the serial queriers and by the
+     * queriers on 4 threads.
+     */
+    @Test
+    public void testChangeDelivery() throws Exception {
+        changeLatency(0, 20, 100);
+        changeLatency(4, 20, 100);
+    }
+
+    /**
+     * Insert rows into random tables of 200 while polling the source task, over connections that take 2 ms per
+     * query, the queriers on 8 threads must poll the rows sooner after the insert than the serial queriers.
+     */
+    @Test
+    public void testChangeLatency() throws Exception {
+        TestUtils.assumeBenchmark();
+        long[] serial = changeLatency(0, 200, 600);
+        long[] scheduled = changeLatency(8, 200, 600);
+        assertTrue(String.format("serial avg %d ms p99 %d ms, 8 threads avg %d ms p99 %d ms",
+                serial[0], serial[1], scheduled[0], scheduled[1]), scheduled[0] < serial[0]);
+    }
+
+    /**
+     * Insert rows into random tables while polling, every row must be polled once in order.
+     *
+     * @return average and p99 latency in ms
+     */
+    private long[] changeLatency(int pollThreads, int tableNums, int insertNums) throws Exception {
+        String url = "jdbc:h2:mem:source_" + pollThreads + "_" + tableNums
+                + ";DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        Connection connection = DriverManager.getConnection(url);
+        List<String> tables = new ArrayList<>();
+        try (Statement stmt = connection.createStatement()) {
+            for (int i = 0; i < tableNums; i++) {
+                tables.add("source_table_" + i);
+                stmt.execute(String.format(
+                        "create table source_table_%d(id bigint auto_increment primary key, created bigint not null)", i));
+            }
+        }
+
+        JdbcSourceTask task = new RoundTripSourceTask();
+        task.init(buildConfig(url, tables, pollThreads));
+        task.start(new EmptyOffsetContext());
+
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        Map<String, Long> lastIds = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrderNums = new AtomicInteger();
+        AtomicBoolean polling = new AtomicBoolean(true);
+        Thread poller = new Thread(() -> {
+            while (polling.get()) {
+                List<ConnectRecord> records = task.poll();
+                if (records == null) {
+                    continue;
+                }
+                long now = System.currentTimeMillis();
+                for (ConnectRecord record : records) {
+                    Object[] payload = (Object[]) record.getData();
+                    String table = record.getSchema().getName();
+                    long id = ((Number) payload[0]).longValue();
+                    if (id <= lastIds.getOrDefault(table, 0L)) {
+                        outOfOrderNums.incrementAndGet();
+                    }
+                    lastIds.put(table, id);
+                    latencies.add(now - ((Number) payload[1]).longValue());
+                }
+            }
+        });
+        poller.start();
+
+        // let every querier run once before measuring
+        TimeUnit.SECONDS.sleep(2);
+        Random random = new Random(0);
+        for (int i = 0; i < insertNums; i++) {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute(String.format("insert into source_table_%d(created) values(%d)",
+                        random.nextInt(tableNums), System.currentTimeMillis()));
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+        long deadline = System.currentTimeMillis() + 30 * 1000;
+        while (latencies.size() < insertNums && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        polling.set(false);
+        poller.join();
+        task.stop();
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("drop all objects");
+        }
+        connection.close();
+
+        assertEquals(insertNums, latencies.size());
+        assertEquals(0, outOfOrderNums.get());
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        long sum = 0;
+        for (long latency : sorted) {
+            sum += latency;
+        }
+        return new long[] {sum / sorted.size(), sorted.get(sorted.size() * 99 / 100)};
+    }
+
+    private static KeyValue buildConfig(String url, List<String> tables, int pollThreads) {
+        KeyValue config = new DefaultKeyValue();
+        config.put("connection.url", url);
+        config.put("dialect.name", "GenericDatabaseDialect");
+        config.put("mode", "incrementing");
+        config.put("incrementing.column.name", "id");
+        config.put("tables", String.join(",", tables));
+        config.put("poll.interval.ms", 100);
+        config.put("batch.max.rows", 100);
+        config.put("timestamp.delay.interval.ms", 0L);
+        config.put("timestamp.initial", -1L);
+        config.put("topic.prefix", "");
+        config.put("poll.threads", pollThreads);
+        return config;
+    }
+
+    /**
+     * Source task whose connections take the round trip time for every query.
+     */
+    private static class RoundTripSourceTask extends JdbcSourceTask {
+
+        private JdbcSourceTaskConfig config;
+
+        @Override
+        public void init(KeyValue props) {
+            config = new JdbcSourceTaskConfig(props);
+            super.init(props);
+        }
+
+        @Override
+        protected CachedConnectionProvider connectionProvider(int maxConnAttempts, long retryBackoff) {
+            GenericDatabaseDialect dialect = new GenericDatabaseDialect(config);
+            ConnectionProvider provider = new ConnectionProvider() {
+                @Override
+                public Connection getConnection() throws SQLException {
+                    return roundTripConnection(dialect.getConnection());
+                }
+
+                @Override
+                public boolean isConnectionValid(Connection connection, int timeout) throws SQLException {
+                    return connection.isValid(timeout);
+                }
+
+                @Override
+                public void close() {
+                    dialect.close();
+                }
+            };
+            return new CachedConnectionProvider(provider, maxConnAttempts, retryBackoff) {
+                @Override
+                protected void onConnect(final Connection connection) throws SQLException {
+                    connection.setAutoCommit(false);
+                }
+            };
+        }
+    }
+
+    private static Connection roundTripConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                QuerierSchedulerTest.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement) {
+                        return roundTripStatement((PreparedStatement) result);
+                    }
+                    return result;
+                }
+        );
+    }
+
+    private static PreparedStatement roundTripStatement(PreparedStatement statement) {
+        return (PreparedStatement) Proxy.newProxyInstance(
+                QuerierSchedulerTest.class.getClassLoader(),
+                new Class<?>[] {PreparedStatement.class},
+                (proxy, method, args) -> {
+                    if (method.getName().startsWith("execute")) {
+                        TimeUnit.MILLISECONDS.sleep(ROUND_TRIP_MS);
+                    }
+                    return invoke(statement, method, args);
+                }
+        );
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class EmptyOffsetContext implements SourceTaskContext {
+
+        @Override
+        public OffsetStorageReader offsetStorageReader() {
+            return new OffsetStorageReader() {
+                @Override
+                public RecordOffset readOffset(RecordPartition partition) {
+                    return null;
+                }
+
+                @Override
+                public Map<RecordPartition, RecordOffset> readOffsets(Collection<RecordPartition> partitions) {
+                    return new HashMap<>();
+                }
+            };
+        }
+
+        @Override
+        public String getConnectorName() {
+            return "jdbc-source";
+        }
+
+        @Override
+        public String getTaskName() {
+            return "jdbc-source-task";
+        }
+    }
+}
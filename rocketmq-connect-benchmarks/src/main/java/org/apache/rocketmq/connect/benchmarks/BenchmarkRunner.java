@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks with the allocation profiler and write the results as json, so they can be compared between
+ * builds.
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar [include regex] [result file]
+ * </pre>
+ *
+ * The default result file is jmh-result.json in the working directory. For other JMH options run
+ * {@code java -cp target/benchmarks.jar org.openjdk.jmh.Main -h}.
+ */
+public class BenchmarkRunner {
+
+    private static final String DEFAULT_INCLUDE = "org\\.apache\\.rocketmq\\.connect\\.benchmarks\\..*";
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+            .include(args.length > 0 ? args[0] : DEFAULT_INCLUDE)
+            .addProfiler(GCProfiler.class)
+            .resultFormat(ResultFormatType.JSON)
+            .result(args.length > 1 ? args[1] : DEFAULT_RESULT_FILE);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.connect.benchmarks.connectorwrapper;
+
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.connect.runtime.connectorwrapper.OffsetCommitCoalescer;
+import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One sink offset commit of {@code queueNums} assigned queues of which {@code activePercent} advanced since the last
+ * commit. {@code commitAllQueues} converts every queue as the sink task did before, {@code commitDirtyQueues} only the
+ * queues tracked by {@link OffsetCommitCoalescer}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OffsetCommitBenchmark {
+
+    @Param({"1000"})
+    private int queueNums;
+
+    @Param({"1"})
+    private int activePercent;
+
+    private MessageQueue[] queues;
+
+    private Map<MessageQueue, Long> messageQueuesOffsetMap;
+
+    private OffsetCommitCoalescer coalescer;
+
+    private int activeQueues;
+
+    private long round;
+
+    @Setup
+    public void setup() {
+        queues = new MessageQueue[queueNums];
+        messageQueuesOffsetMap = new ConcurrentHashMap<>();
+        for (int i = 0; i < queueNums; i++) {
+            queues[i] = new MessageQueue("benchmarkTopic" + i % 10, "broker-" + i % 4, i);
+            messageQueuesOffsetMap.put(queues[i], 0L);
+        }
+        coalescer = new OffsetCommitCoalescer(0, 0, 0);
+        activeQueues = Math.max(1, queueNums * activePercent / 100);
+    }
+
+    @Benchmark
+    public Map<RecordPartition, RecordOffset> commitAllQueues() {
+        advance(false);
+        Map<RecordPartition, RecordOffset> offsets = new HashMap<>(512);
+        for (Map.Entry<MessageQueue, Long> entry : messageQueuesOffsetMap.entrySet()) {
+            offsets.put(ConnectUtil.convertToRecordPartition(entry.getKey()),
+                ConnectUtil.convertToRecordOffset(entry.getValue()));
+        }
+        return offsets;
+    }
+
+    @Benchmark
+    public Map<RecordPartition, RecordOffset> commitDirtyQueues() {
+        advance(true);
+        return coalescer.drain(round);
+    }
+
+    private void advance(boolean track) {
+        round++;
+        for (int i = 0; i < activeQueues; i++) {
+            MessageQueue messageQueue = queues[(int) ((round * 7 + i * 100) % queueNums)];
+            long offset = messageQueuesOffsetMap.get(messageQueue) + 32;
+            messageQueuesOffsetMap.put(messageQueue, offset);
+            if (track) {
+                coalescer.update(messageQueue, offset, 32);
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.benchmarks.converter;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.rocketmq.connect.runtime.common.ConnAndTaskConfigs;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.apache.rocketmq.connect.runtime.converter.ConnAndTaskConfigConverter;
+import org.apache.rocketmq.connect.runtime.converter.JsonConverter;
+import org.apache.rocketmq.connect.runtime.converter.ListConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Converters of the config stores and of the config synchronize message, which carries the whole snapshot of
+ * connector and task configs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigConverterBenchmark {
+
+    @Param({"10", "1000"})
+    private int taskNums;
+
+    private final ConnAndTaskConfigConverter configsConverter = new ConnAndTaskConfigConverter();
+
+    private final JsonConverter keyConverter = new JsonConverter();
+
+    private final JsonConverter connectorConfigConverter = new JsonConverter(ConnectKeyValue.class);
+
+    private final ListConverter taskConfigsConverter = new ListConverter(ConnectKeyValue.class);
+
+    private ConnAndTaskConfigs configs;
+
+    private byte[] configsBytes;
+
+    private String key;
+
+    private byte[] keyBytes;
+
+    private ConnectKeyValue connectorConfig;
+
+    private byte[] connectorConfigBytes;
+
+    private List<ConnectKeyValue> taskConfigs;
+
+    private byte[] taskConfigsBytes;
+
+    @Setup
+    public void setup() {
+        configs = Payloads.configs(taskNums);
+        configsBytes = configsConverter.objectToByte(configs);
+        key = "ConfigChange";
+        keyBytes = keyConverter.objectToByte(key);
+        connectorConfig = Payloads.connectorConfig(0);
+        connectorConfigBytes = connectorConfigConverter.objectToByte(connectorConfig);
+        taskConfigs = Payloads.taskConfigs(0, Math.min(taskNums, 10));
+        taskConfigsBytes = taskConfigsConverter.objectToByte(taskConfigs);
+    }
+
+    @Benchmark
+    public byte[] configsObjectToByte() {
+        return configsConverter.objectToByte(configs);
+    }
+
+    @Benchmark
+    public ConnAndTaskConfigs configsByteToObject() {
+        return configsConverter.byteToObject(configsBytes);
+    }
+
+    @Benchmark
+    public byte[] keyObjectToByte() {
+        return keyConverter.objectToByte(key);
+    }
+
+    @Benchmark
+    public Object keyByteToObject() {
+        return keyConverter.byteToObject(keyBytes);
+    }
+
+    @Benchmark
+    public byte[] connectorConfigObjectToByte() {
+        return connectorConfigConverter.objectToByte(connectorConfig);
+    }
+
+    @Benchmark
+    public Object connectorConfigByteToObject() {
+        return connectorConfigConverter.byteToObject(connectorConfigBytes);
+    }
+
+    @Benchmark
+    public byte[] taskConfigsObjectToByte() {
+        return taskConfigsConverter.objectToByte(taskConfigs);
+    }
+
+    @Benchmark
+    public List taskConfigsByteToObject() {
+        return taskConfigsConverter.byteToObject(taskConfigsBytes);
+    }
+}
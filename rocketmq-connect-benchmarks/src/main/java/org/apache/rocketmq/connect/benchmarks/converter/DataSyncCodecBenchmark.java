@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.connect.benchmarks.converter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.apache.rocketmq.connect.runtime.converter.ConnAndTaskConfigConverter;
+import org.apache.rocketmq.connect.runtime.converter.RecordPositionMapConverter;
+import org.apache.rocketmq.connect.runtime.utils.datasync.BinaryDataSyncCodec;
+import org.apache.rocketmq.connect.runtime.utils.datasync.DataSyncCodec;
+import org.apache.rocketmq.connect.runtime.utils.datasync.JsonDataSyncCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Message bodies of the data synchronizer for a position snapshot of 10000 queues and a config snapshot of 800 tasks,
+ * encoded by each codec and decoded by the binary codec, which also reads the json bodies of older workers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataSyncCodecBenchmark {
+
+    @Param({"json", "binary", "deflate"})
+    private String codecType;
+
+    @Param({"position", "config"})
+    private String snapshot;
+
+    private final byte[] key = "POSITION_CHANG_KEY".getBytes(StandardCharsets.UTF_8);
+
+    private final BinaryDataSyncCodec decoder = new BinaryDataSyncCodec(4096);
+
+    private DataSyncCodec codec;
+
+    private byte[] value;
+
+    private byte[] body;
+
+    @Setup
+    public void setup() throws IOException {
+        switch (codecType) {
+            case "json":
+                codec = new JsonDataSyncCodec();
+                break;
+            case "binary":
+                codec = new BinaryDataSyncCodec(-1);
+                break;
+            default:
+                codec = decoder;
+        }
+        value = "position".equals(snapshot)
+            ? new RecordPositionMapConverter().objectToByte(Payloads.positions(10000))
+            : new ConnAndTaskConfigConverter().objectToByte(Payloads.configs(800));
+        body = codec.encode(key, value);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return codec.encode(key, value);
+    }
+
+    @Benchmark
+    public void decode(Blackhole blackhole) throws IOException {
+        decoder.decode(body, (decodedKey, decodedValue) -> blackhole.consume(decodedValue));
+    }
+}
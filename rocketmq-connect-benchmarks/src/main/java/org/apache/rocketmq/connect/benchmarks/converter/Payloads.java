@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.benchmarks.converter;
+
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.rocketmq.connect.runtime.common.ConnAndTaskConfigs;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+
+/**
+ * Payloads shaped like the ones the runtime synchronizes between workers.
+ */
+final class Payloads {
+
+    private Payloads() {
+    }
+
+    /**
+     * A partition of a message queue, as written by the RocketMQ replicator and the sink tasks.
+     *
+     * @param index
+     * @return
+     */
+    static RecordPartition partition(int index) {
+        Map<String, Object> partition = new HashMap<>();
+        partition.put("topic", "benchmarkTopic-" + (index / 16));
+        partition.put("brokerName", "broker-" + (index % 4));
+        partition.put("queueId", String.valueOf(index % 16));
+        return new RecordPartition(partition);
+    }
+
+    static RecordOffset offset(int index) {
+        Map<String, Object> offset = new HashMap<>();
+        offset.put("queueOffset", String.valueOf(index * 1000L + 7));
+        return new RecordOffset(offset);
+    }
+
+    static Map<RecordPartition, RecordOffset> positions(int partitionNums) {
+        Map<RecordPartition, RecordOffset> positions = new HashMap<>();
+        for (int i = 0; i < partitionNums; i++) {
+            positions.put(partition(i), offset(i));
+        }
+        return positions;
+    }
+
+    static Map<ByteBuffer, ByteBuffer> bytePositions(int partitionNums) {
+        Map<ByteBuffer, ByteBuffer> positions = new HashMap<>();
+        for (int i = 0; i < partitionNums; i++) {
+            positions.put(ByteBuffer.wrap(partition(i).getPartition().toString().getBytes(StandardCharsets.UTF_8)),
+                ByteBuffer.wrap(offset(i).getOffset().toString().getBytes(StandardCharsets.UTF_8)));
+        }
+        return positions;
+    }
+
+    static ConnectKeyValue connectorConfig(int index) {
+        ConnectKeyValue config = new ConnectKeyValue();
+        config.put("connector-class", "org.apache.rocketmq.connect.jdbc.connector.JdbcSourceConnector");
+        config.put("connect-topicname", "benchmarkTopic-" + index);
+        config.put("connection.url", "jdbc:mysql://127.0.0.1:3306/benchmark_" + index);
+        config.put("connection.user", "connect");
+        config.put("mode", "incrementing");
+        config.put("incrementing.column.name", "id");
+        config.put("update-timestamp", 1600000000000L + index);
+        return config;
+    }
+
+    static List<ConnectKeyValue> taskConfigs(int index, int taskNums) {
+        List<ConnectKeyValue> taskConfigs = new ArrayList<>(taskNums);
+        for (int i = 0; i < taskNums; i++) {
+            ConnectKeyValue config = connectorConfig(index);
+            config.put("task-class", "org.apache.rocketmq.connect.jdbc.connector.JdbcSourceTask");
+            config.put("tables", "benchmark_table_" + index + "_" + i);
+            taskConfigs.add(config);
+        }
+        return taskConfigs;
+    }
+
+    /**
+     * A config snapshot, connectors with 10 tasks each.
+     *
+     * @param taskNums total tasks in the snapshot
+     * @return
+     */
+    static ConnAndTaskConfigs configs(int taskNums) {
+        ConnAndTaskConfigs configs = new ConnAndTaskConfigs();
+        int connectorNums = Math.max(1, taskNums / 10);
+        for (int i = 0; i < connectorNums; i++) {
+            configs.getConnectorConfigs().put("connector-" + i, connectorConfig(i));
+            configs.getTaskConfigs().put("connector-" + i, taskConfigs(i, 10));
+        }
+        return configs;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.benchmarks.converter;
+
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.rocketmq.connect.runtime.converter.ByteMapConverter;
+import org.apache.rocketmq.connect.runtime.converter.RecordOffsetConverter;
+import org.apache.rocketmq.connect.runtime.converter.RecordPartitionConverter;
+import org.apache.rocketmq.connect.runtime.converter.RecordPositionMapConverter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Converters of the position and offset stores and of their synchronize messages. The small map is the change set a
+ * worker sends every commit interval, the large one is the full table sent when a worker goes online.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionConverterBenchmark {
+
+    @Param({"16", "10000"})
+    private int partitionNums;
+
+    private final RecordPositionMapConverter positionMapConverter = new RecordPositionMapConverter();
+
+    private final ByteMapConverter byteMapConverter = new ByteMapConverter();
+
+    private final RecordPartitionConverter partitionConverter = new RecordPartitionConverter();
+
+    private final RecordOffsetConverter offsetConverter = new RecordOffsetConverter();
+
+    private Map<RecordPartition, RecordOffset> positions;
+
+    private byte[] positionsBytes;
+
+    private Map<ByteBuffer, ByteBuffer> bytePositions;
+
+    private byte[] bytePositionsBytes;
+
+    private RecordPartition partition;
+
+    private byte[] partitionBytes;
+
+    private RecordOffset offset;
+
+    private byte[] offsetBytes;
+
+    @Setup
+    public void setup() {
+        positions = Payloads.positions(partitionNums);
+        positionsBytes = positionMapConverter.objectToByte(positions);
+        bytePositions = Payloads.bytePositions(partitionNums);
+        bytePositionsBytes = byteMapConverter.objectToByte(bytePositions);
+        partition = Payloads.partition(partitionNums - 1);
+        partitionBytes = partitionConverter.objectToByte(partition);
+        offset = Payloads.offset(partitionNums - 1);
+        offsetBytes = offsetConverter.objectToByte(offset);
+    }
+
+    @Benchmark
+    public byte[] positionMapObjectToByte() {
+        return positionMapConverter.objectToByte(positions);
+    }
+
+    @Benchmark
+    public Map<RecordPartition, RecordOffset> positionMapByteToObject() {
+        return positionMapConverter.byteToObject(positionsBytes);
+    }
+
+    @Benchmark
+    public byte[] byteMapObjectToByte() {
+        return byteMapConverter.objectToByte(bytePositions);
+    }
+
+    @Benchmark
+    public Map<ByteBuffer, ByteBuffer> byteMapByteToObject() {
+        return byteMapConverter.byteToObject(bytePositionsBytes);
+    }
+
+    @Benchmark
+    public byte[] partitionObjectToByte() {
+        return partitionConverter.objectToByte(partition);
+    }
+
+    @Benchmark
+    public RecordPartition partitionByteToObject() {
+        return partitionConverter.byteToObject(partitionBytes);
+    }
+
+    @Benchmark
+    public byte[] offsetObjectToByte() {
+        return offsetConverter.objectToByte(offset);
+    }
+
+    @Benchmark
+    public RecordOffset offsetByteToObject() {
+        return offsetConverter.byteToObject(offsetBytes);
+    }
+}
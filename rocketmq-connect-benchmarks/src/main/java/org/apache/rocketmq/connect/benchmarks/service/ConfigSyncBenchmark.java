@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.connect.benchmarks.service;
+
+import io.openmessaging.KeyValue;
+import io.openmessaging.connector.api.component.ComponentContext;
+import io.openmessaging.connector.api.component.connector.Connector;
+import io.openmessaging.connector.api.component.connector.ConnectorContext;
+import io.openmessaging.connector.api.component.task.Task;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.apache.rocketmq.connect.runtime.common.ConnAndTaskConfigs;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
+import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
+import org.apache.rocketmq.connect.runtime.converter.ConnAndTaskConfigConverter;
+import org.apache.rocketmq.connect.runtime.converter.JsonConverter;
+import org.apache.rocketmq.connect.runtime.service.ConfigManagementServiceImpl;
+import org.apache.rocketmq.connect.runtime.utils.Plugin;
+import org.apache.rocketmq.connect.runtime.utils.datasync.DataSyncCodec;
+import org.apache.rocketmq.connect.runtime.utils.datasync.DataSynchronizer;
+import org.apache.rocketmq.connect.runtime.utils.datasync.JsonDataSyncCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Update one of 2k connectors on a worker until the other worker applied it, with the snapshot and the delta config
+ * synchronization. The workers share an in memory config topic that delivers every message as soon as it is sent, so
+ * the time of an update is the apply latency of the change.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigSyncBenchmark {
+
+    @Param({"snapshot", "delta"})
+    private String syncMode;
+
+    @Param({"2000"})
+    private int connectorNums;
+
+    private File storeDir;
+
+    private ConfigBus bus;
+
+    private ConfigManagementServiceImpl sender;
+
+    private ConfigManagementServiceImpl receiver;
+
+    private long round;
+
+    @Setup
+    public void setup() throws Exception {
+        storeDir = Files.createTempDirectory("config-sync-benchmark").toFile();
+        bus = new ConfigBus();
+        sender = createService("worker1");
+        receiver = createService("worker2");
+        // both workers start with the same connectors, only the updates go over the config topic
+        for (int i = 0; i < connectorNums; i++) {
+            sender.putConnectorConfig("connector-" + i, connectorConfig("connector-" + i, 0));
+            receiver.putConnectorConfig("connector-" + i, connectorConfig("connector-" + i, 0));
+        }
+        bus.connected = true;
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        bus.connected = false;
+        sender.stop();
+        receiver.stop();
+        try (Stream<File> files = Files.walk(storeDir.toPath()).map(path -> path.toFile())) {
+            files.sorted(Comparator.reverseOrder()).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public ConnectKeyValue update() throws Exception {
+        round++;
+        String connectorName = "connector-" + round % connectorNums;
+        sender.putConnectorConfig(connectorName, connectorConfig(connectorName, round));
+        return receiver.getConnectorConfigs().get(connectorName);
+    }
+
+    private ConfigManagementServiceImpl createService(String workerId) {
+        ConnectConfig connectConfig = new ConnectConfig();
+        connectConfig.setWorkerId(workerId);
+        connectConfig.setStorePathRootDir(new File(storeDir, workerId).getPath());
+        connectConfig.setConfigSyncMode(syncMode);
+        ConfigManagementServiceImpl service = new ConfigManagementServiceImpl(connectConfig,
+            new Plugin(new ArrayList<>()), bus);
+        bus.services.add(service);
+        service.start();
+        return service;
+    }
+
+    private static ConnectKeyValue connectorConfig(String connectorName, long value) {
+        ConnectKeyValue config = new ConnectKeyValue();
+        config.put(RuntimeConfigDefine.CONNECTOR_CLASS, NoopConnector.class.getName());
+        config.put(RuntimeConfigDefine.CONNECT_TOPICNAME, "topic-" + connectorName);
+        config.put("value", value);
+        return config;
+    }
+
+    /**
+     * Encodes every message as on the config topic and delivers it to all workers once connected.
+     */
+    private static class ConfigBus implements DataSynchronizer<String, ConnAndTaskConfigs> {
+
+        private final JsonConverter keyConverter = new JsonConverter();
+
+        private final ConnAndTaskConfigConverter valueConverter = new ConnAndTaskConfigConverter();
+
+        private final DataSyncCodec codec = new JsonDataSyncCodec();
+
+        private final List<ConfigManagementServiceImpl> services = new ArrayList<>();
+
+        private boolean connected;
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void send(String key, ConnAndTaskConfigs value) {
+            if (!connected) {
+                return;
+            }
+            try {
+                byte[] body = codec.encode(keyConverter.objectToByte(key), valueConverter.objectToByte(value));
+                codec.decode(body, (keyBytes, valueBytes) -> {
+                    for (ConfigManagementServiceImpl service : services) {
+                        service.getConfigChangeCallback().onCompletion(null,
+                            (String) keyConverter.byteToObject(keyBytes), valueConverter.byteToObject(valueBytes));
+                    }
+                });
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * Connector with one task running its own config.
+     */
+    public static class NoopConnector extends Connector {
+
+        private KeyValue config;
+
+        @Override
+        public void validate(KeyValue config) {
+        }
+
+        @Override
+        public void init(KeyValue config) {
+            this.config = config;
+        }
+
+        @Override
+        public void start(ConnectorContext componentContext) {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void pause() {
+        }
+
+        @Override
+        public void resume() {
+        }
+
+        @Override
+        public List<KeyValue> taskConfigs(int maxTasks) {
+            return Collections.singletonList(config);
+        }
+
+        @Override
+        public Class<? extends Task> taskClass() {
+            return NoopTask.class;
+        }
+    }
+
+    /**
+     * Task class of {@link NoopConnector}, the benchmark never starts it.
+     */
+    public static class NoopTask implements Task {
+
+        @Override
+        public void validate(KeyValue config) {
+        }
+
+        @Override
+        public void init(KeyValue config) {
+        }
+
+        @Override
+        public void start(ComponentContext componentContext) {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void pause() {
+        }
+
+        @Override
+        public void resume() {
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.rocketmq.connect.benchmarks.stats;
+
+import java.util.concurrent.TimeUnit;
+import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
+import org.apache.rocketmq.connect.runtime.stats.ConnectStatsManager;
+import org.apache.rocketmq.connect.runtime.stats.PrometheusMetricsWriter;
+import org.apache.rocketmq.connect.runtime.stats.TaskMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * One {@code /metrics} scrape of {@code taskNums} tasks spread over 100 connectors, rendered by the writer the rest
+ * handler shares between its threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrometheusScrapeBenchmark {
+
+    @Param({"100", "5000"})
+    private int taskNums;
+
+    private ConnectStatsManager connectStatsManager;
+
+    private final PrometheusMetricsWriter writer = new PrometheusMetricsWriter();
+
+    @Setup
+    public void setup() {
+        ConnectConfig connectConfig = new ConnectConfig();
+        connectConfig.setWorkerId("benchmark-worker");
+        connectStatsManager = new ConnectStatsManager(connectConfig);
+        for (int i = 0; i < taskNums; i++) {
+            TaskMetrics taskMetrics = connectStatsManager.getTaskMetrics("connector-" + i % 100, "task-" + i);
+            taskMetrics.recordSourcePut(i % 200, 10);
+            taskMetrics.incSourcePutBytes(1000);
+            taskMetrics.recordSendRT(i % 3000);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectStatsManager.shutdown();
+    }
+
+    @Benchmark
+    public int scrape() {
+        writer.write(connectStatsManager.getTaskMetricsTable());
+        return writer.size();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.benchmarks.stats;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
+import org.apache.rocketmq.connect.runtime.stats.ConnectStatsManager;
+import org.apache.rocketmq.connect.runtime.stats.TaskMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * 32 threads recording sink put stats at once, spread over {@code taskNums} tasks. The legacy method records what a
+ * task records per put through the {@code StatsItemSet} table, a task RT and the worker total RT, the other method
+ * records into the {@link TaskMetrics} the task keeps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class StatsContentionBenchmark {
+
+    @Param({"1", "32"})
+    private int taskNums;
+
+    private ConnectStatsManager connectStatsManager;
+
+    private final AtomicInteger threadIndex = new AtomicInteger();
+
+    @Setup
+    public void setup() {
+        ConnectConfig connectConfig = new ConnectConfig();
+        connectConfig.setWorkerId("benchmark-worker");
+        connectStatsManager = new ConnectStatsManager(connectConfig);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectStatsManager.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class TaskState {
+
+        private String taskId;
+
+        private TaskMetrics taskMetrics;
+
+        @Setup
+        public void setup(StatsContentionBenchmark benchmark) {
+            int task = benchmark.threadIndex.getAndIncrement() % benchmark.taskNums;
+            taskId = "task-" + task;
+            taskMetrics = benchmark.connectStatsManager.getTaskMetrics("benchmark-connector", taskId);
+        }
+    }
+
+    @Benchmark
+    public void recordLegacy(TaskState taskState) {
+        long rt = ThreadLocalRandom.current().nextInt(100);
+        connectStatsManager.incSinkRecordPutTotalRT(rt);
+        connectStatsManager.incSinkRecordPutRT(taskState.taskId, rt);
+    }
+
+    @Benchmark
+    public void record(TaskState taskState) {
+        taskState.taskMetrics.recordSinkPut(ThreadLocalRandom.current().nextInt(100), 1);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.benchmarks.store;
+
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
+import org.apache.rocketmq.connect.runtime.converter.RecordOffsetConverter;
+import org.apache.rocketmq.connect.runtime.converter.RecordPartitionConverter;
+import org.apache.rocketmq.connect.runtime.store.KeyValueStore;
+import org.apache.rocketmq.connect.runtime.store.KeyValueStoreFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Update 1% of the positions and persist them with every store type of {@link KeyValueStoreFactory}, for stores of
+ * 10k, 100k and 1M positions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PositionStoreBenchmark {
+
+    @Param({"file", "log", "mmap"})
+    private String storeType;
+
+    @Param({"10000", "100000", "1000000"})
+    private int keyNums;
+
+    private File storeDir;
+
+    private KeyValueStore<RecordPartition, RecordOffset> store;
+
+    private RecordPartition[] partitions;
+
+    private long round;
+
+    @Setup
+    public void setup() throws IOException {
+        storeDir = Files.createTempDirectory("position-store-benchmark").toFile();
+        ConnectConfig connectConfig = new ConnectConfig();
+        connectConfig.setKeyValueStoreType(storeType);
+        store = KeyValueStoreFactory.createFileStore(connectConfig, new File(storeDir, "position.json").getPath(),
+            new RecordPartitionConverter(), new RecordOffsetConverter());
+        store.load();
+        partitions = new RecordPartition[keyNums];
+        for (int i = 0; i < keyNums; i++) {
+            Map<String, String> partition = new HashMap<>();
+            partition.put("topic", "benchmarkTopic");
+            partition.put("brokerName", "broker-a");
+            partition.put("queueId", String.valueOf(i));
+            partitions[i] = new RecordPartition(partition);
+            store.put(partitions[i], offset(0));
+        }
+        store.persist();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<File> files = Files.walk(storeDir.toPath()).map(path -> path.toFile())) {
+            files.sorted(Comparator.reverseOrder()).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public void persistChangedPositions() {
+        round++;
+        int changedNums = Math.max(1, keyNums / 100);
+        for (int i = 0; i < changedNums; i++) {
+            store.put(partitions[(int) ((i * 97 + round) % keyNums)], offset(round));
+        }
+        store.persist();
+    }
+
+    private static RecordOffset offset(long offset) {
+        Map<String, String> position = new HashMap<>();
+        position.put("queueOffset", String.valueOf(offset));
+        return new RecordOffset(position);
+    }
+}
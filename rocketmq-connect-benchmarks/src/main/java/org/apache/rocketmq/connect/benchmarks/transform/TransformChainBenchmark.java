@@ -0,0 +1,169 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.benchmarks.transform;
+
+import io.openmessaging.KeyValue;
+import io.openmessaging.connector.api.component.ComponentContext;
+import io.openmessaging.connector.api.component.Transform;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import io.openmessaging.connector.api.data.SchemaBuilder;
+import io.openmessaging.internal.DefaultKeyValue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
+import org.apache.rocketmq.connect.runtime.connectorwrapper.BatchTransform;
+import org.apache.rocketmq.connect.runtime.connectorwrapper.TransformChain;
+import org.apache.rocketmq.connect.runtime.utils.Plugin;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Run a chain of {@code transformNums} transforms over a batch of records. {@code perRecord} is the loop the worker
+ * tasks ran before, the chain once per record, {@code batch} runs single record transforms through the batch
+ * adapter, and {@code batchNative} runs transforms implementing {@link BatchTransform}, which read their config once
+ * per batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransformChainBenchmark {
+
+    @Param({"1", "3", "5"})
+    private int transformNums;
+
+    @Param({"1000"})
+    private int recordNums;
+
+    private TransformChain<ConnectRecord> singleChain;
+
+    private TransformChain<ConnectRecord> batchChain;
+
+    private List<ConnectRecord> records;
+
+    @Setup
+    public void setup() {
+        singleChain = newChain(TagTransform.class);
+        batchChain = newChain(BatchTagTransform.class);
+        records = new ArrayList<>(recordNums);
+        for (int i = 0; i < recordNums; i++) {
+            records.add(new ConnectRecord(null, null, System.currentTimeMillis(), SchemaBuilder.string().build(),
+                "record-" + i));
+        }
+    }
+
+    private TransformChain<ConnectRecord> newChain(Class<?> transformClass) {
+        KeyValue config = new DefaultKeyValue();
+        StringBuilder transforms = new StringBuilder();
+        for (int i = 0; i < transformNums; i++) {
+            String name = "tag" + i;
+            transforms.append(i == 0 ? "" : ",").append(name);
+            config.put(RuntimeConfigDefine.TRANSFORMS + "-" + name + "-class", transformClass.getName());
+            config.put(RuntimeConfigDefine.TRANSFORMS + "-" + name + "-key", name);
+            config.put(RuntimeConfigDefine.TRANSFORMS + "-" + name + "-value", "value" + i);
+        }
+        config.put(RuntimeConfigDefine.TRANSFORMS, transforms.toString());
+        return new TransformChain<>(config, new Plugin(new ArrayList<>()));
+    }
+
+    @Benchmark
+    public List<ConnectRecord> perRecord() {
+        List<ConnectRecord> transformed = new ArrayList<>(32);
+        for (ConnectRecord record : records) {
+            ConnectRecord transformedRecord = singleChain.doTransforms(record);
+            if (null != transformedRecord) {
+                transformed.add(transformedRecord);
+            }
+        }
+        return transformed;
+    }
+
+    @Benchmark
+    public List<ConnectRecord> batch() {
+        return singleChain.doTransforms(records);
+    }
+
+    @Benchmark
+    public List<ConnectRecord> batchNative() {
+        return batchChain.doTransforms(records);
+    }
+
+    /**
+     * Adds the configured extension to every record, reading the config per record.
+     */
+    public static class TagTransform implements Transform<ConnectRecord> {
+
+        protected KeyValue config;
+
+        @Override
+        public ConnectRecord doTransform(ConnectRecord record) {
+            record.addExtension(config.getString("key"), config.getString("value"));
+            return record;
+        }
+
+        @Override
+        public void validate(KeyValue config) {
+        }
+
+        @Override
+        public void init(KeyValue config) {
+            this.config = config;
+        }
+
+        @Override
+        public void start(ComponentContext componentContext) {
+        }
+
+        @Override
+        public void stop() {
+        }
+    }
+
+    /**
+     * Adds the configured extension to every record, reading the config once per batch.
+     */
+    public static class BatchTagTransform extends TagTransform implements BatchTransform<ConnectRecord> {
+
+        @Override
+        public List<ConnectRecord> doTransform(List<ConnectRecord> records) {
+            String key = config.getString("key");
+            String value = config.getString("value");
+            for (ConnectRecord record : records) {
+                record.addExtension(key, value);
+            }
+            return records;
+        }
+
+        @Override
+        public ConnectRecord doTransform(ConnectRecord record) {
+            return BatchTransform.super.doTransform(record);
+        }
+    }
+}
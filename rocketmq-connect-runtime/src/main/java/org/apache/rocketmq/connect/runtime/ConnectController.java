@@ -40,6 +40,7 @@ import org.apache.rocketmq.connect.runtime.service.strategy.AllocateConnAndTaskS
 import org.apache.rocketmq.connect.runtime.stats.ConnectStatsManager;
 import org.apache.rocketmq.connect.runtime.stats.ConnectStatsService;
 import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
+import org.apache.rocketmq.connect.runtime.utils.FilePathConfigUtil;
 import org.apache.rocketmq.connect.runtime.utils.Plugin;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -119,7 +120,8 @@ public class ConnectController {
                 }
             }
         }
-        plugin = new Plugin(pluginPaths);
+        plugin = new Plugin(pluginPaths, Plugin.class.getClassLoader(),
+            FilePathConfigUtil.getPluginIndexPath(connectConfig.getStorePathRootDir()));
         plugin.initPlugin();
         this.connectStatsManager = new ConnectStatsManager(connectConfig);
         this.connectStatsService = new ConnectStatsService();
@@ -159,6 +161,26 @@ public class ConnectController {
             }
         }, 1000, this.connectConfig.getConfigPersistInterval(), TimeUnit.MILLISECONDS);
 
+        // Detect configurations diverged from the other workers.
+        this.scheduledExecutorService.scheduleAtFixedRate(() -> {
+
+            try {
+                ConnectController.this.configManagementService.sendConfigChecksum();
+            } catch (Exception e) {
+                log.error("schedule send config checksum error.", e);
+            }
+        }, 1000, this.connectConfig.getConfigChecksumInterval(), TimeUnit.MILLISECONDS);
+
+        // Report the load of the running tasks for load aware allocation.
+        this.scheduledExecutorService.scheduleAtFixedRate(() -> {
+
+            try {
+                ConnectController.this.rebalanceImpl.reportTaskLoads();
+            } catch (Exception e) {
+                log.error("schedule report task loads error.", e);
+            }
+        }, 1000, this.connectConfig.getTaskLoadReportInterval(), TimeUnit.MILLISECONDS);
+
         // Persist position information of source tasks.
         this.scheduledExecutorService.scheduleAtFixedRate(() -> {
 
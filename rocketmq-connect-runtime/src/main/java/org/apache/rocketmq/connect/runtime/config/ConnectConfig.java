@@ -112,12 +112,53 @@ public class ConnectConfig {
      */
     private int configPersistInterval = 20 * 1000;
 
+    /**
+     * Type of the local position, offset and config stores, "file" rewrites a json file on every persist, "log"
+     * appends only the changed entries to a segment log, "mmap" updates the changed positions and offsets in place in
+     * a memory mapped file and keeps the config in the log store.
+     */
+    private String keyValueStoreType = "file";
+
+    /**
+     * Encoding of the messages synchronized between workers, "json" or "binary". Both are always decoded, switch to
+     * "binary" after every worker in the cluster is upgraded.
+     */
+    private String dataSyncCodec = "json";
+
+    /**
+     * Binary synchronize messages of at least this many bytes are compressed, a negative value disables compression.
+     */
+    private int dataSyncCompressMinBytes = 4096;
+
+    /**
+     * How a config change is synchronized to the other workers, "snapshot" sends the configs of all connectors, "delta"
+     * sends only the changed connector with its version. Both are always applied, switch to "delta" after every worker
+     * in the cluster is upgraded.
+     */
+    private String configSyncMode = "snapshot";
+
+    /**
+     * Interval of broadcasting a checksum of the local configs in delta mode, workers holding different configs answer
+     * with a snapshot.
+     */
+    private int configChecksumInterval = 60 * 1000;
+
+    /**
+     * Max number of tasks the worker creates or cleans up at the same time when the task assignment changes.
+     */
+    private int taskStartStopParallelism = 8;
+
     private String pluginPaths;
 
     private String connectClusterId = "DefaultConnectCluster";
 
     private String allocTaskStrategy = "org.apache.rocketmq.connect.runtime.service.strategy.DefaultAllocateConnAndTaskStrategy";
 
+    /**
+     * Interval of broadcasting the load of the running tasks, only when the load aware allocate strategy is used.
+     */
+    private int taskLoadReportInterval = 60 * 1000;
+
     private boolean aclEnable = false;
 
     private String accessKey;
@@ -250,6 +291,54 @@ public class ConnectConfig {
         this.configPersistInterval = configPersistInterval;
     }
 
+    public String getKeyValueStoreType() {
+        return keyValueStoreType;
+    }
+
+    public void setKeyValueStoreType(String keyValueStoreType) {
+        this.keyValueStoreType = keyValueStoreType;
+    }
+
+    public String getDataSyncCodec() {
+        return dataSyncCodec;
+    }
+
+    public void setDataSyncCodec(String dataSyncCodec) {
+        this.dataSyncCodec = dataSyncCodec;
+    }
+
+    public int getDataSyncCompressMinBytes() {
+        return dataSyncCompressMinBytes;
+    }
+
+    public void setDataSyncCompressMinBytes(int dataSyncCompressMinBytes) {
+        this.dataSyncCompressMinBytes = dataSyncCompressMinBytes;
+    }
+
+    public String getConfigSyncMode() {
+        return configSyncMode;
+    }
+
+    public void setConfigSyncMode(String configSyncMode) {
+        this.configSyncMode = configSyncMode;
+    }
+
+    public int getConfigChecksumInterval() {
+        return configChecksumInterval;
+    }
+
+    public void setConfigChecksumInterval(int configChecksumInterval) {
+        this.configChecksumInterval = configChecksumInterval;
+    }
+
+    public int getTaskStartStopParallelism() {
+        return taskStartStopParallelism;
+    }
+
+    public void setTaskStartStopParallelism(int taskStartStopParallelism) {
+        this.taskStartStopParallelism = taskStartStopParallelism;
+    }
+
     public String getPluginPaths() {
         return pluginPaths;
     }
@@ -306,6 +395,14 @@ public class ConnectConfig {
         return this.allocTaskStrategy;
     }
 
+    public int getTaskLoadReportInterval() {
+        return taskLoadReportInterval;
+    }
+
+    public void setTaskLoadReportInterval(int taskLoadReportInterval) {
+        this.taskLoadReportInterval = taskLoadReportInterval;
+    }
+
     public boolean getAclEnable() {
         return aclEnable;
     }
@@ -376,9 +473,16 @@ public class ConnectConfig {
             ", positionPersistInterval=" + positionPersistInterval +
             ", offsetPersistInterval=" + offsetPersistInterval +
             ", configPersistInterval=" + configPersistInterval +
+            ", keyValueStoreType='" + keyValueStoreType + '\'' +
+            ", dataSyncCodec='" + dataSyncCodec + '\'' +
+            ", dataSyncCompressMinBytes=" + dataSyncCompressMinBytes +
+            ", configSyncMode='" + configSyncMode + '\'' +
+            ", configChecksumInterval=" + configChecksumInterval +
+            ", taskStartStopParallelism=" + taskStartStopParallelism +
             ", pluginPaths='" + pluginPaths + '\'' +
             ", connectClusterId='" + connectClusterId + '\'' +
             ", allocTaskStrategy='" + allocTaskStrategy + '\'' +
+            ", taskLoadReportInterval=" + taskLoadReportInterval +
             ", aclEnable=" + aclEnable +
             ", accessKey='" + accessKey + '\'' +
             ", secretKey='" + secretKey + '\'' +
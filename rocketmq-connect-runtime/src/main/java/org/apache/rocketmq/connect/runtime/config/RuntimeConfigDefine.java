@@ -34,6 +34,16 @@ public class RuntimeConfigDefine {
 
     public static final String CONNECTOR_DIRECT_ENABLE = "connector-direct-enable";
 
+    /**
+     * Whether a direct task polls, transforms and puts on separate threads linked by bounded buffers.
+     */
+    public static final String DIRECT_PIPELINE_ENABLE = "direct-pipeline-enable";
+
+    /**
+     * Max number of batches buffered between two stages of a pipelined direct task.
+     */
+    public static final String DIRECT_PIPELINE_BUFFER_SIZE = "direct-pipeline-buffer-size";
+
     public static final String TASK_CLASS = "task-class";
 
     public static final String TASK_ID = "task-id";
@@ -58,6 +68,11 @@ public class RuntimeConfigDefine {
      */
     public static final String CONFIG_DELETED = "config-deleted";
 
+    /**
+     * Version of the connector config, increased by every update and removal of the connector.
+     */
+    public static final String CONFIG_VERSION = "config-version";
+
     /**
      * The full class name of record converter. Which is used to parse {@link ConnectRecord} to/from byte[].
      */
@@ -91,8 +106,73 @@ public class RuntimeConfigDefine {
 
     public static final String CONNECT_SCHEMA = "connect-schema";
 
+    /**
+     * Prefix of the message properties carrying the extensions of a record.
+     */
+    public static final String CONNECT_EXT_PREFIX = "connect-ext-";
+
     public static final String TRANSFORMS = "transforms";
 
+    /**
+     * Whether the source task sends the records of one poll as message batches.
+     */
+    public static final String SOURCE_BATCH_SEND_ENABLE = "source-batch-send-enable";
+
+    /**
+     * Max number of messages in one batch, only used when batch send is enabled.
+     */
+    public static final String SOURCE_BATCH_SEND_MAX_NUMS = "source-batch-send-max-nums";
+
+    /**
+     * Max number of batches that are sent but not yet acknowledged, only used when batch send is enabled.
+     */
+    public static final String SOURCE_BATCH_SEND_MAX_INFLIGHT = "source-batch-send-max-inflight";
+
+    /**
+     * Max number of messages the source task has sent but not yet seen acknowledged, polling blocks above it.
+     */
+    public static final String SOURCE_MAX_INFLIGHT_MESSAGES = "source-max-inflight-messages";
+
+    /**
+     * Max body bytes of the messages the source task has sent but not yet seen acknowledged, polling blocks above it.
+     */
+    public static final String SOURCE_MAX_INFLIGHT_BYTES = "source-max-inflight-bytes";
+
+    /**
+     * Whether the sink task keeps pulls outstanding on all assigned queues at once.
+     */
+    public static final String SINK_PARALLEL_PULL_ENABLE = "sink-parallel-pull-enable";
+
+    /**
+     * Max number of pull results that are buffered or in flight, only used when parallel pull is enabled.
+     */
+    public static final String SINK_PULL_BUFFER_SIZE = "sink-pull-buffer-size";
+
+    /**
+     * Max number of messages put to the sink task at one time, only used when parallel pull is enabled.
+     */
+    public static final String SINK_PUT_MAX_BATCH_NUMS = "sink-put-max-batch-nums";
+
+    /**
+     * Backoff of a message queue after its first pull error, doubled with every consecutive error.
+     */
+    public static final String SINK_PULL_BACKOFF_INITIAL_MS = "sink-pull-backoff-initial-ms";
+
+    /**
+     * Max backoff of a message queue that keeps failing to pull.
+     */
+    public static final String SINK_PULL_BACKOFF_MAX_MS = "sink-pull-backoff-max-ms";
+
+    /**
+     * Max interval between two offset commits of a sink task, falls back to offset.flush.timeout.ms.
+     */
+    public static final String SINK_OFFSET_COMMIT_INTERVAL_MS = "sink-offset-commit-interval-ms";
+
+    /**
+     * Records put by a sink task that make an offset commit due before the interval passes, 0 to commit by time only.
+     */
+    public static final String SINK_OFFSET_COMMIT_MAX_RECORDS = "sink-offset-commit-max-records";
+
     /**
      * The required key for all configurations.
      */
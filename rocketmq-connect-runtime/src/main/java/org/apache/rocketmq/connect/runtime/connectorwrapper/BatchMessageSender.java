@@ -0,0 +1,277 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.rocketmq.client.exception.MQClientException;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.connect.runtime.common.LoggerName;
+import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Send the records of one poll to MQ as {@link org.apache.rocketmq.common.message.MessageBatch}es. Messages are grouped
+ * by destination queue, every group is split into batches of at most {@code maxBatchNums} messages, and at most
+ * {@code maxInFlightBatches} batches are outstanding at the same time. As with async single message sends, batches that
+ * are in flight together may be acknowledged out of order.
+ */
+public class BatchMessageSender {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggerName.ROCKETMQ_RUNTIME);
+
+    /**
+     * How long the publish queues of a topic are cached before they are fetched again.
+     */
+    private static final long TOPIC_QUEUES_EXPIRE_MILLS = 30 * 1000;
+
+    /**
+     * Bytes reserved for each message in a batch besides its body and properties.
+     */
+    private static final int MESSAGE_OVERHEAD_BYTES = 64;
+
+    private final DefaultMQProducer producer;
+
+    private final int maxBatchNums;
+
+    private final int maxInFlightBatches;
+
+    /**
+     * One permit for every batch that may be in flight.
+     */
+    private final Semaphore inFlightWindow;
+
+    private final ExecutorService sendExecutor;
+
+    private final Map<String, TopicQueues> topicQueuesTable = new ConcurrentHashMap<>();
+
+    private final AtomicInteger queueIndex = new AtomicInteger(0);
+
+    public BatchMessageSender(DefaultMQProducer producer, int maxBatchNums, int maxInFlightBatches, String taskId) {
+        this.producer = producer;
+        this.maxBatchNums = Math.max(1, maxBatchNums);
+        this.maxInFlightBatches = Math.max(1, maxInFlightBatches);
+        this.inFlightWindow = new Semaphore(this.maxInFlightBatches);
+        this.sendExecutor = new ThreadPoolExecutor(this.maxInFlightBatches, this.maxInFlightBatches,
+            60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new DefaultThreadFactory("source-batch-send-" + taskId + "-"));
+    }
+
+    /**
+     * Send messages with their source records. Blocks while the in-flight window is full.
+     *
+     * @param messages messages to send
+     * @param records the records the messages are converted from, in the same order
+     * @param callback invoked once per batch when the batch is acknowledged or fails
+     * @throws InterruptedException
+     */
+    public void send(List<Message> messages, List<ConnectRecord> records,
+        BatchSendCallback callback) throws InterruptedException {
+        if (CollectionUtils.isEmpty(messages)) {
+            return;
+        }
+        for (Batch batch : split(messages, records)) {
+            inFlightWindow.acquire();
+            try {
+                sendExecutor.execute(() -> sendBatch(batch, callback));
+            } catch (RuntimeException e) {
+                inFlightWindow.release();
+                throw e;
+            }
+        }
+    }
+
+    private void sendBatch(Batch batch, BatchSendCallback callback) {
+        try {
+            SendResult sendResult;
+            if (null == batch.messageQueue) {
+                sendResult = producer.send(batch.messages);
+            } else {
+                sendResult = producer.send(batch.messages, batch.messageQueue);
+            }
+            log.debug("Successful send batch to RocketMQ, size {}, result {}", batch.messages.size(), sendResult);
+            callback.onSuccess(batch.records, sendResult);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            callback.onException(batch.records, e);
+        } catch (Throwable e) {
+            callback.onException(batch.records, e);
+        } finally {
+            inFlightWindow.release();
+        }
+    }
+
+    /**
+     * Group messages by destination queue, keeping their relative order, then cut every group by count and size.
+     */
+    private List<Batch> split(List<Message> messages, List<ConnectRecord> records) {
+        Map<String, Map<MessageQueue, Batch>> groups = new LinkedHashMap<>();
+        Map<String, MessageQueue> defaultQueues = new LinkedHashMap<>();
+        List<Batch> batches = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            Message message = messages.get(i);
+            String topic = message.getTopic();
+            List<MessageQueue> queues = publishQueues(topic);
+            MessageQueue messageQueue = null;
+            if (!queues.isEmpty()) {
+                String keys = message.getKeys();
+                if (StringUtils.isNotEmpty(keys)) {
+                    messageQueue = queues.get((keys.hashCode() & Integer.MAX_VALUE) % queues.size());
+                } else {
+                    messageQueue = defaultQueues.computeIfAbsent(topic,
+                        key -> queues.get((queueIndex.getAndIncrement() & Integer.MAX_VALUE) % queues.size()));
+                }
+            }
+            Map<MessageQueue, Batch> topicGroup = groups.computeIfAbsent(topic, key -> new LinkedHashMap<>());
+            Batch batch = topicGroup.get(messageQueue);
+            int messageSize = estimateSize(message);
+            if (null != batch && (batch.messages.size() >= maxBatchNums
+                || batch.bytes + messageSize > RuntimeConfigDefine.MAX_MESSAGE_SIZE)) {
+                batches.add(batch);
+                batch = null;
+            }
+            if (null == batch) {
+                batch = new Batch(messageQueue);
+                topicGroup.put(messageQueue, batch);
+            }
+            batch.add(message, records.get(i), messageSize);
+        }
+        for (Map<MessageQueue, Batch> topicGroup : groups.values()) {
+            batches.addAll(topicGroup.values());
+        }
+        return batches;
+    }
+
+    private List<MessageQueue> publishQueues(String topic) {
+        TopicQueues topicQueues = topicQueuesTable.get(topic);
+        long now = System.currentTimeMillis();
+        if (null == topicQueues || now - topicQueues.fetchTimestamp > TOPIC_QUEUES_EXPIRE_MILLS) {
+            List<MessageQueue> queues = new ArrayList<>();
+            try {
+                List<MessageQueue> fetched = producer.fetchPublishMessageQueues(topic);
+                if (null != fetched) {
+                    queues.addAll(fetched);
+                }
+            } catch (MQClientException e) {
+                log.warn("Fetch publish message queues failed, topic {}, let the producer select queue", topic, e);
+            }
+            topicQueues = new TopicQueues(queues, now);
+            topicQueuesTable.put(topic, topicQueues);
+        }
+        return topicQueues.queues;
+    }
+
+    private static int estimateSize(Message message) {
+        int size = MESSAGE_OVERHEAD_BYTES + message.getTopic().length();
+        if (null != message.getBody()) {
+            size += message.getBody().length;
+        }
+        if (null != message.getProperties()) {
+            for (Map.Entry<String, String> entry : message.getProperties().entrySet()) {
+                size += entry.getKey().length() + (null == entry.getValue() ? 0 : entry.getValue().length()) + 2;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Number of batches that are sent but not yet acknowledged.
+     *
+     * @return
+     */
+    public int getInFlightBatches() {
+        return maxInFlightBatches - inFlightWindow.availablePermits();
+    }
+
+    /**
+     * Wait for the in-flight batches to complete, then release the send threads.
+     *
+     * @param timeoutMills max time to wait
+     */
+    public void shutdown(long timeoutMills) {
+        try {
+            if (!inFlightWindow.tryAcquire(maxInFlightBatches, timeoutMills, TimeUnit.MILLISECONDS)) {
+                log.warn("Wait for in-flight batches timeout, {} batches are not acknowledged", getInFlightBatches());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            sendExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Callback of a batch send.
+     */
+    public interface BatchSendCallback {
+
+        void onSuccess(List<ConnectRecord> records, SendResult sendResult);
+
+        void onException(List<ConnectRecord> records, Throwable throwable);
+    }
+
+    private static class Batch {
+
+        private final MessageQueue messageQueue;
+
+        private final List<Message> messages = new ArrayList<>();
+
+        private final List<ConnectRecord> records = new ArrayList<>();
+
+        private int bytes;
+
+        Batch(MessageQueue messageQueue) {
+            this.messageQueue = messageQueue;
+        }
+
+        void add(Message message, ConnectRecord record, int size) {
+            messages.add(message);
+            records.add(record);
+            bytes += size;
+        }
+    }
+
+    private static class TopicQueues {
+
+        private final List<MessageQueue> queues;
+
+        private final long fetchTimestamp;
+
+        TopicQueues(List<MessageQueue> queues, long fetchTimestamp) {
+            this.queues = queues;
+            this.fetchTimestamp = fetchTimestamp;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import io.openmessaging.connector.api.component.Transform;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link Transform} that transforms the records of a whole poll or pull at once, so it can look up its state once
+ * per batch and drop records without a call per record. {@link TransformChain} calls {@link #doTransform(List)} on
+ * transforms implementing it and adapts the others with {@link BatchTransformAdapter}.
+ *
+ * @param <R>
+ */
+public interface BatchTransform<R extends ConnectRecord> extends Transform<R> {
+
+    /**
+     * Transform a batch of records.
+     *
+     * @param records the records, the list is owned by the chain and may be modified and returned
+     * @return the transformed records without the dropped ones, an empty list or null drops the whole batch
+     */
+    List<R> doTransform(List<R> records);
+
+    /**
+     * Transform one record as a batch of one.
+     *
+     * @param record
+     * @return the transformed record, or null if it is dropped
+     */
+    @Override
+    default R doTransform(R record) {
+        List<R> records = new ArrayList<>(1);
+        records.add(record);
+        List<R> transformed = doTransform(records);
+        return null == transformed || transformed.isEmpty() ? null : transformed.get(0);
+    }
+}
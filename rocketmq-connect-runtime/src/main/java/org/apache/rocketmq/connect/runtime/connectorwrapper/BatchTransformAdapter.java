@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import io.openmessaging.KeyValue;
+import io.openmessaging.connector.api.component.ComponentContext;
+import io.openmessaging.connector.api.component.Transform;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import java.util.List;
+
+/**
+ * Run a single record {@link Transform} over a batch, record by record. The records kept are compacted to the front of
+ * the given list, so no list is allocated per batch.
+ *
+ * @param <R>
+ */
+public class BatchTransformAdapter<R extends ConnectRecord> implements BatchTransform<R> {
+
+    private final Transform<R> transform;
+
+    public BatchTransformAdapter(Transform<R> transform) {
+        this.transform = transform;
+    }
+
+    @Override
+    public List<R> doTransform(List<R> records) {
+        int kept = 0;
+        for (int i = 0; i < records.size(); i++) {
+            R record = transform.doTransform(records.get(i));
+            if (null != record) {
+                records.set(kept++, record);
+            }
+        }
+        if (kept < records.size()) {
+            records.subList(kept, records.size()).clear();
+        }
+        return records;
+    }
+
+    @Override
+    public R doTransform(R record) {
+        return transform.doTransform(record);
+    }
+
+    @Override
+    public void validate(KeyValue config) {
+        transform.validate(config);
+    }
+
+    @Override
+    public void init(KeyValue config) {
+        transform.init(config);
+    }
+
+    @Override
+    public void start(ComponentContext componentContext) {
+        transform.start(componentContext);
+    }
+
+    @Override
+    public void stop() {
+        transform.stop();
+    }
+
+    public Transform<R> getTransform() {
+        return transform;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.rocketmq.connect.runtime.stats.TaskMetrics;
+
+/**
+ * Bounds the messages a source task has sent but not yet seen acknowledged, by count and by body bytes. The task
+ * acquires before every send and the send callback releases, so a slow broker slows down polling instead of piling
+ * up messages in memory. A limit not greater than 0 is disabled. A send larger than the limits is admitted alone
+ * when nothing else is in flight, so it can not block forever.
+ */
+public class InFlightLimiter {
+
+    private final long maxMessages;
+
+    private final long maxBytes;
+
+    private final TaskMetrics taskMetrics;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition released = lock.newCondition();
+
+    private long inFlightMessages;
+
+    private long inFlightBytes;
+
+    public InFlightLimiter(long maxMessages, long maxBytes, TaskMetrics taskMetrics) {
+        this.maxMessages = maxMessages;
+        this.maxBytes = maxBytes;
+        this.taskMetrics = taskMetrics;
+    }
+
+    /**
+     * Wait until the messages fit in the limits, then count them as in flight.
+     *
+     * @param messageNums
+     * @param bytes total body bytes of the messages
+     * @param timeout max time to wait
+     * @param unit
+     * @return false if the messages still do not fit after the timeout
+     * @throws InterruptedException
+     */
+    public boolean tryAcquire(int messageNums, long bytes, long timeout,
+        TimeUnit unit) throws InterruptedException {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try {
+            while (!fits(messageNums, bytes)) {
+                if (nanos <= 0) {
+                    return false;
+                }
+                nanos = released.awaitNanos(nanos);
+            }
+            inFlightMessages += messageNums;
+            inFlightBytes += bytes;
+            updateMetrics();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Count the messages as acknowledged or failed.
+     *
+     * @param messageNums
+     * @param bytes total body bytes of the messages
+     */
+    public void release(int messageNums, long bytes) {
+        lock.lock();
+        try {
+            inFlightMessages = Math.max(0, inFlightMessages - messageNums);
+            inFlightBytes = Math.max(0, inFlightBytes - bytes);
+            updateMetrics();
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(int messageNums, long bytes) {
+        if (0 == inFlightMessages) {
+            return true;
+        }
+        return (maxMessages <= 0 || inFlightMessages + messageNums <= maxMessages)
+            && (maxBytes <= 0 || inFlightBytes + bytes <= maxBytes);
+    }
+
+    private void updateMetrics() {
+        if (null != taskMetrics) {
+            taskMetrics.setSourceInFlight(inFlightMessages, inFlightBytes);
+        }
+    }
+
+    public long getInFlightMessages() {
+        lock.lock();
+        try {
+            return inFlightMessages;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getInFlightBytes() {
+        lock.lock();
+        try {
+            return inFlightBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
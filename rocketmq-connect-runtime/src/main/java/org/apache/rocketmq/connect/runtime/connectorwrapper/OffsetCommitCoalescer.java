@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
+
+/**
+ * Offsets of a sink task waiting to be committed. Only the queues whose offset advanced since the last commit are
+ * tracked and converted, an idle queue costs nothing per commit. A commit is due once the interval passed since the
+ * last one or once enough records were put, whichever comes first, so a busy task commits more often than an idle
+ * one without committing after every batch.
+ */
+public class OffsetCommitCoalescer {
+
+    private final long commitIntervalMs;
+
+    /**
+     * Records put since the last commit that make a commit due, 0 to commit by time only.
+     */
+    private final long commitMaxRecords;
+
+    private final Map<MessageQueue, Long> dirtyOffsets = new HashMap<>();
+
+    private final Map<MessageQueue, RecordPartition> recordPartitions = new HashMap<>();
+
+    private long pendingRecords;
+
+    private long nextCommitTime;
+
+    public OffsetCommitCoalescer(long commitIntervalMs, long commitMaxRecords, long now) {
+        this.commitIntervalMs = Math.max(0, commitIntervalMs);
+        this.commitMaxRecords = Math.max(0, commitMaxRecords);
+        this.nextCommitTime = now + this.commitIntervalMs;
+    }
+
+    /**
+     * Record the next offset of a queue.
+     *
+     * @param messageQueue
+     * @param offset next offset to consume
+     * @param records records put up to the offset
+     */
+    public synchronized void update(MessageQueue messageQueue, long offset, int records) {
+        dirtyOffsets.put(messageQueue, offset);
+        pendingRecords += records;
+    }
+
+    /**
+     * Whether the interval passed or enough records were put since the last commit.
+     *
+     * @param now current time in millis
+     * @return
+     */
+    public synchronized boolean isCommitDue(long now) {
+        return now >= nextCommitTime || (commitMaxRecords > 0 && pendingRecords >= commitMaxRecords);
+    }
+
+    /**
+     * Take the offsets of the queues that advanced since the last commit and start the next interval.
+     *
+     * @param now current time in millis
+     * @return offsets to commit, empty when no queue advanced
+     */
+    public synchronized Map<RecordPartition, RecordOffset> drain(long now) {
+        nextCommitTime = now + commitIntervalMs;
+        pendingRecords = 0;
+        if (dirtyOffsets.isEmpty()) {
+            return new HashMap<>();
+        }
+        Map<RecordPartition, RecordOffset> offsets = new HashMap<>(dirtyOffsets.size() * 2);
+        for (Map.Entry<MessageQueue, Long> entry : dirtyOffsets.entrySet()) {
+            RecordPartition recordPartition = recordPartitions.computeIfAbsent(entry.getKey(),
+                ConnectUtil::convertToRecordPartition);
+            offsets.put(recordPartition, ConnectUtil.convertToRecordOffset(entry.getValue()));
+        }
+        dirtyOffsets.clear();
+        return offsets;
+    }
+
+    /**
+     * Drop the queues that are no longer assigned.
+     *
+     * @param assignedQueues
+     */
+    public synchronized void retainAll(Collection<MessageQueue> assignedQueues) {
+        dirtyOffsets.keySet().retainAll(assignedQueues);
+        recordPartitions.keySet().retainAll(assignedQueues);
+    }
+
+    public synchronized int getDirtyQueueNums() {
+        return dirtyOffsets.size();
+    }
+}
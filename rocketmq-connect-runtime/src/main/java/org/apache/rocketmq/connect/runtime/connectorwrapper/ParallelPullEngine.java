@@ -0,0 +1,316 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.rocketmq.client.consumer.DefaultMQPullConsumer;
+import org.apache.rocketmq.client.consumer.PullCallback;
+import org.apache.rocketmq.client.consumer.PullResult;
+import org.apache.rocketmq.client.consumer.PullStatus;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.connect.runtime.common.LoggerName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keep an async pull outstanding on every assigned queue and hand the results to the sink task through a bounded
+ * buffer. Each queue has at most one pull in flight, so the results of one queue are buffered in offset order.
+ */
+public class ParallelPullEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggerName.ROCKETMQ_RUNTIME);
+
+    private final DefaultMQPullConsumer consumer;
+
+    private final int maxMessageNums;
+
+    /**
+     * Max number of pull results that are buffered or in flight.
+     */
+    private final int bufferSize;
+
+    /**
+     * Slots taken by in-flight pulls and buffered results, never greater than {@link #bufferSize}.
+     */
+    private final AtomicInteger usedSlots = new AtomicInteger(0);
+
+    private final LinkedBlockingQueue<PulledMessages> buffer = new LinkedBlockingQueue<>();
+
+    private final Map<MessageQueue, QueuePullState> queuePullStates = new ConcurrentHashMap<>();
+
+    private volatile boolean stopped = false;
+
+    public ParallelPullEngine(DefaultMQPullConsumer consumer, int maxMessageNums, int bufferSize) {
+        this.consumer = consumer;
+        this.maxMessageNums = maxMessageNums;
+        this.bufferSize = Math.max(1, bufferSize);
+    }
+
+    /**
+     * Issue a pull on every assigned queue that is not paused and has no pull in flight, as long as buffer slots are
+     * left. Queues that are no longer assigned are dropped.
+     *
+     * @param assignedOffsets the assigned queues and their committed offsets
+     * @param pausedQueues queues that must not be pulled
+     */
+    public void dispatch(Map<MessageQueue, Long> assignedOffsets, Set<MessageQueue> pausedQueues) {
+        queuePullStates.keySet().retainAll(assignedOffsets.keySet());
+        for (Map.Entry<MessageQueue, Long> entry : assignedOffsets.entrySet()) {
+            MessageQueue messageQueue = entry.getKey();
+            if (stopped) {
+                return;
+            }
+            if (pausedQueues.contains(messageQueue)) {
+                continue;
+            }
+            QueuePullState state = queuePullStates.computeIfAbsent(messageQueue, key -> new QueuePullState(entry.getValue()));
+            long pullOffset;
+            int epoch;
+            synchronized (state) {
+                if (state.inFlight) {
+                    continue;
+                }
+                if (!tryAcquireSlot()) {
+                    return;
+                }
+                state.inFlight = true;
+                pullOffset = state.nextOffset;
+                epoch = state.epoch;
+            }
+            pull(messageQueue, state, pullOffset, epoch);
+        }
+    }
+
+    private void pull(MessageQueue messageQueue, QueuePullState state, long pullOffset, int epoch) {
+        final long beginPullTimestamp = System.currentTimeMillis();
+        try {
+            consumer.pullBlockIfNotFound(messageQueue, "*", pullOffset, maxMessageNums, new PullCallback() {
+                @Override
+                public void onSuccess(PullResult pullResult) {
+                    complete(messageQueue, state, epoch, new PulledMessages(messageQueue, pullOffset, pullResult, null,
+                        System.currentTimeMillis() - beginPullTimestamp, epoch));
+                }
+
+                @Override
+                public void onException(Throwable e) {
+                    complete(messageQueue, state, epoch, new PulledMessages(messageQueue, pullOffset, null, e,
+                        System.currentTimeMillis() - beginPullTimestamp, epoch));
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            complete(messageQueue, state, epoch, new PulledMessages(messageQueue, pullOffset, null, e,
+                System.currentTimeMillis() - beginPullTimestamp, epoch));
+        } catch (Exception e) {
+            complete(messageQueue, state, epoch, new PulledMessages(messageQueue, pullOffset, null, e,
+                System.currentTimeMillis() - beginPullTimestamp, epoch));
+        }
+    }
+
+    private void complete(MessageQueue messageQueue, QueuePullState state, int epoch, PulledMessages pulledMessages) {
+        synchronized (state) {
+            state.inFlight = false;
+            if (stopped || epoch != state.epoch || queuePullStates.get(messageQueue) != state) {
+                releaseSlot();
+                return;
+            }
+            PullResult pullResult = pulledMessages.getPullResult();
+            if (null != pullResult && PullStatus.NO_NEW_MSG != pullResult.getPullStatus()) {
+                state.nextOffset = pullResult.getNextBeginOffset();
+            }
+            buffer.offer(pulledMessages);
+        }
+    }
+
+    /**
+     * Take the buffered pull results, waiting up to {@code timeoutMills} for the first one.
+     *
+     * @param timeoutMills max time to wait when the buffer is empty
+     * @param maxMessages stop taking results once this many messages are taken
+     * @return the pull results, in the order they completed
+     * @throws InterruptedException
+     */
+    public List<PulledMessages> drain(long timeoutMills, int maxMessages) throws InterruptedException {
+        List<PulledMessages> result = new ArrayList<>();
+        int messageNums = 0;
+        PulledMessages pulledMessages = buffer.poll(timeoutMills, TimeUnit.MILLISECONDS);
+        while (null != pulledMessages) {
+            releaseSlot();
+            if (isCurrent(pulledMessages)) {
+                result.add(pulledMessages);
+                messageNums += pulledMessages.getMessageNums();
+            }
+            if (messageNums >= maxMessages) {
+                break;
+            }
+            pulledMessages = buffer.poll();
+        }
+        return result;
+    }
+
+    private boolean isCurrent(PulledMessages pulledMessages) {
+        QueuePullState state = queuePullStates.get(pulledMessages.getMessageQueue());
+        if (null == state) {
+            return false;
+        }
+        synchronized (state) {
+            return state.epoch == pulledMessages.epoch;
+        }
+    }
+
+    /**
+     * Pull the queue from the given offset. In-flight and buffered results of the queue are discarded.
+     *
+     * @param messageQueue
+     * @param offset
+     */
+    public void resetOffset(MessageQueue messageQueue, long offset) {
+        QueuePullState state = queuePullStates.get(messageQueue);
+        if (null == state) {
+            return;
+        }
+        synchronized (state) {
+            state.epoch++;
+            state.nextOffset = offset;
+        }
+        Iterator<PulledMessages> iterator = buffer.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().getMessageQueue().equals(messageQueue)) {
+                iterator.remove();
+                releaseSlot();
+            }
+        }
+    }
+
+    private boolean tryAcquireSlot() {
+        while (true) {
+            int used = usedSlots.get();
+            if (used >= bufferSize) {
+                return false;
+            }
+            if (usedSlots.compareAndSet(used, used + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void releaseSlot() {
+        usedSlots.decrementAndGet();
+    }
+
+    /**
+     * Number of pull results that are buffered or in flight.
+     *
+     * @return
+     */
+    public int getUsedSlots() {
+        return usedSlots.get();
+    }
+
+    public void shutdown() {
+        stopped = true;
+        buffer.clear();
+        queuePullStates.clear();
+        log.info("Parallel pull engine shutdown");
+    }
+
+    /**
+     * The result of one pull.
+     */
+    public static class PulledMessages {
+
+        private final MessageQueue messageQueue;
+
+        private final long pullOffset;
+
+        private final PullResult pullResult;
+
+        private final Throwable error;
+
+        private final long pullRT;
+
+        private final int epoch;
+
+        PulledMessages(MessageQueue messageQueue, long pullOffset, PullResult pullResult, Throwable error, long pullRT,
+            int epoch) {
+            this.messageQueue = messageQueue;
+            this.pullOffset = pullOffset;
+            this.pullResult = pullResult;
+            this.error = error;
+            this.pullRT = pullRT;
+            this.epoch = epoch;
+        }
+
+        public MessageQueue getMessageQueue() {
+            return messageQueue;
+        }
+
+        public long getPullOffset() {
+            return pullOffset;
+        }
+
+        /**
+         * @return the pull result, null if the pull failed
+         */
+        public PullResult getPullResult() {
+            return pullResult;
+        }
+
+        /**
+         * @return the error, null if the pull succeeded
+         */
+        public Throwable getError() {
+            return error;
+        }
+
+        public long getPullRT() {
+            return pullRT;
+        }
+
+        int getMessageNums() {
+            if (null == pullResult || null == pullResult.getMsgFoundList()) {
+                return 0;
+            }
+            return pullResult.getMsgFoundList().size();
+        }
+    }
+
+    private static class QueuePullState {
+
+        private long nextOffset;
+
+        private boolean inFlight;
+
+        /**
+         * Increased on every offset reset, results of an older epoch are discarded.
+         */
+        private int epoch;
+
+        QueuePullState(long nextOffset) {
+            this.nextOffset = nextOffset;
+        }
+    }
+}
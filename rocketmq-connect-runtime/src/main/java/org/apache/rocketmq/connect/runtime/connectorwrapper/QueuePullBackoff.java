@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import org.apache.rocketmq.common.message.MessageQueue;
+
+/**
+ * Pull errors of every message queue of a sink task. A queue that fails is not pulled until its backoff passes, the
+ * backoff doubles with every consecutive failure up to a max and is spread by a random jitter, so the queues on one
+ * failing broker do not retry in lock step. A successful pull resets the queue. Healthy queues are never delayed by a
+ * failing one.
+ */
+public class QueuePullBackoff {
+
+    /**
+     * The backoff is randomly spread within this ratio around its exponential value.
+     */
+    static final double JITTER_RATIO = 0.2;
+
+    private final long initialBackoffMs;
+
+    private final long maxBackoffMs;
+
+    private final Map<MessageQueue, BackoffState> backoffStates = new ConcurrentHashMap<>();
+
+    public QueuePullBackoff(long initialBackoffMs, long maxBackoffMs) {
+        this.initialBackoffMs = Math.max(1, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+    }
+
+    /**
+     * Whether the queue must not be pulled yet.
+     *
+     * @param messageQueue
+     * @param now current time in millis
+     * @return
+     */
+    public boolean isBackingOff(MessageQueue messageQueue, long now) {
+        BackoffState state = backoffStates.get(messageQueue);
+        return null != state && state.backoffUntil > now;
+    }
+
+    /**
+     * Record a failed pull of the queue.
+     *
+     * @param messageQueue
+     * @param now current time in millis
+     * @return backoff of the queue in millis
+     */
+    public long onFailure(MessageQueue messageQueue, long now) {
+        BackoffState last = backoffStates.get(messageQueue);
+        int failures = null == last ? 1 : last.failures + 1;
+        long backoffMs = backoffMs(failures, ThreadLocalRandom.current().nextDouble());
+        backoffStates.put(messageQueue, new BackoffState(failures, now + backoffMs));
+        return backoffMs;
+    }
+
+    /**
+     * Record a successful pull of the queue.
+     *
+     * @param messageQueue
+     */
+    public void onSuccess(MessageQueue messageQueue) {
+        if (!backoffStates.isEmpty()) {
+            backoffStates.remove(messageQueue);
+        }
+    }
+
+    /**
+     * Drop the queues that are no longer assigned.
+     *
+     * @param assignedQueues
+     */
+    public void retainAll(Collection<MessageQueue> assignedQueues) {
+        if (!backoffStates.isEmpty()) {
+            backoffStates.keySet().retainAll(assignedQueues);
+        }
+    }
+
+    /**
+     * Millis to wait before any of the queues can be pulled, 0 when one of them can be pulled now.
+     *
+     * @param queues
+     * @param now current time in millis
+     * @return
+     */
+    public long getRetryDelay(Collection<MessageQueue> queues, long now) {
+        if (backoffStates.isEmpty() || queues.isEmpty()) {
+            return 0;
+        }
+        long retryDelay = Long.MAX_VALUE;
+        for (MessageQueue messageQueue : queues) {
+            BackoffState state = backoffStates.get(messageQueue);
+            if (null == state || state.backoffUntil <= now) {
+                return 0;
+            }
+            retryDelay = Math.min(retryDelay, state.backoffUntil - now);
+        }
+        return retryDelay;
+    }
+
+    /**
+     * The queues that must not be pulled yet.
+     *
+     * @param now current time in millis
+     * @return
+     */
+    public Set<MessageQueue> getBackingOffQueues(long now) {
+        Set<MessageQueue> queues = new HashSet<>();
+        for (Map.Entry<MessageQueue, BackoffState> entry : backoffStates.entrySet()) {
+            if (entry.getValue().backoffUntil > now) {
+                queues.add(entry.getKey());
+            }
+        }
+        return queues;
+    }
+
+    public Map<MessageQueue, BackoffState> getBackoffStates() {
+        return backoffStates;
+    }
+
+    /**
+     * Backoff after the given number of consecutive failures.
+     *
+     * @param failures consecutive failures, at least 1
+     * @param random random value in [0, 1)
+     * @return
+     */
+    long backoffMs(int failures, double random) {
+        long backoffMs = maxBackoffMs;
+        int shift = failures - 1;
+        if (shift < Long.numberOfLeadingZeros(initialBackoffMs) - 1) {
+            backoffMs = Math.min(maxBackoffMs, initialBackoffMs << shift);
+        }
+        double jitter = 1 - JITTER_RATIO + 2 * JITTER_RATIO * random;
+        return Math.max(1, (long) (backoffMs * jitter));
+    }
+
+    public static class BackoffState {
+
+        private final int failures;
+
+        private final long backoffUntil;
+
+        BackoffState(int failures, long backoffUntil) {
+            this.failures = failures;
+            this.backoffUntil = backoffUntil;
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public long getBackoffUntil() {
+            return backoffUntil;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import java.util.Objects;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+
+/**
+ * Identifies a task by its connector name and config, with the hash of the config computed once. The worker keeps
+ * the assigned and the created tasks in hash sets of fingerprints, so finding the tasks to start and to stop costs
+ * one lookup per task, and the whole configs are only compared when the hashes are equal.
+ */
+class TaskFingerprint {
+
+    private final String connectorName;
+
+    private final ConnectKeyValue taskConfig;
+
+    private final int hash;
+
+    TaskFingerprint(String connectorName, ConnectKeyValue taskConfig) {
+        this.connectorName = connectorName;
+        this.taskConfig = taskConfig;
+        this.hash = 31 * Objects.hashCode(connectorName) + Objects.hashCode(taskConfig);
+    }
+
+    public String getConnectorName() {
+        return connectorName;
+    }
+
+    public ConnectKeyValue getTaskConfig() {
+        return taskConfig;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TaskFingerprint)) {
+            return false;
+        }
+        TaskFingerprint that = (TaskFingerprint) o;
+        return hash == that.hash && Objects.equals(connectorName, that.connectorName)
+            && Objects.equals(taskConfig, that.taskConfig);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
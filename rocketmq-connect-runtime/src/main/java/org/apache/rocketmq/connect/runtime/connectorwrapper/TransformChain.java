@@ -39,7 +39,10 @@ public class TransformChain<R extends ConnectRecord> {
 
     private static final Logger log = LoggerFactory.getLogger(LoggerName.ROCKETMQ_RUNTIME);
 
-    private final List<Transform> transformList;
+    /**
+     * The configured transforms in order, single record transforms are wrapped by {@link BatchTransformAdapter}.
+     */
+    private final List<BatchTransform<R>> transformList;
 
     private final KeyValue config;
 
@@ -71,7 +74,7 @@ public class TransformChain<R extends ConnectRecord> {
             String transformClassKey = PREFIX + transformStr + "-class";
             String transformClass = config.getString(transformClassKey);
             try {
-                Transform transform = getTransform(transformClass);
+                Transform<R> transform = getTransform(transformClass);
                 KeyValue transformConfig = new DefaultKeyValue();
                 Set<String> configKeys = config.keySet();
                 for (String key : configKeys) {
@@ -82,7 +85,8 @@ public class TransformChain<R extends ConnectRecord> {
                 }
                 transform.validate(transformConfig);
                 transform.init(transformConfig);
-                this.transformList.add(transform);
+                this.transformList.add(transform instanceof BatchTransform ? (BatchTransform<R>) transform
+                    : new BatchTransformAdapter<>(transform));
             } catch (Exception e) {
                 log.error("transform new instance error", e);
             }
@@ -103,10 +107,30 @@ public class TransformChain<R extends ConnectRecord> {
         return connectRecord;
     }
 
-    private Transform getTransform(String transformClass) throws Exception {
+    /**
+     * Transform the records of one poll or pull, every transform runs once over the whole batch.
+     *
+     * @param connectRecords the records, the list is not modified
+     * @return the transformed records without the dropped ones, the given list when there is no transform
+     */
+    public List<R> doTransforms(List<R> connectRecords) {
+        if (transformList.size() == 0 || CollectionUtils.isEmpty(connectRecords)) {
+            return connectRecords;
+        }
+        List<R> records = new ArrayList<>(connectRecords);
+        for (final BatchTransform<R> transform : transformList) {
+            records = transform.doTransform(records);
+            if (CollectionUtils.isEmpty(records)) {
+                return new ArrayList<>(0);
+            }
+        }
+        return records;
+    }
+
+    private Transform<R> getTransform(String transformClass) throws Exception {
         ClassLoader loader = plugin.getPluginClassLoader(transformClass);
         final ClassLoader currentThreadLoader = plugin.currentThreadLoader();
-        Class transformClazz;
+        Class<?> transformClazz;
         boolean isolationFlag = false;
         if (loader instanceof PluginClassLoader) {
             transformClazz = ((PluginClassLoader) loader).loadClass(transformClass, false);
@@ -114,7 +138,9 @@ public class TransformChain<R extends ConnectRecord> {
         } else {
             transformClazz = Class.forName(transformClass);
         }
-        final Transform transform = (Transform) transformClazz.getDeclaredConstructor().newInstance();
+        // the record type of a configured transform can not be checked, the chain trusts the configuration
+        @SuppressWarnings("unchecked")
+        final Transform<R> transform = (Transform<R>) transformClazz.getDeclaredConstructor().newInstance();
         if (isolationFlag) {
             Plugin.compareAndSwapLoaders(loader);
         }
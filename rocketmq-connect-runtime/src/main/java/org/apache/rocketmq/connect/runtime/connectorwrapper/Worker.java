@@ -27,8 +27,12 @@ import io.openmessaging.connector.api.component.task.source.SourceTask;
 import io.openmessaging.connector.api.data.ConnectRecord;
 import io.openmessaging.connector.api.data.Converter;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -53,8 +57,11 @@ import org.apache.rocketmq.connect.runtime.service.ConfigManagementService;
 import org.apache.rocketmq.connect.runtime.service.DefaultConnectorContext;
 import org.apache.rocketmq.connect.runtime.service.PositionManagementService;
 import org.apache.rocketmq.connect.runtime.service.TaskPositionCommitService;
+import org.apache.rocketmq.connect.runtime.service.strategy.LoadAwareAllocateConnAndTaskStrategy;
 import org.apache.rocketmq.connect.runtime.stats.ConnectStatsManager;
 import org.apache.rocketmq.connect.runtime.stats.ConnectStatsService;
+import org.apache.rocketmq.connect.runtime.stats.TaskLoadSampler;
+import org.apache.rocketmq.connect.runtime.stats.TaskMetrics;
 import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
 import org.apache.rocketmq.connect.runtime.utils.Plugin;
 import org.apache.rocketmq.connect.runtime.utils.PluginClassLoader;
@@ -94,13 +101,23 @@ public class Worker {
     /**
      * Current running tasks to its Future map.
      */
-    private Map<Runnable, Future> taskToFutureMap = new ConcurrentHashMap<>();
+    private Map<Runnable, Future<?>> taskToFutureMap = new ConcurrentHashMap<>();
+
+    /**
+     * Fingerprints of the created tasks, computed once per task instead of on every state check.
+     */
+    private final Map<Runnable, TaskFingerprint> taskFingerprints = new ConcurrentHashMap<>();
 
     /**
      * Thread pool for connectors and tasks.
      */
     private final ExecutorService taskExecutor;
 
+    /**
+     * Bounded thread pool creating and cleaning up tasks concurrently when the task assignment changes.
+     */
+    private final ExecutorService taskStartStopExecutor;
+
     /**
      * Position management for source tasks.
      */
@@ -130,18 +147,30 @@ public class Worker {
 
     private final ConnectStatsService connectStatsService;
 
+    private final TaskLoadSampler taskLoadSampler = new TaskLoadSampler();
+
     public Worker(ConnectConfig connectConfig,
         PositionManagementService positionManagementService, ConfigManagementService configManagementService,
         Plugin plugin, ConnectController connectController) {
+        this(connectConfig, positionManagementService, configManagementService, plugin,
+            connectController.getConnectStatsManager(), connectController.getConnectStatsService());
+    }
+
+    public Worker(ConnectConfig connectConfig,
+        PositionManagementService positionManagementService, ConfigManagementService configManagementService,
+        Plugin plugin, ConnectStatsManager connectStatsManager, ConnectStatsService connectStatsService) {
         this.connectConfig = connectConfig;
         this.taskExecutor = Executors.newCachedThreadPool(new DefaultThreadFactory("task-Worker-Executor-"));
+        this.taskStartStopExecutor = Executors.newFixedThreadPool(
+            Math.max(1, connectConfig.getTaskStartStopParallelism()),
+            new DefaultThreadFactory("task-Worker-StartStop-"));
         this.positionManagementService = positionManagementService;
         this.taskPositionCommitService = new TaskPositionCommitService(
             this,
             positionManagementService);
         this.plugin = plugin;
-        this.connectStatsManager = connectController.getConnectStatsManager();
-        this.connectStatsService = connectController.getConnectStatsService();
+        this.connectStatsManager = connectStatsManager;
+        this.connectStatsService = connectStatsService;
     }
 
     public void start() {
@@ -236,23 +265,18 @@ public class Worker {
         synchronized (latestTaskConfigs) {
             this.latestTaskConfigs = taskConfigs;
         }
+        stateMachineService.wakeup();
     }
 
-    private boolean isConfigInSet(ConnectKeyValue keyValue, Set<Runnable> set) {
-        for (Runnable runnable : set) {
-            ConnectKeyValue taskConfig = null;
-            if (runnable instanceof WorkerSourceTask) {
-                taskConfig = ((WorkerSourceTask) runnable).getTaskConfig();
-            } else if (runnable instanceof WorkerSinkTask) {
-                taskConfig = ((WorkerSinkTask) runnable).getTaskConfig();
-            } else if (runnable instanceof WorkerDirectTask) {
-                taskConfig = ((WorkerDirectTask) runnable).getTaskConfig();
-            }
-            if (keyValue.equals(taskConfig)) {
-                return true;
-            }
+    private TaskFingerprint fingerprintOf(Runnable runnable) {
+        return taskFingerprints.computeIfAbsent(runnable, task -> new TaskFingerprint(
+            ((WorkerTask) task).getConnectorName(), ((WorkerTask) task).getTaskConfig()));
+    }
+
+    private void addFingerprints(Set<Runnable> tasks, Set<TaskFingerprint> fingerprints) {
+        for (Runnable runnable : tasks) {
+            fingerprints.add(fingerprintOf(runnable));
         }
-        return false;
     }
 
     /**
@@ -267,6 +291,7 @@ public class Worker {
             log.error("Task termination error.", e);
         }
         stateMachineService.shutdown();
+        taskStartStopExecutor.shutdownNow();
     }
 
     public Set<WorkerConnector> getWorkingConnectors() {
@@ -317,6 +342,34 @@ public class Worker {
         this.runningTasks = workingTasks;
     }
 
+    /**
+     * Sample the load of the running tasks since the previous sample. Tasks created before task ids were set share
+     * the metrics of their connector, so their load can not be told apart and they are not reported.
+     *
+     * @return load of every running task, keyed by its task id which is its
+     * {@link LoadAwareAllocateConnAndTaskStrategy#taskKey}
+     */
+    public Map<String, Double> sampleTaskLoads() {
+        Map<String, Double> taskLoads = new HashMap<>();
+        if (null == connectStatsManager) {
+            return taskLoads;
+        }
+        Map<TaskMetrics, String> taskIds = new IdentityHashMap<>();
+        for (Runnable runnable : runningTasks) {
+            WorkerTask workerTask = (WorkerTask) runnable;
+            String taskId = workerTask.getTaskConfig().getString(RuntimeConfigDefine.TASK_ID);
+            if (StringUtils.isBlank(taskId)) {
+                continue;
+            }
+            taskIds.put(connectStatsManager.getTaskMetrics(workerTask.getConnectorName(), taskId), taskId);
+        }
+        Map<TaskMetrics, Double> loads = taskLoadSampler.sample(taskIds.keySet(), System.currentTimeMillis());
+        for (Map.Entry<TaskMetrics, String> entry : taskIds.entrySet()) {
+            taskLoads.put(entry.getValue(), loads.get(entry.getKey()));
+        }
+        return taskLoads;
+    }
+
     public void maintainConnectorState() {
 
     }
@@ -327,31 +380,24 @@ public class Worker {
         synchronized (latestTaskConfigs) {
             taskConfigs.putAll(latestTaskConfigs);
         }
+        Set<TaskFingerprint> assignedTasks = new LinkedHashSet<>();
+        for (Map.Entry<String, List<ConnectKeyValue>> entry : taskConfigs.entrySet()) {
+            for (ConnectKeyValue keyValue : entry.getValue()) {
+                assignedTasks.add(new TaskFingerprint(entry.getKey(), keyValue));
+            }
+        }
 
         boolean needCommitPosition = false;
         //  STEP 1: check running tasks and put to error status
         for (Runnable runnable : runningTasks) {
             WorkerTask workerTask = (WorkerTask) runnable;
-            String connectorName = workerTask.getConnectorName();
-            ConnectKeyValue taskConfig = workerTask.getTaskConfig();
-            List<ConnectKeyValue> keyValues = taskConfigs.get(connectorName);
             WorkerTaskState state = ((WorkerTask) runnable).getState();
 
             if (WorkerTaskState.ERROR == state) {
                 errorTasks.add(runnable);
                 runningTasks.remove(runnable);
             } else if (WorkerTaskState.RUNNING == state) {
-                boolean needStop = true;
-                if (null != keyValues && keyValues.size() > 0) {
-                    for (ConnectKeyValue keyValue : keyValues) {
-                        if (keyValue.equals(taskConfig)) {
-                            needStop = false;
-                            break;
-                        }
-                    }
-                }
-
-                if (needStop) {
+                if (!assignedTasks.contains(fingerprintOf(runnable))) {
                     try {
                         workerTask.stop();
                     } catch (Exception e) {
@@ -374,83 +420,25 @@ public class Worker {
         }
 
         // get new Tasks
-        Map<String, List<ConnectKeyValue>> newTasks = new HashMap<>();
-        for (String connectorName : taskConfigs.keySet()) {
-            for (ConnectKeyValue keyValue : taskConfigs.get(connectorName)) {
-                boolean isNewTask = true;
-                if (isConfigInSet(keyValue, runningTasks) || isConfigInSet(keyValue, pendingTasks.keySet()) || isConfigInSet(keyValue, errorTasks)) {
-                    isNewTask = false;
-                }
-                if (isNewTask) {
-                    if (!newTasks.containsKey(connectorName)) {
-                        newTasks.put(connectorName, new ArrayList<>());
-                    }
-                    log.info("Add new tasks,connector name {}, config {}", connectorName, keyValue);
-                    newTasks.get(connectorName).add(keyValue);
-                }
+        Set<TaskFingerprint> existingTasks = new HashSet<>();
+        addFingerprints(runningTasks, existingTasks);
+        addFingerprints(pendingTasks.keySet(), existingTasks);
+        addFingerprints(errorTasks, existingTasks);
+        List<TaskFingerprint> newTasks = new ArrayList<>();
+        for (TaskFingerprint assignedTask : assignedTasks) {
+            if (!existingTasks.contains(assignedTask)) {
+                log.info("Add new tasks,connector name {}, config {}", assignedTask.getConnectorName(), assignedTask.getTaskConfig());
+                newTasks.add(assignedTask);
             }
         }
 
         //  STEP 2: try to create new tasks
-        for (String connectorName : newTasks.keySet()) {
-            for (ConnectKeyValue keyValue : newTasks.get(connectorName)) {
-                String taskType = keyValue.getString(RuntimeConfigDefine.TASK_TYPE);
-                if (TaskType.DIRECT.name().equalsIgnoreCase(taskType)) {
-                    createDirectTask(connectorName, keyValue);
-                    continue;
-                }
-                try {
-                    String taskClass = keyValue.getString(RuntimeConfigDefine.TASK_CLASS);
-                    ClassLoader loader = plugin.getPluginClassLoader(taskClass);
-                    final ClassLoader currentThreadLoader = plugin.currentThreadLoader();
-                    Class taskClazz;
-                    boolean isolationFlag = false;
-                    if (loader instanceof PluginClassLoader) {
-                        taskClazz = ((PluginClassLoader) loader).loadClass(taskClass, false);
-                        isolationFlag = true;
-                    } else {
-                        taskClazz = Class.forName(taskClass);
-                    }
-                    final Task task = (Task) taskClazz.getDeclaredConstructor().newInstance();
-                    final String converterClazzName = keyValue.getString(RuntimeConfigDefine.SOURCE_RECORD_CONVERTER);
-                    Converter recordConverter = null;
-                    if (StringUtils.isNotEmpty(converterClazzName)) {
-                        Class converterClazz = Class.forName(converterClazzName);
-                        recordConverter = (Converter) converterClazz.newInstance();
-                    }
-                    if (isolationFlag) {
-                        Plugin.compareAndSwapLoaders(loader);
-                    }
-                    if (task instanceof SourceTask) {
-                        DefaultMQProducer producer = ConnectUtil.initDefaultMQProducer(connectConfig);
-                        TransformChain<ConnectRecord> transformChain = new TransformChain<>(keyValue, plugin);
-                        WorkerSourceTask workerSourceTask = new WorkerSourceTask(connectorName,
-                            (SourceTask) task, keyValue, positionManagementService, recordConverter, producer, workerState, connectStatsManager, connectStatsService, transformChain);
-                        Plugin.compareAndSwapLoaders(currentThreadLoader);
-
-                        Future future = taskExecutor.submit(workerSourceTask);
-                        taskToFutureMap.put(workerSourceTask, future);
-                        this.pendingTasks.put(workerSourceTask, System.currentTimeMillis());
-                    } else if (task instanceof SinkTask) {
-                        log.info("sink task config keyValue is {}", keyValue.getProperties());
-                        DefaultMQPullConsumer consumer = ConnectUtil.initDefaultMQPullConsumer(connectConfig, connectorName, keyValue);
-                        Set<String> consumerGroupSet = ConnectUtil.fetchAllConsumerGroupList(connectConfig);
-                        if (!consumerGroupSet.contains(consumer.getConsumerGroup())) {
-                            ConnectUtil.createSubGroup(connectConfig, consumer.getConsumerGroup());
-                        }
-                        TransformChain<ConnectRecord> transformChain = new TransformChain<>(keyValue, plugin);
-                        WorkerSinkTask workerSinkTask = new WorkerSinkTask(connectorName,
-                            (SinkTask) task, keyValue, recordConverter, consumer, workerState, connectStatsManager, connectStatsService, transformChain);
-                        Plugin.compareAndSwapLoaders(currentThreadLoader);
-                        Future future = taskExecutor.submit(workerSinkTask);
-                        taskToFutureMap.put(workerSinkTask, future);
-                        this.pendingTasks.put(workerSinkTask, System.currentTimeMillis());
-                    }
-                } catch (Exception e) {
-                    log.error("start worker task exception. config {}" + JSON.toJSONString(keyValue), e);
-                }
-            }
+        ConsumerGroups consumerGroups = new ConsumerGroups(connectConfig);
+        List<Future<?>> startFutures = new ArrayList<>(newTasks.size());
+        for (TaskFingerprint newTask : newTasks) {
+            startFutures.add(taskStartStopExecutor.submit(() -> createTask(newTask, consumerGroups)));
         }
+        awaitAll(startFutures);
 
         //  STEP 3: check all pending state
         for (Map.Entry<Runnable, Long> entry : pendingTasks.entrySet()) {
@@ -484,7 +472,7 @@ public class Worker {
             Runnable runnable = entry.getKey();
             Long stopTimestamp = entry.getValue();
             Long currentTimeMillis = System.currentTimeMillis();
-            Future future = taskToFutureMap.get(runnable);
+            Future<?> future = taskToFutureMap.get(runnable);
             WorkerTaskState state = ((WorkerTask) runnable).getState();
             // exited normally
 
@@ -512,77 +500,193 @@ public class Worker {
             }
         }
 
-        //  STEP 5 check errorTasks and stopped tasks
+        //  STEP 5 check errorTasks and stopped tasks, each may wait for its thread to exit, so clean them up
+        //  concurrently
+        List<Future<?>> cleanupFutures = new ArrayList<>(errorTasks.size() + stoppedTasks.size());
         for (Runnable runnable : errorTasks) {
-            WorkerTask workerTask = (WorkerTask) runnable;
-            Future future = taskToFutureMap.get(runnable);
+            cleanupFutures.add(taskStartStopExecutor.submit(() -> cleanupErrorTask(runnable)));
+        }
+        for (Runnable runnable : stoppedTasks) {
+            cleanupFutures.add(taskStartStopExecutor.submit(() -> cleanupStoppedTask(runnable)));
+        }
+        awaitAll(cleanupFutures);
+    }
 
+    private void createTask(TaskFingerprint newTask, ConsumerGroups consumerGroups) {
+        String connectorName = newTask.getConnectorName();
+        ConnectKeyValue keyValue = newTask.getTaskConfig();
+        try {
+            String taskType = keyValue.getString(RuntimeConfigDefine.TASK_TYPE);
+            if (TaskType.DIRECT.name().equalsIgnoreCase(taskType)) {
+                createDirectTask(newTask);
+                return;
+            }
+            String taskClass = keyValue.getString(RuntimeConfigDefine.TASK_CLASS);
+            ClassLoader loader = plugin.getPluginClassLoader(taskClass);
+            final ClassLoader currentThreadLoader = plugin.currentThreadLoader();
+            WorkerTask workerTask = null;
+            // tasks are created on the start stop threads, which must get their loader back if the creation fails
             try {
-                if (null != future) {
-                    future.get(1000, TimeUnit.MILLISECONDS);
+                Class taskClazz;
+                boolean isolationFlag = false;
+                if (loader instanceof PluginClassLoader) {
+                    taskClazz = ((PluginClassLoader) loader).loadClass(taskClass, false);
+                    isolationFlag = true;
                 } else {
-                    log.error("[BUG] errorTasks reference not found in taskFutureMap");
+                    taskClazz = Class.forName(taskClass);
+                }
+                final Task task = (Task) taskClazz.getDeclaredConstructor().newInstance();
+                final String converterClazzName = keyValue.getString(RuntimeConfigDefine.SOURCE_RECORD_CONVERTER);
+                Converter recordConverter = null;
+                if (StringUtils.isNotEmpty(converterClazzName)) {
+                    Class converterClazz = Class.forName(converterClazzName);
+                    recordConverter = (Converter) converterClazz.newInstance();
+                }
+                if (isolationFlag) {
+                    Plugin.compareAndSwapLoaders(loader);
+                }
+                if (task instanceof SourceTask) {
+                    DefaultMQProducer producer = ConnectUtil.initDefaultMQProducer(connectConfig);
+                    TransformChain<ConnectRecord> transformChain = new TransformChain<>(keyValue, plugin);
+                    workerTask = new WorkerSourceTask(connectorName,
+                        (SourceTask) task, keyValue, positionManagementService, recordConverter, producer, workerState, connectStatsManager, connectStatsService, transformChain);
+                } else if (task instanceof SinkTask) {
+                    log.info("sink task config keyValue is {}", keyValue.getProperties());
+                    DefaultMQPullConsumer consumer = ConnectUtil.initDefaultMQPullConsumer(connectConfig, connectorName, keyValue);
+                    consumerGroups.createIfAbsent(consumer.getConsumerGroup());
+                    TransformChain<ConnectRecord> transformChain = new TransformChain<>(keyValue, plugin);
+                    workerTask = new WorkerSinkTask(connectorName,
+                        (SinkTask) task, keyValue, recordConverter, consumer, workerState, connectStatsManager, connectStatsService, transformChain);
                 }
-            } catch (ExecutionException e) {
-                Throwable t = e.getCause();
-            } catch (CancellationException | TimeoutException | InterruptedException e) {
-
             } finally {
+                Plugin.compareAndSwapLoaders(currentThreadLoader);
+            }
+            if (null != workerTask) {
+                submitTask(workerTask, newTask);
+            }
+        } catch (Exception e) {
+            log.error("start worker task exception. config {}" + JSON.toJSONString(keyValue), e);
+        }
+    }
+
+    private void submitTask(WorkerTask workerTask, TaskFingerprint fingerprint) {
+        taskFingerprints.put(workerTask, fingerprint);
+        Future<?> future = taskExecutor.submit(workerTask);
+        taskToFutureMap.put(workerTask, future);
+        this.pendingTasks.put(workerTask, System.currentTimeMillis());
+    }
+
+    private void cleanupErrorTask(Runnable runnable) {
+        WorkerTask workerTask = (WorkerTask) runnable;
+        Future<?> future = taskToFutureMap.get(runnable);
+
+        try {
+            if (null != future) {
+                future.get(1000, TimeUnit.MILLISECONDS);
+            } else {
+                log.error("[BUG] errorTasks reference not found in taskFutureMap");
+            }
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+        } catch (CancellationException | TimeoutException | InterruptedException e) {
+
+        } finally {
+            if (null != future) {
+                future.cancel(true);
+            }
+            workerTask.cleanup();
+            taskToFutureMap.remove(runnable);
+            taskFingerprints.remove(runnable);
+            errorTasks.remove(runnable);
+            cleanedErrorTasks.add(runnable);
+            removeTaskMetrics(workerTask);
+
+        }
+    }
+
+    private void cleanupStoppedTask(Runnable runnable) {
+        WorkerTask workerTask = (WorkerTask) runnable;
+        workerTask.cleanup();
+        Future<?> future = taskToFutureMap.get(runnable);
+        try {
+            if (null != future) {
+                future.get(1000, TimeUnit.MILLISECONDS);
+            } else {
+                log.error("[BUG] stopped Tasks reference not found in taskFutureMap");
+            }
+        } catch (ExecutionException e) {
+            Throwable t = e.getCause();
+            log.info("[BUG] Stopped Tasks should not throw any exception");
+            t.printStackTrace();
+        } catch (CancellationException e) {
+            log.info("[BUG] Stopped Tasks throws PrintStackTrace");
+            e.printStackTrace();
+        } catch (TimeoutException e) {
+            log.info("[BUG] Stopped Tasks should not throw any exception");
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            log.info("[BUG] Stopped Tasks should not throw any exception");
+            e.printStackTrace();
+        } finally {
+            if (null != future) {
                 future.cancel(true);
-                workerTask.cleanup();
-                taskToFutureMap.remove(runnable);
-                errorTasks.remove(runnable);
-                cleanedErrorTasks.add(runnable);
+            }
+            taskToFutureMap.remove(runnable);
+            taskFingerprints.remove(runnable);
+            stoppedTasks.remove(runnable);
+            cleanedStoppedTasks.add(runnable);
+            removeTaskMetrics(workerTask);
+        }
+    }
 
+    /**
+     * Remove the metrics of a cleaned up task, unless another task of this worker still records to them: a task
+     * restarted with a new config keeps its task id and is created before the previous one is cleaned up.
+     */
+    private void removeTaskMetrics(WorkerTask cleanedTask) {
+        if (null == connectStatsManager) {
+            return;
+        }
+        String connectorName = cleanedTask.getConnectorName();
+        String taskId = cleanedTask.getTaskConfig().getString(RuntimeConfigDefine.TASK_ID);
+        for (Collection<Runnable> tasks : Arrays.asList(runningTasks, pendingTasks.keySet(), stoppingTasks.keySet(),
+            errorTasks, stoppedTasks)) {
+            for (Runnable runnable : tasks) {
+                WorkerTask workerTask = (WorkerTask) runnable;
+                if (workerTask != cleanedTask && StringUtils.equals(connectorName, workerTask.getConnectorName())
+                    && StringUtils.equals(taskId, workerTask.getTaskConfig().getString(RuntimeConfigDefine.TASK_ID))) {
+                    return;
+                }
             }
         }
+        connectStatsManager.removeTaskMetrics(connectorName, taskId);
+    }
 
-        //  STEP 5 check errorTasks and stopped tasks
-        for (Runnable runnable : stoppedTasks) {
-            WorkerTask workerTask = (WorkerTask) runnable;
-            workerTask.cleanup();
-            Future future = taskToFutureMap.get(runnable);
+    private static void awaitAll(List<Future<?>> futures) throws InterruptedException {
+        for (Future<?> future : futures) {
             try {
-                if (null != future) {
-                    future.get(1000, TimeUnit.MILLISECONDS);
-                } else {
-                    log.error("[BUG] stopped Tasks reference not found in taskFutureMap");
-                }
+                future.get();
             } catch (ExecutionException e) {
-                Throwable t = e.getCause();
-                log.info("[BUG] Stopped Tasks should not throw any exception");
-                t.printStackTrace();
-            } catch (CancellationException e) {
-                log.info("[BUG] Stopped Tasks throws PrintStackTrace");
-                e.printStackTrace();
-            } catch (TimeoutException e) {
-                log.info("[BUG] Stopped Tasks should not throw any exception");
-                e.printStackTrace();
-            } catch (InterruptedException e) {
-                log.info("[BUG] Stopped Tasks should not throw any exception");
-                e.printStackTrace();
-            } finally {
-                future.cancel(true);
-                taskToFutureMap.remove(runnable);
-                stoppedTasks.remove(runnable);
-                cleanedStoppedTasks.add(runnable);
+                log.error("Start or clean up task failed", e.getCause());
             }
         }
     }
 
-    private void createDirectTask(String connectorName, ConnectKeyValue keyValue) throws Exception {
+    private void createDirectTask(TaskFingerprint newTask) throws Exception {
+        String connectorName = newTask.getConnectorName();
+        ConnectKeyValue keyValue = newTask.getTaskConfig();
         String sourceTaskClass = keyValue.getString(RuntimeConfigDefine.SOURCE_TASK_CLASS);
         Task sourceTask = getTask(sourceTaskClass);
 
         String sinkTaskClass = keyValue.getString(RuntimeConfigDefine.SINK_TASK_CLASS);
         Task sinkTask = getTask(sinkTaskClass);
 
+        TransformChain<ConnectRecord> transformChain = new TransformChain<>(keyValue, plugin);
         WorkerDirectTask workerDirectTask = new WorkerDirectTask(connectorName,
-            (SourceTask) sourceTask, (SinkTask) sinkTask, keyValue, positionManagementService, workerState);
+            (SourceTask) sourceTask, (SinkTask) sinkTask, keyValue, positionManagementService, workerState,
+            transformChain);
 
-        Future future = taskExecutor.submit(workerDirectTask);
-        taskToFutureMap.put(workerDirectTask, future);
-        this.pendingTasks.put(workerDirectTask, System.currentTimeMillis());
+        submitTask(workerDirectTask, newTask);
     }
 
     private Task getTask(String taskClass) throws Exception {
@@ -629,6 +733,30 @@ public class Worker {
         }
     }
 
+    /**
+     * The consumer groups of the cluster, fetched at most once per state check however many sink tasks are created.
+     */
+    private static class ConsumerGroups {
+
+        private final ConnectConfig connectConfig;
+
+        private Set<String> consumerGroupSet;
+
+        ConsumerGroups(ConnectConfig connectConfig) {
+            this.connectConfig = connectConfig;
+        }
+
+        synchronized void createIfAbsent(String consumerGroup) {
+            if (null == consumerGroupSet) {
+                consumerGroupSet = ConnectUtil.fetchAllConsumerGroupList(connectConfig);
+            }
+            if (!consumerGroupSet.contains(consumerGroup)) {
+                ConnectUtil.createSubGroup(connectConfig, consumerGroup);
+                consumerGroupSet.add(consumerGroup);
+            }
+        }
+    }
+
     public enum TaskType {
         SOURCE,
         SINK,
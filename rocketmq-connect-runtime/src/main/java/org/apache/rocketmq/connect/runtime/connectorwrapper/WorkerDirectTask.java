@@ -18,8 +18,8 @@
 package org.apache.rocketmq.connect.runtime.connectorwrapper;
 
 import com.alibaba.fastjson.JSON;
+import io.netty.util.concurrent.DefaultThreadFactory;
 import io.openmessaging.connector.api.component.task.sink.SinkTask;
-import io.openmessaging.connector.api.component.task.sink.SinkTaskContext;
 import io.openmessaging.connector.api.component.task.source.SourceTask;
 import io.openmessaging.connector.api.component.task.source.SourceTaskContext;
 import io.openmessaging.connector.api.data.ConnectRecord;
@@ -29,9 +29,15 @@ import io.openmessaging.connector.api.storage.OffsetStorageReader;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.collections.MapUtils;
 import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
@@ -44,6 +50,12 @@ import org.slf4j.LoggerFactory;
 
 /**
  * A wrapper of {@link SinkTask} and {@link SourceTask} for runtime.
+ *
+ * <p>By default poll, transform and put run one after the other on the task thread. With
+ * {@link RuntimeConfigDefine#DIRECT_PIPELINE_ENABLE} they run as three stages on their own threads linked by bounded
+ * buffers, so the source polls while the sink puts, and a slow stage blocks the stages before it once the buffers are
+ * full. In both modes the positions of the polled records are only committed after the sink task put them, and the
+ * records of a partition paused by the sink task are held back until it is resumed.
  */
 public class WorkerDirectTask implements WorkerTask {
 
@@ -80,12 +92,37 @@ public class WorkerDirectTask implements WorkerTask {
 
     private final AtomicReference<WorkerState> workerState;
 
+    private final TransformChain<ConnectRecord> transformChain;
+
+    private final WorkerDirectTaskContext sinkTaskContext;
+
+    private static final int DEFAULT_PIPELINE_BUFFER_SIZE = 16;
+
+    /**
+     * Max time a stage waits for the stage before or after it, before checking the task state again.
+     */
+    private static final long PIPELINE_WAIT_MILLS = 100;
+
+    /**
+     * Max number of records held back for paused partitions, no more records are taken while it is reached.
+     */
+    private static final int MAX_PAUSED_RECORD_NUMS = 10000;
+
+    /**
+     * Records of the paused partitions with the latest position polled for every partition, only touched by the
+     * thread putting records.
+     */
+    private final Map<RecordPartition, PausedRecords> pausedRecordsMap = new LinkedHashMap<>();
+
+    private int pausedRecordNums;
+
     public WorkerDirectTask(String connectorName,
         SourceTask sourceTask,
         SinkTask sinkTask,
         ConnectKeyValue taskConfig,
         PositionManagementService positionManagementService,
-        AtomicReference<WorkerState> workerState) {
+        AtomicReference<WorkerState> workerState,
+        TransformChain<ConnectRecord> transformChain) {
         this.connectorName = connectorName;
         this.sourceTask = sourceTask;
         this.sinkTask = sinkTask;
@@ -94,6 +131,8 @@ public class WorkerDirectTask implements WorkerTask {
         this.positionStorageReader = new PositionStorageReaderImpl(positionManagementService);
         this.state = new AtomicReference<>(WorkerTaskState.NEW);
         this.workerState = workerState;
+        this.transformChain = transformChain;
+        this.sinkTaskContext = new WorkerDirectTaskContext(taskConfig);
     }
 
     /**
@@ -105,16 +144,10 @@ public class WorkerDirectTask implements WorkerTask {
             starkSinkTask();
             startSourceTask();
             log.info("Direct task start, config:{}", JSON.toJSONString(taskConfig));
-            while (WorkerState.STARTED == workerState.get() && WorkerTaskState.RUNNING == state.get()) {
-                try {
-                    Collection<ConnectRecord> toSendEntries = sourceTask.poll();
-                    if (null != toSendEntries && toSendEntries.size() > 0) {
-                        sendRecord(toSendEntries);
-                    }
-                } catch (Exception e) {
-                    log.error("Direct task runtime exception", e);
-                    state.set(WorkerTaskState.ERROR);
-                }
+            if (Boolean.parseBoolean(taskConfig.getString(RuntimeConfigDefine.DIRECT_PIPELINE_ENABLE))) {
+                runPipeline();
+            } else {
+                runSerial();
             }
             stopSourceTask();
             stopSinkTask();
@@ -126,63 +159,200 @@ public class WorkerDirectTask implements WorkerTask {
         }
     }
 
-    private void sendRecord(Collection<ConnectRecord> sourceDataEntries) {
-        List<ConnectRecord> sinkDataEntries = new ArrayList<>(sourceDataEntries.size());
-        Map<RecordPartition, RecordOffset> map = new HashMap<>();
-        for (ConnectRecord sourceDataEntry : sourceDataEntries) {
-            sinkDataEntries.add(sourceDataEntry);
-            RecordPartition recordPartition = sourceDataEntry.getPosition().getPartition();
-            RecordOffset recordOffset = sourceDataEntry.getPosition().getOffset();
-            if (null != recordPartition && null != recordOffset) {
-                map.put(recordPartition, recordOffset);
-            }
-        }
-        try {
-            sinkTask.put(sinkDataEntries);
+    private boolean isRunning() {
+        return WorkerState.STARTED == workerState.get() && WorkerTaskState.RUNNING == state.get();
+    }
+
+    /**
+     * Poll, transform and put one after the other on the task thread.
+     */
+    private void runSerial() {
+        while (isRunning()) {
             try {
-                if (!MapUtils.isEmpty(map)) {
-                    map.forEach(positionManagementService::putPosition);
+                if (pausedRecordNums >= MAX_PAUSED_RECORD_NUMS) {
+                    sendRecord(null);
+                    Thread.sleep(PIPELINE_WAIT_MILLS);
+                    continue;
                 }
+                Collection<ConnectRecord> toSendEntries = sourceTask.poll();
+                if (null != toSendEntries && toSendEntries.size() > 0) {
+                    sendRecord(transform(new DirectBatch(toSendEntries)));
+                } else if (pausedRecordNums > 0) {
+                    sendRecord(null);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.error("Direct task interrupted", e);
+                state.set(WorkerTaskState.ERROR);
             } catch (Exception e) {
-                log.error("Source task save position info failed.", e);
+                log.error("Direct task runtime exception", e);
+                state.set(WorkerTaskState.ERROR);
             }
-        } catch (Exception e) {
-            log.error("Send message error, error info: {}.", e);
         }
     }
 
-    private void starkSinkTask() {
-        sinkTask.init(taskConfig);
-        sinkTask.start(new SinkTaskContext() {
-
-            @Override public String getConnectorName() {
-                return taskConfig.getString(RuntimeConfigDefine.CONNECTOR_ID);
+    /**
+     * Poll on the task thread, transform and put on their own threads, every stage hands its batches to the next one
+     * through a bounded buffer. The stages stop with the task, batches left in the buffers are dropped without
+     * committing their positions, so they are polled again after a restart.
+     *
+     * @throws InterruptedException
+     */
+    private void runPipeline() throws InterruptedException {
+        int bufferSize = Math.max(1,
+            taskConfig.getInt(RuntimeConfigDefine.DIRECT_PIPELINE_BUFFER_SIZE, DEFAULT_PIPELINE_BUFFER_SIZE));
+        BlockingQueue<DirectBatch> polledBatches = new ArrayBlockingQueue<>(bufferSize);
+        BlockingQueue<DirectBatch> transformedBatches = new ArrayBlockingQueue<>(bufferSize);
+        ExecutorService stageExecutor = Executors.newFixedThreadPool(2,
+            new DefaultThreadFactory("direct-pipeline-" + taskConfig.getString(RuntimeConfigDefine.TASK_ID) + "-"));
+        stageExecutor.execute(() -> runTransformStage(polledBatches, transformedBatches));
+        stageExecutor.execute(() -> runPutStage(transformedBatches));
+        try {
+            while (isRunning()) {
+                try {
+                    Collection<ConnectRecord> toSendEntries = sourceTask.poll();
+                    if (null != toSendEntries && toSendEntries.size() > 0) {
+                        offer(polledBatches, new DirectBatch(toSendEntries));
+                    }
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    log.error("Direct task runtime exception", e);
+                    state.set(WorkerTaskState.ERROR);
+                }
             }
-
-            @Override public String getTaskName() {
-                return taskConfig.getString(RuntimeConfigDefine.TASK_ID);
+        } finally {
+            stageExecutor.shutdown();
+            if (!stageExecutor.awaitTermination(PIPELINE_WAIT_MILLS * 10, TimeUnit.MILLISECONDS)) {
+                stageExecutor.shutdownNow();
             }
+        }
+    }
 
-            @Override public void resetOffset(RecordPartition recordPartition, RecordOffset recordOffset) {
-
+    private void runTransformStage(BlockingQueue<DirectBatch> polledBatches,
+        BlockingQueue<DirectBatch> transformedBatches) {
+        try {
+            while (isRunning()) {
+                DirectBatch batch = polledBatches.poll(PIPELINE_WAIT_MILLS, TimeUnit.MILLISECONDS);
+                if (null != batch) {
+                    offer(transformedBatches, transform(batch));
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            log.error("Direct task transform exception", e);
+            state.set(WorkerTaskState.ERROR);
+        }
+    }
 
-            @Override public void resetOffset(Map<RecordPartition, RecordOffset> offsets) {
-
+    private void runPutStage(BlockingQueue<DirectBatch> transformedBatches) {
+        try {
+            while (isRunning()) {
+                if (pausedRecordNums >= MAX_PAUSED_RECORD_NUMS) {
+                    sendRecord(null);
+                    Thread.sleep(PIPELINE_WAIT_MILLS);
+                    continue;
+                }
+                DirectBatch batch = transformedBatches.poll(PIPELINE_WAIT_MILLS, TimeUnit.MILLISECONDS);
+                if (null != batch || pausedRecordNums > 0) {
+                    sendRecord(batch);
+                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            log.error("Direct task put exception", e);
+            state.set(WorkerTaskState.ERROR);
+        }
+    }
 
-            @Override public void pause(List<RecordPartition> partitions) {
-
+    /**
+     * Hand a batch to the next stage, waiting while its buffer is full.
+     *
+     * @return false if the task stopped before the batch was taken
+     * @throws InterruptedException
+     */
+    private boolean offer(BlockingQueue<DirectBatch> batches, DirectBatch batch) throws InterruptedException {
+        while (isRunning()) {
+            if (batches.offer(batch, PIPELINE_WAIT_MILLS, TimeUnit.MILLISECONDS)) {
+                return true;
             }
+        }
+        return false;
+    }
 
-            @Override public void resume(List<RecordPartition> partitions) {
+    private DirectBatch transform(DirectBatch batch) {
+        batch.records = transformChain.doTransforms(batch.records);
+        return batch;
+    }
 
+    /**
+     * Put the records of a batch to the sink task together with the records of the partitions resumed since the last
+     * put, then commit their positions. Records and positions of paused partitions are held back. The sink task is
+     * also called without records while records are held back, so it gets the chance to resume them.
+     *
+     * @param batch the transformed batch, null to only put the records of the resumed partitions
+     */
+    private void sendRecord(DirectBatch batch) {
+        List<ConnectRecord> sinkDataEntries = new ArrayList<>(null == batch ? 0 : batch.records.size());
+        Map<RecordPartition, RecordOffset> map = new HashMap<>();
+        // the resumed partitions first, they were polled before the batch
+        Iterator<Map.Entry<RecordPartition, PausedRecords>> iterator = pausedRecordsMap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<RecordPartition, PausedRecords> entry = iterator.next();
+            if (!sinkTaskContext.isPaused(entry.getKey())) {
+                sinkDataEntries.addAll(entry.getValue().records);
+                map.put(entry.getKey(), entry.getValue().position);
+                pausedRecordNums -= entry.getValue().records.size();
+                iterator.remove();
             }
-
-            @Override public Set<RecordPartition> assignment() {
-                return null;
+        }
+        if (null != batch) {
+            for (ConnectRecord sinkDataEntry : batch.records) {
+                RecordPartition recordPartition = null == sinkDataEntry.getPosition() ? null
+                    : sinkDataEntry.getPosition().getPartition();
+                if (sinkTaskContext.isPaused(recordPartition)) {
+                    pausedRecordsMap.computeIfAbsent(recordPartition, k -> new PausedRecords()).records
+                        .add(sinkDataEntry);
+                    pausedRecordNums++;
+                } else {
+                    sinkDataEntries.add(sinkDataEntry);
+                }
             }
-        });
+            for (Map.Entry<RecordPartition, RecordOffset> entry : batch.positions.entrySet()) {
+                sinkTaskContext.assign(entry.getKey());
+                PausedRecords pausedRecords = pausedRecordsMap.get(entry.getKey());
+                if (null == pausedRecords && sinkTaskContext.isPaused(entry.getKey())) {
+                    pausedRecords = new PausedRecords();
+                    pausedRecordsMap.put(entry.getKey(), pausedRecords);
+                }
+                if (null != pausedRecords) {
+                    pausedRecords.position = entry.getValue();
+                } else {
+                    map.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        try {
+            if (!sinkDataEntries.isEmpty() || !pausedRecordsMap.isEmpty()) {
+                sinkTask.put(sinkDataEntries);
+            }
+            try {
+                if (!MapUtils.isEmpty(map)) {
+                    positionManagementService.putPosition(map);
+                }
+            } catch (Exception e) {
+                log.error("Source task save position info failed.", e);
+            }
+        } catch (Exception e) {
+            log.error("Send message error, error info: {}.", e);
+        }
+    }
+
+    private void starkSinkTask() {
+        sinkTask.init(taskConfig);
+        sinkTask.start(sinkTaskContext);
         log.info("Sink task start, config:{}", JSON.toJSONString(taskConfig));
     }
 
@@ -258,4 +428,35 @@ public class WorkerDirectTask implements WorkerTask {
     public void timeout() {
         this.state.set(WorkerTaskState.ERROR);
     }
+
+    /**
+     * The records of one poll with the latest position of every partition they belong to.
+     */
+    private static class DirectBatch {
+
+        private List<ConnectRecord> records;
+
+        private final Map<RecordPartition, RecordOffset> positions = new LinkedHashMap<>();
+
+        DirectBatch(Collection<ConnectRecord> sourceDataEntries) {
+            this.records = new ArrayList<>(sourceDataEntries);
+            for (ConnectRecord sourceDataEntry : sourceDataEntries) {
+                if (null == sourceDataEntry.getPosition()) {
+                    continue;
+                }
+                RecordPartition recordPartition = sourceDataEntry.getPosition().getPartition();
+                RecordOffset recordOffset = sourceDataEntry.getPosition().getOffset();
+                if (null != recordPartition && null != recordOffset) {
+                    positions.put(recordPartition, recordOffset);
+                }
+            }
+        }
+    }
+
+    private static class PausedRecords {
+
+        private final List<ConnectRecord> records = new ArrayList<>();
+
+        private RecordOffset position;
+    }
 }
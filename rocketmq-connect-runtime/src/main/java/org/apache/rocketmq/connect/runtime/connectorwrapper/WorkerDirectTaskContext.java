@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import io.openmessaging.connector.api.component.task.sink.SinkTaskContext;
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.apache.rocketmq.connect.runtime.common.LoggerName;
+import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Context of the sink task of a {@link WorkerDirectTask}. The partitions are the source partitions, records of a paused
+ * partition are held back by the direct task until the partition is resumed. The positions belong to the source task,
+ * so they can not be reset by the sink task.
+ */
+public class WorkerDirectTaskContext implements SinkTaskContext {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggerName.ROCKETMQ_RUNTIME);
+
+    /**
+     * The configs of current direct task.
+     */
+    private final ConnectKeyValue taskConfig;
+
+    private final Set<RecordPartition> pausedPartitions = ConcurrentHashMap.newKeySet();
+
+    private final Set<RecordPartition> assignedPartitions = ConcurrentHashMap.newKeySet();
+
+    public WorkerDirectTaskContext(ConnectKeyValue taskConfig) {
+        this.taskConfig = taskConfig;
+    }
+
+    @Override
+    public String getConnectorName() {
+        return taskConfig.getString(RuntimeConfigDefine.CONNECTOR_ID);
+    }
+
+    @Override
+    public String getTaskName() {
+        return taskConfig.getString(RuntimeConfigDefine.TASK_ID);
+    }
+
+    @Override
+    public void resetOffset(RecordPartition recordPartition, RecordOffset recordOffset) {
+        log.warn("Reset offset is not supported by direct task, recordPartition {}, recordOffset {}", recordPartition,
+            recordOffset);
+    }
+
+    @Override
+    public void resetOffset(Map<RecordPartition, RecordOffset> offsets) {
+        log.warn("Reset offset is not supported by direct task, offsets {}", offsets);
+    }
+
+    @Override
+    public void pause(List<RecordPartition> partitions) {
+        if (null != partitions) {
+            pausedPartitions.addAll(partitions);
+        }
+    }
+
+    @Override
+    public void resume(List<RecordPartition> partitions) {
+        if (null != partitions) {
+            pausedPartitions.removeAll(partitions);
+        }
+    }
+
+    /**
+     * The source partitions the direct task has seen records of.
+     */
+    @Override
+    public Set<RecordPartition> assignment() {
+        return Collections.unmodifiableSet(assignedPartitions);
+    }
+
+    boolean isPaused(RecordPartition partition) {
+        return null != partition && !pausedPartitions.isEmpty() && pausedPartitions.contains(partition);
+    }
+
+    void assign(RecordPartition partition) {
+        assignedPartitions.add(partition);
+    }
+}
@@ -28,7 +28,6 @@ import io.openmessaging.connector.api.data.Schema;
 import io.openmessaging.connector.api.errors.ConnectException;
 import io.openmessaging.connector.api.errors.RetriableException;
 import io.openmessaging.internal.DefaultKeyValue;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -62,7 +61,10 @@ import org.apache.rocketmq.connect.runtime.config.SinkConnectorConfig;
 import org.apache.rocketmq.connect.runtime.converter.RocketMQConverter;
 import org.apache.rocketmq.connect.runtime.stats.ConnectStatsManager;
 import org.apache.rocketmq.connect.runtime.stats.ConnectStatsService;
+import org.apache.rocketmq.connect.runtime.stats.TaskMetrics;
 import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
+import org.apache.rocketmq.connect.runtime.utils.RecordBodyUtils;
+import org.apache.rocketmq.connect.runtime.utils.SchemaCache;
 import org.apache.rocketmq.remoting.exception.RemotingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -133,15 +135,35 @@ public class WorkerSinkTask implements WorkerTask {
 
     public static final String OFFSET_COMMIT_TIMEOUT_MS_CONFIG = "offset.flush.timeout.ms";
 
-    private long nextCommitTime = 0;
+    private static final long DEFAULT_OFFSET_COMMIT_INTERVAL_MS = 1000;
 
-    private Set<RecordPartition> recordPartitions = new CopyOnWriteArraySet<>();
+    /**
+     * Offsets of the queues that advanced since the last commit.
+     */
+    private final OffsetCommitCoalescer offsetCommitCoalescer;
 
-    private long pullMsgErrorCount = 0;
+    private Set<RecordPartition> recordPartitions = new CopyOnWriteArraySet<>();
 
     private static final long PULL_MSG_ERROR_BACKOFF_MS = 1000 * 10;
 
-    private static final long PULL_MSG_ERROR_THRESHOLD = 16;
+    private static final long DEFAULT_PULL_BACKOFF_INITIAL_MS = 100;
+
+    private static final int DEFAULT_PULL_BUFFER_SIZE = 64;
+
+    private static final int DEFAULT_PUT_MAX_BATCH_NUMS = 512;
+
+    /**
+     * Max time to wait for pull results when none is buffered.
+     */
+    private static final long PULL_RESULT_WAIT_MILLS = 500;
+
+    private static final int SCHEMA_CACHE_MAX_SIZE = 1024;
+
+    /**
+     * Keep pulls outstanding on all assigned queues when {@link RuntimeConfigDefine#SINK_PARALLEL_PULL_ENABLE} is set,
+     * otherwise null.
+     */
+    private ParallelPullEngine pullEngine;
 
     private final AtomicReference<WorkerState> workerState;
 
@@ -149,12 +171,24 @@ public class WorkerSinkTask implements WorkerTask {
 
     private final ConnectStatsService connectStatsService;
 
+    private final TaskMetrics taskMetrics;
+
+    /**
+     * Backoff of the message queues that failed to pull.
+     */
+    private final QueuePullBackoff pullBackoff;
+
     private final CountDownLatch stopPullMsgLatch;
 
     private WorkerSinkTaskContext sinkTaskContext;
 
     private final TransformChain<ConnectRecord> transformChain;
 
+    /**
+     * Schemas parsed from the message properties.
+     */
+    private final SchemaCache schemaCache = new SchemaCache(SCHEMA_CACHE_MAX_SIZE);
+
     public static final String BROKER_NAME = "brokerName";
     public static final String QUEUE_ID = "queueId";
     public static final String TOPIC = "topic";
@@ -192,8 +226,16 @@ public class WorkerSinkTask implements WorkerTask {
         this.workerState = workerState;
         this.connectStatsManager = connectStatsManager;
         this.connectStatsService = connectStatsService;
+        this.taskMetrics = connectStatsManager.getTaskMetrics(connectorName, taskConfig.getString(RuntimeConfigDefine.TASK_ID));
+        this.pullBackoff = new QueuePullBackoff(
+            taskConfig.getLong(RuntimeConfigDefine.SINK_PULL_BACKOFF_INITIAL_MS, DEFAULT_PULL_BACKOFF_INITIAL_MS),
+            taskConfig.getLong(RuntimeConfigDefine.SINK_PULL_BACKOFF_MAX_MS, PULL_MSG_ERROR_BACKOFF_MS));
         this.stopPullMsgLatch = new CountDownLatch(1);
         this.transformChain = transformChain;
+        long commitIntervalMs = taskConfig.getLong(RuntimeConfigDefine.SINK_OFFSET_COMMIT_INTERVAL_MS,
+            taskConfig.getLong(OFFSET_COMMIT_TIMEOUT_MS_CONFIG, DEFAULT_OFFSET_COMMIT_INTERVAL_MS));
+        this.offsetCommitCoalescer = new OffsetCommitCoalescer(commitIntervalMs,
+            taskConfig.getLong(RuntimeConfigDefine.SINK_OFFSET_COMMIT_MAX_RECORDS, 0), System.currentTimeMillis());
     }
 
     /**
@@ -205,6 +247,10 @@ public class WorkerSinkTask implements WorkerTask {
             registTopics();
             consumer.start();
             log.info("Sink task consumer start. taskConfig {}", JSON.toJSONString(taskConfig));
+            if (Boolean.parseBoolean(taskConfig.getString(RuntimeConfigDefine.SINK_PARALLEL_PULL_ENABLE))) {
+                pullEngine = new ParallelPullEngine(consumer, MAX_MESSAGE_NUM,
+                    taskConfig.getInt(RuntimeConfigDefine.SINK_PULL_BUFFER_SIZE, DEFAULT_PULL_BUFFER_SIZE));
+            }
             state.compareAndSet(WorkerTaskState.NEW, WorkerTaskState.PENDING);
             sinkTask.init(taskConfig);
             this.sinkTaskContext = new WorkerSinkTaskContext(taskConfig, this, consumer);
@@ -218,7 +264,11 @@ public class WorkerSinkTask implements WorkerTask {
                 try {
                     preCommit(false);
                     setQueueOffset();
-                    pullMessageFromQueues();
+                    if (null != pullEngine) {
+                        pullMessageFromQueuesInParallel();
+                    } else {
+                        pullMessageFromQueues();
+                    }
                 } catch (RetriableException e) {
                     connectStatsManager.incSinkRecordPutTotalFailNums();
                     connectStatsManager.incSinkRecordPutFailNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID));
@@ -247,6 +297,9 @@ public class WorkerSinkTask implements WorkerTask {
             log.error("Run task failed.", e);
             state.set(WorkerTaskState.ERROR);
         } finally {
+            if (pullEngine != null) {
+                pullEngine.shutdown();
+            }
             if (consumer != null) {
                 consumer.shutdown();
                 log.info("Sink task consumer shutdown. config:{}", JSON.toJSONString(taskConfig));
@@ -262,6 +315,10 @@ public class WorkerSinkTask implements WorkerTask {
         for (Map.Entry<MessageQueue, Long> entry : messageQueueOffsetMap.entrySet()) {
             if (messageQueuesOffsetMap.containsKey(entry.getKey())) {
                 this.messageQueuesOffsetMap.put(entry.getKey(), entry.getValue());
+                offsetCommitCoalescer.update(entry.getKey(), entry.getValue(), 0);
+                if (null != pullEngine) {
+                    pullEngine.resetOffset(entry.getKey(), entry.getValue());
+                }
                 try {
                     consumer.updateConsumeOffset(entry.getKey(), entry.getValue());
                 } catch (MQClientException e) {
@@ -296,8 +353,13 @@ public class WorkerSinkTask implements WorkerTask {
                         }
                     });
                     recordPartitions.removeAll(waitRemoveQueueMetaDatas);
+                    offsetCommitCoalescer.retainAll(messageQueuesOffsetMap.keySet());
                     for (MessageQueue messageQueue : mqDivided) {
-                        messageQueuesOffsetMap.put(messageQueue, consumeFromOffset(messageQueue, taskConfig));
+                        long offset = consumeFromOffset(messageQueue, taskConfig);
+                        messageQueuesOffsetMap.put(messageQueue, offset);
+                        if (null != pullEngine) {
+                            pullEngine.resetOffset(messageQueue, offset);
+                        }
                         RecordPartition recordPartition = ConnectUtil.convertToRecordPartition(messageQueue);
                         recordPartitions.add(recordPartition);
                     }
@@ -357,7 +419,11 @@ public class WorkerSinkTask implements WorkerTask {
             log.info("messageQueuesOffsetMap is null, : {}", startTimeStamp);
             stopPullMsgLatch.await(PULL_MSG_ERROR_BACKOFF_MS, TimeUnit.MILLISECONDS);
         }
+        awaitPullBackoff();
         for (Map.Entry<MessageQueue, Long> entry : messageQueuesOffsetMap.entrySet()) {
+            if (pullBackoff.isBackingOff(entry.getKey(), System.currentTimeMillis())) {
+                continue;
+            }
             if (messageQueuesStateMap.containsKey(entry.getKey())) {
                 log.warn("sink task message queue state is not running, sink task id {}, queue info {}, queue state {}", taskConfig.getString(RuntimeConfigDefine.TASK_ID), JSON.toJSONString(entry.getKey()), JSON.toJSONString(messageQueuesStateMap.get(entry.getKey())));
                 continue;
@@ -371,11 +437,10 @@ public class WorkerSinkTask implements WorkerTask {
             PullResult pullResult = null;
             final long beginPullMsgTimestamp = System.currentTimeMillis();
             try {
-                shouldStopPullMsg();
                 pullResult = consumer.pullBlockIfNotFound(entry.getKey(), "*", entry.getValue(), MAX_MESSAGE_NUM);
-                pullMsgErrorCount = 0;
+                pullBackoff.onSuccess(entry.getKey());
             } catch (MQClientException e) {
-                pullMsgErrorCount++;
+                onPullError(entry.getKey());
                 log.error(" sink task message queue {}, offset {}, taskconfig {},pull message MQClientException, Error {}, taskState {}", JSON.toJSONString(entry.getKey()), JSON.toJSONString(entry.getValue()), JSON.toJSONString(taskConfig), e.getMessage(), this.state.get(), e);
                 connectStatsManager.incSinkRecordReadTotalFailNums();
                 connectStatsManager.incSinkRecordReadFailNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID));
@@ -383,7 +448,7 @@ public class WorkerSinkTask implements WorkerTask {
                 connectStatsManager.incSinkRecordReadTotalFailRT(errorPullRT);
                 connectStatsManager.incSinkRecordReadFailRT(taskConfig.getString(RuntimeConfigDefine.TASK_ID), errorPullRT);
             } catch (RemotingException e) {
-                pullMsgErrorCount++;
+                onPullError(entry.getKey());
                 log.error(" sink task message queue {}, offset {}, taskconfig {},pull message RemotingException, Error {}, taskState {}", JSON.toJSONString(entry.getKey()), JSON.toJSONString(entry.getValue()), JSON.toJSONString(taskConfig), e.getMessage(), this.state.get(), e);
                 connectStatsManager.incSinkRecordReadTotalFailNums();
                 connectStatsManager.incSinkRecordReadFailNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID));
@@ -391,7 +456,7 @@ public class WorkerSinkTask implements WorkerTask {
                 connectStatsManager.incSinkRecordReadTotalFailRT(errorPullRT);
                 connectStatsManager.incSinkRecordReadFailRT(taskConfig.getString(RuntimeConfigDefine.TASK_ID), errorPullRT);
             } catch (MQBrokerException e) {
-                pullMsgErrorCount++;
+                onPullError(entry.getKey());
                 log.error(" sink task message queue {}, offset {}, taskconfig {},pull message MQBrokerException, Error {}, taskState {}", JSON.toJSONString(entry.getKey()), JSON.toJSONString(entry.getValue()), JSON.toJSONString(taskConfig), e.getMessage(), this.state.get(), e);
                 connectStatsManager.incSinkRecordReadTotalFailNums();
                 connectStatsManager.incSinkRecordReadFailNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID));
@@ -399,7 +464,7 @@ public class WorkerSinkTask implements WorkerTask {
                 connectStatsManager.incSinkRecordReadTotalFailRT(errorPullRT);
                 connectStatsManager.incSinkRecordReadFailRT(taskConfig.getString(RuntimeConfigDefine.TASK_ID), errorPullRT);
             } catch (InterruptedException e) {
-                pullMsgErrorCount++;
+                onPullError(entry.getKey());
                 log.error(" sink task message queue {}, offset {}, taskconfig {},pull message InterruptedException, Error {}, taskState {}", JSON.toJSONString(entry.getKey()), JSON.toJSONString(entry.getValue()), JSON.toJSONString(taskConfig), e.getMessage(), this.state.get(), e);
                 connectStatsManager.incSinkRecordReadTotalFailNums();
                 connectStatsManager.incSinkRecordReadFailNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID));
@@ -408,7 +473,7 @@ public class WorkerSinkTask implements WorkerTask {
                 connectStatsManager.incSinkRecordReadFailRT(taskConfig.getString(RuntimeConfigDefine.TASK_ID), errorPullRT);
                 throw e;
             } catch (Throwable e) {
-                pullMsgErrorCount++;
+                onPullError(entry.getKey());
                 log.error(" sink task message queue {}, offset {}, taskconfig {},pull message Throwable, Error {}, taskState {}", JSON.toJSONString(entry.getKey()), JSON.toJSONString(entry.getValue()), JSON.toJSONString(taskConfig), e.getMessage(), e);
                 connectStatsManager.incSinkRecordReadTotalFailNums();
                 connectStatsManager.incSinkRecordReadFailNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID));
@@ -432,6 +497,7 @@ public class WorkerSinkTask implements WorkerTask {
                 receiveMessages(messages);
                 if (messageQueuesOffsetMap.containsKey(entry.getKey())) {
                     messageQueuesOffsetMap.put(entry.getKey(), pullResult.getNextBeginOffset());
+                    offsetCommitCoalescer.update(entry.getKey(), pullResult.getNextBeginOffset(), messages.size());
                 } else {
                     log.warn("The consumer may have load balancing, and the current task does not process the message queue,messageQueuesOffsetMap {}, messageQueue {}", JSON.toJSONString(messageQueuesOffsetMap), JSON.toJSONString(entry.getKey()));
                 }
@@ -459,31 +525,139 @@ public class WorkerSinkTask implements WorkerTask {
         }
     }
 
-    private void shouldStopPullMsg() throws InterruptedException {
-        if (pullMsgErrorCount == PULL_MSG_ERROR_THRESHOLD) {
-            log.error("Accumulative error {} times, stop pull msg for {} ms", pullMsgErrorCount, PULL_MSG_ERROR_BACKOFF_MS);
+    /**
+     * Take the results of the pulls outstanding on all assigned queues and put them to the sink task as one batch. The
+     * offsets are only advanced after the put succeeds, a failed put rewinds the queues to their committed offsets.
+     *
+     * @throws InterruptedException
+     */
+    private void pullMessageFromQueuesInParallel() throws InterruptedException {
+        if (org.apache.commons.collections4.MapUtils.isEmpty(messageQueuesOffsetMap)) {
+            log.info("messageQueuesOffsetMap is null, : {}", System.currentTimeMillis());
             stopPullMsgLatch.await(PULL_MSG_ERROR_BACKOFF_MS, TimeUnit.MILLISECONDS);
-            pullMsgErrorCount = 0;
+            return;
+        }
+        awaitPullBackoff();
+        Set<MessageQueue> excludedQueues = pullBackoff.getBackingOffQueues(System.currentTimeMillis());
+        excludedQueues.addAll(messageQueuesStateMap.keySet());
+        pullEngine.dispatch(messageQueuesOffsetMap, excludedQueues);
+        List<ParallelPullEngine.PulledMessages> pulledMessagesList = pullEngine.drain(PULL_RESULT_WAIT_MILLS,
+            taskConfig.getInt(RuntimeConfigDefine.SINK_PUT_MAX_BATCH_NUMS, DEFAULT_PUT_MAX_BATCH_NUMS));
+
+        String taskId = taskConfig.getString(RuntimeConfigDefine.TASK_ID);
+        List<MessageExt> messages = new ArrayList<>();
+        Map<MessageQueue, Long> nextBeginOffsets = new HashMap<>();
+        Map<MessageQueue, Integer> messageNums = new HashMap<>();
+        for (ParallelPullEngine.PulledMessages pulledMessages : pulledMessagesList) {
+            MessageQueue messageQueue = pulledMessages.getMessageQueue();
+            PullResult pullResult = pulledMessages.getPullResult();
+            if (messageQueuesStateMap.containsKey(messageQueue)) {
+                // paused after the pull was issued, pull again from the committed offset once resumed
+                Long committedOffset = messageQueuesOffsetMap.get(messageQueue);
+                if (null != committedOffset) {
+                    pullEngine.resetOffset(messageQueue, committedOffset);
+                }
+                continue;
+            }
+            if (null != pulledMessages.getError()) {
+                onPullError(messageQueue);
+                log.error(" sink task message queue {}, offset {}, taskconfig {},pull message Throwable, Error {}, taskState {}", JSON.toJSONString(messageQueue), pulledMessages.getPullOffset(), JSON.toJSONString(taskConfig), pulledMessages.getError().getMessage(), this.state.get(), pulledMessages.getError());
+                connectStatsManager.incSinkRecordReadTotalFailNums();
+                connectStatsManager.incSinkRecordReadFailNums(taskId);
+                connectStatsManager.incSinkRecordReadTotalFailRT(pulledMessages.getPullRT());
+                connectStatsManager.incSinkRecordReadFailRT(taskId, pulledMessages.getPullRT());
+                continue;
+            }
+            pullBackoff.onSuccess(messageQueue);
+            if (PullStatus.FOUND.equals(pullResult.getPullStatus())) {
+                this.incPullTPS(messageQueue.getTopic(), pullResult.getMsgFoundList().size());
+                connectStatsManager.incSinkRecordReadTotalNums(pullResult.getMsgFoundList().size());
+                connectStatsManager.incSinkRecordReadNums(taskId, pullResult.getMsgFoundList().size());
+                connectStatsManager.incSinkRecordReadTotalRT(pulledMessages.getPullRT());
+                connectStatsManager.incSinkRecordReadRT(taskId, pulledMessages.getPullRT());
+                messages.addAll(pullResult.getMsgFoundList());
+                nextBeginOffsets.put(messageQueue, pullResult.getNextBeginOffset());
+                messageNums.merge(messageQueue, pullResult.getMsgFoundList().size(), Integer::sum);
+            } else if (PullStatus.OFFSET_ILLEGAL.equals(pullResult.getPullStatus())) {
+                log.warn("offset illegal, reset offset, message queue {}, pull offset {}, nextBeginOffset {}", JSON.toJSONString(messageQueue), pulledMessages.getPullOffset(), pullResult.getNextBeginOffset());
+                this.sinkTaskContext.resetOffset(ConnectUtil.convertToRecordPartition(messageQueue), ConnectUtil.convertToRecordOffset(pullResult.getNextBeginOffset()));
+            } else if (PullStatus.NO_MATCHED_MSG.equals(pullResult.getPullStatus())) {
+                log.info("no matched msg, pullResult {}, message queue {}, pull offset {}", JSON.toJSONString(pullResult), JSON.toJSONString(messageQueue), pulledMessages.getPullOffset());
+                this.sinkTaskContext.resetOffset(ConnectUtil.convertToRecordPartition(messageQueue), ConnectUtil.convertToRecordOffset(pullResult.getNextBeginOffset()));
+            } else {
+                log.debug("no new message, pullResult {}, message queue {}, pull offset {}", JSON.toJSONString(pullResult), JSON.toJSONString(messageQueue), pulledMessages.getPullOffset());
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            try {
+                receiveMessages(messages);
+            } catch (Throwable e) {
+                for (MessageQueue messageQueue : nextBeginOffsets.keySet()) {
+                    Long committedOffset = messageQueuesOffsetMap.get(messageQueue);
+                    if (null != committedOffset) {
+                        pullEngine.resetOffset(messageQueue, committedOffset);
+                    }
+                }
+                throw e;
+            }
+            for (Map.Entry<MessageQueue, Long> entry : nextBeginOffsets.entrySet()) {
+                if (messageQueuesOffsetMap.containsKey(entry.getKey())) {
+                    messageQueuesOffsetMap.put(entry.getKey(), entry.getValue());
+                    offsetCommitCoalescer.update(entry.getKey(), entry.getValue(), messageNums.get(entry.getKey()));
+                } else {
+                    log.warn("The consumer may have load balancing, and the current task does not process the message queue,messageQueuesOffsetMap {}, messageQueue {}", JSON.toJSONString(messageQueuesOffsetMap), JSON.toJSONString(entry.getKey()));
+                }
+                try {
+                    consumer.updateConsumeOffset(entry.getKey(), entry.getValue());
+                } catch (MQClientException e) {
+                    log.warn("updateConsumeOffset MQClientException, messageQueue {}, offset {}", JSON.toJSONString(entry.getKey()), entry.getValue(), e);
+                }
+            }
+        }
+
+        AtomicLong atomicLong = connectStatsService.singleSinkTaskTimesTotal(taskId);
+        if (null != atomicLong) {
+            atomicLong.addAndGet(messages.size());
+        }
+    }
+
+    /**
+     * Wait when every assigned queue is in backoff, until the first of them can be pulled again.
+     *
+     * @throws InterruptedException
+     */
+    private void awaitPullBackoff() throws InterruptedException {
+        pullBackoff.retainAll(messageQueuesOffsetMap.keySet());
+        long now = System.currentTimeMillis();
+        taskMetrics.setPullBackoffQueues(pullBackoff.getBackingOffQueues(now).size());
+        long retryDelay = pullBackoff.getRetryDelay(messageQueuesOffsetMap.keySet(), now);
+        if (retryDelay > 0) {
+            log.warn("All message queues are in backoff after pull errors, stop pull msg for {} ms", retryDelay);
+            stopPullMsgLatch.await(retryDelay, TimeUnit.MILLISECONDS);
         }
     }
 
+    private void onPullError(MessageQueue messageQueue) {
+        long backoffMs = pullBackoff.onFailure(messageQueue, System.currentTimeMillis());
+        taskMetrics.incPullBackoffTimes();
+        log.warn("Pull message queue {} failed, back off for {} ms", JSON.toJSONString(messageQueue), backoffMs);
+    }
+
+    /**
+     * Commit the offsets of the queues that advanced since the last commit, once the commit interval passed or enough
+     * records were put.
+     *
+     * @param isForce commit now, e.g. before the assigned queues change
+     */
     private void preCommit(boolean isForce) {
-        long commitInterval = taskConfig.getLong(OFFSET_COMMIT_TIMEOUT_MS_CONFIG, 1000);
-        if (nextCommitTime <= 0) {
-            long now = System.currentTimeMillis();
-            nextCommitTime = now + commitInterval;
+        long now = System.currentTimeMillis();
+        if (!isForce && !offsetCommitCoalescer.isCommitDue(now)) {
+            return;
         }
-        if (isForce || nextCommitTime < System.currentTimeMillis()) {
-            Map<RecordPartition, RecordOffset> queueMetaDataLongMap = new HashMap<>(512);
-            if (messageQueuesOffsetMap.size() > 0) {
-                for (Map.Entry<MessageQueue, Long> messageQueueLongEntry : messageQueuesOffsetMap.entrySet()) {
-                    RecordPartition recordPartition = ConnectUtil.convertToRecordPartition(messageQueueLongEntry.getKey());
-                    RecordOffset recordOffset = ConnectUtil.convertToRecordOffset(messageQueueLongEntry.getValue());
-                    queueMetaDataLongMap.put(recordPartition, recordOffset);
-                }
-            }
+        Map<RecordPartition, RecordOffset> queueMetaDataLongMap = offsetCommitCoalescer.drain(now);
+        if (isForce || !queueMetaDataLongMap.isEmpty()) {
             sinkTask.preCommit(queueMetaDataLongMap);
-            nextCommitTime = 0;
         }
     }
 
@@ -521,25 +695,24 @@ public class WorkerSinkTask implements WorkerTask {
      */
     private void receiveMessages(List<MessageExt> messages) {
         List<ConnectRecord> sinkDataEntries = new ArrayList<>(32);
+        long bytes = 0;
         for (MessageExt message : messages) {
+            bytes += null == message.getBody() ? 0 : message.getBody().length;
             ConnectRecord sinkDataEntry = convertToSinkDataEntry(message);
             sinkDataEntries.add(sinkDataEntry);
             String msgId = message.getMsgId();
             log.info("Received one message success : msgId {}", msgId);
         }
-        List<ConnectRecord> connectRecordList = new ArrayList<>(32);
-        for (ConnectRecord connectRecord : sinkDataEntries) {
-            ConnectRecord connectRecord1 = this.transformChain.doTransforms(connectRecord);
-            if (null != connectRecord1) {
-                connectRecordList.add(connectRecord1);
-            }
-        }
+        List<ConnectRecord> connectRecordList = this.transformChain.doTransforms(sinkDataEntries);
         if (CollectionUtils.isEmpty(connectRecordList)) {
             log.info("after transforms connectRecordList is null");
             return;
         }
         try {
+            long putStart = System.currentTimeMillis();
             sinkTask.put(connectRecordList);
+            taskMetrics.recordSinkPut(System.currentTimeMillis() - putStart, connectRecordList.size());
+            taskMetrics.incSinkPutBytes(bytes);
             return;
         } catch (RetriableException e) {
             log.error("task {} put sink recode RetriableException", this, e.getMessage(), e);
@@ -560,31 +733,26 @@ public class WorkerSinkTask implements WorkerTask {
             String connectTimestamp = properties.get(RuntimeConfigDefine.CONNECT_TIMESTAMP);
             timestamp = StringUtils.isNotEmpty(connectTimestamp) ? Long.valueOf(connectTimestamp) : null;
             String connectSchema = properties.get(RuntimeConfigDefine.CONNECT_SCHEMA);
-            schema = StringUtils.isNotEmpty(connectSchema) ? JSON.parseObject(connectSchema, Schema.class) : null;
+            schema = StringUtils.isNotEmpty(connectSchema) ? schemaCache.get(connectSchema) : null;
             byte[] body = message.getBody();
             RecordPartition recordPartition = ConnectUtil.convertToRecordPartition(message.getTopic(), message.getBrokerName(), message.getQueueId());
 
             RecordOffset recordOffset = ConnectUtil.convertToRecordOffset(message.getQueueOffset());
 
-            String bodyStr = new String(body, StandardCharsets.UTF_8);
-            sinkDataEntry = new ConnectRecord(recordPartition, recordOffset, timestamp, schema, bodyStr);
+            sinkDataEntry = new ConnectRecord(recordPartition, recordOffset, timestamp, schema, RecordBodyUtils.toData(body, schema));
             KeyValue keyValue = new DefaultKeyValue();
             if (MapUtils.isNotEmpty(properties)) {
                 for (Map.Entry<String, String> entry : properties.entrySet()) {
                     if (MQ_SYS_KEYS.contains(entry.getKey())) {
                         keyValue.put("MQ-SYS-" + entry.getKey(), entry.getValue());
-                    } else if (entry.getKey().startsWith("connect-ext-")) {
-                        keyValue.put(entry.getKey().replaceAll("connect-ext-", ""), entry.getValue());
                     } else {
-                        keyValue.put(entry.getKey(), entry.getValue());
+                        keyValue.put(RecordBodyUtils.stripExtPrefix(entry.getKey()), entry.getValue());
                     }
                 }
             }
             sinkDataEntry.addExtension(keyValue);
         } else {
-            final byte[] messageBody = message.getBody();
-            String s = new String(messageBody);
-            sinkDataEntry = JSON.parseObject(s, ConnectRecord.class);
+            sinkDataEntry = JSON.parseObject(message.getBody(), ConnectRecord.class);
         }
         return sinkDataEntry;
     }
@@ -33,9 +33,11 @@ import io.openmessaging.connector.api.storage.OffsetStorageReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import org.apache.commons.collections.CollectionUtils;
@@ -43,6 +45,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.rocketmq.client.exception.MQClientException;
 import org.apache.rocketmq.client.producer.DefaultMQProducer;
 import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
 import org.apache.rocketmq.common.message.Message;
 import org.apache.rocketmq.common.message.MessageAccessor;
 import org.apache.rocketmq.common.message.MessageConst;
@@ -53,7 +56,9 @@ import org.apache.rocketmq.connect.runtime.converter.RocketMQConverter;
 import org.apache.rocketmq.connect.runtime.service.PositionManagementService;
 import org.apache.rocketmq.connect.runtime.stats.ConnectStatsManager;
 import org.apache.rocketmq.connect.runtime.stats.ConnectStatsService;
+import org.apache.rocketmq.connect.runtime.stats.TaskMetrics;
 import org.apache.rocketmq.connect.runtime.store.PositionStorageReaderImpl;
+import org.apache.rocketmq.connect.runtime.utils.RecordBodyUtils;
 import org.apache.rocketmq.remoting.exception.RemotingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -110,10 +115,37 @@ public class WorkerSourceTask implements WorkerTask {
 
     private ConnectStatsService connectStatsService;
 
+    private final TaskMetrics taskMetrics;
+
     private List<ConnectRecord> toSendRecord;
 
     private TransformChain<ConnectRecord> transformChain;
 
+    /**
+     * Send records as message batches when {@link RuntimeConfigDefine#SOURCE_BATCH_SEND_ENABLE} is set, otherwise null.
+     */
+    private BatchMessageSender batchMessageSender;
+
+    private static final int DEFAULT_BATCH_SEND_MAX_NUMS = 32;
+
+    private static final int DEFAULT_BATCH_SEND_MAX_INFLIGHT = 4;
+
+    private static final long BATCH_SEND_SHUTDOWN_TIMEOUT_MILLS = 5000;
+
+    /**
+     * Bounds the messages sent but not yet acknowledged, see {@link RuntimeConfigDefine#SOURCE_MAX_INFLIGHT_MESSAGES}.
+     */
+    private final InFlightLimiter inFlightLimiter;
+
+    private static final long DEFAULT_MAX_INFLIGHT_MESSAGES = 10000;
+
+    private static final long DEFAULT_MAX_INFLIGHT_BYTES = 64 * 1024 * 1024;
+
+    /**
+     * How often a send blocked by the in-flight limits checks whether the task is stopped.
+     */
+    private static final long INFLIGHT_WAIT_MILLS = 100;
+
     /**
      * The property of message in WHITE_KEY_SET don't need add a connect prefix
      */
@@ -145,7 +177,12 @@ public class WorkerSourceTask implements WorkerTask {
         this.workerState = workerState;
         this.connectStatsManager = connectStatsManager;
         this.connectStatsService = connectStatsService;
+        this.taskMetrics = connectStatsManager.getTaskMetrics(connectorName, taskConfig.getString(RuntimeConfigDefine.TASK_ID));
         this.transformChain = transformChain;
+        this.inFlightLimiter = new InFlightLimiter(
+            taskConfig.getLong(RuntimeConfigDefine.SOURCE_MAX_INFLIGHT_MESSAGES, DEFAULT_MAX_INFLIGHT_MESSAGES),
+            taskConfig.getLong(RuntimeConfigDefine.SOURCE_MAX_INFLIGHT_BYTES, DEFAULT_MAX_INFLIGHT_BYTES),
+            taskMetrics);
     }
 
     /**
@@ -156,6 +193,12 @@ public class WorkerSourceTask implements WorkerTask {
         try {
             producer.start();
             log.info("Source task producer start.");
+            if (Boolean.parseBoolean(taskConfig.getString(RuntimeConfigDefine.SOURCE_BATCH_SEND_ENABLE))) {
+                batchMessageSender = new BatchMessageSender(producer,
+                    taskConfig.getInt(RuntimeConfigDefine.SOURCE_BATCH_SEND_MAX_NUMS, DEFAULT_BATCH_SEND_MAX_NUMS),
+                    taskConfig.getInt(RuntimeConfigDefine.SOURCE_BATCH_SEND_MAX_INFLIGHT, DEFAULT_BATCH_SEND_MAX_INFLIGHT),
+                    taskConfig.getString(RuntimeConfigDefine.TASK_ID));
+            }
             state.compareAndSet(WorkerTaskState.NEW, WorkerTaskState.PENDING);
             sourceTask.init(taskConfig);
             sourceTask.start(new SourceTaskContext() {
@@ -181,7 +224,10 @@ public class WorkerSourceTask implements WorkerTask {
                         if (null != toSendRecord && toSendRecord.size() > 0) {
                             connectStatsManager.incSourceRecordPollTotalNums(toSendRecord.size());
                             connectStatsManager.incSourceRecordPollNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID), toSendRecord.size());
+                            int recordNums = toSendRecord.size();
+                            long putStart = System.currentTimeMillis();
                             sendRecord();
+                            taskMetrics.recordSourcePut(System.currentTimeMillis() - putStart, recordNums);
                         }
                     } catch (RetriableException e) {
                         connectStatsManager.incSourceRecordPollTotalFailNums();
@@ -209,6 +255,9 @@ public class WorkerSourceTask implements WorkerTask {
             log.error("Run task failed., task config: " +  JSON.toJSONString(taskConfig), e);
             state.set(WorkerTaskState.ERROR);
         } finally {
+            if (batchMessageSender != null) {
+                batchMessageSender.shutdown(BATCH_SEND_SHUTDOWN_TIMEOUT_MILLS);
+            }
             if (producer != null) {
                 producer.shutdown();
                 log.info("Source task producer shutdown. task config {}", JSON.toJSONString(taskConfig));
@@ -223,14 +272,7 @@ public class WorkerSourceTask implements WorkerTask {
             if (CollectionUtils.isEmpty(connectRecordList)) {
                 return null;
             }
-            List<ConnectRecord> connectRecordList1 = new ArrayList<>(32);
-            for (ConnectRecord connectRecord : connectRecordList) {
-                ConnectRecord connectRecord1 = this.transformChain.doTransforms(connectRecord);
-                if (null != connectRecord1) {
-                    connectRecordList1.add(connectRecord1);
-                }
-            }
-            return connectRecordList1;
+            return this.transformChain.doTransforms(connectRecordList);
         } catch (RetriableException e) {
             log.error("Source task RetriableException exception, taskconfig {}", JSON.toJSONString(taskConfig), e);
             return null;
@@ -258,62 +300,33 @@ public class WorkerSourceTask implements WorkerTask {
      * Send list of sourceDataEntries to MQ.
      */
     private void sendRecord() throws InterruptedException, RemotingException, MQClientException {
+        if (null != batchMessageSender) {
+            sendRecordBatch();
+            return;
+        }
         for (ConnectRecord sourceDataEntry : toSendRecord) {
             RecordPosition position = sourceDataEntry.getPosition();
             RecordOffset offset = position.getOffset();
 
-            Message sourceMessage = new Message();
-            String topic = null;
-            topic = taskConfig.getString(RuntimeConfigDefine.CONNECT_TOPICNAME);
-            if (StringUtils.isBlank(topic)) {
-                RecordPosition recordPosition = sourceDataEntry.getPosition();
-                if (null == recordPosition) {
-                    log.error("connect-topicname config is null and recordPosition is null , lack of topic config");
-                    return;
-                }
-                RecordPartition partition = recordPosition.getPartition();
-                if (null == partition) {
-                    log.error("connect-topicname config is null and partition is null , lack of topic config");
-                    return;
-                }
-                Map<String, ?> partitionMap = partition.getPartition();
-                if (null == partitionMap) {
-                    log.error("connect-topicname config is null and partitionMap is null , lack of topic config");
-                    return;
-                }
-                Object o = partitionMap.get(TOPIC);
-                if (null == o) {
-                    log.error("connect-topicname config is null and partitionMap.get is null , lack of topic config");
-                    return;
-                }
-                topic = (String) o;
+            String topic = getTopic(sourceDataEntry);
+            if (null == topic) {
+                return;
             }
-            if (StringUtils.isBlank(topic)) {
-                throw new ConnectException("source connect lack of topic config");
+            Message sourceMessage = convertToMessage(sourceDataEntry, topic);
+            if (null == sourceMessage) {
+                continue;
             }
-            sourceMessage.setTopic(topic);
-            if (null == recordConverter || recordConverter instanceof RocketMQConverter) {
-                putExtendMsgProperty(sourceDataEntry, sourceMessage, topic);
-                Object payload = sourceDataEntry.getData();
-                if (null != payload) {
-                    final byte[] messageBody = (String.valueOf(payload)).getBytes();
-                    if (messageBody.length > RuntimeConfigDefine.MAX_MESSAGE_SIZE) {
-                        log.error("Send record, message size is greater than {} bytes, sourceDataEntry: {}", RuntimeConfigDefine.MAX_MESSAGE_SIZE, JSON.toJSONString(sourceDataEntry));
-                        continue;
-                    }
-                    sourceMessage.setBody(messageBody);
-                }
-            } else {
-                final byte[] messageBody = JSON.toJSONString(sourceDataEntry).getBytes();
-                if (messageBody.length > RuntimeConfigDefine.MAX_MESSAGE_SIZE) {
-                    log.error("Send record, message size is greater than {} bytes, sourceDataEntry: {}", RuntimeConfigDefine.MAX_MESSAGE_SIZE, JSON.toJSONString(sourceDataEntry));
-                    continue;
-                }
-                sourceMessage.setBody(messageBody);
+            long messageBytes = bodyBytes(sourceMessage);
+            if (!acquireInFlight(1, messageBytes)) {
+                log.info("Source task stopped while waiting for in-flight messages, {} records not sent", toSendRecord.size());
+                return;
             }
+            long sendStart = System.currentTimeMillis();
             try {
                 producer.send(sourceMessage, new SendCallback() {
                     @Override public void onSuccess(org.apache.rocketmq.client.producer.SendResult result) {
+                        inFlightLimiter.release(1, messageBytes);
+                        taskMetrics.recordSendRT(System.currentTimeMillis() - sendStart);
                         log.info("Successful send message to RocketMQ:{}, Topic {}", result.getMsgId(), result.getMessageQueue().getTopic());
                         connectStatsManager.incSourceRecordWriteTotalNums();
                         connectStatsManager.incSourceRecordWriteNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID));
@@ -331,21 +344,30 @@ public class WorkerSourceTask implements WorkerTask {
                     }
 
                     @Override public void onException(Throwable throwable) {
+                        inFlightLimiter.release(1, messageBytes);
                         log.error("Source task send record failed ,error msg {}. message {}", throwable.getMessage(), JSON.toJSONString(sourceMessage), throwable);
+                        taskMetrics.recordSendRT(System.currentTimeMillis() - sendStart);
+                        taskMetrics.incSendFailRecords(1);
                         connectStatsManager.incSourceRecordWriteTotalFailNums();
                         connectStatsManager.incSourceRecordWriteFailNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID));
                     }
                 });
             } catch (MQClientException e) {
                 log.error("Send message MQClientException. message: {}, error info: {}.", sourceMessage, e);
+                inFlightLimiter.release(1, messageBytes);
+                taskMetrics.incSendFailRecords(1);
                 connectStatsManager.incSourceRecordWriteTotalFailNums();
                 connectStatsManager.incSourceRecordWriteFailNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID));
             } catch (RemotingException e) {
                 log.error("Send message RemotingException. message: {}, error info: {}.", sourceMessage, e);
+                inFlightLimiter.release(1, messageBytes);
+                taskMetrics.incSendFailRecords(1);
                 connectStatsManager.incSourceRecordWriteTotalFailNums();
                 connectStatsManager.incSourceRecordWriteFailNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID));
             } catch (InterruptedException e) {
                 log.error("Send message InterruptedException. message: {}, error info: {}.", sourceMessage, e);
+                inFlightLimiter.release(1, messageBytes);
+                taskMetrics.incSendFailRecords(1);
                 connectStatsManager.incSourceRecordWriteTotalFailNums();
                 connectStatsManager.incSourceRecordWriteFailNums(taskConfig.getString(RuntimeConfigDefine.TASK_ID));
                 throw e;
@@ -354,6 +376,176 @@ public class WorkerSourceTask implements WorkerTask {
         toSendRecord = null;
     }
 
+    /**
+     * Send list of sourceDataEntries to MQ as message batches, the position is updated once per acknowledged batch.
+     */
+    private void sendRecordBatch() throws InterruptedException {
+        List<Message> messages = new ArrayList<>(toSendRecord.size());
+        List<ConnectRecord> records = new ArrayList<>(toSendRecord.size());
+        Map<ConnectRecord, Long> recordBytes = new IdentityHashMap<>(toSendRecord.size());
+        long totalBytes = 0;
+        for (ConnectRecord sourceDataEntry : toSendRecord) {
+            String topic = getTopic(sourceDataEntry);
+            if (null == topic) {
+                return;
+            }
+            Message sourceMessage = convertToMessage(sourceDataEntry, topic);
+            if (null == sourceMessage) {
+                continue;
+            }
+            messages.add(sourceMessage);
+            records.add(sourceDataEntry);
+            long messageBytes = bodyBytes(sourceMessage);
+            recordBytes.put(sourceDataEntry, messageBytes);
+            totalBytes += messageBytes;
+        }
+        if (!messages.isEmpty() && !acquireInFlight(messages.size(), totalBytes)) {
+            log.info("Source task stopped while waiting for in-flight messages, {} records not sent", messages.size());
+            return;
+        }
+        long sendStart = System.currentTimeMillis();
+        batchMessageSender.send(messages, records, new BatchMessageSender.BatchSendCallback() {
+            @Override public void onSuccess(List<ConnectRecord> records, SendResult sendResult) {
+                releaseInFlight(records, recordBytes);
+                taskMetrics.recordSendRT(System.currentTimeMillis() - sendStart);
+                String taskId = taskConfig.getString(RuntimeConfigDefine.TASK_ID);
+                Map<RecordPartition, RecordOffset> positions = new HashMap<>();
+                for (ConnectRecord record : records) {
+                    connectStatsManager.incSourceRecordWriteTotalNums();
+                    connectStatsManager.incSourceRecordWriteNums(taskId);
+                    RecordPosition position = record.getPosition();
+                    if (null == position || null == position.getPartition() || null == position.getOffset()) {
+                        continue;
+                    }
+                    RecordOffset offset = position.getOffset();
+                    try {
+                        Map<String, String> offsetMap = (Map<String, String>) offset.getOffset();
+                        offsetMap.put(RuntimeConfigDefine.UPDATE_TIMESTAMP, String.valueOf(record.getTimestamp()));
+                    } catch (Exception e) {
+                        log.error("Source task set position timestamp failed. offset {}", JSON.toJSONString(offset), e);
+                    }
+                    positions.put(position.getPartition(), offset);
+                }
+                if (!positions.isEmpty()) {
+                    positionManagementService.putPosition(positions);
+                }
+            }
+
+            @Override public void onException(List<ConnectRecord> records, Throwable throwable) {
+                releaseInFlight(records, recordBytes);
+                log.error("Source task send batch failed, error msg {}, batch size {}", throwable.getMessage(), records.size(), throwable);
+                taskMetrics.recordSendRT(System.currentTimeMillis() - sendStart);
+                taskMetrics.incSendFailRecords(records.size());
+                String taskId = taskConfig.getString(RuntimeConfigDefine.TASK_ID);
+                for (int i = 0; i < records.size(); i++) {
+                    connectStatsManager.incSourceRecordWriteTotalFailNums();
+                    connectStatsManager.incSourceRecordWriteFailNums(taskId);
+                }
+            }
+        });
+        toSendRecord = null;
+    }
+
+    /**
+     * Wait until the messages can be sent within the in-flight limits.
+     *
+     * @param messageNums
+     * @param bytes total body bytes of the messages
+     * @return false if the task is stopped while waiting
+     * @throws InterruptedException
+     */
+    private boolean acquireInFlight(int messageNums, long bytes) throws InterruptedException {
+        while (!inFlightLimiter.tryAcquire(messageNums, bytes, INFLIGHT_WAIT_MILLS, TimeUnit.MILLISECONDS)) {
+            if (WorkerState.STARTED != workerState.get() || WorkerTaskState.RUNNING != state.get()) {
+                return false;
+            }
+        }
+        taskMetrics.incSourcePutBytes(bytes);
+        return true;
+    }
+
+    private void releaseInFlight(List<ConnectRecord> records, Map<ConnectRecord, Long> recordBytes) {
+        long bytes = 0;
+        for (ConnectRecord record : records) {
+            Long messageBytes = recordBytes.get(record);
+            bytes += null == messageBytes ? 0 : messageBytes;
+        }
+        inFlightLimiter.release(records.size(), bytes);
+    }
+
+    private static long bodyBytes(Message message) {
+        return null == message.getBody() ? 0 : message.getBody().length;
+    }
+
+    /**
+     * Get the destination topic of a record.
+     *
+     * @param sourceDataEntry
+     * @return the topic, or null if neither the task config nor the record partition contains one
+     */
+    private String getTopic(ConnectRecord sourceDataEntry) {
+        String topic = taskConfig.getString(RuntimeConfigDefine.CONNECT_TOPICNAME);
+        if (StringUtils.isBlank(topic)) {
+            RecordPosition recordPosition = sourceDataEntry.getPosition();
+            if (null == recordPosition) {
+                log.error("connect-topicname config is null and recordPosition is null , lack of topic config");
+                return null;
+            }
+            RecordPartition partition = recordPosition.getPartition();
+            if (null == partition) {
+                log.error("connect-topicname config is null and partition is null , lack of topic config");
+                return null;
+            }
+            Map<String, ?> partitionMap = partition.getPartition();
+            if (null == partitionMap) {
+                log.error("connect-topicname config is null and partitionMap is null , lack of topic config");
+                return null;
+            }
+            Object o = partitionMap.get(TOPIC);
+            if (null == o) {
+                log.error("connect-topicname config is null and partitionMap.get is null , lack of topic config");
+                return null;
+            }
+            topic = (String) o;
+        }
+        if (StringUtils.isBlank(topic)) {
+            throw new ConnectException("source connect lack of topic config");
+        }
+        return topic;
+    }
+
+    /**
+     * Convert a record to the message to send.
+     *
+     * @param sourceDataEntry
+     * @param topic
+     * @return the message, or null if the message body is too large
+     */
+    private Message convertToMessage(ConnectRecord sourceDataEntry, String topic) {
+        Message sourceMessage = new Message();
+        sourceMessage.setTopic(topic);
+        if (null == recordConverter || recordConverter instanceof RocketMQConverter) {
+            putExtendMsgProperty(sourceDataEntry, sourceMessage, topic);
+            Object payload = sourceDataEntry.getData();
+            if (null != payload) {
+                final byte[] messageBody = RecordBodyUtils.toBody(payload);
+                if (messageBody.length > RuntimeConfigDefine.MAX_MESSAGE_SIZE) {
+                    log.error("Send record, message size is greater than {} bytes, sourceDataEntry: {}", RuntimeConfigDefine.MAX_MESSAGE_SIZE, JSON.toJSONString(sourceDataEntry));
+                    return null;
+                }
+                sourceMessage.setBody(messageBody);
+            }
+        } else {
+            final byte[] messageBody = JSON.toJSONBytes(sourceDataEntry);
+            if (messageBody.length > RuntimeConfigDefine.MAX_MESSAGE_SIZE) {
+                log.error("Send record, message size is greater than {} bytes, sourceDataEntry: {}", RuntimeConfigDefine.MAX_MESSAGE_SIZE, JSON.toJSONString(sourceDataEntry));
+                return null;
+            }
+            sourceMessage.setBody(messageBody);
+        }
+        return sourceMessage;
+    }
+
     private void putExtendMsgProperty(ConnectRecord sourceDataEntry, Message sourceMessage, String topic) {
         KeyValue extensionKeyValues = sourceDataEntry.getExtensions();
         if (null == extensionKeyValues) {
@@ -369,7 +561,7 @@ public class WorkerSourceTask implements WorkerTask {
             if (WHITE_KEY_SET.contains(key)) {
                 MessageAccessor.putProperty(sourceMessage, key, extensionKeyValues.getString(key));
             } else {
-                MessageAccessor.putProperty(sourceMessage, "connect-ext-" + key, extensionKeyValues.getString(key));
+                MessageAccessor.putProperty(sourceMessage, RuntimeConfigDefine.CONNECT_EXT_PREFIX + key, extensionKeyValues.getString(key));
             }
         }
     }
@@ -20,6 +20,7 @@ package org.apache.rocketmq.connect.runtime.rest;
 import com.alibaba.fastjson.JSON;
 import io.javalin.Context;
 import io.javalin.Javalin;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -30,6 +31,7 @@ import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
 import org.apache.rocketmq.connect.runtime.common.LoggerName;
 import org.apache.rocketmq.connect.runtime.connectorwrapper.WorkerConnector;
 import org.apache.rocketmq.connect.runtime.connectorwrapper.WorkerTask;
+import org.apache.rocketmq.connect.runtime.stats.PrometheusMetricsWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,6 +48,11 @@ public class RestHandler {
 
     private static final String TASK_CONFIGS = "taskConfigs";
 
+    /**
+     * Scrapes are served by the threads of the http server, they take turns on one writer so only one buffer is kept.
+     */
+    private final PrometheusMetricsWriter metricsWriter = new PrometheusMetricsWriter();
+
     public RestHandler(ConnectController connectController) {
         this.connectController = connectController;
         Javalin app = Javalin.create();
@@ -70,6 +77,16 @@ public class RestHandler {
         app.get("/getAllocatedConnectors", this::getAllocatedConnectors);
         app.get("/getAllocatedTasks", this::getAllocatedTasks);
         app.get("/plugin/reload", this::reloadPlugins);
+        app.get("/metrics", this::getMetrics);
+    }
+
+    private void getMetrics(Context context) throws IOException {
+        context.contentType(PrometheusMetricsWriter.CONTENT_TYPE);
+        synchronized (metricsWriter) {
+            metricsWriter.write(connectController.getConnectStatsManager().getTaskMetricsTable());
+            context.res.setContentLength(metricsWriter.size());
+            metricsWriter.writeTo(context.res.getOutputStream());
+        }
     }
 
 
@@ -84,6 +84,35 @@ public interface ConfigManagementService {
      */
     void persist();
 
+    /**
+     * Broadcast a checksum of the configs in memory, the workers holding different configs answer with all their
+     * configs. Only used when a change sends the changed connector alone.
+     */
+    void sendConfigChecksum();
+
+    /**
+     * Broadcast the load of the tasks running in current worker.
+     *
+     * @param taskLoads load of every task
+     */
+    void reportTaskLoads(Map<String, Double> taskLoads);
+
+    /**
+     * Broadcast the task loads last reported by the alive workers as a snapshot under the next load epoch, only
+     * called by the leader.
+     *
+     * @param aliveWorkers alive workers
+     */
+    void publishTaskLoads(List<String> aliveWorkers);
+
+    /**
+     * Get the task loads of the latest snapshot adopted by this worker, every worker allocates from the same snapshot
+     * once it has received it.
+     *
+     * @return load of the running tasks of every worker
+     */
+    Map<String, Map<String, Double>> getTaskLoadSnapshot();
+
     /**
      * Register a listener to listen all config update operations.
      *
@@ -19,12 +19,16 @@ package org.apache.rocketmq.connect.runtime.service;
 
 import io.openmessaging.KeyValue;
 import io.openmessaging.connector.api.component.connector.Connector;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
 import org.apache.rocketmq.common.TopicConfig;
 import org.apache.rocketmq.connect.runtime.common.ConnAndTaskConfigs;
 import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
@@ -35,8 +39,8 @@ import org.apache.rocketmq.connect.runtime.connectorwrapper.Worker;
 import org.apache.rocketmq.connect.runtime.converter.ConnAndTaskConfigConverter;
 import org.apache.rocketmq.connect.runtime.converter.JsonConverter;
 import org.apache.rocketmq.connect.runtime.converter.ListConverter;
-import org.apache.rocketmq.connect.runtime.store.FileBaseKeyValueStore;
 import org.apache.rocketmq.connect.runtime.store.KeyValueStore;
+import org.apache.rocketmq.connect.runtime.store.KeyValueStoreFactory;
 import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
 import org.apache.rocketmq.connect.runtime.utils.FilePathConfigUtil;
 import org.apache.rocketmq.connect.runtime.utils.Plugin;
@@ -49,6 +53,19 @@ import org.slf4j.LoggerFactory;
 public class ConfigManagementServiceImpl implements ConfigManagementService {
     private static final Logger log = LoggerFactory.getLogger(LoggerName.ROCKETMQ_RUNTIME);
 
+    public static final String DELTA_SYNC_MODE = "delta";
+
+    private static final String CONFIG_CHECKSUM = "config-checksum";
+
+    /**
+     * Entry of a task load snapshot holding its epoch and leader, the other entries are the loads of every worker.
+     */
+    private static final String TASK_LOAD_SNAPSHOT = "#task-load-snapshot";
+
+    private static final String TASK_LOAD_EPOCH = "task-load-epoch";
+
+    private static final String TASK_LOAD_LEADER = "task-load-leader";
+
     /**
      * Current connector configs in the store.
      */
@@ -73,25 +90,64 @@ public class ConfigManagementServiceImpl implements ConfigManagementService {
 
     private final String configManagePrefix = "ConfigManage";
 
-    public ConfigManagementServiceImpl(ConnectConfig connectConfig, Plugin plugin) {
+    private final String workerId;
 
-        this.connectorConfigUpdateListener = new HashSet<>();
+    /**
+     * Send only the changed connector on a config change instead of the configs of all connectors.
+     */
+    private final boolean deltaSync;
+
+    private final int configChecksumInterval;
+
+    /**
+     * Last time a snapshot was sent because the checksum of another worker differed.
+     */
+    private volatile long lastRepairTimestamp;
+
+    /**
+     * Task loads last reported by every worker, kept in memory only and published by the leader.
+     */
+    private final Map<String, Map<String, Double>> workerTaskLoads = new ConcurrentHashMap<>();
+
+    /**
+     * Task load snapshot adopted by this worker, allocation only reads this one so all workers use the same loads.
+     */
+    private volatile TaskLoadSnapshot taskLoadSnapshot = new TaskLoadSnapshot(0, "", Collections.emptyMap());
+
+    private final DataSynchronizerCallback<String, ConnAndTaskConfigs> configChangeCallback = new ConfigChangeCallback();
+
+    public ConfigManagementServiceImpl(ConnectConfig connectConfig, Plugin plugin) {
+        this(connectConfig, plugin, null);
         this.dataSynchronizer = new BrokerBasedLog<>(connectConfig,
             connectConfig.getConfigStoreTopic(),
             ConnectUtil.createGroupName(configManagePrefix, connectConfig.getWorkerId()),
-            new ConfigChangeCallback(),
+            configChangeCallback,
             new JsonConverter(),
             new ConnAndTaskConfigConverter());
-        this.connectorKeyValueStore = new FileBaseKeyValueStore<>(
+        this.prepare(connectConfig);
+    }
+
+    /**
+     * Create a config manager synchronizing through the given synchronizer, which must deliver the received changes to
+     * {@link #getConfigChangeCallback()}.
+     */
+    public ConfigManagementServiceImpl(ConnectConfig connectConfig, Plugin plugin,
+        DataSynchronizer<String, ConnAndTaskConfigs> dataSynchronizer) {
+
+        this.connectorConfigUpdateListener = new HashSet<>();
+        this.dataSynchronizer = dataSynchronizer;
+        this.workerId = connectConfig.getWorkerId();
+        this.deltaSync = DELTA_SYNC_MODE.equalsIgnoreCase(connectConfig.getConfigSyncMode());
+        this.configChecksumInterval = connectConfig.getConfigChecksumInterval();
+        this.connectorKeyValueStore = KeyValueStoreFactory.createFileStore(connectConfig,
             FilePathConfigUtil.getConnectorConfigPath(connectConfig.getStorePathRootDir()),
             new JsonConverter(),
             new JsonConverter(ConnectKeyValue.class));
-        this.taskKeyValueStore = new FileBaseKeyValueStore<>(
+        this.taskKeyValueStore = KeyValueStoreFactory.createFileStore(connectConfig,
             FilePathConfigUtil.getTaskConfigPath(connectConfig.getStorePathRootDir()),
             new JsonConverter(),
             new ListConverter(ConnectKeyValue.class));
         this.plugin = plugin;
-        this.prepare(connectConfig);
     }
 
     /**
@@ -120,7 +176,9 @@ public class ConfigManagementServiceImpl implements ConfigManagementService {
     @Override
     public void stop() {
 
-        sendSynchronizeConfig();
+        if (!deltaSync) {
+            sendSynchronizeConfig();
+        }
         connectorKeyValueStore.persist();
         taskKeyValueStore.persist();
         dataSynchronizer.stop();
@@ -162,6 +220,9 @@ public class ConfigManagementServiceImpl implements ConfigManagementService {
             if (null != updateTimestamp) {
                 configs.put(RuntimeConfigDefine.UPDATE_TIMESTAMP, updateTimestamp);
             }
+            configs.put(RuntimeConfigDefine.CONFIG_VERSION, exist.getLong(RuntimeConfigDefine.CONFIG_VERSION));
+        } else {
+            configs.getProperties().remove(RuntimeConfigDefine.CONFIG_VERSION);
         }
         if (configs.equals(exist)) {
             return "Connector with same config already exist.";
@@ -192,13 +253,17 @@ public class ConfigManagementServiceImpl implements ConfigManagementService {
     }
 
     @Override
-    public void recomputeTaskConfigs(String connectorName, Connector connector, Long currentTimestamp, ConnectKeyValue configs) {
+    public synchronized void recomputeTaskConfigs(String connectorName, Connector connector, Long currentTimestamp,
+        ConnectKeyValue configs) {
         int maxTask = configs.getInt(RuntimeConfigDefine.MAX_TASK, 1);
         ConnectKeyValue connectConfig = connectorKeyValueStore.get(connectorName);
+        connectConfig.put(RuntimeConfigDefine.CONFIG_VERSION, connectConfig.getLong(RuntimeConfigDefine.CONFIG_VERSION) + 1);
+        connectorKeyValueStore.put(connectorName, connectConfig);
         boolean directEnable = Boolean.parseBoolean(connectConfig.getString(RuntimeConfigDefine.CONNECTOR_DIRECT_ENABLE));
         List<KeyValue> taskConfigs = connector.taskConfigs(maxTask);
         List<ConnectKeyValue> converterdConfigs = new ArrayList<>();
-        for (KeyValue keyValue : taskConfigs) {
+        for (int i = 0; i < taskConfigs.size(); i++) {
+            KeyValue keyValue = taskConfigs.get(i);
             ConnectKeyValue newKeyValue = new ConnectKeyValue();
             for (String key : keyValue.keySet()) {
                 newKeyValue.put(key, keyValue.getString(key));
@@ -209,6 +274,7 @@ public class ConfigManagementServiceImpl implements ConfigManagementService {
                 newKeyValue.put(RuntimeConfigDefine.SINK_TASK_CLASS, connectConfig.getString(RuntimeConfigDefine.SINK_TASK_CLASS));
             }
             newKeyValue.put(RuntimeConfigDefine.TASK_CLASS, connector.taskClass().getName());
+            newKeyValue.put(RuntimeConfigDefine.TASK_ID, ConnectUtil.taskId(connectorName, i));
             newKeyValue.put(RuntimeConfigDefine.UPDATE_TIMESTAMP, currentTimestamp);
 
             newKeyValue.put(RuntimeConfigDefine.CONNECT_TOPICNAME, configs.getString(RuntimeConfigDefine.CONNECT_TOPICNAME));
@@ -222,24 +288,25 @@ public class ConfigManagementServiceImpl implements ConfigManagementService {
             converterdConfigs.add(newKeyValue);
         }
         putTaskConfigs(connectorName, converterdConfigs);
-        sendSynchronizeConfig();
+        sendConnectorConfig(connectorName);
         triggerListener();
     }
 
     @Override
-    public void removeConnectorConfig(String connectorName) {
+    public synchronized void removeConnectorConfig(String connectorName) {
 
         ConnectKeyValue config = connectorKeyValueStore.get(connectorName);
 
         config.put(RuntimeConfigDefine.UPDATE_TIMESTAMP, System.currentTimeMillis());
         config.put(RuntimeConfigDefine.CONFIG_DELETED, 1);
+        config.put(RuntimeConfigDefine.CONFIG_VERSION, config.getLong(RuntimeConfigDefine.CONFIG_VERSION) + 1);
         List<ConnectKeyValue> taskConfigList = taskKeyValueStore.get(connectorName);
         taskConfigList.add(config);
 
         connectorKeyValueStore.put(connectorName, config);
         putTaskConfigs(connectorName, taskConfigList);
         log.info("[ISSUE #2027] After removal The configs are:\n" + getConnectorConfigs().toString());
-        sendSynchronizeConfig();
+        sendConnectorConfig(connectorName);
         triggerListener();
     }
 
@@ -305,21 +372,207 @@ public class ConfigManagementServiceImpl implements ConfigManagementService {
         dataSynchronizer.send(ConfigChangeEnum.CONFIG_CHANG_KEY.name(), configs);
     }
 
+    /**
+     * Synchronize a changed connector, alone with its version in delta mode, otherwise with all the other connectors.
+     *
+     * @param connectorName
+     */
+    private void sendConnectorConfig(String connectorName) {
+
+        if (!deltaSync) {
+            sendSynchronizeConfig();
+            return;
+        }
+        ConnAndTaskConfigs configs = new ConnAndTaskConfigs();
+        configs.getConnectorConfigs().put(connectorName, connectorKeyValueStore.get(connectorName));
+        List<ConnectKeyValue> taskConfigs = taskKeyValueStore.get(connectorName);
+        if (null != taskConfigs) {
+            configs.getTaskConfigs().put(connectorName, taskConfigs);
+        }
+        dataSynchronizer.send(ConfigChangeEnum.CONNECTOR_CHANGE_KEY.name(), configs);
+    }
+
+    @Override
+    public void sendConfigChecksum() {
+
+        if (!deltaSync) {
+            return;
+        }
+        ConnectKeyValue checksum = new ConnectKeyValue();
+        checksum.put(CONFIG_CHECKSUM, computeChecksum());
+        ConnAndTaskConfigs configs = new ConnAndTaskConfigs();
+        configs.getConnectorConfigs().put(workerId, checksum);
+        dataSynchronizer.send(ConfigChangeEnum.CHECKSUM_KEY.name(), configs);
+    }
+
+    /**
+     * A checksum of the versions of all connectors, independent of their order.
+     *
+     * @return
+     */
+    long computeChecksum() {
+
+        long checksum = 0;
+        CRC32 crc32 = new CRC32();
+        for (Map.Entry<String, ConnectKeyValue> entry : connectorKeyValueStore.getKVMap().entrySet()) {
+            crc32.reset();
+            crc32.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            crc32.update(Long.toString(entry.getValue().getLong(RuntimeConfigDefine.CONFIG_VERSION))
+                .getBytes(StandardCharsets.UTF_8));
+            crc32.update(Long.toString(entry.getValue().getLong(RuntimeConfigDefine.UPDATE_TIMESTAMP))
+                .getBytes(StandardCharsets.UTF_8));
+            checksum += crc32.getValue();
+        }
+        return checksum;
+    }
+
+    /**
+     * Answer a checksum different from ours with all our configs, at most once per checksum interval. Every worker
+     * sends its checksum periodically, so a worker missing an update receives the configs of a worker ahead of it.
+     *
+     * @param configs
+     */
+    private void onChecksum(ConnAndTaskConfigs configs) {
+
+        for (Map.Entry<String, ConnectKeyValue> entry : configs.getConnectorConfigs().entrySet()) {
+            if (entry.getKey().equals(workerId)) {
+                continue;
+            }
+            long checksum = entry.getValue().getLong(CONFIG_CHECKSUM);
+            long now = System.currentTimeMillis();
+            if (checksum != computeChecksum() && now - lastRepairTimestamp >= configChecksumInterval) {
+                log.warn("Config checksum of worker {} differs from ours, send all configs", entry.getKey());
+                lastRepairTimestamp = now;
+                sendSynchronizeConfig();
+            }
+        }
+    }
+
+    @Override
+    public void reportTaskLoads(Map<String, Double> taskLoads) {
+
+        ConnectKeyValue loads = new ConnectKeyValue();
+        for (Map.Entry<String, Double> entry : taskLoads.entrySet()) {
+            loads.put(entry.getKey(), entry.getValue());
+        }
+        ConnAndTaskConfigs configs = new ConnAndTaskConfigs();
+        configs.getConnectorConfigs().put(workerId, loads);
+        workerTaskLoads.put(workerId, new HashMap<>(taskLoads));
+        dataSynchronizer.send(ConfigChangeEnum.TASK_LOAD_KEY.name(), configs);
+    }
+
+    @Override
+    public void publishTaskLoads(List<String> aliveWorkers) {
+
+        TaskLoadSnapshot current = taskLoadSnapshot;
+        ConnAndTaskConfigs configs = new ConnAndTaskConfigs();
+        for (String worker : aliveWorkers) {
+            Map<String, Double> taskLoads = workerTaskLoads.get(worker);
+            ConnectKeyValue loads = new ConnectKeyValue();
+            if (null != taskLoads) {
+                for (Map.Entry<String, Double> entry : taskLoads.entrySet()) {
+                    loads.put(entry.getKey(), entry.getValue());
+                }
+            }
+            configs.getConnectorConfigs().put(worker, loads);
+        }
+        ConnectKeyValue snapshot = new ConnectKeyValue();
+        snapshot.put(TASK_LOAD_EPOCH, current.epoch + 1);
+        snapshot.put(TASK_LOAD_LEADER, workerId);
+        configs.getConnectorConfigs().put(TASK_LOAD_SNAPSHOT, snapshot);
+        if (onTaskLoadSnapshot(configs)) {
+            triggerListener();
+        }
+        dataSynchronizer.send(ConfigChangeEnum.TASK_LOAD_SNAPSHOT_KEY.name(), configs);
+    }
+
+    @Override
+    public Map<String, Map<String, Double>> getTaskLoadSnapshot() {
+        return taskLoadSnapshot.workerTaskLoads;
+    }
+
+    private void onTaskLoads(ConnAndTaskConfigs configs) {
+
+        for (Map.Entry<String, ConnectKeyValue> entry : configs.getConnectorConfigs().entrySet()) {
+            Map<String, Double> taskLoads = new HashMap<>();
+            for (String taskKey : entry.getValue().keySet()) {
+                taskLoads.put(taskKey, entry.getValue().getDouble(taskKey));
+            }
+            workerTaskLoads.put(entry.getKey(), taskLoads);
+        }
+    }
+
+    /**
+     * Adopt a task load snapshot newer than ours, two leaders publishing the same epoch are ordered by their id so
+     * every worker adopts the same one whatever order they arrive in.
+     *
+     * @param configs
+     * @return whether the snapshot was adopted
+     */
+    private synchronized boolean onTaskLoadSnapshot(ConnAndTaskConfigs configs) {
+
+        ConnectKeyValue snapshot = configs.getConnectorConfigs().get(TASK_LOAD_SNAPSHOT);
+        if (null == snapshot) {
+            return false;
+        }
+        long epoch = snapshot.getLong(TASK_LOAD_EPOCH);
+        String leader = snapshot.getString(TASK_LOAD_LEADER);
+        TaskLoadSnapshot current = taskLoadSnapshot;
+        if (epoch < current.epoch || (epoch == current.epoch && leader.compareTo(current.leader) <= 0)) {
+            return false;
+        }
+        Map<String, Map<String, Double>> loads = new HashMap<>();
+        for (Map.Entry<String, ConnectKeyValue> entry : configs.getConnectorConfigs().entrySet()) {
+            if (TASK_LOAD_SNAPSHOT.equals(entry.getKey())) {
+                continue;
+            }
+            Map<String, Double> taskLoads = new HashMap<>();
+            for (String taskKey : entry.getValue().keySet()) {
+                taskLoads.put(taskKey, entry.getValue().getDouble(taskKey));
+            }
+            loads.put(entry.getKey(), Collections.unmodifiableMap(taskLoads));
+        }
+        log.info("Adopt task load snapshot {} of leader {}", epoch, leader);
+        taskLoadSnapshot = new TaskLoadSnapshot(epoch, leader, Collections.unmodifiableMap(loads));
+        return true;
+    }
+
+    public DataSynchronizerCallback<String, ConnAndTaskConfigs> getConfigChangeCallback() {
+        return configChangeCallback;
+    }
+
     private class ConfigChangeCallback implements DataSynchronizerCallback<String, ConnAndTaskConfigs> {
 
         @Override
         public void onCompletion(Throwable error, String key, ConnAndTaskConfigs result) {
 
+            ConfigChangeEnum changeType;
+            try {
+                changeType = ConfigChangeEnum.valueOf(key);
+            } catch (IllegalArgumentException e) {
+                log.warn("Ignore unknown config change {}", key);
+                return;
+            }
             boolean changed = false;
-            switch (ConfigChangeEnum.valueOf(key)) {
+            switch (changeType) {
                 case ONLINE_KEY:
                     mergeConfig(result);
                     changed = true;
                     sendSynchronizeConfig();
                     break;
                 case CONFIG_CHANG_KEY:
+                case CONNECTOR_CHANGE_KEY:
                     changed = mergeConfig(result);
                     break;
+                case CHECKSUM_KEY:
+                    onChecksum(result);
+                    break;
+                case TASK_LOAD_KEY:
+                    onTaskLoads(result);
+                    break;
+                case TASK_LOAD_SNAPSHOT_KEY:
+                    changed = onTaskLoadSnapshot(result);
+                    break;
                 default:
                     break;
             }
@@ -335,30 +588,47 @@ public class ConfigManagementServiceImpl implements ConfigManagementService {
      * @param newConnAndTaskConfig
      * @return
      */
-    private boolean mergeConfig(ConnAndTaskConfigs newConnAndTaskConfig) {
+    private synchronized boolean mergeConfig(ConnAndTaskConfigs newConnAndTaskConfig) {
         boolean changed = false;
         for (String connectorName : newConnAndTaskConfig.getConnectorConfigs().keySet()) {
             ConnectKeyValue newConfig = newConnAndTaskConfig.getConnectorConfigs().get(connectorName);
-            ConnectKeyValue oldConfig = getConnectorConfigsIncludeDeleted().get(connectorName);
-            if (null == oldConfig) {
+            ConnectKeyValue oldConfig = connectorKeyValueStore.get(connectorName);
+            if (null == oldConfig || isNewer(newConfig, oldConfig)) {
                 changed = true;
                 connectorKeyValueStore.put(connectorName, newConfig);
                 taskKeyValueStore.put(connectorName, newConnAndTaskConfig.getTaskConfigs().get(connectorName));
-            } else {
-
-                Long oldUpdateTime = oldConfig.getLong(RuntimeConfigDefine.UPDATE_TIMESTAMP);
-                Long newUpdateTime = newConfig.getLong(RuntimeConfigDefine.UPDATE_TIMESTAMP);
-                if (newUpdateTime > oldUpdateTime) {
-                    changed = true;
-                    connectorKeyValueStore.put(connectorName, newConfig);
-                    taskKeyValueStore.put(connectorName, newConnAndTaskConfig.getTaskConfigs().get(connectorName));
-                }
             }
         }
         return changed;
     }
 
-    private enum ConfigChangeEnum {
+    /**
+     * Compare two configs of a connector by version, so applying a config twice or out of order changes nothing. The
+     * update time decides between configs of the same version, or when one was written by a worker without versions.
+     *
+     * @param newConfig
+     * @param oldConfig
+     * @return
+     */
+    static boolean isNewer(ConnectKeyValue newConfig, ConnectKeyValue oldConfig) {
+        if (newConfig.containsKey(RuntimeConfigDefine.CONFIG_VERSION)
+            && oldConfig.containsKey(RuntimeConfigDefine.CONFIG_VERSION)) {
+            long newVersion = newConfig.getLong(RuntimeConfigDefine.CONFIG_VERSION);
+            long oldVersion = oldConfig.getLong(RuntimeConfigDefine.CONFIG_VERSION);
+            if (newVersion != oldVersion) {
+                return newVersion > oldVersion;
+            }
+        }
+        long newUpdateTime = newConfig.getLong(RuntimeConfigDefine.UPDATE_TIMESTAMP);
+        long oldUpdateTime = oldConfig.getLong(RuntimeConfigDefine.UPDATE_TIMESTAMP);
+        if (newUpdateTime != oldUpdateTime) {
+            return newUpdateTime > oldUpdateTime;
+        }
+        // two workers updated the same version at the same time, let every worker pick the same one
+        return !newConfig.equals(oldConfig) && newConfig.hashCode() > oldConfig.hashCode();
+    }
+
+    enum ConfigChangeEnum {
 
         /**
          * Insert or update config.
@@ -368,7 +638,45 @@ public class ConfigManagementServiceImpl implements ConfigManagementService {
         /**
          * A worker online.
          */
-        ONLINE_KEY
+        ONLINE_KEY,
+
+        /**
+         * Insert, update or remove one connector, carrying its version.
+         */
+        CONNECTOR_CHANGE_KEY,
+
+        /**
+         * Checksum of the configs of a worker.
+         */
+        CHECKSUM_KEY,
+
+        /**
+         * Load of the tasks running in a worker.
+         */
+        TASK_LOAD_KEY,
+
+        /**
+         * Loads of all workers published by the leader under a load epoch, the only loads allocation uses.
+         */
+        TASK_LOAD_SNAPSHOT_KEY
+    }
+
+    /**
+     * Task loads of every worker adopted under a load epoch.
+     */
+    private static class TaskLoadSnapshot {
+
+        private final long epoch;
+
+        private final String leader;
+
+        private final Map<String, Map<String, Double>> workerTaskLoads;
+
+        TaskLoadSnapshot(long epoch, String leader, Map<String, Map<String, Double>> workerTaskLoads) {
+            this.epoch = epoch;
+            this.leader = leader;
+            this.workerTaskLoads = workerTaskLoads;
+        }
     }
 
     @Override
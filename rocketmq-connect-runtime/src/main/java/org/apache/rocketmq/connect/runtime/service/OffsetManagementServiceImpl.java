@@ -24,7 +24,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.apache.rocketmq.common.TopicConfig;
 import org.apache.rocketmq.connect.runtime.common.LoggerName;
 import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
@@ -32,8 +31,8 @@ import org.apache.rocketmq.connect.runtime.converter.JsonConverter;
 import org.apache.rocketmq.connect.runtime.converter.RecordOffsetConverter;
 import org.apache.rocketmq.connect.runtime.converter.RecordPartitionConverter;
 import org.apache.rocketmq.connect.runtime.converter.RecordPositionMapConverter;
-import org.apache.rocketmq.connect.runtime.store.FileBaseKeyValueStore;
 import org.apache.rocketmq.connect.runtime.store.KeyValueStore;
+import org.apache.rocketmq.connect.runtime.store.KeyValueStoreFactory;
 import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
 import org.apache.rocketmq.connect.runtime.utils.FilePathConfigUtil;
 import org.apache.rocketmq.connect.runtime.utils.datasync.BrokerBasedLog;
@@ -51,6 +50,11 @@ public class OffsetManagementServiceImpl implements PositionManagementService {
     private KeyValueStore<RecordPartition, RecordOffset> offsetStore;
 
 
+    /**
+     * Index of the partitions in store.
+     */
+    private RecordPartitionIndex partitionIndex;
+
     /**
      * The updated partition of the task in the current instance.
      */
@@ -70,9 +74,11 @@ public class OffsetManagementServiceImpl implements PositionManagementService {
 
     public OffsetManagementServiceImpl(ConnectConfig connectConfig) {
 
-        this.offsetStore = new FileBaseKeyValueStore<>(FilePathConfigUtil.getOffsetPath(connectConfig.getStorePathRootDir()),
+        this.offsetStore = KeyValueStoreFactory.createFileStore(connectConfig,
+            FilePathConfigUtil.getOffsetPath(connectConfig.getStorePathRootDir()),
             new RecordPartitionConverter(),
             new RecordOffsetConverter());
+        this.partitionIndex = new RecordPartitionIndex(offsetStore);
         this.dataSynchronizer = new BrokerBasedLog(connectConfig,
             connectConfig.getOffsetStoreTopic(),
             ConnectUtil.createGroupName(offsetManagePrefix, connectConfig.getWorkerId()),
@@ -102,6 +108,7 @@ public class OffsetManagementServiceImpl implements PositionManagementService {
     public void start() {
 
         offsetStore.load();
+        partitionIndex.rebuild();
         dataSynchronizer.start();
         sendOnlineOffsetInfo();
     }
@@ -122,6 +129,7 @@ public class OffsetManagementServiceImpl implements PositionManagementService {
 
     @Override public void load() {
         offsetStore.load();
+        partitionIndex.rebuild();
     }
 
     @Override
@@ -145,15 +153,15 @@ public class OffsetManagementServiceImpl implements PositionManagementService {
     @Override
     public void putPosition(Map<RecordPartition, RecordOffset> offsets) {
 
-        offsetStore.putAll(offsets);
-        needSyncPartition.addAll(offsets.keySet());
+        for (Map.Entry<RecordPartition, RecordOffset> entry : offsets.entrySet()) {
+            needSyncPartition.add(partitionIndex.put(entry.getKey(), entry.getValue()));
+        }
     }
 
     @Override
     public void putPosition(RecordPartition partition, RecordOffset position) {
 
-        offsetStore.put(partition, position);
-        needSyncPartition.add(partition);
+        needSyncPartition.add(partitionIndex.put(partition, position));
     }
 
     @Override
@@ -163,8 +171,7 @@ public class OffsetManagementServiceImpl implements PositionManagementService {
             return;
         }
         for (RecordPartition offset : offsets) {
-            needSyncPartition.remove(offset);
-            offsetStore.remove(offset);
+            needSyncPartition.remove(partitionIndex.remove(offset));
         }
     }
 
@@ -184,9 +191,7 @@ public class OffsetManagementServiceImpl implements PositionManagementService {
 
         Set<RecordPartition> needSyncPartitionTmp = needSyncPartition;
         needSyncPartition = new ConcurrentSet<>();
-        Map<RecordPartition, RecordOffset> needSyncOffset = offsetStore.getKVMap().entrySet().stream()
-            .filter(entry -> needSyncPartitionTmp.contains(entry.getKey()))
-            .collect(Collectors.toMap(entry -> entry.getKey(), entry -> entry.getValue()));
+        Map<RecordPartition, RecordOffset> needSyncOffset = partitionIndex.collect(needSyncPartitionTmp);
 
         dataSynchronizer.send(OffsetChangeEnum.OFFSET_CHANG_KEY.name(), needSyncOffset);
     }
@@ -234,28 +239,10 @@ public class OffsetManagementServiceImpl implements PositionManagementService {
      */
     private boolean mergeOffsetInfo(Map<RecordPartition, RecordOffset> result) {
 
-        boolean changed = false;
         if (null == result || 0 == result.size()) {
-            return changed;
-        }
-
-        for (Map.Entry<RecordPartition, RecordOffset> newEntry : result.entrySet()) {
-            boolean find = false;
-            for (Map.Entry<RecordPartition, RecordOffset> existedEntry : offsetStore.getKVMap().entrySet()) {
-                if (newEntry.getKey().equals(existedEntry.getKey())) {
-                    find = true;
-                    if (!newEntry.getValue().equals(existedEntry.getValue())) {
-                        changed = true;
-                        existedEntry.setValue(newEntry.getValue());
-                    }
-                    break;
-                }
-            }
-            if (!find) {
-                offsetStore.put(newEntry.getKey(), newEntry.getValue());
-            }
+            return false;
         }
-        return changed;
+        return partitionIndex.merge(result);
     }
 
     private enum OffsetChangeEnum {
@@ -24,7 +24,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
 import org.apache.rocketmq.common.TopicConfig;
 import org.apache.rocketmq.connect.runtime.common.LoggerName;
 import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
@@ -32,8 +31,8 @@ import org.apache.rocketmq.connect.runtime.converter.JsonConverter;
 import org.apache.rocketmq.connect.runtime.converter.RecordOffsetConverter;
 import org.apache.rocketmq.connect.runtime.converter.RecordPartitionConverter;
 import org.apache.rocketmq.connect.runtime.converter.RecordPositionMapConverter;
-import org.apache.rocketmq.connect.runtime.store.FileBaseKeyValueStore;
 import org.apache.rocketmq.connect.runtime.store.KeyValueStore;
+import org.apache.rocketmq.connect.runtime.store.KeyValueStoreFactory;
 import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
 import org.apache.rocketmq.connect.runtime.utils.FilePathConfigUtil;
 import org.apache.rocketmq.connect.runtime.utils.datasync.BrokerBasedLog;
@@ -50,6 +49,11 @@ public class PositionManagementServiceImpl implements PositionManagementService
      */
     private KeyValueStore<RecordPartition, RecordOffset> positionStore;
 
+    /**
+     * Index of the partitions in store.
+     */
+    private RecordPartitionIndex partitionIndex;
+
     /**
      * The updated partition of the task in the current instance.
      * */
@@ -69,9 +73,11 @@ public class PositionManagementServiceImpl implements PositionManagementService
 
     public PositionManagementServiceImpl(ConnectConfig connectConfig) {
 
-        this.positionStore = new FileBaseKeyValueStore<>(FilePathConfigUtil.getPositionPath(connectConfig.getStorePathRootDir()),
+        this.positionStore = KeyValueStoreFactory.createFileStore(connectConfig,
+            FilePathConfigUtil.getPositionPath(connectConfig.getStorePathRootDir()),
             new RecordPartitionConverter(),
             new RecordOffsetConverter());
+        this.partitionIndex = new RecordPartitionIndex(positionStore);
         this.dataSynchronizer = new BrokerBasedLog(connectConfig,
             connectConfig.getPositionStoreTopic(),
             ConnectUtil.createGroupName(positionManagePrefix, connectConfig.getWorkerId()),
@@ -101,6 +107,7 @@ public class PositionManagementServiceImpl implements PositionManagementService
     public void start() {
 
         positionStore.load();
+        partitionIndex.rebuild();
         dataSynchronizer.start();
         sendOnlinePositionInfo();
     }
@@ -121,6 +128,7 @@ public class PositionManagementServiceImpl implements PositionManagementService
 
     @Override public void load() {
         positionStore.load();
+        partitionIndex.rebuild();
     }
 
     @Override
@@ -144,15 +152,15 @@ public class PositionManagementServiceImpl implements PositionManagementService
     @Override
     public void putPosition(Map<RecordPartition, RecordOffset> positions) {
 
-        positionStore.putAll(positions);
-        needSyncPartition.addAll(positions.keySet());
+        for (Map.Entry<RecordPartition, RecordOffset> entry : positions.entrySet()) {
+            needSyncPartition.add(partitionIndex.put(entry.getKey(), entry.getValue()));
+        }
     }
 
     @Override
     public void putPosition(RecordPartition partition, RecordOffset position) {
 
-        positionStore.put(partition, position);
-        needSyncPartition.add(partition);
+        needSyncPartition.add(partitionIndex.put(partition, position));
     }
 
     @Override
@@ -163,8 +171,7 @@ public class PositionManagementServiceImpl implements PositionManagementService
         }
 
         for (RecordPartition partition : partitions) {
-            needSyncPartition.remove(partition);
-            positionStore.remove(partition);
+            needSyncPartition.remove(partitionIndex.remove(partition));
         }
     }
 
@@ -184,9 +191,7 @@ public class PositionManagementServiceImpl implements PositionManagementService
 
         Set<RecordPartition> needSyncPartitionTmp = needSyncPartition;
         needSyncPartition = new ConcurrentSet<>();
-        Map<RecordPartition, RecordOffset> needSyncPosition = positionStore.getKVMap().entrySet().stream()
-            .filter(entry -> needSyncPartitionTmp.contains(entry.getKey()))
-            .collect(Collectors.toMap(entry -> entry.getKey(), entry -> entry.getValue()));
+        Map<RecordPartition, RecordOffset> needSyncPosition = partitionIndex.collect(needSyncPartitionTmp);
 
         dataSynchronizer.send(PositionChangeEnum.POSITION_CHANG_KEY.name(), needSyncPosition);
     }
@@ -234,28 +239,10 @@ public class PositionManagementServiceImpl implements PositionManagementService
      */
     private boolean mergePositionInfo(Map<RecordPartition, RecordOffset> result) {
 
-        boolean changed = false;
         if (null == result || 0 == result.size()) {
-            return changed;
-        }
-
-        for (Map.Entry<RecordPartition, RecordOffset> newEntry : result.entrySet()) {
-            boolean find = false;
-            for (Map.Entry<RecordPartition, RecordOffset> existedEntry : positionStore.getKVMap().entrySet()) {
-                if (newEntry.getKey().equals(existedEntry.getKey())) {
-                    find = true;
-                    if (!newEntry.getValue().equals(existedEntry.getValue())) {
-                        changed = true;
-                        existedEntry.setValue(newEntry.getValue());
-                    }
-                    break;
-                }
-            }
-            if (!find) {
-                positionStore.put(newEntry.getKey(), newEntry.getValue());
-            }
+            return false;
         }
-        return changed;
+        return partitionIndex.merge(result);
     }
 
     private enum PositionChangeEnum {
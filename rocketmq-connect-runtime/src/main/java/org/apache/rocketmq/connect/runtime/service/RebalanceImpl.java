@@ -17,8 +17,10 @@
 
 package org.apache.rocketmq.connect.runtime.service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 import org.apache.rocketmq.common.TopicConfig;
 import org.apache.rocketmq.connect.runtime.ConnectController;
 import org.apache.rocketmq.connect.runtime.common.ConnAndTaskConfigs;
@@ -27,6 +29,7 @@ import org.apache.rocketmq.connect.runtime.common.LoggerName;
 import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
 import org.apache.rocketmq.connect.runtime.connectorwrapper.Worker;
 import org.apache.rocketmq.connect.runtime.service.strategy.AllocateConnAndTaskStrategy;
+import org.apache.rocketmq.connect.runtime.service.strategy.LoadAwareAllocateConnAndTaskStrategy;
 import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -92,12 +95,35 @@ public class RebalanceImpl {
         log.info("Current ConnectorConfigs : " + curConnectorConfigs);
         Map<String, List<ConnectKeyValue>> curTaskConfigs = configManagementService.getTaskConfigs();
         log.info("Current TaskConfigs : " + curTaskConfigs);
+        if (allocateConnAndTaskStrategy instanceof LoadAwareAllocateConnAndTaskStrategy) {
+            ((LoadAwareAllocateConnAndTaskStrategy) allocateConnAndTaskStrategy)
+                .setWorkerTaskLoads(configManagementService.getTaskLoadSnapshot());
+        }
         ConnAndTaskConfigs allocateResult = allocateConnAndTaskStrategy.allocate(curAliveWorkers, clusterManagementService.getCurrentWorker(), curConnectorConfigs, curTaskConfigs);
         log.info("Allocated connector:{}", allocateResult.getConnectorConfigs());
         log.info("Allocated task:{}", allocateResult.getTaskConfigs());
         updateProcessConfigsInRebalance(allocateResult);
     }
 
+    /**
+     * Report the load of the tasks running in current process, only the load aware strategy uses the reports. The
+     * leader, the first of the sorted alive workers, also publishes the reports it received as the next snapshot.
+     */
+    public void reportTaskLoads() {
+        if (!(allocateConnAndTaskStrategy instanceof LoadAwareAllocateConnAndTaskStrategy)) {
+            return;
+        }
+        configManagementService.reportTaskLoads(worker.sampleTaskLoads());
+        List<String> curAliveWorkers = clusterManagementService.getAllAliveWorkers();
+        if (null == curAliveWorkers || curAliveWorkers.isEmpty()) {
+            return;
+        }
+        List<String> sortedWorkers = new ArrayList<>(new TreeSet<>(curAliveWorkers));
+        if (sortedWorkers.get(0).equals(clusterManagementService.getCurrentWorker())) {
+            configManagementService.publishTaskLoads(sortedWorkers);
+        }
+    }
+
     /**
      * Start all the connectors and tasks allocated to current process.
      *
@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.service;
+
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.rocketmq.connect.runtime.store.KeyValueStore;
+
+/**
+ * Index the partitions of a position store by a canonical key, so merging received positions and collecting the
+ * changed ones cost in proportion to the change instead of the whole table. The canonical key compares partition
+ * values by their string form, a partition decoded from another worker matches the local one even if a number
+ * value came back with a different type.
+ */
+class RecordPartitionIndex {
+
+    private final KeyValueStore<RecordPartition, RecordOffset> store;
+
+    /**
+     * Canonical key to the partition instance stored in {@link #store}.
+     */
+    private final Map<String, RecordPartition> index = new ConcurrentHashMap<>();
+
+    RecordPartitionIndex(KeyValueStore<RecordPartition, RecordOffset> store) {
+        this.store = store;
+    }
+
+    /**
+     * Rebuild the index from the store, called after the store is loaded.
+     */
+    void rebuild() {
+        index.clear();
+        for (RecordPartition partition : store.getKVMap().keySet()) {
+            index.put(canonicalKey(partition), partition);
+        }
+    }
+
+    /**
+     * Put the offset of a partition.
+     *
+     * @param partition
+     * @param offset
+     * @return the stored partition instance, which should be used to track the partition afterwards
+     */
+    RecordPartition put(RecordPartition partition, RecordOffset offset) {
+        RecordPartition stored = locate(partition);
+        store.put(stored, offset);
+        return stored;
+    }
+
+    /**
+     * Remove a partition.
+     *
+     * @param partition
+     * @return the stored partition instance, or the given one if it is not stored
+     */
+    RecordPartition remove(RecordPartition partition) {
+        RecordPartition stored = index.remove(canonicalKey(partition));
+        if (null == stored) {
+            stored = partition;
+        }
+        store.remove(stored);
+        return stored;
+    }
+
+    /**
+     * Merge received positions with the store.
+     *
+     * @param offsets
+     * @return true if the offset of an existing partition is changed
+     */
+    boolean merge(Map<RecordPartition, RecordOffset> offsets) {
+        boolean changed = false;
+        for (Map.Entry<RecordPartition, RecordOffset> newEntry : offsets.entrySet()) {
+            RecordPartition stored = index.get(canonicalKey(newEntry.getKey()));
+            if (null == stored) {
+                put(newEntry.getKey(), newEntry.getValue());
+                continue;
+            }
+            if (!newEntry.getValue().equals(store.get(stored))) {
+                changed = true;
+                store.put(stored, newEntry.getValue());
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Collect the current offsets of the given partitions, partitions no longer stored are skipped.
+     *
+     * @param partitions
+     * @return
+     */
+    Map<RecordPartition, RecordOffset> collect(Collection<RecordPartition> partitions) {
+        Map<RecordPartition, RecordOffset> offsets = new HashMap<>(partitions.size() * 2);
+        for (RecordPartition partition : partitions) {
+            RecordOffset offset = store.get(partition);
+            if (null != offset) {
+                offsets.put(partition, offset);
+            }
+        }
+        return offsets;
+    }
+
+    int size() {
+        return index.size();
+    }
+
+    private RecordPartition locate(RecordPartition partition) {
+        RecordPartition stored = index.putIfAbsent(canonicalKey(partition), partition);
+        return null == stored ? partition : stored;
+    }
+
+    static String canonicalKey(RecordPartition partition) {
+        Map<String, ?> map = partition.getPartition();
+        if (null == map || map.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(64);
+        for (Map.Entry<String, ?> entry : new TreeMap<>(map).entrySet()) {
+            String value = String.valueOf(entry.getValue());
+            sb.append(entry.getKey().length()).append(':').append(entry.getKey())
+                .append(value.length()).append(':').append(value);
+        }
+        return sb.toString();
+    }
+}
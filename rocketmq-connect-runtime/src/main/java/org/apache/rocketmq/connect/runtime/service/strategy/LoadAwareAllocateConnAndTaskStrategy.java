@@ -0,0 +1,257 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.service.strategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.apache.rocketmq.connect.runtime.common.ConnAndTaskConfigs;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.apache.rocketmq.connect.runtime.common.LoggerName;
+import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load aware allocate strategy, balance the tasks by the load every worker reports for its running tasks.
+ *
+ * <p>Every worker computes the allocation on its own, so the allocation has to be a function of the alive workers, the
+ * configs and the loads. The loads are not the reports each worker happened to receive, but a snapshot of them the
+ * leader publishes under a load epoch. Workers only adopt a newer epoch and rebalance when they adopt one, so they
+ * agree on the loads the same way they agree on the configs. A task stays on the worker reporting it, tasks without
+ * an alive worker are placed heaviest first on the least loaded worker. Tasks only move when the most or the least
+ * loaded worker differs from the mean load by more than the threshold, then they move from the most to the least
+ * loaded worker until both are within half the threshold, so small changes of the load move no task. The load of a
+ * task is its reported load plus one, an idle task still costs a thread and tasks nobody reported yet are balanced by
+ * count.
+ *
+ * <p>Connectors are light and distributed averagely.
+ */
+public class LoadAwareAllocateConnAndTaskStrategy implements AllocateConnAndTaskStrategy {
+    private static final Logger log = LoggerFactory.getLogger(LoggerName.ROCKETMQ_RUNTIME);
+
+    public static final double DEFAULT_THRESHOLD = 0.2;
+
+    private static final double BASE_LOAD = 1;
+
+    /**
+     * Tolerated difference of a worker load from the mean load, as a fraction of the mean.
+     */
+    private final double threshold;
+
+    /**
+     * Load of the running tasks of every worker in the adopted snapshot, keyed by {@link #taskKey(String, int)}.
+     */
+    private volatile Map<String, Map<String, Double>> workerTaskLoads = new HashMap<>();
+
+    public LoadAwareAllocateConnAndTaskStrategy() {
+        this(DEFAULT_THRESHOLD);
+    }
+
+    public LoadAwareAllocateConnAndTaskStrategy(double threshold) {
+        this.threshold = threshold;
+    }
+
+    /**
+     * Update the loads of the snapshot adopted by this worker.
+     *
+     * @param workerTaskLoads load of the running tasks of every worker
+     */
+    public void setWorkerTaskLoads(Map<String, Map<String, Double>> workerTaskLoads) {
+        this.workerTaskLoads = workerTaskLoads;
+    }
+
+    /**
+     * Key of a task in the load reports, the same on every worker: its task id, set from its position in the task
+     * configs of the connector.
+     */
+    public static String taskKey(String connectorName, int taskIndex) {
+        return ConnectUtil.taskId(connectorName, taskIndex);
+    }
+
+    @Override
+    public ConnAndTaskConfigs allocate(List<String> allWorker, String curWorker,
+        Map<String, ConnectKeyValue> connectorConfigs,
+        Map<String, List<ConnectKeyValue>> taskConfigs) {
+        ConnAndTaskConfigs allocateResult = new ConnAndTaskConfigs();
+        if (null == allWorker || 0 == allWorker.size()) {
+            return allocateResult;
+        }
+
+        List<String> sortedWorkers = new ArrayList<>(new TreeSet<>(allWorker));
+        int index = 0;
+        for (Map.Entry<String, ConnectKeyValue> entry : new TreeMap<>(connectorConfigs).entrySet()) {
+            if (curWorker.equals(sortedWorkers.get(index++ % sortedWorkers.size()))) {
+                allocateResult.getConnectorConfigs().put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        List<TaskLoad> tasks = new ArrayList<>();
+        for (Map.Entry<String, List<ConnectKeyValue>> entry : new TreeMap<>(taskConfigs).entrySet()) {
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                tasks.add(new TaskLoad(entry.getKey(), i, entry.getValue().get(i)));
+            }
+        }
+        assign(tasks, sortedWorkers, workerTaskLoads, threshold);
+        for (TaskLoad task : tasks) {
+            if (curWorker.equals(task.worker)) {
+                allocateResult.getTaskConfigs().computeIfAbsent(task.connectorName, k -> new ArrayList<>())
+                    .add(task.taskConfig);
+            }
+        }
+        log.debug("allocate result: " + allocateResult);
+        return allocateResult;
+    }
+
+    /**
+     * Assign the tasks to the workers.
+     *
+     * @param tasks tasks in a stable order
+     * @param sortedWorkers sorted alive workers
+     * @param workerTaskLoads load of the running tasks of every worker
+     * @param threshold tolerated difference of a worker load from the mean load
+     * @return number of tasks moved away from the worker reporting them
+     */
+    static int assign(List<TaskLoad> tasks, List<String> sortedWorkers,
+        Map<String, Map<String, Double>> workerTaskLoads, double threshold) {
+        Map<String, String> reportedWorkers = new HashMap<>();
+        Map<String, Double> reportedLoads = new HashMap<>();
+        for (String worker : sortedWorkers) {
+            Map<String, Double> taskLoads = workerTaskLoads.get(worker);
+            if (null == taskLoads) {
+                continue;
+            }
+            for (Map.Entry<String, Double> entry : taskLoads.entrySet()) {
+                reportedWorkers.putIfAbsent(entry.getKey(), worker);
+                reportedLoads.putIfAbsent(entry.getKey(), entry.getValue());
+            }
+        }
+
+        Map<String, Double> workerLoads = new HashMap<>();
+        for (String worker : sortedWorkers) {
+            workerLoads.put(worker, 0d);
+        }
+        List<TaskLoad> unassigned = new ArrayList<>();
+        for (TaskLoad task : tasks) {
+            Double load = reportedLoads.get(task.key);
+            task.load = BASE_LOAD + (null == load ? 0 : load);
+            task.worker = reportedWorkers.get(task.key);
+            if (null == task.worker) {
+                unassigned.add(task);
+            } else {
+                workerLoads.merge(task.worker, task.load, Double::sum);
+            }
+        }
+
+        // heaviest first on the least loaded worker
+        Collections.sort(unassigned, (o1, o2) -> Double.compare(o2.load, o1.load));
+        for (TaskLoad task : unassigned) {
+            String worker = leastLoaded(sortedWorkers, workerLoads);
+            task.worker = worker;
+            workerLoads.merge(worker, task.load, Double::sum);
+        }
+
+        double total = 0;
+        for (double load : workerLoads.values()) {
+            total += load;
+        }
+        double mean = total / sortedWorkers.size();
+        int moved = 0;
+        if (!exceeds(sortedWorkers, workerLoads, mean, threshold)) {
+            return moved;
+        }
+        // once triggered balance to half the threshold, so the next small change of the load does not trigger again
+        for (int round = 0; round < tasks.size() && exceeds(sortedWorkers, workerLoads, mean, threshold / 2); round++) {
+            String from = mostLoaded(sortedWorkers, workerLoads);
+            String to = leastLoaded(sortedWorkers, workerLoads);
+            double gap = workerLoads.get(from) - workerLoads.get(to);
+            // the task leaving both workers closest to each other
+            TaskLoad best = null;
+            for (TaskLoad task : tasks) {
+                if (from.equals(task.worker) && task.load < gap
+                    && (null == best || Math.abs(gap / 2 - task.load) < Math.abs(gap / 2 - best.load))) {
+                    best = task;
+                }
+            }
+            if (null == best) {
+                break;
+            }
+            best.worker = to;
+            workerLoads.merge(from, -best.load, Double::sum);
+            workerLoads.merge(to, best.load, Double::sum);
+            moved++;
+        }
+        if (moved > 0) {
+            log.info("Move {} tasks to balance the worker loads {}", moved, workerLoads);
+        }
+        return moved;
+    }
+
+    /**
+     * Whether the most loaded worker is above or the least loaded worker is below the mean load by more than the
+     * threshold.
+     */
+    private static boolean exceeds(List<String> sortedWorkers, Map<String, Double> workerLoads, double mean,
+        double threshold) {
+        return workerLoads.get(mostLoaded(sortedWorkers, workerLoads)) > mean * (1 + threshold)
+            || workerLoads.get(leastLoaded(sortedWorkers, workerLoads)) < mean * (1 - threshold);
+    }
+
+    private static String leastLoaded(List<String> sortedWorkers, Map<String, Double> workerLoads) {
+        String result = null;
+        for (String worker : sortedWorkers) {
+            if (null == result || workerLoads.get(worker) < workerLoads.get(result)) {
+                result = worker;
+            }
+        }
+        return result;
+    }
+
+    private static String mostLoaded(List<String> sortedWorkers, Map<String, Double> workerLoads) {
+        String result = null;
+        for (String worker : sortedWorkers) {
+            if (null == result || workerLoads.get(worker) > workerLoads.get(result)) {
+                result = worker;
+            }
+        }
+        return result;
+    }
+
+    static class TaskLoad {
+
+        final String connectorName;
+
+        final ConnectKeyValue taskConfig;
+
+        final String key;
+
+        double load;
+
+        String worker;
+
+        TaskLoad(String connectorName, int taskIndex, ConnectKeyValue taskConfig) {
+            this.connectorName = connectorName;
+            this.taskConfig = taskConfig;
+            this.key = taskKey(connectorName, taskIndex);
+        }
+    }
+}
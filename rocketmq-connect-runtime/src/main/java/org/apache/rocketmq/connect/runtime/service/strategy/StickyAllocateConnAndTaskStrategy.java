@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.service.strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.apache.rocketmq.connect.runtime.common.ConnAndTaskConfigs;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.apache.rocketmq.connect.runtime.common.LoggerName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sticky allocate strategy, a connector or task only moves when the worker count change requires it.
+ *
+ * <p>Every worker computes the allocation on its own, so the allocation has to be a function of the alive workers and
+ * the configs. Each connector and task ranks the workers by a hash of both names, and the pairs are assigned from the
+ * highest rank down while the worker has room. Room is bounded so the counts of the workers differ by at most one,
+ * connectors and tasks are balanced separately. A worker joining or leaving changes the rank of few pairs, so most
+ * connectors and tasks keep their worker.
+ *
+ * <p>Connectors and tasks are revoked before they are assigned: a connector or task moved from another alive worker
+ * is started one rebalance later, after the previous worker has stopped it in its own rebalance.
+ */
+public class StickyAllocateConnAndTaskStrategy implements AllocateConnAndTaskStrategy {
+    private static final Logger log = LoggerFactory.getLogger(LoggerName.ROCKETMQ_RUNTIME);
+
+    /**
+     * Worker of every connector in the last allocation.
+     */
+    private Map<String, String> lastConnectorOwners;
+
+    /**
+     * Worker of every task in the last allocation, keyed by {@link #taskKey(String, int)}.
+     */
+    private Map<String, String> lastTaskOwners;
+
+    @Override
+    public synchronized ConnAndTaskConfigs allocate(List<String> allWorker, String curWorker,
+        Map<String, ConnectKeyValue> connectorConfigs,
+        Map<String, List<ConnectKeyValue>> taskConfigs) {
+        ConnAndTaskConfigs allocateResult = new ConnAndTaskConfigs();
+        if (null == allWorker || 0 == allWorker.size()) {
+            return allocateResult;
+        }
+
+        List<String> sortedWorkers = new ArrayList<>(new TreeSet<>(allWorker));
+        Map<String, ConnectKeyValue> sortedConnectorConfigs = new TreeMap<>(connectorConfigs);
+        Map<String, List<ConnectKeyValue>> sortedTaskConfigs = new TreeMap<>(taskConfigs);
+        List<String> connectorKeys = new ArrayList<>(sortedConnectorConfigs.keySet());
+        List<String> taskKeys = new ArrayList<>();
+        for (Map.Entry<String, List<ConnectKeyValue>> entry : sortedTaskConfigs.entrySet()) {
+            for (int i = 0; i < entry.getValue().size(); i++) {
+                taskKeys.add(taskKey(entry.getKey(), i));
+            }
+        }
+
+        Map<String, String> connectorOwners = assign(connectorKeys, sortedWorkers);
+        Map<String, String> taskOwners = assign(taskKeys, sortedWorkers);
+        if (null == lastConnectorOwners) {
+            // first allocation of this worker, the others may be running everything
+            List<String> otherWorkers = new ArrayList<>(sortedWorkers);
+            otherWorkers.remove(curWorker);
+            lastConnectorOwners = assign(connectorKeys, otherWorkers);
+            lastTaskOwners = assign(taskKeys, otherWorkers);
+        }
+
+        int deferred = 0;
+        for (Map.Entry<String, ConnectKeyValue> entry : sortedConnectorConfigs.entrySet()) {
+            String key = entry.getKey();
+            if (!curWorker.equals(connectorOwners.get(key))) {
+                continue;
+            }
+            if (isRevoking(lastConnectorOwners.get(key), curWorker, sortedWorkers)) {
+                deferred++;
+                continue;
+            }
+            allocateResult.getConnectorConfigs().put(key, entry.getValue());
+        }
+        for (Map.Entry<String, List<ConnectKeyValue>> entry : sortedTaskConfigs.entrySet()) {
+            String connectorName = entry.getKey();
+            List<ConnectKeyValue> configs = entry.getValue();
+            for (int i = 0; i < configs.size(); i++) {
+                String key = taskKey(connectorName, i);
+                if (!curWorker.equals(taskOwners.get(key))) {
+                    continue;
+                }
+                if (isRevoking(lastTaskOwners.get(key), curWorker, sortedWorkers)) {
+                    deferred++;
+                    continue;
+                }
+                allocateResult.getTaskConfigs().computeIfAbsent(connectorName, k -> new ArrayList<>()).add(configs.get(i));
+            }
+        }
+        if (deferred > 0) {
+            log.info("{} connectors and tasks are deferred to the next rebalance, waiting for the previous worker to stop them", deferred);
+        }
+
+        lastConnectorOwners = connectorOwners;
+        lastTaskOwners = taskOwners;
+        log.debug("allocate result: " + allocateResult);
+        return allocateResult;
+    }
+
+    /**
+     * Whether the connector or task is still owned by another alive worker.
+     */
+    private static boolean isRevoking(String lastOwner, String curWorker, List<String> sortedWorkers) {
+        return null != lastOwner && !lastOwner.equals(curWorker)
+            && Collections.binarySearch(sortedWorkers, lastOwner) >= 0;
+    }
+
+    private static String taskKey(String connectorName, int index) {
+        return connectorName + "/" + index;
+    }
+
+    /**
+     * Assign the keys to the workers, the count of the workers differ by at most one.
+     *
+     * @param keys sorted keys
+     * @param workers sorted workers
+     * @return worker of every key
+     */
+    static Map<String, String> assign(List<String> keys, List<String> workers) {
+        Map<String, String> owners = new HashMap<>(keys.size() * 2);
+        int keyNums = keys.size();
+        int workerNums = workers.size();
+        if (0 == keyNums || 0 == workerNums) {
+            return owners;
+        }
+
+        int[] keyHashes = new int[keyNums];
+        for (int i = 0; i < keyNums; i++) {
+            keyHashes[i] = keys.get(i).hashCode();
+        }
+        int[] workerHashes = new int[workerNums];
+        for (int j = 0; j < workerNums; j++) {
+            workerHashes[j] = workers.get(j).hashCode();
+        }
+
+        // rank in the high 32 bits, pair index in the low 32 bits
+        long[] pairs = new long[keyNums * workerNums];
+        for (int i = 0; i < keyNums; i++) {
+            for (int j = 0; j < workerNums; j++) {
+                int pair = i * workerNums + j;
+                pairs[pair] = (rank(keyHashes[i], workerHashes[j]) << 32) | pair;
+            }
+        }
+        Arrays.sort(pairs);
+
+        int floor = keyNums / workerNums;
+        int ceilNums = keyNums % workerNums;
+        int[] counts = new int[workerNums];
+        boolean[] assigned = new boolean[keyNums];
+        int assignedNums = 0;
+        for (int p = pairs.length - 1; p >= 0 && assignedNums < keyNums; p--) {
+            int pair = (int) pairs[p];
+            int i = pair / workerNums;
+            int j = pair % workerNums;
+            if (assigned[i]) {
+                continue;
+            }
+            int room = ceilNums > 0 ? floor + 1 : floor;
+            if (counts[j] >= room) {
+                continue;
+            }
+            counts[j]++;
+            if (counts[j] == floor + 1) {
+                ceilNums--;
+            }
+            assigned[i] = true;
+            assignedNums++;
+            owners.put(keys.get(i), workers.get(j));
+        }
+        return owners;
+    }
+
+    /**
+     * Unsigned 32 bits rank of a key on a worker.
+     */
+    private static long rank(int keyHash, int workerHash) {
+        long h = ((long) keyHash << 32) ^ (workerHash & 0xFFFFFFFFL);
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h >>> 32;
+    }
+}
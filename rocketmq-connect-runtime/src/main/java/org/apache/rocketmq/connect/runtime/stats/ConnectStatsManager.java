@@ -17,8 +17,15 @@
  */
 package org.apache.rocketmq.connect.runtime.stats;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.rocketmq.common.constant.LoggerName;
 import org.apache.rocketmq.common.stats.StatsItem;
@@ -87,6 +94,11 @@ public class ConnectStatsManager {
         ThreadUtils.newSingleThreadScheduledExecutor("AccountStatsThread", true);
 
     private final HashMap<String, StatsItemSet> statsTable = new HashMap<String, StatsItemSet>();
+
+    /**
+     * Task metrics keyed by connector name and task id, connector and worker metrics are merged from them when read.
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, TaskMetrics>> taskMetricsTable = new ConcurrentHashMap<>();
     private final String worker;
     private ConnectConfig connectConfig;
 
@@ -125,6 +137,14 @@ public class ConnectStatsManager {
 
         this.statsTable.put(SOURCE_RECORD_POLL_TOTAL_TIMES, new StatsItemSet(SOURCE_RECORD_POLL_TOTAL_TIMES, this.scheduledExecutorService, log));
         this.statsTable.put(SINK_RECORD_READ_TOTAL_TIMES, new StatsItemSet(SINK_RECORD_READ_TOTAL_TIMES, this.scheduledExecutorService, log));
+
+        this.scheduledExecutorService.scheduleAtFixedRate(() -> {
+            try {
+                printLatencyAtMinutes();
+            } catch (Throwable e) {
+                log.error("Print latency stats failed", e);
+            }
+        }, 60, 60, TimeUnit.SECONDS);
     }
 
     public void start() {
@@ -144,6 +164,149 @@ public class ConnectStatsManager {
         return null;
     }
 
+    /**
+     * Get or create the metrics of a task, the worker task should keep the instance instead of looking it up per record.
+     *
+     * @param connectorName connector name
+     * @param taskId task id, the connector name is used when it is blank
+     * @return task metrics
+     */
+    public TaskMetrics getTaskMetrics(String connectorName, String taskId) {
+        String connector = StringUtils.defaultString(connectorName);
+        String task = StringUtils.isBlank(taskId) ? connector : taskId;
+        ConcurrentMap<String, TaskMetrics> connectorMetrics = taskMetricsTable.get(connector);
+        TaskMetrics taskMetrics = null == connectorMetrics ? null : connectorMetrics.get(task);
+        if (null != taskMetrics) {
+            return taskMetrics;
+        }
+        // created under the lock of the connector entry, so a concurrent removal can not drop it right away
+        TaskMetrics[] created = new TaskMetrics[1];
+        taskMetricsTable.compute(connector, (k, metrics) -> {
+            ConcurrentMap<String, TaskMetrics> current = null == metrics ? new ConcurrentHashMap<>() : metrics;
+            created[0] = current.computeIfAbsent(task, t -> new TaskMetrics(connector, t));
+            return current;
+        });
+        return created[0];
+    }
+
+    /**
+     * Remove the metrics of a task which no longer runs on this worker, the connector entry is removed with its last
+     * task.
+     *
+     * @param connectorName connector name
+     * @param taskId task id, the connector name is used when it is blank
+     */
+    public void removeTaskMetrics(String connectorName, String taskId) {
+        String connector = StringUtils.defaultString(connectorName);
+        String task = StringUtils.isBlank(taskId) ? connector : taskId;
+        taskMetricsTable.computeIfPresent(connector, (k, metrics) -> {
+            metrics.remove(task);
+            return metrics.isEmpty() ? null : metrics;
+        });
+    }
+
+    /**
+     * Get the task metrics of every connector without copying them.
+     *
+     * @return task metrics keyed by connector name and task id
+     */
+    public Map<String, ? extends Map<String, TaskMetrics>> getTaskMetricsTable() {
+        return Collections.unmodifiableMap(taskMetricsTable);
+    }
+
+    public List<TaskMetrics> getAllTaskMetrics() {
+        List<TaskMetrics> allTaskMetrics = new ArrayList<>();
+        for (ConcurrentMap<String, TaskMetrics> connectorMetrics : taskMetricsTable.values()) {
+            allTaskMetrics.addAll(connectorMetrics.values());
+        }
+        return allTaskMetrics;
+    }
+
+    /**
+     * Merge a histogram of all tasks of a connector.
+     *
+     * @param name histogram name defined in {@link TaskMetrics}
+     * @param connectorName connector name
+     * @return merged histogram
+     */
+    public LatencyHistogram getConnectorHistogram(String name, String connectorName) {
+        LatencyHistogram merged = new LatencyHistogram();
+        Map<String, TaskMetrics> connectorMetrics = taskMetricsTable.get(connectorName);
+        if (null != connectorMetrics) {
+            for (TaskMetrics taskMetrics : connectorMetrics.values()) {
+                merged.add(taskMetrics.getHistogram(name));
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Merge a histogram of all tasks of the worker.
+     *
+     * @param name histogram name defined in {@link TaskMetrics}
+     * @return merged histogram
+     */
+    public LatencyHistogram getWorkerHistogram(String name) {
+        LatencyHistogram merged = new LatencyHistogram();
+        for (TaskMetrics taskMetrics : getAllTaskMetrics()) {
+            merged.add(taskMetrics.getHistogram(name));
+        }
+        return merged;
+    }
+
+    public long getConnectorCounter(String name, String connectorName) {
+        long sum = 0;
+        Map<String, TaskMetrics> connectorMetrics = taskMetricsTable.get(connectorName);
+        if (null != connectorMetrics) {
+            for (TaskMetrics taskMetrics : connectorMetrics.values()) {
+                sum += taskMetrics.getCounter(name);
+            }
+        }
+        return sum;
+    }
+
+    public long getWorkerCounter(String name) {
+        long sum = 0;
+        for (TaskMetrics taskMetrics : getAllTaskMetrics()) {
+            sum += taskMetrics.getCounter(name);
+        }
+        return sum;
+    }
+
+    public long getConnectorGauge(String name, String connectorName) {
+        long sum = 0;
+        Map<String, TaskMetrics> connectorMetrics = taskMetricsTable.get(connectorName);
+        if (null != connectorMetrics) {
+            for (TaskMetrics taskMetrics : connectorMetrics.values()) {
+                sum += taskMetrics.getGauge(name);
+            }
+        }
+        return sum;
+    }
+
+    public long getWorkerGauge(String name) {
+        long sum = 0;
+        for (TaskMetrics taskMetrics : getAllTaskMetrics()) {
+            sum += taskMetrics.getGauge(name);
+        }
+        return sum;
+    }
+
+    private void printLatencyAtMinutes() {
+        for (String connectorName : taskMetricsTable.keySet()) {
+            for (String name : new String[] {TaskMetrics.SOURCE_PUT_LATENCY, TaskMetrics.SINK_PUT_LATENCY, TaskMetrics.SEND_RT}) {
+                LatencyHistogram histogram = getConnectorHistogram(name, connectorName);
+                if (0 == histogram.getCount()) {
+                    continue;
+                }
+                log.info(String.format("[%s] [%s] Count: %d, Avg: %.2f, P50: %d, P99: %d, P999: %d, Max: %d",
+                    name, connectorName, histogram.getCount(), histogram.getMean(),
+                    histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+                    histogram.getValueAtPercentile(99.9), histogram.getMax()));
+            }
+        }
+    }
+
     public void incSourceRecordPollTotalNums(int incValue) {
         this.statsTable.get(SOURCE_RECORD_POLL_TOTAL_NUMS).addValue(worker, incValue, 1);
 
@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.rocketmq.connect.runtime.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram with HdrHistogram style log linear buckets.
+ *
+ * <p>Values below {@link #SUB_BUCKET_COUNT} have a bucket each, above that every power of two is split into
+ * {@link #SUB_BUCKET_COUNT} / 2 buckets, so a recorded value is reported within 1/64 of its real value. Values above
+ * the highest trackable value are counted in the last bucket.
+ */
+public class LatencyHistogram {
+
+    /**
+     * Default highest trackable value, one hour in milliseconds.
+     */
+    public static final long DEFAULT_HIGHEST_TRACKABLE_VALUE = 60 * 60 * 1000L;
+
+    private static final int SUB_BUCKET_BITS = 7;
+
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+
+    private final long highestTrackableValue;
+
+    private final AtomicLongArray counts;
+
+    private final LongAdder totalCount = new LongAdder();
+
+    private final LongAdder totalValue = new LongAdder();
+
+    private final LongAccumulator maxValue = new LongAccumulator(Long::max, 0);
+
+    public LatencyHistogram() {
+        this(DEFAULT_HIGHEST_TRACKABLE_VALUE);
+    }
+
+    public LatencyHistogram(long highestTrackableValue) {
+        if (highestTrackableValue < SUB_BUCKET_COUNT) {
+            throw new IllegalArgumentException("highestTrackableValue must be at least " + SUB_BUCKET_COUNT);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        this.counts = new AtomicLongArray(bucketIndex(highestTrackableValue) + 1);
+    }
+
+    /**
+     * Record a value, negative values are recorded as zero.
+     *
+     * @param value latency
+     */
+    public void record(long value) {
+        long trackedValue = Math.min(Math.max(value, 0), highestTrackableValue);
+        counts.incrementAndGet(bucketIndex(trackedValue));
+        totalCount.increment();
+        totalValue.add(trackedValue);
+        maxValue.accumulate(trackedValue);
+    }
+
+    /**
+     * Add the values recorded by another histogram with the same highest trackable value.
+     *
+     * @param other histogram to add
+     */
+    public void add(LatencyHistogram other) {
+        if (other.highestTrackableValue != highestTrackableValue) {
+            throw new IllegalArgumentException("Can not add a histogram with a different highest trackable value");
+        }
+        for (int i = 0; i < counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.add(other.totalCount.sum());
+        totalValue.add(other.totalValue.sum());
+        maxValue.accumulate(other.maxValue.get());
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public long getMax() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        long count = totalCount.sum();
+        return 0 == count ? 0 : (double) totalValue.sum() / count;
+    }
+
+    /**
+     * Sum of the recorded values.
+     */
+    public long getTotalValue() {
+        return totalValue.sum();
+    }
+
+    /**
+     * Add the recorded counts to coarser buckets, a bucket is added to the first upper bound not below its highest
+     * value, or to the slot after the last upper bound. A bucket spanning an upper bound is counted above it.
+     *
+     * @param upperBounds ascending upper bounds
+     * @param bucketCounts counts of every upper bound, one longer than the upper bounds
+     */
+    public void addBucketCounts(long[] upperBounds, long[] bucketCounts) {
+        int bound = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            long count = counts.get(i);
+            if (0 == count) {
+                continue;
+            }
+            long highestValue = highestValueOfBucket(i);
+            while (bound < upperBounds.length && upperBounds[bound] < highestValue) {
+                bound++;
+            }
+            bucketCounts[bound] += count;
+        }
+    }
+
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    /**
+     * Get the value at a percentile, the result is the highest value of the bucket the percentile falls into.
+     *
+     * @param percentile percentile between 0 and 100
+     * @return value at the percentile, 0 when nothing is recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long count = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (0 == count) {
+            return 0;
+        }
+        double requested = Math.min(Math.max(percentile, 0), 100);
+        long countAtPercentile = Math.max(1, (long) Math.ceil(requested / 100 * count));
+        long cumulative = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= countAtPercentile) {
+                return Math.min(highestValueOfBucket(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return shift * SUB_BUCKET_HALF_COUNT + (int) (value >>> shift);
+    }
+
+    static long highestValueOfBucket(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        long subBucket = index - (long) shift * SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,275 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.stats;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Render task metrics in the Prometheus text exposition format.
+ *
+ * <p>Counters and gauges are written per task with the connector and task labels, latency histograms are merged per
+ * connector into {@link #UPPER_BOUNDS}. The text is encoded straight into a buffer kept across scrapes, so a scrape
+ * allocates little beyond the iterators of the metrics table. The buffer shrinks again when the text got much smaller,
+ * after tasks were removed. A writer is not thread safe, share one under a lock.
+ */
+public class PrometheusMetricsWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private static final String PREFIX = "rocketmq_connect_";
+
+    /**
+     * Upper bounds of the histogram buckets in milliseconds.
+     */
+    static final long[] UPPER_BOUNDS = {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000};
+
+    private static final byte[] LE_INF = "+Inf".getBytes(StandardCharsets.UTF_8);
+
+    private final Map<String, byte[]> asciiCache = new HashMap<>();
+
+    private final long[] bucketCounts = new long[UPPER_BOUNDS.length + 1];
+
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+
+    private int size;
+
+    /**
+     * Render the metrics of all tasks, replacing what was rendered before.
+     *
+     * @param taskMetricsTable task metrics keyed by connector name and task id
+     */
+    public void write(Map<String, ? extends Map<String, TaskMetrics>> taskMetricsTable) {
+        if (buffer.length > INITIAL_CAPACITY && size < buffer.length / 4) {
+            // the previous text used a fraction of the buffer, do not keep what a larger one grew it to
+            buffer = new byte[Math.max(INITIAL_CAPACITY, size * 2)];
+        }
+        size = 0;
+        TaskMetrics template = null;
+        for (Map<String, TaskMetrics> connectorMetrics : taskMetricsTable.values()) {
+            for (TaskMetrics taskMetrics : connectorMetrics.values()) {
+                template = taskMetrics;
+                break;
+            }
+            if (null != template) {
+                break;
+            }
+        }
+        if (null == template) {
+            return;
+        }
+
+        for (String name : template.getCounters().keySet()) {
+            String family = PREFIX + name.toLowerCase(Locale.ROOT) + "_total";
+            writeHeader(family, "counter");
+            for (Map<String, TaskMetrics> connectorMetrics : taskMetricsTable.values()) {
+                for (TaskMetrics taskMetrics : connectorMetrics.values()) {
+                    writeTaskSample(family, taskMetrics, taskMetrics.getCounter(name));
+                }
+            }
+        }
+        for (String name : template.getGauges().keySet()) {
+            String family = PREFIX + name.toLowerCase(Locale.ROOT);
+            writeHeader(family, "gauge");
+            for (Map<String, TaskMetrics> connectorMetrics : taskMetricsTable.values()) {
+                for (TaskMetrics taskMetrics : connectorMetrics.values()) {
+                    writeTaskSample(family, taskMetrics, taskMetrics.getGauge(name));
+                }
+            }
+        }
+        for (String name : template.getHistograms().keySet()) {
+            String family = PREFIX + name.toLowerCase(Locale.ROOT) + "_milliseconds";
+            writeHeader(family, "histogram");
+            for (Map.Entry<String, ? extends Map<String, TaskMetrics>> entry : taskMetricsTable.entrySet()) {
+                writeConnectorHistogram(family, entry.getKey(), entry.getValue(), name);
+            }
+        }
+    }
+
+    private void writeConnectorHistogram(String family, String connectorName, Map<String, TaskMetrics> connectorMetrics,
+        String name) {
+        Arrays.fill(bucketCounts, 0);
+        long count = 0;
+        long sum = 0;
+        for (TaskMetrics taskMetrics : connectorMetrics.values()) {
+            LatencyHistogram histogram = taskMetrics.getHistogram(name);
+            histogram.addBucketCounts(UPPER_BOUNDS, bucketCounts);
+            count += histogram.getCount();
+            sum += histogram.getTotalValue();
+        }
+        long cumulative = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            cumulative += bucketCounts[i];
+            writeAscii(family);
+            writeAscii("_bucket{connector=\"");
+            writeEscaped(connectorName);
+            writeAscii("\",le=\"");
+            if (i < UPPER_BOUNDS.length) {
+                writeLong(UPPER_BOUNDS[i]);
+            } else {
+                writeBytes(LE_INF);
+            }
+            writeAscii("\"} ");
+            writeLong(cumulative);
+            writeByte('\n');
+        }
+        writeConnectorSample(family, "_sum", connectorName, sum);
+        writeConnectorSample(family, "_count", connectorName, count);
+    }
+
+    private void writeHeader(String family, String type) {
+        writeAscii("# TYPE ");
+        writeAscii(family);
+        writeByte(' ');
+        writeAscii(type);
+        writeByte('\n');
+    }
+
+    private void writeTaskSample(String family, TaskMetrics taskMetrics, long value) {
+        writeAscii(family);
+        writeAscii("{connector=\"");
+        writeEscaped(taskMetrics.getConnectorName());
+        writeAscii("\",task=\"");
+        writeEscaped(taskMetrics.getTaskId());
+        writeAscii("\"} ");
+        writeLong(value);
+        writeByte('\n');
+    }
+
+    private void writeConnectorSample(String family, String suffix, String connectorName, long value) {
+        writeAscii(family);
+        writeAscii(suffix);
+        writeAscii("{connector=\"");
+        writeEscaped(connectorName);
+        writeAscii("\"} ");
+        writeLong(value);
+        writeByte('\n');
+    }
+
+    /**
+     * Write a string of ascii characters, the encoded bytes are cached.
+     */
+    private void writeAscii(String value) {
+        byte[] bytes = asciiCache.get(value);
+        if (null == bytes) {
+            bytes = value.getBytes(StandardCharsets.US_ASCII);
+            asciiCache.put(value, bytes);
+        }
+        writeBytes(bytes);
+    }
+
+    /**
+     * Write a label value encoded in UTF-8, escaping backslash, double quote and line feed.
+     */
+    private void writeEscaped(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if ('\\' == c || '"' == c) {
+                writeByte('\\');
+                writeByte(c);
+            } else if ('\n' == c) {
+                writeByte('\\');
+                writeByte('n');
+            } else if (c < 0x80) {
+                writeByte(c);
+            } else if (c < 0x800) {
+                writeByte(0xC0 | (c >> 6));
+                writeByte(0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                writeByte(0xF0 | (codePoint >> 18));
+                writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+                writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+                writeByte(0x80 | (codePoint & 0x3F));
+            } else {
+                writeByte(0xE0 | (c >> 12));
+                writeByte(0x80 | ((c >> 6) & 0x3F));
+                writeByte(0x80 | (c & 0x3F));
+            }
+        }
+    }
+
+    private void writeLong(long value) {
+        if (value < 0) {
+            if (Long.MIN_VALUE == value) {
+                writeAscii(Long.toString(value));
+                return;
+            }
+            writeByte('-');
+            value = -value;
+        }
+        int digits = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, size, bytes.length);
+        size += bytes.length;
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[size++] = (byte) b;
+    }
+
+    private void ensureCapacity(int length) {
+        if (size + length > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + length));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    int capacity() {
+        return buffer.length;
+    }
+
+    /**
+     * Copy the rendered text to the stream.
+     *
+     * @param out
+     * @throws IOException
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        out.write(buffer, 0, size);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, size, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.stats;
+
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Load of tasks since the previous sample, in records per second plus KiB per second, so a task writing large
+ * records weighs more than a task writing as many small ones.
+ */
+public class TaskLoadSampler {
+
+    private static final double BYTES_PER_LOAD = 1024;
+
+    private final Map<TaskMetrics, long[]> lastSamples = new IdentityHashMap<>();
+
+    private long lastSampleMillis;
+
+    /**
+     * Sample the given task metrics, a metrics seen for the first time has load 0.
+     *
+     * @param taskMetrics
+     * @param nowMillis
+     * @return load of every metrics
+     */
+    public synchronized Map<TaskMetrics, Double> sample(Collection<TaskMetrics> taskMetrics, long nowMillis) {
+        Map<TaskMetrics, long[]> samples = new IdentityHashMap<>();
+        Map<TaskMetrics, Double> loads = new IdentityHashMap<>();
+        double seconds = Math.max(nowMillis - lastSampleMillis, 1) / 1000d;
+        for (TaskMetrics metrics : taskMetrics) {
+            long[] sample = new long[] {
+                metrics.getCounter(TaskMetrics.SOURCE_PUT_RECORDS) + metrics.getCounter(TaskMetrics.SINK_PUT_RECORDS),
+                metrics.getCounter(TaskMetrics.SOURCE_PUT_BYTES) + metrics.getCounter(TaskMetrics.SINK_PUT_BYTES)
+            };
+            samples.put(metrics, sample);
+            long[] last = lastSamples.get(metrics);
+            if (null == last) {
+                loads.put(metrics, 0d);
+                continue;
+            }
+            double records = (sample[0] - last[0]) / seconds;
+            double bytes = (sample[1] - last[1]) / seconds;
+            loads.put(metrics, records + bytes / BYTES_PER_LOAD);
+        }
+        lastSamples.clear();
+        lastSamples.putAll(samples);
+        lastSampleMillis = nowMillis;
+        return loads;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ */
+package org.apache.rocketmq.connect.runtime.stats;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters, gauges and latency histograms of one task. A worker task keeps the instance and records into it directly,
+ * so the per record path does no map lookup and only contends with the threads of the same task.
+ */
+public class TaskMetrics {
+
+    /**
+     * Milliseconds a source task spends handing a polled batch to the producer.
+     */
+    public static final String SOURCE_PUT_LATENCY = "SOURCE_PUT_LATENCY";
+
+    /**
+     * Milliseconds a sink task spends in {@code SinkTask#put}.
+     */
+    public static final String SINK_PUT_LATENCY = "SINK_PUT_LATENCY";
+
+    /**
+     * Milliseconds from sending a message to the producer callback.
+     */
+    public static final String SEND_RT = "SEND_RT";
+
+    public static final String SOURCE_PUT_RECORDS = "SOURCE_PUT_RECORDS";
+
+    public static final String SINK_PUT_RECORDS = "SINK_PUT_RECORDS";
+
+    /**
+     * Body bytes of the messages a source task has handed to the producer.
+     */
+    public static final String SOURCE_PUT_BYTES = "SOURCE_PUT_BYTES";
+
+    /**
+     * Body bytes of the messages a sink task has put.
+     */
+    public static final String SINK_PUT_BYTES = "SINK_PUT_BYTES";
+
+    public static final String SEND_FAIL_RECORDS = "SEND_FAIL_RECORDS";
+
+    /**
+     * Times a message queue of a sink task was put in backoff after a failed pull.
+     */
+    public static final String PULL_BACKOFF_TIMES = "PULL_BACKOFF_TIMES";
+
+    /**
+     * Message queues of a sink task that are in backoff now.
+     */
+    public static final String PULL_BACKOFF_QUEUES = "PULL_BACKOFF_QUEUES";
+
+    /**
+     * Messages a source task has sent and not yet seen acknowledged.
+     */
+    public static final String SOURCE_INFLIGHT_MESSAGES = "SOURCE_INFLIGHT_MESSAGES";
+
+    /**
+     * Body bytes of the messages a source task has sent and not yet seen acknowledged.
+     */
+    public static final String SOURCE_INFLIGHT_BYTES = "SOURCE_INFLIGHT_BYTES";
+
+    private final String connectorName;
+
+    private final String taskId;
+
+    private final LatencyHistogram sourcePutLatency = new LatencyHistogram();
+
+    private final LatencyHistogram sinkPutLatency = new LatencyHistogram();
+
+    private final LatencyHistogram sendRT = new LatencyHistogram();
+
+    private final LongAdder sourcePutRecords = new LongAdder();
+
+    private final LongAdder sinkPutRecords = new LongAdder();
+
+    private final LongAdder sourcePutBytes = new LongAdder();
+
+    private final LongAdder sinkPutBytes = new LongAdder();
+
+    private final LongAdder sendFailRecords = new LongAdder();
+
+    private final LongAdder pullBackoffTimes = new LongAdder();
+
+    private final AtomicLong pullBackoffQueues = new AtomicLong();
+
+    private final AtomicLong sourceInFlightMessages = new AtomicLong();
+
+    private final AtomicLong sourceInFlightBytes = new AtomicLong();
+
+    private final Map<String, LatencyHistogram> histograms;
+
+    private final Map<String, LongAdder> counters;
+
+    private final Map<String, AtomicLong> gauges;
+
+    public TaskMetrics(String connectorName, String taskId) {
+        this.connectorName = connectorName;
+        this.taskId = taskId;
+        Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        histograms.put(SOURCE_PUT_LATENCY, sourcePutLatency);
+        histograms.put(SINK_PUT_LATENCY, sinkPutLatency);
+        histograms.put(SEND_RT, sendRT);
+        this.histograms = Collections.unmodifiableMap(histograms);
+        Map<String, LongAdder> counters = new LinkedHashMap<>();
+        counters.put(SOURCE_PUT_RECORDS, sourcePutRecords);
+        counters.put(SINK_PUT_RECORDS, sinkPutRecords);
+        counters.put(SOURCE_PUT_BYTES, sourcePutBytes);
+        counters.put(SINK_PUT_BYTES, sinkPutBytes);
+        counters.put(SEND_FAIL_RECORDS, sendFailRecords);
+        counters.put(PULL_BACKOFF_TIMES, pullBackoffTimes);
+        this.counters = Collections.unmodifiableMap(counters);
+        Map<String, AtomicLong> gauges = new LinkedHashMap<>();
+        gauges.put(PULL_BACKOFF_QUEUES, pullBackoffQueues);
+        gauges.put(SOURCE_INFLIGHT_MESSAGES, sourceInFlightMessages);
+        gauges.put(SOURCE_INFLIGHT_BYTES, sourceInFlightBytes);
+        this.gauges = Collections.unmodifiableMap(gauges);
+    }
+
+    public void recordSourcePut(long latency, int recordNums) {
+        sourcePutLatency.record(latency);
+        sourcePutRecords.add(recordNums);
+    }
+
+    public void recordSinkPut(long latency, int recordNums) {
+        sinkPutLatency.record(latency);
+        sinkPutRecords.add(recordNums);
+    }
+
+    public void incSourcePutBytes(long bytes) {
+        sourcePutBytes.add(bytes);
+    }
+
+    public void incSinkPutBytes(long bytes) {
+        sinkPutBytes.add(bytes);
+    }
+
+    public void recordSendRT(long rt) {
+        sendRT.record(rt);
+    }
+
+    public void incSendFailRecords(int recordNums) {
+        sendFailRecords.add(recordNums);
+    }
+
+    public void incPullBackoffTimes() {
+        pullBackoffTimes.increment();
+    }
+
+    public void setPullBackoffQueues(int queueNums) {
+        pullBackoffQueues.set(queueNums);
+    }
+
+    public void setSourceInFlight(long messageNums, long bytes) {
+        sourceInFlightMessages.set(messageNums);
+        sourceInFlightBytes.set(bytes);
+    }
+
+    public String getConnectorName() {
+        return connectorName;
+    }
+
+    public String getTaskId() {
+        return taskId;
+    }
+
+    public LatencyHistogram getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    public long getCounter(String name) {
+        LongAdder counter = counters.get(name);
+        return null == counter ? 0 : counter.sum();
+    }
+
+    public long getGauge(String name) {
+        AtomicLong gauge = gauges.get(name);
+        return null == gauge ? 0 : gauge.get();
+    }
+
+    public Map<String, LatencyHistogram> getHistograms() {
+        return histograms;
+    }
+
+    public Map<String, LongAdder> getCounters() {
+        return counters;
+    }
+
+    public Map<String, AtomicLong> getGauges() {
+        return gauges;
+    }
+}
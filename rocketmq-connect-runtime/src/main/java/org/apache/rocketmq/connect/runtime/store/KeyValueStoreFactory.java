@@ -0,0 +1,71 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.store;
+
+import io.openmessaging.connector.api.data.Converter;
+import java.io.File;
+import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
+import org.apache.rocketmq.connect.runtime.converter.RecordPartitionConverter;
+
+/**
+ * Create the local key value store selected by {@link ConnectConfig#getKeyValueStoreType()}.
+ */
+public class KeyValueStoreFactory {
+
+    public static final String FILE_STORE_TYPE = "file";
+
+    public static final String LOG_STORE_TYPE = "log";
+
+    public static final String MAPPED_STORE_TYPE = "mmap";
+
+    /**
+     * Create a persistent store.
+     *
+     * @param connectConfig
+     * @param filePath path of the json file of the file store, the log store uses the directory of the same name
+     * without extension and migrates the json file on the first load, the mapped store uses the file of the same name
+     * with the extension ".mmap". Only position and offset stores are mapped, the large and rarely changed config
+     * entries are kept in the log store
+     * @param keyConverter
+     * @param valueConverter
+     * @param <K>
+     * @param <V>
+     * @return
+     */
+    public static <K, V> KeyValueStore<K, V> createFileStore(ConnectConfig connectConfig,
+        String filePath,
+        Converter keyConverter,
+        Converter valueConverter) {
+
+        String storeType = connectConfig.getKeyValueStoreType();
+        int dot = filePath.lastIndexOf('.');
+        String basePath = dot > filePath.lastIndexOf(File.separatorChar) ? filePath.substring(0, dot) : filePath;
+        if (MAPPED_STORE_TYPE.equalsIgnoreCase(storeType) && keyConverter instanceof RecordPartitionConverter) {
+            return new MappedKeyValueStore<>(basePath + ".mmap", keyConverter, valueConverter, filePath,
+                MappedKeyValueStore.DEFAULT_SLOT_NUMS, MappedKeyValueStore.DEFAULT_RECORD_SIZE);
+        }
+        if (LOG_STORE_TYPE.equalsIgnoreCase(storeType) || MAPPED_STORE_TYPE.equalsIgnoreCase(storeType)) {
+            String storeDir = basePath.equals(filePath) ? filePath + ".log" : basePath;
+            return new LogStructuredKeyValueStore<>(storeDir, keyConverter, valueConverter, filePath,
+                LogStructuredKeyValueStore.DEFAULT_MAX_SEGMENT_BYTES,
+                LogStructuredKeyValueStore.DEFAULT_COMPACT_DEAD_RATIO,
+                LogStructuredKeyValueStore.DEFAULT_COMPACT_MIN_RECORDS);
+        }
+        return new FileBaseKeyValueStore<>(filePath, keyConverter, valueConverter);
+    }
+}
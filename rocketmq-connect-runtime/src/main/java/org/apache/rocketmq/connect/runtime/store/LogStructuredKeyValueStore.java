@@ -0,0 +1,536 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.store;
+
+import io.netty.util.concurrent.DefaultThreadFactory;
+import io.openmessaging.connector.api.data.Converter;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+import org.apache.rocketmq.connect.runtime.common.LoggerName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Log structured key value store. Every {@link #persist()} appends only the entries changed since the last persist to
+ * the active segment, {@link #load()} rebuilds the data by replaying all segments in order. Once the ratio of dead
+ * records in the segments crosses the threshold, the live entries are rewritten to a new segment in the background
+ * and the older segments are deleted.
+ *
+ * <p>Segment record format: {@code length(4) | crc32(4) | type(1) | keyLength(4) | key | valueLength(4) | value},
+ * where {@code length} and {@code crc32} cover the bytes from {@code type} on. A torn or corrupted record ends the
+ * replay of its segment.
+ *
+ * <p>Only changes made through {@link #put}, {@link #putAll} and {@link #remove} are persisted, the map returned by
+ * {@link #getKVMap()} must not be modified directly.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class LogStructuredKeyValueStore<K, V> extends MemoryBasedKeyValueStore<K, V> {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggerName.ROCKETMQ_RUNTIME);
+
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    static final String TMP_SUFFIX = ".tmp";
+
+    private static final byte RECORD_PUT = 1;
+
+    private static final byte RECORD_DELETE = 2;
+
+    private static final int RECORD_HEADER_SIZE = 8;
+
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+    public static final long DEFAULT_MAX_SEGMENT_BYTES = 64 * 1024 * 1024;
+
+    public static final double DEFAULT_COMPACT_DEAD_RATIO = 0.5;
+
+    public static final int DEFAULT_COMPACT_MIN_RECORDS = 1024;
+
+    private final File storeDir;
+
+    private final Converter keyConverter;
+
+    private final Converter valueConverter;
+
+    private final long maxSegmentBytes;
+
+    private final double compactDeadRatio;
+
+    private final int compactMinRecords;
+
+    /**
+     * The file the data is migrated from when no segment exists, may be null.
+     */
+    private final String legacyFilePath;
+
+    /**
+     * Keys changed since the last persist.
+     */
+    private final Set<K> dirtyKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Guards the active segment and the segment table.
+     */
+    private final Object appendLock = new Object();
+
+    /**
+     * Serializes compaction and load.
+     */
+    private final Object compactLock = new Object();
+
+    /**
+     * Number of records of every segment, by segment id.
+     */
+    private final TreeMap<Long, Long> segmentRecords = new TreeMap<>();
+
+    private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+    private final ExecutorService compactExecutor;
+
+    private FileChannel activeChannel;
+
+    private long activeSegmentId = -1;
+
+    private long activeSegmentBytes;
+
+    public LogStructuredKeyValueStore(String storeDir,
+        Converter keyConverter,
+        Converter valueConverter) {
+        this(storeDir, keyConverter, valueConverter, null, DEFAULT_MAX_SEGMENT_BYTES, DEFAULT_COMPACT_DEAD_RATIO,
+            DEFAULT_COMPACT_MIN_RECORDS);
+    }
+
+    public LogStructuredKeyValueStore(String storeDir,
+        Converter keyConverter,
+        Converter valueConverter,
+        String legacyFilePath,
+        long maxSegmentBytes,
+        double compactDeadRatio,
+        int compactMinRecords) {
+
+        super();
+        this.storeDir = new File(storeDir);
+        this.keyConverter = keyConverter;
+        this.valueConverter = valueConverter;
+        this.legacyFilePath = legacyFilePath;
+        this.maxSegmentBytes = maxSegmentBytes;
+        this.compactDeadRatio = compactDeadRatio;
+        this.compactMinRecords = compactMinRecords;
+        this.compactExecutor = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+            new DefaultThreadFactory("kv-store-compact-" + this.storeDir.getName(), true));
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V old = super.put(key, value);
+        dirtyKeys.add(key);
+        return old;
+    }
+
+    @Override
+    public void putAll(Map<K, V> map) {
+        super.putAll(map);
+        dirtyKeys.addAll(map.keySet());
+    }
+
+    @Override
+    public V remove(K key) {
+        V old = super.remove(key);
+        dirtyKeys.add(key);
+        return old;
+    }
+
+    @Override
+    public boolean load() {
+        synchronized (compactLock) {
+            synchronized (appendLock) {
+                try {
+                    closeActiveSegment();
+                    Map<K, V> loaded = new ConcurrentHashMap<>();
+                    dirtyKeys.clear();
+                    segmentRecords.clear();
+                    List<Long> segmentIds = listSegments();
+                    for (Long segmentId : segmentIds) {
+                        segmentRecords.put(segmentId, replay(segmentFile(segmentId), loaded));
+                    }
+                    this.data = loaded;
+                    if (segmentIds.isEmpty() && null != legacyFilePath && new File(legacyFilePath).exists()) {
+                        migrateLegacyFile();
+                    }
+                    log.info("load {} OK, {} segments, {} entries", storeDir, segmentIds.size(), data.size());
+                    return true;
+                } catch (Exception e) {
+                    log.error("load " + storeDir + " failed", e);
+                    return false;
+                }
+            }
+        }
+    }
+
+    private void migrateLegacyFile() {
+        FileBaseKeyValueStore<K, V> legacyStore = new FileBaseKeyValueStore<>(legacyFilePath, keyConverter,
+            valueConverter);
+        if (legacyStore.load()) {
+            data.putAll(legacyStore.getKVMap());
+            dirtyKeys.addAll(legacyStore.getKVMap().keySet());
+            log.info("migrate {} entries from {}", legacyStore.size(), legacyFilePath);
+        }
+    }
+
+    /**
+     * Replay a segment into the given map.
+     *
+     * @return number of valid records in the segment
+     */
+    private long replay(File segment, Map<K, V> target) throws IOException {
+        long records = 0;
+        long validBytes = 0;
+        CRC32 crc32 = new CRC32();
+        try (InputStream in = new BufferedInputStream(new FileInputStream(segment), 64 * 1024);
+             DataInputStream dataIn = new DataInputStream(in)) {
+            while (true) {
+                int length;
+                try {
+                    length = dataIn.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+                if (length <= 0 || length > MAX_RECORD_SIZE) {
+                    log.warn("invalid record length {} at {} of {}, ignore the rest", length, validBytes, segment);
+                    break;
+                }
+                byte[] body = new byte[length];
+                int crc;
+                try {
+                    crc = dataIn.readInt();
+                    dataIn.readFully(body);
+                } catch (EOFException e) {
+                    log.warn("torn record at {} of {}, ignore the rest", validBytes, segment);
+                    break;
+                }
+                crc32.reset();
+                crc32.update(body, 0, body.length);
+                if ((int) crc32.getValue() != crc) {
+                    log.warn("crc mismatch at {} of {}, ignore the rest", validBytes, segment);
+                    break;
+                }
+                applyRecord(ByteBuffer.wrap(body), target);
+                validBytes += RECORD_HEADER_SIZE + length;
+                records++;
+            }
+        }
+        if (validBytes < segment.length()) {
+            try (FileChannel channel = FileChannel.open(segment.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(validBytes);
+            }
+        }
+        return records;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void applyRecord(ByteBuffer body, Map<K, V> target) {
+        byte type = body.get();
+        byte[] keyBytes = new byte[body.getInt()];
+        body.get(keyBytes);
+        K key = (K) keyConverter.byteToObject(keyBytes);
+        if (null == key) {
+            return;
+        }
+        if (RECORD_DELETE == type) {
+            target.remove(key);
+            return;
+        }
+        byte[] valueBytes = new byte[body.getInt()];
+        body.get(valueBytes);
+        V value = (V) valueConverter.byteToObject(valueBytes);
+        if (null != value) {
+            target.put(key, value);
+        }
+    }
+
+    @Override
+    public void persist() {
+        synchronized (appendLock) {
+            if (dirtyKeys.isEmpty()) {
+                return;
+            }
+            List<K> keys = new ArrayList<>(dirtyKeys.size());
+            List<byte[]> records = new ArrayList<>(dirtyKeys.size());
+            int bytes = 0;
+            for (K key : dirtyKeys) {
+                // remove first, a concurrent change marks the key dirty again
+                dirtyKeys.remove(key);
+                keys.add(key);
+                byte[] record = encodeRecord(key, data.get(key));
+                records.add(record);
+                bytes += record.length;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(bytes);
+            for (byte[] record : records) {
+                buffer.put(record);
+            }
+            buffer.flip();
+            try {
+                ensureActiveSegment();
+                while (buffer.hasRemaining()) {
+                    activeChannel.write(buffer);
+                }
+                activeChannel.force(false);
+                activeSegmentBytes += bytes;
+                segmentRecords.merge(activeSegmentId, (long) records.size(), Long::sum);
+                if (activeSegmentBytes >= maxSegmentBytes) {
+                    rollSegment(activeSegmentId + 1);
+                }
+            } catch (IOException e) {
+                dirtyKeys.addAll(keys);
+                log.error("persist " + storeDir + " exception", e);
+                return;
+            }
+        }
+        maybeCompact();
+    }
+
+    private byte[] encodeRecord(K key, V value) {
+        byte[] keyBytes = keyConverter.objectToByte(key);
+        byte[] valueBytes = null == value ? null : valueConverter.objectToByte(value);
+        int length = 1 + 4 + keyBytes.length + (null == valueBytes ? 0 : 4 + valueBytes.length);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + length);
+        record.putInt(length);
+        record.putInt(0);
+        record.put(null == valueBytes ? RECORD_DELETE : RECORD_PUT);
+        record.putInt(keyBytes.length);
+        record.put(keyBytes);
+        if (null != valueBytes) {
+            record.putInt(valueBytes.length);
+            record.put(valueBytes);
+        }
+        CRC32 crc32 = new CRC32();
+        crc32.update(record.array(), RECORD_HEADER_SIZE, length);
+        record.putInt(4, (int) crc32.getValue());
+        return record.array();
+    }
+
+    private void maybeCompact() {
+        long totalRecords;
+        synchronized (appendLock) {
+            totalRecords = totalRecords();
+        }
+        if (totalRecords < compactMinRecords || totalRecords - data.size() <= totalRecords * compactDeadRatio) {
+            return;
+        }
+        if (compacting.compareAndSet(false, true)) {
+            compactExecutor.execute(() -> {
+                try {
+                    compact();
+                } finally {
+                    compacting.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Rewrite the live entries to a new segment and delete the older segments. Changes made meanwhile are appended
+     * to the segments after it.
+     */
+    void compact() {
+        synchronized (compactLock) {
+            long compactSegmentId;
+            Map<K, V> snapshot;
+            synchronized (appendLock) {
+                try {
+                    ensureActiveSegment();
+                    compactSegmentId = activeSegmentId + 1;
+                    rollSegment(compactSegmentId + 1);
+                } catch (IOException e) {
+                    log.error("roll segment of " + storeDir + " exception", e);
+                    return;
+                }
+                snapshot = new HashMap<>(data);
+            }
+            File tmpFile = new File(storeDir, segmentName(compactSegmentId) + TMP_SUFFIX);
+            try {
+                try (FileChannel channel = FileChannel.open(tmpFile.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(1024 * 1024);
+                    for (Map.Entry<K, V> entry : snapshot.entrySet()) {
+                        byte[] record = encodeRecord(entry.getKey(), entry.getValue());
+                        if (record.length > buffer.remaining()) {
+                            flushBuffer(channel, buffer);
+                        }
+                        if (record.length > buffer.capacity()) {
+                            channel.write(ByteBuffer.wrap(record));
+                        } else {
+                            buffer.put(record);
+                        }
+                    }
+                    flushBuffer(channel, buffer);
+                    channel.force(true);
+                }
+                Files.move(tmpFile.toPath(), segmentFile(compactSegmentId).toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.error("compact " + storeDir + " exception", e);
+                tmpFile.delete();
+                return;
+            }
+            synchronized (appendLock) {
+                for (Long segmentId : new ArrayList<>(segmentRecords.headMap(compactSegmentId).keySet())) {
+                    if (!segmentFile(segmentId).delete()) {
+                        log.warn("delete segment {} of {} failed", segmentId, storeDir);
+                    }
+                    segmentRecords.remove(segmentId);
+                }
+                segmentRecords.put(compactSegmentId, (long) snapshot.size());
+            }
+            log.info("compact {} OK, {} live entries", storeDir, snapshot.size());
+        }
+    }
+
+    private static void flushBuffer(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Open a new active segment after the existing ones. A new segment is always started so appends never follow a
+     * torn record.
+     */
+    private void ensureActiveSegment() throws IOException {
+        if (null != activeChannel) {
+            return;
+        }
+        if (!storeDir.exists() && !storeDir.mkdirs()) {
+            throw new IOException("create dir " + storeDir + " failed");
+        }
+        List<Long> segmentIds = listSegments();
+        long nextSegmentId = segmentIds.isEmpty() ? 0 : segmentIds.get(segmentIds.size() - 1) + 1;
+        rollSegment(Math.max(nextSegmentId, activeSegmentId + 1));
+    }
+
+    private void rollSegment(long segmentId) throws IOException {
+        closeActiveSegment();
+        activeChannel = FileChannel.open(segmentFile(segmentId).toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activeSegmentId = segmentId;
+        activeSegmentBytes = activeChannel.size();
+        segmentRecords.putIfAbsent(segmentId, 0L);
+    }
+
+    private void closeActiveSegment() {
+        if (null == activeChannel) {
+            return;
+        }
+        try {
+            activeChannel.close();
+        } catch (IOException e) {
+            log.warn("close segment {} of {} failed", activeSegmentId, storeDir, e);
+        }
+        activeChannel = null;
+    }
+
+    /**
+     * List the segment ids in order, leftovers of an interrupted compaction are deleted.
+     */
+    private List<Long> listSegments() {
+        List<Long> segmentIds = new ArrayList<>();
+        File[] files = storeDir.listFiles();
+        if (null == files) {
+            return segmentIds;
+        }
+        for (File file : files) {
+            String name = file.getName();
+            if (name.endsWith(TMP_SUFFIX)) {
+                file.delete();
+            } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                try {
+                    segmentIds.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    log.warn("ignore unknown file {} in {}", name, storeDir);
+                }
+            }
+        }
+        segmentIds.sort(Long::compareTo);
+        return segmentIds;
+    }
+
+    private File segmentFile(long segmentId) {
+        return new File(storeDir, segmentName(segmentId));
+    }
+
+    private static String segmentName(long segmentId) {
+        return String.format("%020d", segmentId) + SEGMENT_SUFFIX;
+    }
+
+    private long totalRecords() {
+        long total = 0;
+        for (Long records : segmentRecords.values()) {
+            total += records;
+        }
+        return total;
+    }
+
+    /**
+     * Number of records in all segments, live or dead.
+     *
+     * @return
+     */
+    public long getTotalRecords() {
+        synchronized (appendLock) {
+            return totalRecords();
+        }
+    }
+
+    /**
+     * Number of segments on disk.
+     *
+     * @return
+     */
+    public int getSegmentNums() {
+        synchronized (appendLock) {
+            return segmentRecords.size();
+        }
+    }
+}
@@ -0,0 +1,581 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.store;
+
+import io.openmessaging.connector.api.data.Converter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import org.apache.rocketmq.connect.runtime.common.LoggerName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Key value store backed by a memory mapped file of fixed size slots. Every key owns one slot, placed by the hash of
+ * its bytes with linear probing, and {@link #persist()} rewrites in place only the slots of the keys changed since
+ * the last persist, then forces the dirty pages of the mapping to disk. The cost of a persist depends on the number
+ * of changed keys, not on the size of the store.
+ *
+ * <p>A slot holds two copies of its record, a write goes to the copy with the older sequence number, so a torn write
+ * never damages the last persisted record of the slot. Record format: {@code crc32(4) | sequence(8) | type(1) |
+ * keyLength(4) | valueLength(4) | key | value}, where {@code crc32} covers the bytes from {@code sequence} to the end
+ * of the value. {@link #load()} takes the valid copy with the greater sequence of every slot.
+ *
+ * <p>The file is rebuilt with twice the slots when it is three quarters full, and with larger slots when an entry
+ * does not fit. Only changes made through {@link #put}, {@link #putAll} and {@link #remove} are persisted, the map
+ * returned by {@link #getKVMap()} must not be modified directly.
+ *
+ * @param <K>
+ * @param <V>
+ */
+public class MappedKeyValueStore<K, V> extends MemoryBasedKeyValueStore<K, V> {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggerName.ROCKETMQ_RUNTIME);
+
+    static final String TMP_SUFFIX = ".tmp";
+
+    private static final int MAGIC = 0x434b5653;
+
+    private static final int VERSION = 1;
+
+    /**
+     * {@code magic(4) | version(4) | recordSize(4) | slotNums(4) | crc32(4)}, padded.
+     */
+    static final int HEADER_SIZE = 64;
+
+    private static final byte RECORD_PUT = 1;
+
+    private static final byte RECORD_DELETE = 2;
+
+    static final int RECORD_HEADER_SIZE = 4 + 8 + 1 + 4 + 4;
+
+    private static final double MAX_LOAD_FACTOR = 0.75;
+
+    public static final int DEFAULT_SLOT_NUMS = 1024;
+
+    public static final int DEFAULT_RECORD_SIZE = 256;
+
+    private final File storeFile;
+
+    private final Converter keyConverter;
+
+    private final Converter valueConverter;
+
+    /**
+     * The file the data is migrated from when the store file does not exist, may be null.
+     */
+    private final String legacyFilePath;
+
+    private final int initialSlotNums;
+
+    private final int initialRecordSize;
+
+    /**
+     * Keys changed since the last persist.
+     */
+    private final Set<K> dirtyKeys = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Slot of every key that has one, guarded by {@code this}.
+     */
+    private final Map<K, Integer> keySlots = new HashMap<>();
+
+    /**
+     * Whether a slot is owned by a key, guarded by {@code this}.
+     */
+    private boolean[] usedSlots;
+
+    /**
+     * Sequence of the newer copy of every slot, guarded by {@code this}.
+     */
+    private long[] slotSequences;
+
+    /**
+     * Index of the newer copy of every slot, guarded by {@code this}.
+     */
+    private byte[] slotCopies;
+
+    private int usedSlotNums;
+
+    private int slotNums;
+
+    private int recordSize;
+
+    private long sequence;
+
+    private MappedByteBuffer mappedBuffer;
+
+    private final CRC32 crc32 = new CRC32();
+
+    public MappedKeyValueStore(String storeFile,
+        Converter keyConverter,
+        Converter valueConverter) {
+        this(storeFile, keyConverter, valueConverter, null, DEFAULT_SLOT_NUMS, DEFAULT_RECORD_SIZE);
+    }
+
+    public MappedKeyValueStore(String storeFile,
+        Converter keyConverter,
+        Converter valueConverter,
+        String legacyFilePath,
+        int initialSlotNums,
+        int initialRecordSize) {
+
+        super();
+        this.storeFile = new File(storeFile);
+        this.keyConverter = keyConverter;
+        this.valueConverter = valueConverter;
+        this.legacyFilePath = legacyFilePath;
+        this.initialSlotNums = Math.max(1, initialSlotNums);
+        this.initialRecordSize = Math.max(RECORD_HEADER_SIZE + 1, initialRecordSize);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V old = super.put(key, value);
+        dirtyKeys.add(key);
+        return old;
+    }
+
+    @Override
+    public void putAll(Map<K, V> map) {
+        super.putAll(map);
+        dirtyKeys.addAll(map.keySet());
+    }
+
+    @Override
+    public V remove(K key) {
+        V old = super.remove(key);
+        dirtyKeys.add(key);
+        return old;
+    }
+
+    @Override
+    public synchronized boolean load() {
+        try {
+            Map<K, V> loaded = new ConcurrentHashMap<>();
+            dirtyKeys.clear();
+            keySlots.clear();
+            File tmpFile = new File(storeFile.getPath() + TMP_SUFFIX);
+            if (tmpFile.exists()) {
+                tmpFile.delete();
+            }
+            boolean exists = storeFile.exists() && storeFile.length() >= HEADER_SIZE;
+            if (exists) {
+                map(storeFile);
+                recover(loaded);
+            } else {
+                create(initialSlotNums, initialRecordSize);
+            }
+            this.data = loaded;
+            if (!exists && null != legacyFilePath && new File(legacyFilePath).exists()) {
+                migrateLegacyFile();
+            }
+            log.info("load {} OK, {} slots, {} entries", storeFile, slotNums, data.size());
+            return true;
+        } catch (Exception e) {
+            log.error("load " + storeFile + " failed", e);
+            return false;
+        }
+    }
+
+    private void migrateLegacyFile() {
+        FileBaseKeyValueStore<K, V> legacyStore = new FileBaseKeyValueStore<>(legacyFilePath, keyConverter,
+            valueConverter);
+        if (legacyStore.load()) {
+            data.putAll(legacyStore.getKVMap());
+            dirtyKeys.addAll(legacyStore.getKVMap().keySet());
+            log.info("migrate {} entries from {}", legacyStore.size(), legacyFilePath);
+        }
+    }
+
+    /**
+     * Read the newer valid copy of every slot into the given map.
+     */
+    @SuppressWarnings("unchecked")
+    private void recover(Map<K, V> target) {
+        long maxSequence = 0;
+        int tornCopies = 0;
+        for (int slot = 0; slot < slotNums; slot++) {
+            int newerCopy = -1;
+            long newerSequence = -1;
+            for (int copy = 0; copy < 2; copy++) {
+                long copySequence = validSequence(recordOffset(slot, copy));
+                if (copySequence == -2) {
+                    tornCopies++;
+                } else if (copySequence > newerSequence) {
+                    newerSequence = copySequence;
+                    newerCopy = copy;
+                }
+            }
+            if (newerCopy < 0) {
+                continue;
+            }
+            maxSequence = Math.max(maxSequence, newerSequence);
+            slotSequences[slot] = newerSequence;
+            slotCopies[slot] = (byte) newerCopy;
+            int offset = recordOffset(slot, newerCopy);
+            if (RECORD_DELETE == mappedBuffer.get(offset + 12)) {
+                continue;
+            }
+            byte[] keyBytes = new byte[mappedBuffer.getInt(offset + 13)];
+            byte[] valueBytes = new byte[mappedBuffer.getInt(offset + 17)];
+            ByteBuffer record = mappedBuffer.duplicate();
+            record.position(offset + RECORD_HEADER_SIZE);
+            record.get(keyBytes);
+            record.get(valueBytes);
+            K key = (K) keyConverter.byteToObject(keyBytes);
+            V value = (V) valueConverter.byteToObject(valueBytes);
+            if (null == key || null == value) {
+                continue;
+            }
+            Integer previousSlot = keySlots.put(key, slot);
+            if (null != previousSlot) {
+                // a key can only be found twice after a rebuild was torn, keep the newer record
+                if (slotSequences[previousSlot] > newerSequence) {
+                    keySlots.put(key, previousSlot);
+                    continue;
+                }
+            }
+            usedSlots[slot] = true;
+            target.put(key, value);
+        }
+        usedSlotNums = 0;
+        Arrays.fill(usedSlots, false);
+        for (Integer slot : keySlots.values()) {
+            usedSlots[slot] = true;
+            usedSlotNums++;
+        }
+        sequence = maxSequence;
+        if (tornCopies > 0) {
+            log.warn("{} torn or corrupted records in {} ignored", tornCopies, storeFile);
+        }
+    }
+
+    /**
+     * Sequence of the record at the offset, -1 when the copy is empty and -2 when it is torn or corrupted.
+     */
+    private long validSequence(int offset) {
+        byte type = mappedBuffer.get(offset + 12);
+        if (RECORD_PUT != type && RECORD_DELETE != type) {
+            return mappedBuffer.getLong(offset + 4) == 0 && mappedBuffer.getInt(offset) == 0 ? -1 : -2;
+        }
+        int keyLength = mappedBuffer.getInt(offset + 13);
+        int valueLength = mappedBuffer.getInt(offset + 17);
+        if (keyLength < 0 || valueLength < 0 || (long) keyLength + valueLength > recordSize - RECORD_HEADER_SIZE) {
+            return -2;
+        }
+        ByteBuffer covered = mappedBuffer.duplicate();
+        covered.position(offset + 4);
+        covered.limit(offset + RECORD_HEADER_SIZE + keyLength + valueLength);
+        crc32.reset();
+        crc32.update(covered);
+        if ((int) crc32.getValue() != mappedBuffer.getInt(offset)) {
+            return -2;
+        }
+        return mappedBuffer.getLong(offset + 4);
+    }
+
+    @Override
+    public synchronized void persist() {
+        if (dirtyKeys.isEmpty() || null == mappedBuffer) {
+            return;
+        }
+        List<K> keys = new ArrayList<>(dirtyKeys.size());
+        try {
+            for (K key : dirtyKeys) {
+                // remove first, a concurrent change marks the key dirty again
+                dirtyKeys.remove(key);
+                keys.add(key);
+                V value = data.get(key);
+                writeEntry(key, null == value ? null : valueConverter.objectToByte(value));
+            }
+            mappedBuffer.force();
+        } catch (IOException e) {
+            dirtyKeys.addAll(keys);
+            log.error("persist " + storeFile + " exception", e);
+        }
+    }
+
+    /**
+     * Write an entry to the slot of the key, a null value deletes the entry and frees the slot.
+     */
+    private void writeEntry(K key, byte[] valueBytes) throws IOException {
+        Integer slot = keySlots.get(key);
+        if (null == valueBytes) {
+            if (null != slot) {
+                writeRecord(slot, RECORD_DELETE, keyConverter.objectToByte(key), new byte[0]);
+                keySlots.remove(key);
+                usedSlots[slot] = false;
+                usedSlotNums--;
+            }
+            return;
+        }
+        byte[] keyBytes = keyConverter.objectToByte(key);
+        if (RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length > recordSize) {
+            rebuild(slotNums, recordSizeFor(keyBytes.length + valueBytes.length));
+            slot = keySlots.get(key);
+        }
+        if (null == slot && usedSlotNums + 1 > slotNums * MAX_LOAD_FACTOR) {
+            rebuild(slotNums * 2, recordSize);
+            slot = keySlots.get(key);
+        }
+        if (null == slot) {
+            slot = freeSlot(keyBytes);
+            keySlots.put(key, slot);
+            usedSlots[slot] = true;
+            usedSlotNums++;
+        }
+        writeRecord(slot, RECORD_PUT, keyBytes, valueBytes);
+    }
+
+    private int freeSlot(byte[] keyBytes) {
+        int hash = Arrays.hashCode(keyBytes);
+        hash ^= hash >>> 16;
+        int slot = (hash & 0x7fffffff) % slotNums;
+        while (usedSlots[slot]) {
+            slot = slot + 1 == slotNums ? 0 : slot + 1;
+        }
+        return slot;
+    }
+
+    /**
+     * Write the record to the older copy of the slot.
+     */
+    private void writeRecord(int slot, byte type, byte[] keyBytes, byte[] valueBytes) {
+        int copy = 0 == slotSequences[slot] ? 0 : 1 - slotCopies[slot];
+        long recordSequence = ++sequence;
+        int offset = recordOffset(slot, copy);
+        ByteBuffer record = mappedBuffer.duplicate();
+        record.position(offset + 4);
+        record.putLong(recordSequence);
+        record.put(type);
+        record.putInt(keyBytes.length);
+        record.putInt(valueBytes.length);
+        record.put(keyBytes);
+        record.put(valueBytes);
+        ByteBuffer covered = mappedBuffer.duplicate();
+        covered.position(offset + 4);
+        covered.limit(offset + RECORD_HEADER_SIZE + keyBytes.length + valueBytes.length);
+        crc32.reset();
+        crc32.update(covered);
+        mappedBuffer.putInt(offset, (int) crc32.getValue());
+        slotSequences[slot] = recordSequence;
+        slotCopies[slot] = (byte) copy;
+    }
+
+    /**
+     * Write all entries to a new file with the given layout and replace the store file with it. The store keeps the
+     * old file when the rebuild fails.
+     */
+    private void rebuild(int newSlotNums, int newRecordSize) throws IOException {
+        Map<K, byte[]> keyBytes = new HashMap<>(data.size() * 2);
+        Map<K, byte[]> valueBytes = new HashMap<>(data.size() * 2);
+        int maxEntrySize = 0;
+        for (Map.Entry<K, V> entry : data.entrySet()) {
+            byte[] keyData = keyConverter.objectToByte(entry.getKey());
+            byte[] valueData = valueConverter.objectToByte(entry.getValue());
+            keyBytes.put(entry.getKey(), keyData);
+            valueBytes.put(entry.getKey(), valueData);
+            maxEntrySize = Math.max(maxEntrySize, keyData.length + valueData.length);
+        }
+        while (data.size() > newSlotNums * MAX_LOAD_FACTOR) {
+            newSlotNums *= 2;
+        }
+        newRecordSize = Math.max(newRecordSize, recordSizeFor(maxEntrySize));
+
+        File tmpFile = new File(storeFile.getPath() + TMP_SUFFIX);
+        MappedByteBuffer oldBuffer = mappedBuffer;
+        int oldRecordSize = recordSize;
+        int oldSlotNums = slotNums;
+        boolean[] oldUsedSlots = usedSlots;
+        long[] oldSlotSequences = slotSequences;
+        byte[] oldSlotCopies = slotCopies;
+        Map<K, Integer> oldKeySlots = new HashMap<>(keySlots);
+        int oldUsedSlotNums = usedSlotNums;
+        long oldSequence = sequence;
+        try {
+            createFile(tmpFile, newSlotNums, newRecordSize);
+            map(tmpFile);
+            keySlots.clear();
+            usedSlotNums = 0;
+            sequence = 0;
+            for (Map.Entry<K, byte[]> entry : keyBytes.entrySet()) {
+                int slot = freeSlot(entry.getValue());
+                keySlots.put(entry.getKey(), slot);
+                usedSlots[slot] = true;
+                usedSlotNums++;
+                writeRecord(slot, RECORD_PUT, entry.getValue(), valueBytes.get(entry.getKey()));
+            }
+            mappedBuffer.force();
+            Files.move(tmpFile.toPath(), storeFile.toPath(), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            mappedBuffer = oldBuffer;
+            recordSize = oldRecordSize;
+            slotNums = oldSlotNums;
+            usedSlots = oldUsedSlots;
+            slotSequences = oldSlotSequences;
+            slotCopies = oldSlotCopies;
+            keySlots.clear();
+            keySlots.putAll(oldKeySlots);
+            usedSlotNums = oldUsedSlotNums;
+            sequence = oldSequence;
+            tmpFile.delete();
+            throw e;
+        }
+        log.info("rebuild {} OK, {} slots of {} bytes, {} entries", storeFile, slotNums, recordSize, usedSlotNums);
+    }
+
+    private static int recordSizeFor(int entrySize) {
+        int size = DEFAULT_RECORD_SIZE;
+        while (size < RECORD_HEADER_SIZE + entrySize) {
+            size *= 2;
+        }
+        return size;
+    }
+
+    private void create(int newSlotNums, int newRecordSize) throws IOException {
+        File parent = storeFile.getAbsoluteFile().getParentFile();
+        if (!parent.exists() && !parent.mkdirs()) {
+            throw new IOException("create dir " + parent + " failed");
+        }
+        createFile(storeFile, newSlotNums, newRecordSize);
+        map(storeFile);
+        usedSlotNums = 0;
+        sequence = 0;
+    }
+
+    private static void createFile(File file, int slotNums, int recordSize) throws IOException {
+        long fileSize = HEADER_SIZE + (long) slotNums * 2 * recordSize;
+        if (fileSize > Integer.MAX_VALUE) {
+            throw new IOException("store file of " + slotNums + " slots of " + recordSize + " bytes is too large");
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(recordSize);
+        header.putInt(slotNums);
+        CRC32 crc32 = new CRC32();
+        crc32.update(header.array(), 0, 16);
+        header.putInt((int) crc32.getValue());
+        header.clear();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            // the slots are sparse zeros, an empty copy reads as empty
+            channel.truncate(fileSize);
+            channel.write(ByteBuffer.allocate(1), fileSize - 1);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Map the file and read its layout from the header.
+     */
+    private void map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < 20 || MAGIC != header.getInt(0) || VERSION != header.getInt(4)) {
+                throw new IOException("invalid header of " + file);
+            }
+            CRC32 crc32 = new CRC32();
+            crc32.update(header.array(), 0, 16);
+            if ((int) crc32.getValue() != header.getInt(16)) {
+                throw new IOException("header crc mismatch of " + file);
+            }
+            int newRecordSize = header.getInt(8);
+            int newSlotNums = header.getInt(12);
+            long fileSize = HEADER_SIZE + (long) newSlotNums * 2 * newRecordSize;
+            if (newRecordSize <= RECORD_HEADER_SIZE || newSlotNums <= 0 || fileSize > Integer.MAX_VALUE
+                || channel.size() < fileSize) {
+                throw new IOException("invalid layout of " + file);
+            }
+            this.mappedBuffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileSize);
+            this.recordSize = newRecordSize;
+            this.slotNums = newSlotNums;
+            this.usedSlots = new boolean[newSlotNums];
+            this.slotSequences = new long[newSlotNums];
+            this.slotCopies = new byte[newSlotNums];
+        }
+    }
+
+    int recordOffset(int slot, int copy) {
+        return HEADER_SIZE + (slot * 2 + copy) * recordSize;
+    }
+
+    /**
+     * Number of slots in the store file.
+     *
+     * @return
+     */
+    public synchronized int getSlotNums() {
+        return slotNums;
+    }
+
+    /**
+     * Size of one copy of a slot record in bytes.
+     *
+     * @return
+     */
+    public synchronized int getRecordSize() {
+        return recordSize;
+    }
+
+    /**
+     * Slot of a key, -1 when the key has no slot.
+     *
+     * @param key
+     * @return
+     */
+    synchronized int getSlot(K key) {
+        Integer slot = keySlots.get(key);
+        return null == slot ? -1 : slot;
+    }
+
+    /**
+     * Copy of the slot holding its newer record.
+     *
+     * @param slot
+     * @return
+     */
+    synchronized int getNewerCopy(int slot) {
+        return slotCopies[slot];
+    }
+}
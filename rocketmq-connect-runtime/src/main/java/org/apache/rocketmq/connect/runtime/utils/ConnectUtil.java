@@ -75,6 +75,13 @@ public class ConnectUtil {
         return new StringBuilder().append(prefix).append("-").append(postfix).toString();
     }
 
+    /**
+     * Id of the task at the given position of the task configs of a connector, unique in the cluster.
+     */
+    public static String taskId(String connectorName, int taskIndex) {
+        return connectorName + "-" + taskIndex;
+    }
+
     public static String createInstance(String servers) {
         String[] serversArray = servers.split(";");
         List<String> serversList = new ArrayList<String>();
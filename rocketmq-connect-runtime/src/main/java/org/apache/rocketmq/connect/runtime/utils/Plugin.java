@@ -16,6 +16,7 @@
  */
 package org.apache.rocketmq.connect.runtime.utils;
 
+import io.netty.util.concurrent.DefaultThreadFactory;
 import io.openmessaging.connector.api.component.Transform;
 import io.openmessaging.connector.api.component.connector.Connector;
 import io.openmessaging.connector.api.component.task.Task;
@@ -34,6 +35,10 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.reflections.Configuration;
 import org.reflections.Reflections;
 import org.reflections.ReflectionsException;
@@ -47,63 +52,217 @@ public class Plugin extends URLClassLoader {
 
     private final List<String> pluginPaths;
 
-    private Map<String, PluginWrapper> classLoaderMap = new HashMap<>();
+    /**
+     * The plugins found in the plugin paths by class name, replaced as a whole by every {@link #initPlugin()}.
+     */
+    private volatile Map<String, PluginWrapper<?>> classLoaderMap = new HashMap<>();
+
+    /**
+     * The plugin locations loaded by the last {@link #initPlugin()}, a reload keeps the unchanged ones with their class
+     * loaders.
+     */
+    private final Map<String, LoadedLocation> loadedLocations = new HashMap<>();
+
+    private final PluginIndex pluginIndex;
+
+    /**
+     * Guards {@link #initPlugin()}. Not the plugin itself, which is the parent class loader the scanning threads lock
+     * while loading classes.
+     */
+    private final Object loadLock = new Object();
 
     public Plugin(List<String> pluginPaths) {
         this(pluginPaths, Plugin.class.getClassLoader());
     }
 
     public Plugin(List<String> pluginPaths, ClassLoader parent) {
+        this(pluginPaths, parent, null);
+    }
+
+    /**
+     * @param pluginPaths
+     * @param parent
+     * @param indexFile file caching the plugin classes of every plugin location between restarts, null to scan all
+     * plugin locations on start
+     */
+    public Plugin(List<String> pluginPaths, ClassLoader parent, String indexFile) {
         super(new URL[0], parent);
         this.pluginPaths = pluginPaths;
+        this.pluginIndex = new PluginIndex(indexFile);
+        this.pluginIndex.load();
     }
 
+    /**
+     * Load the plugins of all plugin paths. A plugin location whose jars did not change since the last load keeps its
+     * class loader, or is loaded from the plugin index without scanning, the changed locations are scanned in
+     * parallel.
+     */
     public void initPlugin() {
+        synchronized (loadLock) {
+            doInitPlugin();
+        }
+    }
+
+    private void doInitPlugin() {
+        long start = System.currentTimeMillis();
+        List<PluginLocation> locations = new ArrayList<>();
         for (String configPath : pluginPaths) {
-            loadPlugin(configPath);
+            collectLocations(configPath, locations);
         }
+        List<PluginLocation> toScan = new ArrayList<>();
+        int reusedNums = 0;
+        int indexedNums = 0;
+        for (PluginLocation location : locations) {
+            LoadedLocation loaded = loadedLocations.get(location.key);
+            if (null != loaded && null != location.fingerprint && location.fingerprint.equals(loaded.fingerprint)) {
+                location.loaded = loaded;
+                reusedNums++;
+                continue;
+            }
+            List<String> classNames = pluginIndex.get(location.key, location.fingerprint);
+            if (null != classNames) {
+                location.loaded = loadIndexed(location, classNames);
+                if (null != location.loaded) {
+                    indexedNums++;
+                    continue;
+                }
+            }
+            toScan.add(location);
+        }
+        scan(toScan);
+
+        Map<String, PluginWrapper<?>> plugins = new HashMap<>();
+        loadedLocations.clear();
+        List<String> locationKeys = new ArrayList<>();
+        for (PluginLocation location : locations) {
+            locationKeys.add(location.key);
+            if (null == location.loaded) {
+                continue;
+            }
+            plugins.putAll(location.loaded.plugins);
+            loadedLocations.put(location.key, location.loaded);
+            if (null != location.fingerprint) {
+                pluginIndex.put(location.key, location.fingerprint, new ArrayList<>(location.loaded.plugins.keySet()));
+            } else {
+                pluginIndex.remove(location.key);
+            }
+        }
+        classLoaderMap = plugins;
+        pluginIndex.retainAll(locationKeys);
+        pluginIndex.persist();
+        log.info("Load {} plugin locations in {} ms, {} unchanged, {} from index, {} scanned", locations.size(),
+            System.currentTimeMillis() - start, reusedNums, indexedNums, toScan.size());
     }
 
-    private void loadPlugin(String path) {
+    private void collectLocations(String path, List<PluginLocation> locations) {
         Path pluginPath = Paths.get(path).toAbsolutePath();
         path = pluginPath.toString();
         try {
+            List<Path> pluginLocations = new ArrayList<>();
             if (Files.isDirectory(pluginPath)) {
-                for (Path pluginLocation : PluginUtils.pluginLocations(pluginPath)) {
-                    registerPlugin(pluginLocation);
-                }
+                pluginLocations.addAll(PluginUtils.pluginLocations(pluginPath));
             } else if (PluginUtils.isArchive(pluginPath)) {
-                registerPlugin(pluginPath);
+                pluginLocations.add(pluginPath);
+            }
+            for (Path pluginLocation : pluginLocations) {
+                List<Path> urls = PluginUtils.pluginUrls(pluginLocation);
+                locations.add(new PluginLocation(pluginLocation, urls, PluginIndex.fingerprint(urls)));
             }
         } catch (IOException e) {
             log.error("register plugin error, path: {}, e: {}", path, e);
         }
     }
 
-    private void doLoad(
+    /**
+     * Load the indexed plugin classes of a location without scanning it.
+     *
+     * @return the loaded location, or null if a class can not be loaded and the location must be scanned
+     */
+    private LoadedLocation loadIndexed(PluginLocation location, List<String> classNames) {
+        try {
+            PluginClassLoader loader = newPluginClassLoader(location.path.toUri().toURL(), toUrls(location.urls),
+                this);
+            Map<String, PluginWrapper<?>> plugins = new HashMap<>();
+            for (String className : classNames) {
+                Class<?> klass = Class.forName(className, false, loader);
+                plugins.put(className, new PluginWrapper<>(klass, loader));
+            }
+            return new LoadedLocation(location.fingerprint, plugins);
+        } catch (IOException | ClassNotFoundException | LinkageError e) {
+            log.warn("Load indexed plugin {} failed, scan it again", location.key, e);
+            return null;
+        }
+    }
+
+    /**
+     * Scan the locations, in parallel when there are more than one.
+     */
+    private void scan(List<PluginLocation> locations) {
+        if (locations.isEmpty()) {
+            return;
+        }
+        if (locations.size() == 1) {
+            PluginLocation location = locations.get(0);
+            try {
+                location.loaded = registerPlugin(location, true);
+            } catch (IOException e) {
+                log.error("register plugin error, path: {}", location.key, e);
+            }
+            return;
+        }
+        int threadNums = Math.min(locations.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService scanExecutor = Executors.newFixedThreadPool(threadNums,
+            new DefaultThreadFactory("plugin-scan-"));
+        try {
+            List<Future<LoadedLocation>> futures = new ArrayList<>(locations.size());
+            for (PluginLocation location : locations) {
+                futures.add(scanExecutor.submit(() -> registerPlugin(location, false)));
+            }
+            for (int i = 0; i < locations.size(); i++) {
+                try {
+                    locations.get(i).loaded = futures.get(i).get();
+                } catch (ExecutionException e) {
+                    log.error("register plugin error, path: {}", locations.get(i).key, e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Scan plugins interrupted");
+        } finally {
+            scanExecutor.shutdownNow();
+        }
+    }
+
+    private Map<String, PluginWrapper<?>> doLoad(
         ClassLoader loader,
-        URL[] urls
+        URL[] urls,
+        boolean parallel
     ) {
         ConfigurationBuilder builder = new ConfigurationBuilder();
         builder.setClassLoaders(new ClassLoader[] {loader});
         builder.addUrls(urls);
         builder.setScanners(new SubTypesScanner());
-        builder.useParallelExecutor();
+        if (parallel) {
+            builder.useParallelExecutor();
+        }
         Reflections reflections = new PluginReflections(builder);
-        getPlugin(reflections, Connector.class, loader);
-        getPlugin(reflections, Task.class, loader);
-        getPlugin(reflections, Transform.class, loader);
+        Map<String, PluginWrapper<?>> plugins = new HashMap<>();
+        getPlugin(reflections, Connector.class, loader, plugins);
+        getPlugin(reflections, Task.class, loader, plugins);
+        getPlugin(reflections, Transform.class, loader, plugins);
+        return plugins;
     }
 
     private <T> Collection<Class<? extends T>> getPlugin(
         Reflections reflections,
         Class<T> klass,
-        ClassLoader loader
+        ClassLoader loader,
+        Map<String, PluginWrapper<?>> plugins
     ) {
-        Set<Class<? extends T>> plugins = reflections.getSubTypesOf(klass);
+        Set<Class<? extends T>> subTypes = reflections.getSubTypesOf(klass);
         Collection<Class<? extends T>> result = new ArrayList<>();
-        for (Class<? extends T> plugin : plugins) {
-            classLoaderMap.put(plugin.getName(), new PluginWrapper(plugin, loader));
+        for (Class<? extends T> plugin : subTypes) {
+            plugins.put(plugin.getName(), new PluginWrapper<>(plugin, loader));
             result.add(plugin);
 
         }
@@ -139,27 +298,30 @@ public class Plugin extends URLClassLoader {
         );
     }
 
-    private void registerPlugin(Path pluginLocation)
-        throws IOException {
-        log.info("Loading plugin from: {}", pluginLocation);
-        List<URL> pluginUrls = new ArrayList<>();
-        for (Path path : PluginUtils.pluginUrls(pluginLocation)) {
-            pluginUrls.add(path.toUri().toURL());
-        }
-        URL[] urls = pluginUrls.toArray(new URL[0]);
+    private LoadedLocation registerPlugin(PluginLocation location, boolean parallel) throws IOException {
+        log.info("Loading plugin from: {}", location.path);
+        URL[] urls = toUrls(location.urls);
         if (log.isDebugEnabled()) {
             log.debug("Loading plugin urls: {}", Arrays.toString(urls));
         }
         PluginClassLoader loader = newPluginClassLoader(
-            pluginLocation.toUri().toURL(),
+            location.path.toUri().toURL(),
             urls,
             this
         );
-        doLoad(loader, urls);
+        return new LoadedLocation(location.fingerprint, doLoad(loader, urls, parallel));
+    }
+
+    private static URL[] toUrls(List<Path> paths) throws IOException {
+        List<URL> pluginUrls = new ArrayList<>();
+        for (Path path : paths) {
+            pluginUrls.add(path.toUri().toURL());
+        }
+        return pluginUrls.toArray(new URL[0]);
     }
 
     public ClassLoader getPluginClassLoader(String pluginName) {
-        PluginWrapper pluginWrapper = classLoaderMap.get(pluginName);
+        PluginWrapper<?> pluginWrapper = classLoaderMap.get(pluginName);
         if (null != pluginWrapper) {
             return pluginWrapper.getClassLoader();
         }
@@ -178,4 +340,41 @@ public class Plugin extends URLClassLoader {
         return current;
     }
 
+    /**
+     * A jar or directory in a plugin path, loaded by its own class loader.
+     */
+    private static class PluginLocation {
+
+        private final Path path;
+
+        private final String key;
+
+        private final List<Path> urls;
+
+        /**
+         * Null if the location contains class directories, which are always scanned.
+         */
+        private final String fingerprint;
+
+        private LoadedLocation loaded;
+
+        PluginLocation(Path path, List<Path> urls, String fingerprint) {
+            this.path = path;
+            this.key = path.toString();
+            this.urls = urls;
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    private static class LoadedLocation {
+
+        private final String fingerprint;
+
+        private final Map<String, PluginWrapper<?>> plugins;
+
+        LoadedLocation(String fingerprint, Map<String, PluginWrapper<?>> plugins) {
+            this.fingerprint = fingerprint;
+            this.plugins = plugins;
+        }
+    }
 }
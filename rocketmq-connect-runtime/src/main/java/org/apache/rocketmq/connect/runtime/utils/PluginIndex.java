@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.utils;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.TypeReference;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The plugin classes found in every plugin location, persisted as json so that a restart only scans the locations
+ * whose jars changed. A location is matched by the fingerprint of the path, size and modification time of all its
+ * jars.
+ */
+public class PluginIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PluginIndex.class);
+
+    /**
+     * Path of the index file, null if the index is kept in memory only.
+     */
+    private final String indexFile;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    public PluginIndex(String indexFile) {
+        this.indexFile = indexFile;
+    }
+
+    /**
+     * Read the index file, a missing or broken file leaves the index empty.
+     */
+    public void load() {
+        if (null == indexFile) {
+            return;
+        }
+        try {
+            String json = FileAndPropertyUtil.file2String(indexFile);
+            if (StringUtils.isNotEmpty(json)) {
+                Map<String, Entry> loaded = JSON.parseObject(json, new TypeReference<Map<String, Entry>>() {
+                });
+                if (null != loaded) {
+                    entries.putAll(loaded);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Load plugin index {} failed, all plugins will be scanned", indexFile, e);
+        }
+    }
+
+    public void persist() {
+        if (null == indexFile) {
+            return;
+        }
+        try {
+            FileAndPropertyUtil.string2File(JSON.toJSONString(entries), indexFile);
+        } catch (IOException e) {
+            log.warn("Persist plugin index {} failed", indexFile, e);
+        }
+    }
+
+    /**
+     * The plugin classes of a location, if it has not changed since it was indexed.
+     *
+     * @param location
+     * @param fingerprint current fingerprint of the location
+     * @return the class names, or null if the location must be scanned
+     */
+    public List<String> get(String location, String fingerprint) {
+        if (null == fingerprint) {
+            return null;
+        }
+        Entry entry = entries.get(location);
+        if (null == entry || !fingerprint.equals(entry.getFingerprint())) {
+            return null;
+        }
+        return entry.getClassNames();
+    }
+
+    public void put(String location, String fingerprint, List<String> classNames) {
+        Entry entry = new Entry();
+        entry.setFingerprint(fingerprint);
+        entry.setClassNames(new ArrayList<>(classNames));
+        entries.put(location, entry);
+    }
+
+    public void remove(String location) {
+        entries.remove(location);
+    }
+
+    /**
+     * Drop the locations that no longer exist.
+     *
+     * @param locations
+     */
+    public void retainAll(Collection<String> locations) {
+        entries.keySet().retainAll(locations);
+    }
+
+    public Map<String, Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Fingerprint of the jars of a plugin location.
+     *
+     * @param urls
+     * @return the fingerprint, or null if a url is a class directory, whose changes can not be detected cheaply
+     * @throws IOException
+     */
+    public static String fingerprint(List<Path> urls) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Path url : urls) {
+            if (Files.isDirectory(url)) {
+                return null;
+            }
+            String stat = url.toAbsolutePath() + "|" + Files.size(url) + "|" + Files.getLastModifiedTime(url).toMillis()
+                + "\n";
+            digest.update(stat.getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    public static class Entry {
+
+        private String fingerprint;
+
+        private List<String> classNames;
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public void setFingerprint(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public List<String> getClassNames() {
+            return classNames;
+        }
+
+        public void setClassNames(List<String> classNames) {
+            this.classNames = classNames;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.utils;
+
+import io.openmessaging.connector.api.data.FieldType;
+import io.openmessaging.connector.api.data.Schema;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
+
+/**
+ * Conversion between the data of a record and the body of a message, binary payloads are passed through without
+ * going through a string.
+ */
+public class RecordBodyUtils {
+
+    private static final int EXT_PREFIX_LENGTH = RuntimeConfigDefine.CONNECT_EXT_PREFIX.length();
+
+    /**
+     * Convert the data of a source record to a message body. A byte[] is used as is, a ByteBuffer is used without
+     * copy if it wraps a whole array, anything else is sent as its UTF-8 string.
+     *
+     * @param payload
+     * @return
+     */
+    public static byte[] toBody(Object payload) {
+        if (payload instanceof byte[]) {
+            return (byte[]) payload;
+        }
+        if (payload instanceof ByteBuffer) {
+            ByteBuffer buffer = (ByteBuffer) payload;
+            if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0
+                && buffer.remaining() == buffer.array().length) {
+                return buffer.array();
+            }
+            byte[] body = new byte[buffer.remaining()];
+            buffer.duplicate().get(body);
+            return body;
+        }
+        return String.valueOf(payload).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Convert a message body to the data of a sink record, the body is passed as is when the schema declares bytes,
+     * otherwise it is decoded as a UTF-8 string.
+     *
+     * @param body
+     * @param schema
+     * @return
+     */
+    public static Object toData(byte[] body, Schema schema) {
+        if (null != schema && FieldType.BYTES == schema.getFieldType()) {
+            return body;
+        }
+        return new String(body, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Strip the extension prefix from a message property key.
+     *
+     * @param key
+     * @return the key without prefix, or the key itself if it has no prefix
+     */
+    public static String stripExtPrefix(String key) {
+        if (key.startsWith(RuntimeConfigDefine.CONNECT_EXT_PREFIX)) {
+            return key.substring(EXT_PREFIX_LENGTH);
+        }
+        return key;
+    }
+}
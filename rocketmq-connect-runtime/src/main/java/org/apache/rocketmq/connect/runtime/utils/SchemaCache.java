@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.utils;
+
+import com.alibaba.fastjson.JSON;
+import io.openmessaging.connector.api.data.Field;
+import io.openmessaging.connector.api.data.Schema;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parsed schemas keyed by the hash of their json string, the least recently used one is evicted when the cache is
+ * full. Messages of a topic usually carry a handful of schemas, so parsing each distinct string once saves a json parse
+ * per message. A hit is confirmed by comparing the strings, a hash collision only costs a parse. Schemas are mutable,
+ * every caller gets its own copy so a transform or task that changes a record schema does not change the cached one.
+ */
+public class SchemaCache {
+
+    private final Map<Integer, CachedSchema> cache;
+
+    public SchemaCache(int maxSize) {
+        this.cache = new LinkedHashMap<Integer, CachedSchema>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedSchema> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Get the schema of a json string.
+     *
+     * @param schemaString
+     * @return a copy of the cached schema
+     */
+    public Schema get(String schemaString) {
+        int hash = schemaString.hashCode();
+        CachedSchema cached;
+        synchronized (cache) {
+            cached = cache.get(hash);
+        }
+        if (null == cached || !cached.schemaString.equals(schemaString)) {
+            cached = new CachedSchema(schemaString, JSON.parseObject(schemaString, Schema.class));
+            synchronized (cache) {
+                cache.put(hash, cached);
+            }
+        }
+        return copy(cached.schema);
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    boolean contains(String schemaString) {
+        synchronized (cache) {
+            CachedSchema cached = cache.get(schemaString.hashCode());
+            return null != cached && cached.schemaString.equals(schemaString);
+        }
+    }
+
+    private static Schema copy(Schema schema) {
+        if (null == schema) {
+            return null;
+        }
+        List<Field> fields = null;
+        if (null != schema.getFields()) {
+            fields = new ArrayList<>(schema.getFields().size());
+            for (Field field : schema.getFields()) {
+                fields.add(null == field ? null : new Field(field.getIndex(), field.getName(), copy(field.getSchema())));
+            }
+        }
+        return new Schema(schema.getName(), schema.getFieldType(), fields);
+    }
+
+    private static class CachedSchema {
+
+        private final String schemaString;
+
+        private final Schema schema;
+
+        CachedSchema(String schemaString, Schema schema) {
+            this.schemaString = schemaString;
+            this.schema = schema;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.utils.datasync;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.function.BiConsumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary framing of synchronize messages:
+ * {@code magic(2) | version(1) | flags(1) | [uncompressedLength(4)] | entryCount(4) | (keyLength(4) | key |
+ * valueLength(4) | value)*}. When {@link #FLAG_DEFLATE} is set, everything after the header is a deflate block.
+ *
+ * <p>Bodies without the magic are decoded as the original json format, so workers can be upgraded one by one: first
+ * roll out the decoder with the json encoder still configured, then switch the encoder to binary.
+ */
+public class BinaryDataSyncCodec implements DataSyncCodec {
+
+    static final byte MAGIC_0 = (byte) 0xC3;
+
+    static final byte MAGIC_1 = (byte) 0x5C;
+
+    static final byte VERSION_1 = 1;
+
+    static final byte FLAG_DEFLATE = 0x01;
+
+    private static final int HEADER_SIZE = 4;
+
+    /**
+     * Max size of a decoded payload, guards against corrupted length fields.
+     */
+    private static final int MAX_PAYLOAD_SIZE = 256 * 1024 * 1024;
+
+    private final JsonDataSyncCodec jsonCodec = new JsonDataSyncCodec();
+
+    /**
+     * Payloads of at least this many bytes are compressed, a negative value disables compression.
+     */
+    private final int compressMinBytes;
+
+    public BinaryDataSyncCodec(int compressMinBytes) {
+        this.compressMinBytes = compressMinBytes;
+    }
+
+    @Override
+    public byte[] encode(byte[] key, byte[] value) throws IOException {
+        int payloadSize = 4 + 4 + key.length + 4 + value.length;
+        ByteBuffer payload = ByteBuffer.allocate(payloadSize);
+        payload.putInt(1);
+        payload.putInt(key.length);
+        payload.put(key);
+        payload.putInt(value.length);
+        payload.put(value);
+
+        if (compressMinBytes >= 0 && payloadSize >= compressMinBytes) {
+            byte[] compressed = deflate(payload.array());
+            if (compressed.length + 4 < payloadSize) {
+                ByteBuffer body = ByteBuffer.allocate(HEADER_SIZE + 4 + compressed.length);
+                putHeader(body, FLAG_DEFLATE);
+                body.putInt(payloadSize);
+                body.put(compressed);
+                return body.array();
+            }
+        }
+        ByteBuffer body = ByteBuffer.allocate(HEADER_SIZE + payloadSize);
+        putHeader(body, (byte) 0);
+        body.put(payload.array());
+        return body.array();
+    }
+
+    private static void putHeader(ByteBuffer body, byte flags) {
+        body.put(MAGIC_0);
+        body.put(MAGIC_1);
+        body.put(VERSION_1);
+        body.put(flags);
+    }
+
+    @Override
+    public void decode(byte[] body, BiConsumer<byte[], byte[]> consumer) throws IOException {
+        if (!isBinary(body)) {
+            jsonCodec.decode(body, consumer);
+            return;
+        }
+        byte version = body[2];
+        if (version != VERSION_1) {
+            throw new IOException("Unsupported data sync codec version " + version);
+        }
+        byte flags = body[3];
+        ByteBuffer payload;
+        if ((flags & FLAG_DEFLATE) != 0) {
+            if (body.length < HEADER_SIZE + 4) {
+                throw new IOException("Truncated data sync message, length " + body.length);
+            }
+            int payloadSize = ByteBuffer.wrap(body, HEADER_SIZE, 4).getInt();
+            if (payloadSize < 0 || payloadSize > MAX_PAYLOAD_SIZE) {
+                throw new IOException("Invalid data sync payload size " + payloadSize);
+            }
+            payload = ByteBuffer.wrap(inflate(body, HEADER_SIZE + 4, payloadSize));
+        } else {
+            payload = ByteBuffer.wrap(body, HEADER_SIZE, body.length - HEADER_SIZE);
+        }
+        try {
+            int entryCount = payload.getInt();
+            for (int i = 0; i < entryCount; i++) {
+                byte[] key = readBytes(payload);
+                byte[] value = readBytes(payload);
+                consumer.accept(key, value);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated data sync message", e);
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer payload) throws IOException {
+        int length = payload.getInt();
+        if (length < 0 || length > payload.remaining()) {
+            throw new IOException("Invalid data sync field length " + length);
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Whether the body is framed by this codec rather than the original json format.
+     *
+     * @param body
+     * @return
+     */
+    public static boolean isBinary(byte[] body) {
+        return null != body && body.length >= HEADER_SIZE && body[0] == MAGIC_0 && body[1] == MAGIC_1;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 2));
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int length = deflater.deflate(buffer);
+                out.write(buffer, 0, length);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int payloadSize) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, data.length - offset);
+            byte[] payload = new byte[payloadSize];
+            int length = 0;
+            while (length < payloadSize && !inflater.finished()) {
+                int inflated = inflater.inflate(payload, length, payloadSize - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                length += inflated;
+            }
+            if (length != payloadSize) {
+                throw new IOException("Truncated data sync payload, expect " + payloadSize + " bytes, got " + length);
+            }
+            return payload;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted data sync payload", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
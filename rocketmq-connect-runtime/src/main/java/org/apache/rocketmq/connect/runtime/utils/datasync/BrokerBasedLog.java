@@ -17,9 +17,7 @@
 
 package org.apache.rocketmq.connect.runtime.utils.datasync;
 
-import com.alibaba.fastjson.JSON;
 import io.openmessaging.connector.api.data.Converter;
-import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -50,6 +48,8 @@ public class BrokerBasedLog<K, V> implements DataSynchronizer<K, V> {
 
     private static final Logger log = LoggerFactory.getLogger(LoggerName.ROCKETMQ_RUNTIME);
 
+    public static final String BINARY_CODEC = "binary";
+
     /**
      * A callback to receive data from other workers.
      */
@@ -80,6 +80,16 @@ public class BrokerBasedLog<K, V> implements DataSynchronizer<K, V> {
      */
     private Converter valueConverter;
 
+    /**
+     * Used to frame the converted key and value.
+     */
+    private DataSyncCodec encodeCodec;
+
+    /**
+     * Decodes both the binary and the json format.
+     */
+    private BinaryDataSyncCodec decodeCodec;
+
     public BrokerBasedLog(ConnectConfig connectConfig,
         String topicName,
         String workId,
@@ -95,6 +105,8 @@ public class BrokerBasedLog<K, V> implements DataSynchronizer<K, V> {
         this.consumer.setConsumerGroup(workId);
         this.keyConverter = keyConverter;
         this.valueConverter = valueConverter;
+        this.decodeCodec = new BinaryDataSyncCodec(connectConfig.getDataSyncCompressMinBytes());
+        this.encodeCodec = BINARY_CODEC.equalsIgnoreCase(connectConfig.getDataSyncCodec()) ? decodeCodec : new JsonDataSyncCodec();
         this.prepare(connectConfig);
     }
 
@@ -156,22 +168,17 @@ public class BrokerBasedLog<K, V> implements DataSynchronizer<K, V> {
 
         byte[] keyByte = keyConverter.objectToByte(key);
         byte[] valueByte = valueConverter.objectToByte(value);
-        Map<String, String> map = new HashMap<>();
-        map.put(Base64.getEncoder().encodeToString(keyByte), Base64.getEncoder().encodeToString(valueByte));
-
-        return JSON.toJSONString(map).getBytes("UTF-8");
+        return encodeCodec.encode(keyByte, valueByte);
     }
 
     private Map<K, V> decodeKeyValue(byte[] bytes) throws Exception {
 
         Map<K, V> resultMap = new HashMap<>();
-        String rawString = new String(bytes, "UTF-8");
-        Map<String, String> map = JSON.parseObject(rawString, Map.class);
-        for (String key : map.keySet()) {
-            K decodeKey = (K) keyConverter.byteToObject(Base64.getDecoder().decode(key));
-            V decodeValue = (V) valueConverter.byteToObject(Base64.getDecoder().decode(map.get(key)));
+        decodeCodec.decode(bytes, (keyByte, valueByte) -> {
+            K decodeKey = (K) keyConverter.byteToObject(keyByte);
+            V decodeValue = (V) valueConverter.byteToObject(valueByte);
             resultMap.put(decodeKey, decodeValue);
-        }
+        });
         return resultMap;
     }
 
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.utils.datasync;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+/**
+ * Frame the converted key and value of a synchronize message.
+ */
+public interface DataSyncCodec {
+
+    /**
+     * Encode a key and a value into a message body.
+     *
+     * @param key
+     * @param value
+     * @return
+     * @throws IOException
+     */
+    byte[] encode(byte[] key, byte[] value) throws IOException;
+
+    /**
+     * Decode a message body, the consumer is called once per key and value.
+     *
+     * @param body
+     * @param consumer
+     * @throws IOException
+     */
+    void decode(byte[] body, BiConsumer<byte[], byte[]> consumer) throws IOException;
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.utils.datasync;
+
+import com.alibaba.fastjson.JSON;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * The original format, a json map of Base64 encoded key to Base64 encoded value.
+ */
+public class JsonDataSyncCodec implements DataSyncCodec {
+
+    @Override
+    public byte[] encode(byte[] key, byte[] value) {
+        Map<String, String> map = new HashMap<>();
+        map.put(Base64.getEncoder().encodeToString(key), Base64.getEncoder().encodeToString(value));
+        return JSON.toJSONString(map).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void decode(byte[] body, BiConsumer<byte[], byte[]> consumer) {
+        Map<String, String> map = JSON.parseObject(new String(body, StandardCharsets.UTF_8), Map.class);
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            consumer.accept(Base64.getDecoder().decode(entry.getKey()), Base64.getDecoder().decode(entry.getValue()));
+        }
+    }
+}
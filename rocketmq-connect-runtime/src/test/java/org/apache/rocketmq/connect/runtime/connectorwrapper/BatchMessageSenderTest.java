@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import io.openmessaging.connector.api.data.ConnectRecord;
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.connect.runtime.utils.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchMessageSenderTest {
+
+    private static final String TOPIC = "testTopic";
+
+    private TestBatchProducer producer;
+
+    private BatchMessageSender batchMessageSender;
+
+    @Before
+    public void init() {
+        producer = new TestBatchProducer(4, 0);
+    }
+
+    @After
+    public void destroy() {
+        if (null != batchMessageSender) {
+            batchMessageSender.shutdown(1000);
+        }
+    }
+
+    @Test
+    public void testGroupByQueueAndBatchSize() throws Exception {
+        batchMessageSender = new BatchMessageSender(producer, 10, 2, "testTask");
+        List<Message> messages = new ArrayList<>();
+        List<ConnectRecord> records = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            Message message = new Message(TOPIC, ("body" + i).getBytes());
+            message.setKeys("key" + (i % 2));
+            messages.add(message);
+            records.add(newRecord(i));
+        }
+        CountDownLatch latch = new CountDownLatch(25);
+        List<ConnectRecord> acked = new CopyOnWriteArrayList<>();
+        batchMessageSender.send(messages, records, new BatchMessageSender.BatchSendCallback() {
+            @Override public void onSuccess(List<ConnectRecord> records, SendResult sendResult) {
+                acked.addAll(records);
+                records.forEach(record -> latch.countDown());
+            }
+
+            @Override public void onException(List<ConnectRecord> records, Throwable throwable) {
+            }
+        });
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(acked.size()).isEqualTo(25);
+        // two keys give two queues, 13 and 12 messages, each split into batches of at most 10
+        assertThat(producer.batchCount.get()).isEqualTo(4);
+        assertThat(producer.maxBatchSize.get()).isLessThanOrEqualTo(10);
+        for (List<Message> batch : producer.batches) {
+            String keys = batch.get(0).getKeys();
+            for (Message message : batch) {
+                assertThat(message.getKeys()).isEqualTo(keys);
+            }
+        }
+    }
+
+    @Test
+    public void testFailedBatchCallback() throws Exception {
+        producer.fail = true;
+        batchMessageSender = new BatchMessageSender(producer, 8, 1, "testTask");
+        List<Message> messages = new ArrayList<>();
+        List<ConnectRecord> records = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            messages.add(new Message(TOPIC, ("body" + i).getBytes()));
+            records.add(newRecord(i));
+        }
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(2);
+        batchMessageSender.send(messages, records, new BatchMessageSender.BatchSendCallback() {
+            @Override public void onSuccess(List<ConnectRecord> records, SendResult sendResult) {
+            }
+
+            @Override public void onException(List<ConnectRecord> records, Throwable throwable) {
+                failed.addAndGet(records.size());
+                latch.countDown();
+            }
+        });
+        assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(failed.get()).isEqualTo(16);
+        // the window is released right after the callback returns
+        long deadline = System.currentTimeMillis() + 5000;
+        while (batchMessageSender.getInFlightBatches() > 0 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        assertThat(batchMessageSender.getInFlightBatches()).isEqualTo(0);
+    }
+
+    @Test
+    public void testThroughputWithBatchSize() throws Exception {
+        TestUtils.assumeBenchmark();
+        int recordNums = 4096;
+        double singleRecordTps = 0;
+        double maxBatchTps = 0;
+        for (int batchSize : new int[] {1, 8, 32, 128}) {
+            producer = new TestBatchProducer(8, 1);
+            batchMessageSender = new BatchMessageSender(producer, batchSize, 4, "testTask");
+            CountDownLatch latch = new CountDownLatch(recordNums);
+            long begin = System.nanoTime();
+            for (int i = 0; i < recordNums; i += 512) {
+                List<Message> messages = new ArrayList<>();
+                List<ConnectRecord> records = new ArrayList<>();
+                for (int j = i; j < i + 512; j++) {
+                    messages.add(new Message(TOPIC, ("body" + j).getBytes()));
+                    records.add(newRecord(j));
+                }
+                batchMessageSender.send(messages, records, new BatchMessageSender.BatchSendCallback() {
+                    @Override public void onSuccess(List<ConnectRecord> records, SendResult sendResult) {
+                        records.forEach(record -> latch.countDown());
+                    }
+
+                    @Override public void onException(List<ConnectRecord> records, Throwable throwable) {
+                    }
+                });
+            }
+            assertThat(latch.await(30, TimeUnit.SECONDS)).isTrue();
+            double tps = recordNums * 1e9 / (System.nanoTime() - begin);
+            if (batchSize == 1) {
+                singleRecordTps = tps;
+            }
+            maxBatchTps = Math.max(maxBatchTps, tps);
+            batchMessageSender.shutdown(1000);
+            batchMessageSender = null;
+        }
+        assertThat(maxBatchTps).as("max batch %.0f vs single record %.0f records/sec", maxBatchTps,
+            singleRecordTps).isGreaterThan(singleRecordTps);
+    }
+
+    private static ConnectRecord newRecord(int offset) {
+        Map<String, String> partition = new HashMap<>();
+        partition.put("file", "fileName1");
+        Map<String, String> position = new HashMap<>();
+        position.put("offset", String.valueOf(offset));
+        return new ConnectRecord(new RecordPartition(partition), new RecordOffset(position), System.currentTimeMillis(), null, "body" + offset);
+    }
+
+    /**
+     * An in-process producer which acknowledges every batch after a fixed latency.
+     */
+    private static class TestBatchProducer extends DefaultMQProducer {
+
+        private final List<MessageQueue> queues = new ArrayList<>();
+
+        private final long sendLatencyMills;
+
+        private final List<List<Message>> batches = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger batchCount = new AtomicInteger();
+
+        private final AtomicInteger maxBatchSize = new AtomicInteger();
+
+        private final AtomicLong queueOffset = new AtomicLong();
+
+        private volatile boolean fail;
+
+        TestBatchProducer(int queueNums, long sendLatencyMills) {
+            for (int i = 0; i < queueNums; i++) {
+                queues.add(new MessageQueue(TOPIC, "broker-a", i));
+            }
+            this.sendLatencyMills = sendLatencyMills;
+        }
+
+        @Override
+        public List<MessageQueue> fetchPublishMessageQueues(String topic) {
+            return queues;
+        }
+
+        @Override
+        public SendResult send(Collection<Message> msgs, MessageQueue messageQueue) throws InterruptedException {
+            if (sendLatencyMills > 0) {
+                Thread.sleep(sendLatencyMills);
+            }
+            if (fail) {
+                throw new IllegalStateException("broker unavailable");
+            }
+            batches.add(new ArrayList<>(msgs));
+            batchCount.incrementAndGet();
+            maxBatchSize.accumulateAndGet(msgs.size(), Math::max);
+            SendResult sendResult = new SendResult();
+            sendResult.setSendStatus(SendStatus.SEND_OK);
+            sendResult.setMessageQueue(messageQueue);
+            sendResult.setQueueOffset(queueOffset.getAndAdd(msgs.size()));
+            return sendResult;
+        }
+    }
+}
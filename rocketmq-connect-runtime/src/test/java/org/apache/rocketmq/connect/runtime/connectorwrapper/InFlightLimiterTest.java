@@ -0,0 +1,308 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import io.openmessaging.KeyValue;
+import io.openmessaging.connector.api.component.task.source.SourceTask;
+import io.openmessaging.connector.api.component.task.source.SourceTaskContext;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import io.openmessaging.connector.api.data.SchemaBuilder;
+import io.openmessaging.internal.DefaultKeyValue;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.rocketmq.client.producer.DefaultMQProducer;
+import org.apache.rocketmq.client.producer.SendCallback;
+import org.apache.rocketmq.client.producer.SendResult;
+import org.apache.rocketmq.client.producer.SendStatus;
+import org.apache.rocketmq.common.message.Message;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
+import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
+import org.apache.rocketmq.connect.runtime.connectorwrapper.testimpl.TestPositionManageServiceImpl;
+import org.apache.rocketmq.connect.runtime.stats.ConnectStatsManager;
+import org.apache.rocketmq.connect.runtime.stats.ConnectStatsService;
+import org.apache.rocketmq.connect.runtime.stats.TaskMetrics;
+import org.apache.rocketmq.connect.runtime.utils.TestUtils;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InFlightLimiterTest {
+
+    private static final String TOPIC = "testTopic";
+
+    private static final int BODY_BYTES = 1024;
+
+    @Test
+    public void testLimitByCount() throws Exception {
+        InFlightLimiter limiter = new InFlightLimiter(2, 0, null);
+        assertThat(limiter.tryAcquire(1, 100, 0, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(limiter.tryAcquire(1, 100, 0, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(limiter.tryAcquire(1, 100, 10, TimeUnit.MILLISECONDS)).isFalse();
+        limiter.release(1, 100);
+        assertThat(limiter.tryAcquire(1, 100, 0, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(limiter.getInFlightMessages()).isEqualTo(2);
+        assertThat(limiter.getInFlightBytes()).isEqualTo(200);
+    }
+
+    @Test
+    public void testLimitByBytes() throws Exception {
+        TaskMetrics taskMetrics = new TaskMetrics("testConnector", "testTask");
+        InFlightLimiter limiter = new InFlightLimiter(0, 1000, taskMetrics);
+        assertThat(limiter.tryAcquire(5, 600, 0, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(limiter.tryAcquire(1, 500, 0, TimeUnit.MILLISECONDS)).isFalse();
+        assertThat(limiter.tryAcquire(1, 400, 0, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(taskMetrics.getGauge(TaskMetrics.SOURCE_INFLIGHT_MESSAGES)).isEqualTo(6);
+        assertThat(taskMetrics.getGauge(TaskMetrics.SOURCE_INFLIGHT_BYTES)).isEqualTo(1000);
+
+        // a blocked acquire goes on once enough is released
+        Thread releaser = new Thread(() -> {
+            sleep(20);
+            limiter.release(5, 600);
+        });
+        releaser.start();
+        assertThat(limiter.tryAcquire(1, 500, 5, TimeUnit.SECONDS)).isTrue();
+        releaser.join();
+        assertThat(taskMetrics.getGauge(TaskMetrics.SOURCE_INFLIGHT_MESSAGES)).isEqualTo(2);
+        assertThat(taskMetrics.getGauge(TaskMetrics.SOURCE_INFLIGHT_BYTES)).isEqualTo(900);
+    }
+
+    @Test
+    public void testOversizedAdmittedAlone() throws Exception {
+        InFlightLimiter limiter = new InFlightLimiter(10, 1000, null);
+        assertThat(limiter.tryAcquire(100, 5000, 0, TimeUnit.MILLISECONDS)).isTrue();
+        assertThat(limiter.tryAcquire(1, 1, 0, TimeUnit.MILLISECONDS)).isFalse();
+        limiter.release(100, 5000);
+        assertThat(limiter.tryAcquire(1, 1, 0, TimeUnit.MILLISECONDS)).isTrue();
+    }
+
+    @Test
+    public void testSlowProducer() throws Exception {
+        // the pending sends stay within the limits
+        SlowProducer producer = runSourceTask(200, 0);
+        assertThat(producer.maxPendingMessages).isLessThanOrEqualTo(200);
+
+        producer = runSourceTask(0, 64 * BODY_BYTES);
+        assertThat(producer.maxPendingBytes).isLessThanOrEqualTo(64 * BODY_BYTES);
+    }
+
+    @Test
+    public void testSlowProducerNotStarved() throws Exception {
+        TestUtils.assumeBenchmark();
+        for (SlowProducer producer : new SlowProducer[] {runSourceTask(200, 0), runSourceTask(0, 64 * BODY_BYTES)}) {
+            assertThat(producer.getIdleRatio()).as("producer idle %.1f%%", producer.getIdleRatio() * 100)
+                .isLessThan(0.05);
+        }
+    }
+
+    /**
+     * Run a source task that polls as fast as it can against a producer that acknowledges 4 messages per millisecond.
+     */
+    private static SlowProducer runSourceTask(long maxMessages, long maxBytes) throws Exception {
+        ConnectKeyValue taskConfig = new ConnectKeyValue();
+        taskConfig.put(RuntimeConfigDefine.CONNECT_TOPICNAME, TOPIC);
+        taskConfig.put(RuntimeConfigDefine.SOURCE_MAX_INFLIGHT_MESSAGES, String.valueOf(maxMessages));
+        taskConfig.put(RuntimeConfigDefine.SOURCE_MAX_INFLIGHT_BYTES, String.valueOf(maxBytes));
+        taskConfig.put(RuntimeConfigDefine.TASK_ID, "testTask");
+        ConnectConfig connectConfig = new ConnectConfig();
+        connectConfig.setWorkerId("testWorker");
+        ConnectStatsManager connectStatsManager = new ConnectStatsManager(connectConfig);
+        SlowProducer producer = new SlowProducer(4);
+        FastSourceTask sourceTask = new FastSourceTask();
+        WorkerSourceTask workerSourceTask = new WorkerSourceTask("testConnector", sourceTask, taskConfig,
+            new TestPositionManageServiceImpl(), null, producer, new AtomicReference<>(WorkerState.STARTED),
+            connectStatsManager, new ConnectStatsService(), new TransformChain<>(new DefaultKeyValue(), null));
+        Thread taskThread = new Thread(workerSourceTask);
+        long durationMills = 1000;
+        try {
+            taskThread.start();
+            TimeUnit.MILLISECONDS.sleep(durationMills);
+            workerSourceTask.stop();
+            taskThread.join(5000);
+        } finally {
+            connectStatsManager.shutdown();
+        }
+        assertThat(taskThread.isAlive()).isFalse();
+        assertThat(producer.acknowledged.get()).isGreaterThan(0);
+        assertThat(sourceTask.polledRecords.get()).isGreaterThanOrEqualTo(producer.acknowledged.get());
+        return producer;
+    }
+
+    private static void sleep(long mills) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(mills);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Polls 100 records of 1KB at once, every time it is asked.
+     */
+    private static class FastSourceTask extends SourceTask {
+
+        private final AtomicLong polledRecords = new AtomicLong();
+
+        private long offset;
+
+        @Override
+        public List<ConnectRecord> poll() {
+            List<ConnectRecord> records = new ArrayList<>(100);
+            char[] body = new char[BODY_BYTES];
+            Arrays.fill(body, 'a');
+            for (int i = 0; i < 100; i++) {
+                Map<String, String> partition = new HashMap<>();
+                partition.put("file", "fileName1");
+                Map<String, String> position = new HashMap<>();
+                position.put("offset", String.valueOf(offset++));
+                records.add(new ConnectRecord(new RecordPartition(partition), new RecordOffset(position),
+                    System.currentTimeMillis(), SchemaBuilder.string().build(), new String(body)));
+            }
+            polledRecords.addAndGet(records.size());
+            return records;
+        }
+
+        @Override public void validate(KeyValue config) {
+        }
+
+        @Override public void init(KeyValue config) {
+        }
+
+        @Override public void start(SourceTaskContext sourceTaskContext) {
+        }
+
+        @Override public void stop() {
+        }
+
+        @Override public void pause() {
+        }
+
+        @Override public void resume() {
+        }
+    }
+
+    /**
+     * A producer that acknowledges at most {@code acksPerMillis} pending messages every millisecond, from one thread.
+     */
+    private static class SlowProducer extends DefaultMQProducer {
+
+        private final int acksPerMillis;
+
+        private final ConcurrentLinkedQueue<Pending> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicLong pendingMessages = new AtomicLong();
+
+        private final AtomicLong pendingBytes = new AtomicLong();
+
+        private final AtomicLong acknowledged = new AtomicLong();
+
+        private final MessageQueue messageQueue = new MessageQueue(TOPIC, "broker-a", 0);
+
+        private volatile long maxPendingMessages;
+
+        private volatile long maxPendingBytes;
+
+        private volatile boolean running = true;
+
+        private long ticks;
+
+        private long idleTicks;
+
+        private Thread ackThread;
+
+        SlowProducer(int acksPerMillis) {
+            this.acksPerMillis = acksPerMillis;
+        }
+
+        @Override
+        public void start() {
+            ackThread = new Thread(() -> {
+                // skip the ticks before the task has started polling
+                while (running && pending.isEmpty()) {
+                    sleep(1);
+                }
+                while (running) {
+                    sleep(1);
+                    ticks++;
+                    if (pending.isEmpty()) {
+                        idleTicks++;
+                    }
+                    for (int i = 0; i < acksPerMillis; i++) {
+                        Pending head = pending.poll();
+                        if (null == head) {
+                            break;
+                        }
+                        head.complete();
+                    }
+                }
+            });
+            ackThread.start();
+        }
+
+        @Override
+        public void shutdown() {
+            running = false;
+            try {
+                ackThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void send(Message msg, SendCallback sendCallback) {
+            Pending item = new Pending(sendCallback, msg.getBody().length);
+            maxPendingMessages = Math.max(maxPendingMessages, pendingMessages.incrementAndGet());
+            maxPendingBytes = Math.max(maxPendingBytes, pendingBytes.addAndGet(item.bytes));
+            pending.add(item);
+        }
+
+        double getIdleRatio() {
+            return 0 == ticks ? 1 : (double) idleTicks / ticks;
+        }
+
+        private class Pending {
+
+            private final SendCallback sendCallback;
+
+            private final long bytes;
+
+            Pending(SendCallback sendCallback, long bytes) {
+                this.sendCallback = sendCallback;
+                this.bytes = bytes;
+            }
+
+            void complete() {
+                pendingMessages.decrementAndGet();
+                pendingBytes.addAndGet(-bytes);
+                acknowledged.incrementAndGet();
+                sendCallback.onSuccess(new SendResult(SendStatus.SEND_OK, "msgId", "offsetMsgId", messageQueue, 0));
+            }
+        }
+    }
+}
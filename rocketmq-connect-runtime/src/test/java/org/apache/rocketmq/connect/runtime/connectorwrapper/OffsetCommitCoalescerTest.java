@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OffsetCommitCoalescerTest {
+
+    private static final String TOPIC = "testTopic";
+
+    private final MessageQueue queue0 = new MessageQueue(TOPIC, "broker-a", 0);
+
+    private final MessageQueue queue1 = new MessageQueue(TOPIC, "broker-a", 1);
+
+    @Test
+    public void testCommitDirtyQueuesOnly() {
+        OffsetCommitCoalescer coalescer = new OffsetCommitCoalescer(1000, 0, 0);
+        coalescer.update(queue0, 10, 10);
+        coalescer.update(queue0, 20, 10);
+        assertThat(coalescer.getDirtyQueueNums()).isEqualTo(1);
+
+        Map<RecordPartition, RecordOffset> offsets = coalescer.drain(0);
+        assertThat(offsets).hasSize(1);
+        assertThat(ConnectUtil.convertToOffset(offsets.get(ConnectUtil.convertToRecordPartition(queue0))))
+            .isEqualTo(20L);
+        assertThat(coalescer.drain(0)).isEmpty();
+
+        coalescer.update(queue1, 5, 5);
+        coalescer.retainAll(Collections.singletonList(queue0));
+        assertThat(coalescer.drain(0)).isEmpty();
+    }
+
+    @Test
+    public void testCommitDueByTimeOrRecords() {
+        OffsetCommitCoalescer coalescer = new OffsetCommitCoalescer(1000, 100, 0);
+        assertThat(coalescer.isCommitDue(999)).isFalse();
+        assertThat(coalescer.isCommitDue(1000)).isTrue();
+
+        coalescer.drain(1000);
+        coalescer.update(queue0, 99, 99);
+        assertThat(coalescer.isCommitDue(1001)).isFalse();
+        coalescer.update(queue1, 1, 1);
+        assertThat(coalescer.isCommitDue(1001)).isTrue();
+
+        // the interval restarts with the commit
+        coalescer.drain(1001);
+        assertThat(coalescer.isCommitDue(1500)).isFalse();
+        assertThat(coalescer.isCommitDue(2001)).isTrue();
+
+        OffsetCommitCoalescer byTime = new OffsetCommitCoalescer(1000, 0, 0);
+        byTime.update(queue0, 100000, 100000);
+        assertThat(byTime.isCommitDue(1)).isFalse();
+    }
+
+    /**
+     * Commit 1000 assigned queues of which 1% advance between commits, only the advanced queues are converted and
+     * committed. OffsetCommitBenchmark compares the time per commit against converting every queue.
+     */
+    @Test
+    public void testCommitActiveQueues() {
+        List<MessageQueue> queues = new ArrayList<>();
+        Map<MessageQueue, Long> messageQueuesOffsetMap = new HashMap<>();
+        Map<RecordPartition, MessageQueue> partitionQueues = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            MessageQueue messageQueue = new MessageQueue(TOPIC + i % 10, "broker-" + i % 4, i);
+            queues.add(messageQueue);
+            messageQueuesOffsetMap.put(messageQueue, 0L);
+            partitionQueues.put(ConnectUtil.convertToRecordPartition(messageQueue), messageQueue);
+        }
+        OffsetCommitCoalescer coalescer = new OffsetCommitCoalescer(0, 0, 0);
+        int commits = 200;
+        int activeQueues = queues.size() / 100;
+        int commitNums = 0;
+        long dirtyEntries = 0;
+        for (int commit = 0; commit < commits; commit++) {
+            for (int i = 0; i < activeQueues; i++) {
+                MessageQueue messageQueue = queues.get((commit * 7 + i * 100) % queues.size());
+                long offset = messageQueuesOffsetMap.get(messageQueue) + 32;
+                messageQueuesOffsetMap.put(messageQueue, offset);
+                coalescer.update(messageQueue, offset, 32);
+            }
+            Map<RecordPartition, RecordOffset> offsets = coalescer.drain(commit);
+            for (Map.Entry<RecordPartition, RecordOffset> entry : offsets.entrySet()) {
+                MessageQueue messageQueue = partitionQueues.get(entry.getKey());
+                assertThat(ConnectUtil.convertToOffset(entry.getValue()))
+                    .isEqualTo(messageQueuesOffsetMap.get(messageQueue));
+            }
+            if (!offsets.isEmpty()) {
+                commitNums++;
+            }
+            dirtyEntries += offsets.size();
+        }
+        assertThat(commitNums).isEqualTo(commits);
+        assertThat(dirtyEntries).isEqualTo((long) commits * activeQueues);
+        assertThat(coalescer.getDirtyQueueNums()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.rocketmq.client.consumer.DefaultMQPullConsumer;
+import org.apache.rocketmq.client.consumer.PullCallback;
+import org.apache.rocketmq.client.consumer.PullResult;
+import org.apache.rocketmq.client.consumer.PullStatus;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.connect.runtime.utils.TestUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelPullEngineTest {
+
+    private static final String TOPIC = "testTopic";
+
+    private static final int MAX_MESSAGE_NUM = 32;
+
+    private final MessageQueue slowQueue = new MessageQueue(TOPIC, "broker-a", 0);
+
+    private final List<MessageQueue> fastQueues = new ArrayList<>();
+
+    private TestPullConsumer consumer;
+
+    private ParallelPullEngine pullEngine;
+
+    @Before
+    public void init() {
+        Map<MessageQueue, Long> latencies = new HashMap<>();
+        // the slow queue has no new message, every pull on it blocks until the long polling times out
+        latencies.put(slowQueue, 100L);
+        for (int i = 1; i < 4; i++) {
+            MessageQueue messageQueue = new MessageQueue(TOPIC, "broker-a", i);
+            fastQueues.add(messageQueue);
+            latencies.put(messageQueue, 2L);
+        }
+        consumer = new TestPullConsumer(latencies, Collections.singleton(slowQueue));
+    }
+
+    @After
+    public void destroy() {
+        if (null != pullEngine) {
+            pullEngine.shutdown();
+        }
+        consumer.scheduler.shutdownNow();
+    }
+
+    @Test
+    public void testPerQueueOrder() throws Exception {
+        pullEngine = new ParallelPullEngine(consumer, MAX_MESSAGE_NUM, 8);
+        Map<MessageQueue, Long> offsets = assignedOffsets();
+        Map<MessageQueue, Long> expectedOffsets = new HashMap<>(offsets);
+        int received = 0;
+        while (received < 2000) {
+            pullEngine.dispatch(offsets, Collections.emptySet());
+            assertThat(pullEngine.getUsedSlots()).isLessThanOrEqualTo(8);
+            for (ParallelPullEngine.PulledMessages pulledMessages : pullEngine.drain(500, 256)) {
+                PullResult pullResult = pulledMessages.getPullResult();
+                if (PullStatus.FOUND != pullResult.getPullStatus()) {
+                    continue;
+                }
+                MessageQueue messageQueue = pulledMessages.getMessageQueue();
+                for (MessageExt message : pullResult.getMsgFoundList()) {
+                    assertThat(message.getQueueOffset()).isEqualTo(expectedOffsets.get(messageQueue));
+                    expectedOffsets.put(messageQueue, message.getQueueOffset() + 1);
+                    received++;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testResetOffsetDiscardsPulledResults() throws Exception {
+        pullEngine = new ParallelPullEngine(consumer, MAX_MESSAGE_NUM, 8);
+        Map<MessageQueue, Long> offsets = assignedOffsets();
+        MessageQueue messageQueue = fastQueues.get(0);
+        pullEngine.dispatch(offsets, Collections.emptySet());
+        TimeUnit.MILLISECONDS.sleep(50);
+        pullEngine.resetOffset(messageQueue, 1000L);
+        boolean found = false;
+        while (!found) {
+            pullEngine.dispatch(offsets, Collections.emptySet());
+            for (ParallelPullEngine.PulledMessages pulledMessages : pullEngine.drain(500, 256)) {
+                if (pulledMessages.getMessageQueue().equals(messageQueue)) {
+                    assertThat(pulledMessages.getPullOffset()).isEqualTo(1000L);
+                    assertThat(pulledMessages.getPullResult().getMsgFoundList().get(0).getQueueOffset()).isEqualTo(1000L);
+                    found = true;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPausedQueueNotPulled() throws Exception {
+        pullEngine = new ParallelPullEngine(consumer, MAX_MESSAGE_NUM, 8);
+        Map<MessageQueue, Long> offsets = assignedOffsets();
+        Set<MessageQueue> pausedQueues = new HashSet<>(fastQueues);
+        for (int i = 0; i < 5; i++) {
+            pullEngine.dispatch(offsets, pausedQueues);
+            pullEngine.drain(50, 256);
+        }
+        for (MessageQueue messageQueue : fastQueues) {
+            assertThat(consumer.pullTimes.containsKey(messageQueue)).isFalse();
+        }
+        assertThat(consumer.pullTimes.get(slowQueue).get()).isGreaterThan(0);
+    }
+
+    /**
+     * Compares wall clock time of the serial and the parallel pull.
+     */
+    @Test
+    public void testSkewedQueuesThroughput() throws Exception {
+        TestUtils.assumeBenchmark();
+        int targetMessages = 1500;
+        Map<MessageQueue, Long> offsets = assignedOffsets();
+
+        // pull queue by queue as the serial pull loop does
+        long begin = System.nanoTime();
+        int received = 0;
+        while (received < targetMessages) {
+            for (Map.Entry<MessageQueue, Long> entry : offsets.entrySet()) {
+                PullResult pullResult = consumer.pullBlockIfNotFound(entry.getKey(), "*", entry.getValue(), MAX_MESSAGE_NUM);
+                if (PullStatus.FOUND == pullResult.getPullStatus()) {
+                    received += pullResult.getMsgFoundList().size();
+                    entry.setValue(pullResult.getNextBeginOffset());
+                }
+            }
+        }
+        long serialNanos = System.nanoTime() - begin;
+
+        offsets = assignedOffsets();
+        pullEngine = new ParallelPullEngine(consumer, MAX_MESSAGE_NUM, 16);
+        begin = System.nanoTime();
+        received = 0;
+        while (received < targetMessages) {
+            pullEngine.dispatch(offsets, Collections.emptySet());
+            for (ParallelPullEngine.PulledMessages pulledMessages : pullEngine.drain(500, 256)) {
+                if (PullStatus.FOUND == pulledMessages.getPullResult().getPullStatus()) {
+                    received += pulledMessages.getPullResult().getMsgFoundList().size();
+                }
+            }
+        }
+        long parallelNanos = System.nanoTime() - begin;
+
+        assertThat(parallelNanos).as("parallel pull %d ms, serial pull %d ms", parallelNanos / 1000000,
+            serialNanos / 1000000).isLessThan(serialNanos);
+    }
+
+    private Map<MessageQueue, Long> assignedOffsets() {
+        Map<MessageQueue, Long> offsets = new ConcurrentHashMap<>();
+        offsets.put(slowQueue, 0L);
+        for (MessageQueue messageQueue : fastQueues) {
+            offsets.put(messageQueue, 0L);
+        }
+        return offsets;
+    }
+
+    /**
+     * An in-process pull consumer which serves messages after a fixed latency per queue.
+     */
+    private static class TestPullConsumer extends DefaultMQPullConsumer {
+
+        private final Map<MessageQueue, Long> latencies;
+
+        private final Set<MessageQueue> emptyQueues;
+
+        private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
+
+        private final Map<MessageQueue, AtomicInteger> pullTimes = new ConcurrentHashMap<>();
+
+        TestPullConsumer(Map<MessageQueue, Long> latencies, Set<MessageQueue> emptyQueues) {
+            this.latencies = latencies;
+            this.emptyQueues = emptyQueues;
+        }
+
+        @Override
+        public PullResult pullBlockIfNotFound(MessageQueue mq, String subExpression, long offset,
+            int maxNums) throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(latencies.get(mq));
+            return pullResult(mq, offset, maxNums);
+        }
+
+        @Override
+        public void pullBlockIfNotFound(MessageQueue mq, String subExpression, long offset, int maxNums,
+            PullCallback pullCallback) {
+            scheduler.schedule(() -> pullCallback.onSuccess(pullResult(mq, offset, maxNums)),
+                latencies.get(mq), TimeUnit.MILLISECONDS);
+        }
+
+        private PullResult pullResult(MessageQueue mq, long offset, int maxNums) {
+            pullTimes.computeIfAbsent(mq, key -> new AtomicInteger()).incrementAndGet();
+            if (emptyQueues.contains(mq)) {
+                return new PullResult(PullStatus.NO_NEW_MSG, offset, 0, offset, null);
+            }
+            List<MessageExt> messages = new ArrayList<>(maxNums);
+            for (int i = 0; i < maxNums; i++) {
+                MessageExt message = new MessageExt();
+                message.setTopic(mq.getTopic());
+                message.setBrokerName(mq.getBrokerName());
+                message.setQueueId(mq.getQueueId());
+                message.setQueueOffset(offset + i);
+                message.setBody(("body" + (offset + i)).getBytes());
+                messages.add(message);
+            }
+            return new PullResult(PullStatus.FOUND, offset + maxNums, 0, offset + maxNums, messages);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.rocketmq.client.consumer.DefaultMQPullConsumer;
+import org.apache.rocketmq.client.consumer.PullResult;
+import org.apache.rocketmq.client.consumer.PullStatus;
+import org.apache.rocketmq.client.exception.MQBrokerException;
+import org.apache.rocketmq.common.message.MessageExt;
+import org.apache.rocketmq.common.message.MessageQueue;
+import org.apache.rocketmq.connect.runtime.utils.TestUtils;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueuePullBackoffTest {
+
+    private static final String TOPIC = "testTopic";
+
+    private static final int MAX_MESSAGE_NUM = 32;
+
+    private final MessageQueue queue0 = new MessageQueue(TOPIC, "broker-a", 0);
+
+    private final MessageQueue queue1 = new MessageQueue(TOPIC, "broker-a", 1);
+
+    @Test
+    public void testExponentialBackoff() {
+        QueuePullBackoff pullBackoff = new QueuePullBackoff(100, 10000);
+        assertThat(pullBackoff.backoffMs(1, 0.5)).isEqualTo(100);
+        assertThat(pullBackoff.backoffMs(2, 0.5)).isEqualTo(200);
+        assertThat(pullBackoff.backoffMs(5, 0.5)).isEqualTo(1600);
+        assertThat(pullBackoff.backoffMs(8, 0.5)).isEqualTo(10000);
+        assertThat(pullBackoff.backoffMs(100, 0.5)).isEqualTo(10000);
+        assertThat(pullBackoff.backoffMs(1, 0)).isEqualTo(80);
+        assertThat(pullBackoff.backoffMs(1, 0.9999)).isEqualTo(119);
+        assertThat(pullBackoff.backoffMs(100, 0.9999)).isEqualTo(11999);
+    }
+
+    @Test
+    public void testBackoffPerQueue() {
+        QueuePullBackoff pullBackoff = new QueuePullBackoff(100, 10000);
+        long now = 1000;
+        long backoffMs = pullBackoff.onFailure(queue0, now);
+        assertThat(backoffMs).isBetween(80L, 120L);
+        assertThat(pullBackoff.isBackingOff(queue0, now)).isTrue();
+        assertThat(pullBackoff.isBackingOff(queue0, now + backoffMs)).isFalse();
+        assertThat(pullBackoff.isBackingOff(queue1, now)).isFalse();
+        assertThat(pullBackoff.getBackingOffQueues(now)).containsOnly(queue0);
+
+        // one healthy queue is enough to keep pulling
+        assertThat(pullBackoff.getRetryDelay(Arrays.asList(queue0, queue1), now)).isEqualTo(0);
+        assertThat(pullBackoff.getRetryDelay(Collections.singletonList(queue0), now)).isEqualTo(backoffMs);
+
+        long secondBackoffMs = pullBackoff.onFailure(queue0, now + backoffMs);
+        assertThat(secondBackoffMs).isBetween(160L, 240L);
+        assertThat(pullBackoff.getBackoffStates().get(queue0).getFailures()).isEqualTo(2);
+
+        pullBackoff.onSuccess(queue0);
+        assertThat(pullBackoff.isBackingOff(queue0, now)).isFalse();
+        assertThat(pullBackoff.onFailure(queue0, now)).isBetween(80L, 120L);
+
+        pullBackoff.retainAll(Collections.singletonList(queue1));
+        assertThat(pullBackoff.getBackoffStates()).isEmpty();
+    }
+
+    @Test
+    public void testFailingQueueThroughput() throws Exception {
+        TestUtils.assumeBenchmark();
+        List<MessageQueue> queues = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            queues.add(new MessageQueue(TOPIC, "broker-" + (i % 2 == 0 ? "a" : "b"), i));
+        }
+        long durationMills = 1000;
+
+        TestPullConsumer healthyConsumer = new TestPullConsumer(null);
+        long healthy = pullLoop(healthyConsumer, queues, null, durationMills);
+
+        TestPullConsumer failingConsumer = new TestPullConsumer(queues.get(0));
+        long withoutBackoff = pullLoop(failingConsumer, queues, null, durationMills);
+        int pullsWithoutBackoff = failingConsumer.failedPullTimes;
+
+        failingConsumer = new TestPullConsumer(queues.get(0));
+        long withBackoff = pullLoop(failingConsumer, queues, new QueuePullBackoff(20, 500), durationMills);
+        int pullsWithBackoff = failingConsumer.failedPullTimes;
+
+        assertThat(pullsWithBackoff).isLessThan(pullsWithoutBackoff);
+        // seven of eight queues are healthy, their throughput is kept
+        assertThat(withBackoff).as("healthy %d, with backoff %d messages", healthy, withBackoff)
+            .isGreaterThan(healthy * 7 / 8 * 8 / 10);
+        assertThat(withBackoff).as("without backoff %d, with backoff %d messages", withoutBackoff, withBackoff)
+            .isGreaterThan(withoutBackoff);
+    }
+
+    /**
+     * Pull queue by queue as the serial pull loop of the sink task does.
+     */
+    private static long pullLoop(TestPullConsumer consumer, List<MessageQueue> queues,
+        QueuePullBackoff pullBackoff, long durationMills) throws InterruptedException {
+        Map<MessageQueue, Long> offsets = new LinkedHashMap<>();
+        for (MessageQueue messageQueue : queues) {
+            offsets.put(messageQueue, 0L);
+        }
+        long received = 0;
+        long deadline = System.currentTimeMillis() + durationMills;
+        while (System.currentTimeMillis() < deadline) {
+            if (null != pullBackoff) {
+                long retryDelay = pullBackoff.getRetryDelay(offsets.keySet(), System.currentTimeMillis());
+                if (retryDelay > 0) {
+                    TimeUnit.MILLISECONDS.sleep(retryDelay);
+                }
+            }
+            for (Map.Entry<MessageQueue, Long> entry : offsets.entrySet()) {
+                if (null != pullBackoff && pullBackoff.isBackingOff(entry.getKey(), System.currentTimeMillis())) {
+                    continue;
+                }
+                try {
+                    PullResult pullResult = consumer.pullBlockIfNotFound(entry.getKey(), "*", entry.getValue(), MAX_MESSAGE_NUM);
+                    if (null != pullBackoff) {
+                        pullBackoff.onSuccess(entry.getKey());
+                    }
+                    received += pullResult.getMsgFoundList().size();
+                    entry.setValue(pullResult.getNextBeginOffset());
+                } catch (MQBrokerException e) {
+                    if (null != pullBackoff) {
+                        pullBackoff.onFailure(entry.getKey(), System.currentTimeMillis());
+                    }
+                }
+            }
+        }
+        return received;
+    }
+
+    /**
+     * An in-process pull consumer, pulls on the failing queue time out after 20 ms and the others are served at once.
+     */
+    private static class TestPullConsumer extends DefaultMQPullConsumer {
+
+        private final MessageQueue failingQueue;
+
+        private int failedPullTimes;
+
+        TestPullConsumer(MessageQueue failingQueue) {
+            this.failingQueue = failingQueue;
+        }
+
+        @Override
+        public PullResult pullBlockIfNotFound(MessageQueue mq, String subExpression, long offset,
+            int maxNums) throws MQBrokerException, InterruptedException {
+            if (mq.equals(failingQueue)) {
+                failedPullTimes++;
+                TimeUnit.MILLISECONDS.sleep(20);
+                throw new MQBrokerException(1, "broker not available");
+            }
+            TimeUnit.MILLISECONDS.sleep(1);
+            List<MessageExt> messages = new ArrayList<>(maxNums);
+            for (int i = 0; i < maxNums; i++) {
+                MessageExt message = new MessageExt();
+                message.setTopic(mq.getTopic());
+                message.setQueueId(mq.getQueueId());
+                message.setQueueOffset(offset + i);
+                messages.add(message);
+            }
+            return new PullResult(PullStatus.FOUND, offset + maxNums, 0, offset + maxNums, messages);
+        }
+    }
+}
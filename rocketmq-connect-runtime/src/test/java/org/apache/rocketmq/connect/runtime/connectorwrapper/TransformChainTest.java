@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import io.openmessaging.KeyValue;
+import io.openmessaging.connector.api.component.ComponentContext;
+import io.openmessaging.connector.api.component.Transform;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import io.openmessaging.connector.api.data.SchemaBuilder;
+import io.openmessaging.internal.DefaultKeyValue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
+import org.apache.rocketmq.connect.runtime.utils.Plugin;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TransformChainTest {
+
+    @Test
+    public void testNoTransform() {
+        TransformChain<ConnectRecord> transformChain = newChain("");
+        List<ConnectRecord> records = newRecords(10);
+        assertThat(transformChain.doTransforms(records)).isSameAs(records);
+    }
+
+    @Test
+    public void testSingleRecordTransforms() {
+        TransformChain<ConnectRecord> transformChain = newChain("suffix,dropOdd",
+            "suffix", SuffixTransform.class, "dropOdd", DropOddTransform.class);
+        List<ConnectRecord> records = Collections.unmodifiableList(newRecords(10));
+        List<ConnectRecord> transformed = transformChain.doTransforms(records);
+        assertThat(transformed).hasSize(5);
+        assertThat(transformed.get(0).getData()).isEqualTo("0:suffix");
+        assertThat(transformed.get(4).getData()).isEqualTo("8:suffix");
+        assertThat(records).hasSize(10);
+
+        // the per record entry gives the same result
+        assertThat(transformChain.doTransforms(newRecords(2).get(0)).getData()).isEqualTo("0:suffix");
+        assertThat(transformChain.doTransforms(newRecords(2).get(1))).isNull();
+    }
+
+    @Test
+    public void testBatchTransform() {
+        CountingBatchTransform.BATCHES.set(0);
+        TransformChain<ConnectRecord> transformChain = newChain("suffix,limit,suffix2",
+            "suffix", SuffixTransform.class, "limit", CountingBatchTransform.class, "suffix2", SuffixTransform.class);
+        List<ConnectRecord> transformed = transformChain.doTransforms(newRecords(1000));
+        // the batch transform is called once for the whole batch
+        assertThat(CountingBatchTransform.BATCHES.get()).isEqualTo(1);
+        assertThat(transformed).hasSize(3);
+        assertThat(transformed.get(2).getData()).isEqualTo("2:suffix:suffix");
+
+        assertThat(transformChain.doTransforms(newRecords(1).get(0)).getData()).isEqualTo("0:suffix:suffix");
+        assertThat(CountingBatchTransform.BATCHES.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testDropWholeBatch() {
+        TransformChain<ConnectRecord> transformChain = newChain("dropAll,suffix",
+            "dropAll", DropAllTransform.class, "suffix", SuffixTransform.class);
+        assertThat(transformChain.doTransforms(newRecords(10))).isEmpty();
+    }
+
+    private static TransformChain<ConnectRecord> newChain(String transforms, Object... nameAndClasses) {
+        KeyValue config = new DefaultKeyValue();
+        config.put(RuntimeConfigDefine.TRANSFORMS, transforms);
+        for (int i = 0; i < nameAndClasses.length; i += 2) {
+            config.put(RuntimeConfigDefine.TRANSFORMS + "-" + nameAndClasses[i] + "-class",
+                ((Class<?>) nameAndClasses[i + 1]).getName());
+        }
+        return new TransformChain<>(config, new Plugin(new ArrayList<>()));
+    }
+
+    private static List<ConnectRecord> newRecords(int recordNums) {
+        List<ConnectRecord> records = new ArrayList<>(recordNums);
+        for (int i = 0; i < recordNums; i++) {
+            records.add(new ConnectRecord(null, null, System.currentTimeMillis(), SchemaBuilder.string().build(),
+                String.valueOf(i)));
+        }
+        return records;
+    }
+
+    public static class SuffixTransform extends AbstractTestTransform implements Transform<ConnectRecord> {
+
+        @Override
+        public ConnectRecord doTransform(ConnectRecord record) {
+            record.setData(record.getData() + ":suffix");
+            return record;
+        }
+    }
+
+    public static class DropOddTransform extends AbstractTestTransform implements Transform<ConnectRecord> {
+
+        @Override
+        public ConnectRecord doTransform(ConnectRecord record) {
+            String data = String.valueOf(record.getData());
+            return Integer.parseInt(data.substring(0, data.indexOf(':'))) % 2 == 0 ? record : null;
+        }
+    }
+
+    /**
+     * Keeps the first 3 records of every batch.
+     */
+    public static class CountingBatchTransform extends AbstractTestTransform implements BatchTransform<ConnectRecord> {
+
+        static final AtomicInteger BATCHES = new AtomicInteger();
+
+        @Override
+        public List<ConnectRecord> doTransform(List<ConnectRecord> records) {
+            BATCHES.incrementAndGet();
+            return records.size() > 3 ? records.subList(0, 3) : records;
+        }
+    }
+
+    public static class DropAllTransform extends AbstractTestTransform implements BatchTransform<ConnectRecord> {
+
+        @Override
+        public List<ConnectRecord> doTransform(List<ConnectRecord> records) {
+            return null;
+        }
+    }
+
+    public abstract static class AbstractTestTransform {
+
+        public void validate(KeyValue config) {
+        }
+
+        public void init(KeyValue config) {
+        }
+
+        public void start(ComponentContext componentContext) {
+        }
+
+        public void stop() {
+        }
+    }
+}
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import io.openmessaging.KeyValue;
+import io.openmessaging.connector.api.component.task.sink.SinkTask;
+import io.openmessaging.connector.api.component.task.sink.SinkTaskContext;
+import io.openmessaging.connector.api.component.task.source.SourceTask;
+import io.openmessaging.connector.api.component.task.source.SourceTaskContext;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import io.openmessaging.connector.api.data.SchemaBuilder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
+import org.apache.rocketmq.connect.runtime.connectorwrapper.testimpl.TestPositionManageServiceImpl;
+import org.apache.rocketmq.connect.runtime.utils.TestUtils;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WorkerDirectTaskTest {
+
+    private static final String PARTITION_KEY = "partition";
+
+    private static final String OFFSET_KEY = "offset";
+
+    private static final int PARTITION_NUMS = 4;
+
+    private static final int BATCH_SIZE = 100;
+
+    @Test
+    public void testPositionCommittedAfterPut() throws Exception {
+        for (boolean pipeline : new boolean[] {false, true}) {
+            LatencySinkTask sinkTask = new LatencySinkTask(1);
+            CheckedPositionService positionService = new CheckedPositionService(sinkTask);
+            WorkerDirectTask task = directTask(new LatencySourceTask(1), sinkTask, positionService, pipeline);
+            Thread thread = new Thread(task);
+            thread.start();
+            waitFor(() -> sinkTask.putNums.get() >= 2000);
+            task.stop();
+            thread.join();
+
+            assertThat(task.getState()).isEqualTo(WorkerTaskState.STOPPED);
+            assertThat(positionService.violations.get()).isEqualTo(0);
+            assertThat(positionService.positions).hasSize(PARTITION_NUMS);
+            assertThat(sinkTask.outOfOrderNums.get()).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void testPauseAndResume() throws Exception {
+        RecordPartition paused = partition(0);
+        LatencySinkTask sinkTask = new LatencySinkTask(1) {
+            @Override
+            public void put(List<ConnectRecord> sinkRecords) {
+                if (putNums.get() == 0) {
+                    context.pause(Collections.singletonList(paused));
+                } else if (putNums.get() >= 1000 && pausedAckedOffset < 0) {
+                    pausedAckedOffset = ackedOffsets.get(paused);
+                    pausedCommittedOffset = offsetOf(positionService.positions.get(paused));
+                    context.resume(Collections.singletonList(paused));
+                }
+                super.put(sinkRecords);
+            }
+        };
+        CheckedPositionService positionService = new CheckedPositionService(sinkTask);
+        sinkTask.positionService = positionService;
+        WorkerDirectTask task = directTask(new LatencySourceTask(1), sinkTask, positionService, true);
+        Thread thread = new Thread(task);
+        thread.start();
+        waitFor(() -> sinkTask.ackedOffsets.getOrDefault(paused, -1L) >= 500);
+        task.stop();
+        thread.join();
+
+        // the paused partition stopped after the first batch, then it was put in order from where it stopped
+        assertThat(sinkTask.pausedAckedOffset).isEqualTo(BATCH_SIZE / PARTITION_NUMS - 1);
+        assertThat(sinkTask.pausedCommittedOffset).isEqualTo(sinkTask.pausedAckedOffset);
+        assertThat(sinkTask.outOfOrderNums.get()).isEqualTo(0);
+        assertThat(positionService.violations.get()).isEqualTo(0);
+        assertThat(positionService.positions).containsKey(paused);
+        assertThat(sinkTask.context.assignment()).hasSize(PARTITION_NUMS).contains(paused);
+    }
+
+    /**
+     * Move 10000 records through a source and a sink that both take 5 ms per batch of 100 records with the serial and
+     * the pipelined direct task, the pipelined one overlaps polls with puts.
+     */
+    @Test
+    public void testPipelineThroughput() throws Exception {
+        TestUtils.assumeBenchmark();
+        Map<Boolean, Double> throughputs = new HashMap<>();
+        for (boolean pipeline : new boolean[] {false, true}) {
+            LatencySinkTask sinkTask = new LatencySinkTask(5);
+            CheckedPositionService positionService = new CheckedPositionService(sinkTask);
+            WorkerDirectTask task = directTask(new LatencySourceTask(5), sinkTask, positionService, pipeline);
+            Thread thread = new Thread(task);
+            long start = System.currentTimeMillis();
+            thread.start();
+            waitFor(() -> sinkTask.putNums.get() >= 10000);
+            long costMs = System.currentTimeMillis() - start;
+            task.stop();
+            thread.join();
+            double throughput = sinkTask.putNums.get() * 1000d / costMs;
+            throughputs.put(pipeline, throughput);
+        }
+        assertThat(throughputs.get(true)).as("serial %.0f, pipelined %.0f records/sec",
+            throughputs.get(false), throughputs.get(true)).isGreaterThan(throughputs.get(false) * 1.4);
+    }
+
+    private static WorkerDirectTask directTask(SourceTask sourceTask, SinkTask sinkTask,
+        TestPositionManageServiceImpl positionService, boolean pipeline) {
+        ConnectKeyValue taskConfig = new ConnectKeyValue();
+        taskConfig.put(RuntimeConfigDefine.CONNECTOR_ID, "direct-connector");
+        taskConfig.put(RuntimeConfigDefine.TASK_ID, "direct-task");
+        taskConfig.put(RuntimeConfigDefine.DIRECT_PIPELINE_ENABLE, String.valueOf(pipeline));
+        taskConfig.put(RuntimeConfigDefine.DIRECT_PIPELINE_BUFFER_SIZE, 4);
+        return new WorkerDirectTask("direct-connector", sourceTask, sinkTask, taskConfig, positionService,
+            new AtomicReference<>(WorkerState.STARTED), new TransformChain<>(taskConfig, null));
+    }
+
+    private static RecordPartition partition(int i) {
+        Map<String, String> partition = new HashMap<>();
+        partition.put(PARTITION_KEY, "p" + i);
+        return new RecordPartition(partition);
+    }
+
+    private static long offsetOf(RecordOffset recordOffset) {
+        return Long.parseLong((String) recordOffset.getOffset().get(OFFSET_KEY));
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60 * 1000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+    }
+
+    /**
+     * Takes the given time for every poll of {@link #BATCH_SIZE} records spread over {@link #PARTITION_NUMS}
+     * partitions.
+     */
+    public static class LatencySourceTask extends SourceTask {
+
+        private final long latencyMs;
+
+        private final long[] offsets = new long[PARTITION_NUMS];
+
+        LatencySourceTask(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public List<ConnectRecord> poll() throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(latencyMs);
+            List<ConnectRecord> records = new ArrayList<>(BATCH_SIZE);
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                int partition = i % PARTITION_NUMS;
+                Map<String, String> offset = new HashMap<>();
+                offset.put(OFFSET_KEY, String.valueOf(offsets[partition]++));
+                records.add(new ConnectRecord(partition(partition), new RecordOffset(offset),
+                    System.currentTimeMillis(), SchemaBuilder.string().build(), "record-" + i));
+            }
+            return records;
+        }
+
+        @Override public void validate(KeyValue config) {
+        }
+
+        @Override public void init(KeyValue config) {
+        }
+
+        @Override public void start(SourceTaskContext sourceTaskContext) {
+        }
+
+        @Override public void stop() {
+        }
+
+        @Override public void pause() {
+        }
+
+        @Override public void resume() {
+        }
+    }
+
+    /**
+     * Takes the given time for every put, checks the records of every partition arrive in order.
+     */
+    public static class LatencySinkTask extends SinkTask {
+
+        private final long latencyMs;
+
+        final AtomicInteger putNums = new AtomicInteger();
+
+        final AtomicInteger outOfOrderNums = new AtomicInteger();
+
+        final Map<RecordPartition, Long> ackedOffsets = new ConcurrentHashMap<>();
+
+        SinkTaskContext context;
+
+        CheckedPositionService positionService;
+
+        volatile long pausedAckedOffset = -1;
+
+        volatile long pausedCommittedOffset = -1;
+
+        LatencySinkTask(long latencyMs) {
+            this.latencyMs = latencyMs;
+        }
+
+        @Override
+        public void put(List<ConnectRecord> sinkRecords) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (ConnectRecord record : sinkRecords) {
+                RecordPartition partition = record.getPosition().getPartition();
+                long offset = offsetOf(record.getPosition().getOffset());
+                if (offset != ackedOffsets.getOrDefault(partition, -1L) + 1) {
+                    outOfOrderNums.incrementAndGet();
+                }
+                ackedOffsets.put(partition, offset);
+            }
+            putNums.addAndGet(sinkRecords.size());
+        }
+
+        @Override public void validate(KeyValue config) {
+        }
+
+        @Override public void init(KeyValue config) {
+        }
+
+        @Override public void start(SinkTaskContext sinkTaskContext) {
+            this.context = sinkTaskContext;
+        }
+
+        @Override public void stop() {
+        }
+
+        @Override public void pause() {
+        }
+
+        @Override public void resume() {
+        }
+    }
+
+    /**
+     * Counts the positions committed before the sink task put the record at the position.
+     */
+    private static class CheckedPositionService extends TestPositionManageServiceImpl {
+
+        private final LatencySinkTask sinkTask;
+
+        private final Map<RecordPartition, RecordOffset> positions = new ConcurrentHashMap<>();
+
+        private final AtomicInteger violations = new AtomicInteger();
+
+        CheckedPositionService(LatencySinkTask sinkTask) {
+            this.sinkTask = sinkTask;
+        }
+
+        @Override
+        public void putPosition(Map<RecordPartition, RecordOffset> positions) {
+            positions.forEach(this::putPosition);
+        }
+
+        @Override
+        public void putPosition(RecordPartition partition, RecordOffset position) {
+            if (offsetOf(position) > sinkTask.ackedOffsets.getOrDefault(partition, -1L)) {
+                violations.incrementAndGet();
+            }
+            positions.put(partition, position);
+        }
+    }
+}
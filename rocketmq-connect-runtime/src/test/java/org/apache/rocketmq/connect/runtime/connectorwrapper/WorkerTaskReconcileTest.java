@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.connectorwrapper;
+
+import io.openmessaging.KeyValue;
+import io.openmessaging.connector.api.component.task.sink.SinkTask;
+import io.openmessaging.connector.api.component.task.sink.SinkTaskContext;
+import io.openmessaging.connector.api.component.task.source.SourceTask;
+import io.openmessaging.connector.api.component.task.source.SourceTaskContext;
+import io.openmessaging.connector.api.data.ConnectRecord;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
+import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
+import org.apache.rocketmq.connect.runtime.connectorwrapper.testimpl.TestPositionManageServiceImpl;
+import org.apache.rocketmq.connect.runtime.utils.Plugin;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WorkerTaskReconcileTest {
+
+    private static final int TASK_NUMS = 5000;
+
+    private static final int CONNECTOR_NUMS = 50;
+
+    private Worker worker;
+
+    @Before
+    public void init() {
+        ConnectConfig connectConfig = new ConnectConfig();
+        connectConfig.setWorkerId("testWorker");
+        worker = new Worker(connectConfig, new TestPositionManageServiceImpl(), null, new Plugin(new ArrayList<>()),
+            null, null);
+        worker.start();
+    }
+
+    @After
+    public void destroy() {
+        worker.stop();
+    }
+
+    @Test
+    public void testFingerprint() {
+        ConnectKeyValue config = taskConfig(1, 0);
+        ConnectKeyValue sameConfig = taskConfig(1, 0);
+        assertThat(new TaskFingerprint("connector", config)).isEqualTo(new TaskFingerprint("connector", sameConfig));
+        assertThat(new TaskFingerprint("connector", config).hashCode())
+            .isEqualTo(new TaskFingerprint("connector", sameConfig).hashCode());
+        assertThat(new TaskFingerprint("connector", config)).isNotEqualTo(new TaskFingerprint("other", sameConfig));
+        assertThat(new TaskFingerprint("connector", config)).isNotEqualTo(new TaskFingerprint("connector",
+            taskConfig(1, 1)));
+    }
+
+    @Test
+    public void testReconcile() throws Exception {
+        worker.startTasks(assignment(0, 10));
+        waitFor(() -> worker.getWorkingTasks().size() == 10);
+
+        // keep half of the tasks and replace the other half
+        Map<String, List<ConnectKeyValue>> assignment = assignment(0, 5);
+        Map<String, List<ConnectKeyValue>> replaced = assignment(1, 5);
+        for (Map.Entry<String, List<ConnectKeyValue>> entry : replaced.entrySet()) {
+            assignment.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).addAll(entry.getValue());
+        }
+        Set<Runnable> keptTasks = new HashSet<>();
+        for (Runnable runnable : worker.getWorkingTasks()) {
+            if (((WorkerTask) runnable).getTaskConfig().getInt("task-nums") < 5) {
+                keptTasks.add(runnable);
+            }
+        }
+        worker.startTasks(assignment);
+        waitFor(() -> worker.getCleanedStoppedTasks().size() == 5 && worker.getWorkingTasks().size() == 10);
+        assertThat(worker.getWorkingTasks().containsAll(keptTasks)).isTrue();
+        assertThat(worker.getErrorTasks()).isEmpty();
+    }
+
+    @Test
+    public void testRestartAssignment() throws Exception {
+        worker.startTasks(assignment(0, TASK_NUMS));
+        waitFor(() -> worker.getWorkingTasks().size() == TASK_NUMS);
+
+        // every task config changes, all tasks are stopped and started again
+        worker.startTasks(assignment(1, TASK_NUMS));
+        waitFor(() -> worker.getCleanedStoppedTasks().size() == TASK_NUMS
+            && worker.getWorkingTasks().size() == TASK_NUMS);
+        for (Runnable runnable : worker.getWorkingTasks()) {
+            assertThat(((WorkerTask) runnable).getTaskConfig().getInt("generation")).isEqualTo(1);
+        }
+
+        // the set difference agrees with the linear scans it replaced
+        Map<String, List<ConnectKeyValue>> assignment = assignment(1, TASK_NUMS);
+        assertThat(diffByScan(assignment, worker.getWorkingTasks())).isEqualTo(0);
+        assertThat(diffByFingerprint(assignment, worker.getWorkingTasks())).isEqualTo(0);
+    }
+
+    private static int diffByScan(Map<String, List<ConnectKeyValue>> assignment, Set<Runnable> tasks) {
+        int newTasks = 0;
+        for (List<ConnectKeyValue> keyValues : assignment.values()) {
+            for (ConnectKeyValue keyValue : keyValues) {
+                boolean found = false;
+                for (Runnable runnable : tasks) {
+                    if (keyValue.equals(((WorkerTask) runnable).getTaskConfig())) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    newTasks++;
+                }
+            }
+        }
+        return newTasks;
+    }
+
+    private static int diffByFingerprint(Map<String, List<ConnectKeyValue>> assignment, Set<Runnable> tasks) {
+        Set<TaskFingerprint> existing = new HashSet<>();
+        for (Runnable runnable : tasks) {
+            WorkerTask workerTask = (WorkerTask) runnable;
+            existing.add(new TaskFingerprint(workerTask.getConnectorName(), workerTask.getTaskConfig()));
+        }
+        int newTasks = 0;
+        for (Map.Entry<String, List<ConnectKeyValue>> entry : assignment.entrySet()) {
+            for (ConnectKeyValue keyValue : entry.getValue()) {
+                if (!existing.contains(new TaskFingerprint(entry.getKey(), keyValue))) {
+                    newTasks++;
+                }
+            }
+        }
+        return newTasks;
+    }
+
+    private static Map<String, List<ConnectKeyValue>> assignment(int generation, int taskNums) {
+        Map<String, List<ConnectKeyValue>> taskConfigs = new HashMap<>();
+        for (int i = 0; i < taskNums; i++) {
+            taskConfigs.computeIfAbsent("connector-" + i % CONNECTOR_NUMS, key -> new ArrayList<>())
+                .add(taskConfig(i, generation));
+        }
+        return taskConfigs;
+    }
+
+    private static ConnectKeyValue taskConfig(int taskNums, int generation) {
+        ConnectKeyValue keyValue = new ConnectKeyValue();
+        keyValue.put(RuntimeConfigDefine.TASK_TYPE, Worker.TaskType.DIRECT.name());
+        keyValue.put(RuntimeConfigDefine.SOURCE_TASK_CLASS, IdleSourceTask.class.getName());
+        keyValue.put(RuntimeConfigDefine.SINK_TASK_CLASS, IdleSinkTask.class.getName());
+        keyValue.put(RuntimeConfigDefine.CONNECTOR_ID, "connector-" + taskNums % CONNECTOR_NUMS);
+        keyValue.put("task-nums", taskNums);
+        keyValue.put("generation", generation);
+        return keyValue;
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60 * 1000;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+    }
+
+    public static class IdleSourceTask extends SourceTask {
+
+        @Override
+        public List<ConnectRecord> poll() throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(1000);
+            return null;
+        }
+
+        @Override public void validate(KeyValue config) {
+        }
+
+        @Override public void init(KeyValue config) {
+        }
+
+        @Override public void start(SourceTaskContext sourceTaskContext) {
+        }
+
+        @Override public void stop() {
+        }
+
+        @Override public void pause() {
+        }
+
+        @Override public void resume() {
+        }
+    }
+
+    public static class IdleSinkTask extends SinkTask {
+
+        @Override
+        public void put(List<ConnectRecord> sinkRecords) {
+        }
+
+        @Override public void validate(KeyValue config) {
+        }
+
+        @Override public void init(KeyValue config) {
+        }
+
+        @Override public void start(SinkTaskContext sinkTaskContext) {
+        }
+
+        @Override public void stop() {
+        }
+
+        @Override public void pause() {
+        }
+
+        @Override public void resume() {
+        }
+    }
+}
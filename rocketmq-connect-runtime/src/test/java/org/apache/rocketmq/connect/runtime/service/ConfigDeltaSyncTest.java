@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.service;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.apache.rocketmq.connect.runtime.common.ConnAndTaskConfigs;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
+import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
+import org.apache.rocketmq.connect.runtime.connectorwrapper.testimpl.TestConnector;
+import org.apache.rocketmq.connect.runtime.converter.ConnAndTaskConfigConverter;
+import org.apache.rocketmq.connect.runtime.converter.JsonConverter;
+import org.apache.rocketmq.connect.runtime.utils.Plugin;
+import org.apache.rocketmq.connect.runtime.utils.TestUtils;
+import org.apache.rocketmq.connect.runtime.utils.datasync.DataSyncCodec;
+import org.apache.rocketmq.connect.runtime.utils.datasync.DataSynchronizer;
+import org.apache.rocketmq.connect.runtime.utils.datasync.JsonDataSyncCodec;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two workers sharing 2k connectors, synchronized through an in memory config topic.
+ */
+public class ConfigDeltaSyncTest {
+
+    private static final int CONNECTOR_NUMS = 2000;
+
+    private static final int UPDATE_NUMS = 50;
+
+    private File baseDir;
+
+    private final List<ConfigManagementServiceImpl> services = new ArrayList<>();
+
+    @Before
+    public void init() {
+        baseDir = new File("target/unit_test_store/testConfigDeltaSync/" + System.nanoTime());
+    }
+
+    @After
+    public void destroy() {
+        for (ConfigManagementServiceImpl service : services) {
+            service.stop();
+        }
+        TestUtils.deleteFile(baseDir);
+    }
+
+    /**
+     * Bytes sent per update, the apply latency per update is measured by ConfigSyncBenchmark.
+     */
+    @Test
+    public void testUpdateBytes() throws Exception {
+        long snapshotBytes = measureUpdates("snapshot");
+        long deltaBytes = measureUpdates("delta");
+        assertThat(deltaBytes * 100).as("snapshot %d bytes, delta %d bytes per update", snapshotBytes, deltaBytes)
+            .isLessThan(snapshotBytes);
+    }
+
+    @Test
+    public void testIdempotentApply() throws Exception {
+        ConfigBus bus = new ConfigBus();
+        ConfigManagementServiceImpl worker1 = createService(bus, "worker1", "delta");
+        ConfigManagementServiceImpl worker2 = createService(bus, "worker2", "delta");
+        worker1.putConnectorConfig("connector", connectorConfig("connector", "v1"));
+        ConnAndTaskConfigs first = bus.last;
+        worker1.putConnectorConfig("connector", connectorConfig("connector", "v2"));
+        ConnAndTaskConfigs second = bus.last;
+        assertThat(worker2.getConnectorConfigs().get("connector").getString("value")).isEqualTo("v2");
+
+        // a replayed or late update changes nothing
+        bus.deliver(ConfigManagementServiceImpl.ConfigChangeEnum.CONNECTOR_CHANGE_KEY.name(), second);
+        bus.deliver(ConfigManagementServiceImpl.ConfigChangeEnum.CONNECTOR_CHANGE_KEY.name(), first);
+        assertThat(worker2.getConnectorConfigs().get("connector").getString("value")).isEqualTo("v2");
+        assertThat(worker2.getConnectorConfigs().get("connector").getLong(RuntimeConfigDefine.CONFIG_VERSION))
+            .isEqualTo(2);
+
+        worker1.removeConnectorConfig("connector");
+        assertThat(worker2.getConnectorConfigs()).isEmpty();
+        assertThat(worker2.computeChecksum()).isEqualTo(worker1.computeChecksum());
+    }
+
+    @Test
+    public void testRepairByChecksum() throws Exception {
+        ConfigBus bus = new ConfigBus();
+        ConfigManagementServiceImpl worker1 = createService(bus, "worker1", "delta");
+        ConfigManagementServiceImpl worker2 = createService(bus, "worker2", "delta");
+        worker1.putConnectorConfig("connector-1", connectorConfig("connector-1", "v1"));
+
+        // worker2 misses an update
+        bus.muted = worker2;
+        worker1.putConnectorConfig("connector-2", connectorConfig("connector-2", "v1"));
+        bus.muted = null;
+        assertThat(worker2.getConnectorConfigs()).doesNotContainKey("connector-2");
+        assertThat(worker2.computeChecksum()).isNotEqualTo(worker1.computeChecksum());
+
+        worker2.sendConfigChecksum();
+        assertThat(worker2.getConnectorConfigs()).containsKey("connector-2");
+        assertThat(worker2.computeChecksum()).isEqualTo(worker1.computeChecksum());
+    }
+
+    @Test
+    public void testTaskLoadSnapshot() {
+        ConfigBus bus = new ConfigBus();
+        ConfigManagementServiceImpl worker1 = createService(bus, "worker1", "delta");
+        ConfigManagementServiceImpl worker2 = createService(bus, "worker2", "delta");
+        worker1.reportTaskLoads(Collections.singletonMap("connector-0", 10d));
+        worker2.reportTaskLoads(Collections.singletonMap("connector-1", 20d));
+        // the reports alone are not allocated from, each worker may have received different ones
+        assertThat(worker1.getTaskLoadSnapshot()).isEmpty();
+        assertThat(worker2.getTaskLoadSnapshot()).isEmpty();
+
+        worker1.publishTaskLoads(Arrays.asList("worker1", "worker2"));
+        ConnAndTaskConfigs first = bus.last;
+        assertThat(worker2.getTaskLoadSnapshot()).isEqualTo(worker1.getTaskLoadSnapshot());
+        assertThat(worker2.getTaskLoadSnapshot().get("worker1")).containsEntry("connector-0", 10d);
+        assertThat(worker2.getTaskLoadSnapshot().get("worker2")).containsEntry("connector-1", 20d);
+
+        // a new report is only used once the leader publishes it, a replayed older snapshot changes nothing
+        worker2.reportTaskLoads(Collections.singletonMap("connector-1", 50d));
+        assertThat(worker2.getTaskLoadSnapshot().get("worker2")).containsEntry("connector-1", 20d);
+        worker1.publishTaskLoads(Arrays.asList("worker1", "worker2"));
+        bus.deliver(ConfigManagementServiceImpl.ConfigChangeEnum.TASK_LOAD_SNAPSHOT_KEY.name(), first);
+        assertThat(worker1.getTaskLoadSnapshot().get("worker2")).containsEntry("connector-1", 50d);
+        assertThat(worker2.getTaskLoadSnapshot()).isEqualTo(worker1.getTaskLoadSnapshot());
+    }
+
+    @Test
+    public void testIsNewer() {
+        ConnectKeyValue old = new ConnectKeyValue();
+        old.put(RuntimeConfigDefine.UPDATE_TIMESTAMP, 2L);
+        old.put(RuntimeConfigDefine.CONFIG_VERSION, 2L);
+        ConnectKeyValue newer = new ConnectKeyValue();
+        newer.put(RuntimeConfigDefine.UPDATE_TIMESTAMP, 1L);
+        newer.put(RuntimeConfigDefine.CONFIG_VERSION, 3L);
+        assertThat(ConfigManagementServiceImpl.isNewer(newer, old)).isTrue();
+        assertThat(ConfigManagementServiceImpl.isNewer(old, newer)).isFalse();
+        assertThat(ConfigManagementServiceImpl.isNewer(old, old)).isFalse();
+
+        // configs written by a worker without versions are compared by update time
+        ConnectKeyValue legacy = new ConnectKeyValue();
+        legacy.put(RuntimeConfigDefine.UPDATE_TIMESTAMP, 3L);
+        assertThat(ConfigManagementServiceImpl.isNewer(legacy, old)).isTrue();
+        assertThat(ConfigManagementServiceImpl.isNewer(old, legacy)).isFalse();
+    }
+
+    /**
+     * @return the bytes sent per connector update
+     */
+    private long measureUpdates(String syncMode) throws Exception {
+        ConfigBus bus = new ConfigBus();
+        ConfigManagementServiceImpl worker1 = createService(bus, syncMode + "-worker1", syncMode);
+        ConfigManagementServiceImpl worker2 = createService(bus, syncMode + "-worker2", syncMode);
+        ConnAndTaskConfigs preload = new ConnAndTaskConfigs();
+        for (int i = 0; i < CONNECTOR_NUMS; i++) {
+            String connectorName = "connector-" + i;
+            ConnectKeyValue config = connectorConfig(connectorName, "v0");
+            config.put(RuntimeConfigDefine.UPDATE_TIMESTAMP, 1L);
+            config.put(RuntimeConfigDefine.CONFIG_VERSION, 1L);
+            preload.getConnectorConfigs().put(connectorName, config);
+            preload.getTaskConfigs().put(connectorName, Collections.singletonList(config));
+        }
+        bus.send(ConfigManagementServiceImpl.ConfigChangeEnum.CONFIG_CHANG_KEY.name(), preload);
+        assertThat(worker2.getConnectorConfigs()).hasSize(CONNECTOR_NUMS);
+
+        bus.bytes = 0;
+        for (int i = 0; i < UPDATE_NUMS; i++) {
+            String connectorName = "connector-" + i;
+            worker1.putConnectorConfig(connectorName, connectorConfig(connectorName, "v1"));
+            assertThat(worker2.getConnectorConfigs().get(connectorName).getString("value")).isEqualTo("v1");
+        }
+        assertThat(worker2.computeChecksum()).isEqualTo(worker1.computeChecksum());
+        return bus.bytes / UPDATE_NUMS;
+    }
+
+    private ConfigManagementServiceImpl createService(ConfigBus bus, String workerId, String syncMode) {
+        ConnectConfig connectConfig = new ConnectConfig();
+        connectConfig.setWorkerId(workerId);
+        connectConfig.setStorePathRootDir(new File(baseDir, workerId).getPath());
+        connectConfig.setConfigSyncMode(syncMode);
+        ConfigManagementServiceImpl service = new ConfigManagementServiceImpl(connectConfig,
+            new Plugin(new ArrayList<>()), bus);
+        bus.services.add(service);
+        services.add(service);
+        service.start();
+        return service;
+    }
+
+    private static ConnectKeyValue connectorConfig(String connectorName, String value) {
+        ConnectKeyValue config = new ConnectKeyValue();
+        config.put(RuntimeConfigDefine.CONNECTOR_CLASS, TestConnector.class.getName());
+        config.put(RuntimeConfigDefine.CONNECT_TOPICNAME, "topic-" + connectorName);
+        config.put("value", value);
+        return config;
+    }
+
+    /**
+     * Delivers every message, encoded as on the config topic, to all workers including the sender.
+     */
+    private static class ConfigBus implements DataSynchronizer<String, ConnAndTaskConfigs> {
+
+        private final JsonConverter keyConverter = new JsonConverter();
+
+        private final ConnAndTaskConfigConverter valueConverter = new ConnAndTaskConfigConverter();
+
+        private final DataSyncCodec codec = new JsonDataSyncCodec();
+
+        private final List<ConfigManagementServiceImpl> services = new ArrayList<>();
+
+        private ConfigManagementServiceImpl muted;
+
+        private ConnAndTaskConfigs last;
+
+        private long bytes;
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public void send(String key, ConnAndTaskConfigs value) {
+            try {
+                byte[] body = codec.encode(keyConverter.objectToByte(key), valueConverter.objectToByte(value));
+                bytes += body.length;
+                last = value;
+                codec.decode(body, (keyBytes, valueBytes) -> {
+                    for (ConfigManagementServiceImpl service : new ArrayList<>(services)) {
+                        if (service != muted) {
+                            service.getConfigChangeCallback().onCompletion(null,
+                                (String) keyConverter.byteToObject(keyBytes), valueConverter.byteToObject(valueBytes));
+                        }
+                    }
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void deliver(String key, ConnAndTaskConfigs value) {
+            ConnAndTaskConfigs decoded = valueConverter.byteToObject(valueConverter.objectToByte(value));
+            for (ConfigManagementServiceImpl service : services) {
+                service.getConfigChangeCallback().onCompletion(null, key, decoded);
+            }
+        }
+    }
+}
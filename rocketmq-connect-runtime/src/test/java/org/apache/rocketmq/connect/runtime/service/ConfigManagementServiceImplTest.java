@@ -33,6 +33,7 @@ import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
 import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
 import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
 import org.apache.rocketmq.connect.runtime.store.KeyValueStore;
+import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
 import org.apache.rocketmq.connect.runtime.utils.Plugin;
 import org.apache.rocketmq.connect.runtime.utils.TestUtils;
 import org.apache.rocketmq.connect.runtime.utils.datasync.BrokerBasedLog;
@@ -47,6 +48,7 @@ import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.mockito.stubbing.Answer;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
@@ -219,6 +221,9 @@ public class ConfigManagementServiceImplTest {
         connectKeyValues = taskConfigs.get(connectorName);
 
         assertNotNull(connectKeyValues);
+        for (int i = 0; i < connectKeyValues.size(); i++) {
+            assertEquals(ConnectUtil.taskId(connectorName, i), connectKeyValues.get(i).getString(RuntimeConfigDefine.TASK_ID));
+        }
     }
 
 }
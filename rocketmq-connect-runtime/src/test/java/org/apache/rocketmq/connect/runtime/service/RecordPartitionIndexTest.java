@@ -0,0 +1,171 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.service;
+
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.rocketmq.connect.runtime.store.KeyValueStore;
+import org.apache.rocketmq.connect.runtime.store.MemoryBasedKeyValueStore;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecordPartitionIndexTest {
+
+    private KeyValueStore<RecordPartition, RecordOffset> store;
+
+    private RecordPartitionIndex index;
+
+    @Before
+    public void init() {
+        store = new MemoryBasedKeyValueStore<>();
+        index = new RecordPartitionIndex(store);
+    }
+
+    @Test
+    public void testCanonicalKeyIgnoresValueType() {
+        Map<String, Object> intPartition = new HashMap<>();
+        intPartition.put("queueId", 1);
+        intPartition.put("topic", "testTopic");
+        Map<String, Object> stringPartition = new HashMap<>();
+        stringPartition.put("topic", "testTopic");
+        stringPartition.put("queueId", "1");
+        assertThat(RecordPartitionIndex.canonicalKey(new RecordPartition(intPartition)))
+            .isEqualTo(RecordPartitionIndex.canonicalKey(new RecordPartition(stringPartition)));
+
+        Map<String, Object> ambiguous = new HashMap<>();
+        ambiguous.put("a", "1b1:c");
+        Map<String, Object> other = new HashMap<>();
+        other.put("a", "1");
+        other.put("b", "c");
+        assertThat(RecordPartitionIndex.canonicalKey(new RecordPartition(ambiguous)))
+            .isNotEqualTo(RecordPartitionIndex.canonicalKey(new RecordPartition(other)));
+    }
+
+    @Test
+    public void testMerge() {
+        RecordPartition partition = partition(0, 1);
+        index.put(partition, offset(100));
+
+        Map<RecordPartition, RecordOffset> received = new HashMap<>();
+        received.put(partition(0, 1), offset(100));
+        received.put(partition(0, 2), offset(200));
+        assertThat(index.merge(received)).isFalse();
+        assertThat(store.getKVMap().size()).isEqualTo(2);
+
+        received.put(partition(0, 1), offset(101));
+        assertThat(index.merge(received)).isTrue();
+        assertThat(store.get(partition)).isEqualTo(offset(101));
+        assertThat(store.getKVMap().size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testMergeMatchesDecodedPartition() {
+        Map<String, Object> local = new HashMap<>();
+        local.put("queueId", 1);
+        RecordPartition localPartition = new RecordPartition(local);
+        index.put(localPartition, offset(100));
+
+        Map<String, Object> decoded = new HashMap<>();
+        decoded.put("queueId", "1");
+        assertThat(index.merge(Collections.singletonMap(new RecordPartition(decoded), offset(101)))).isTrue();
+        assertThat(store.getKVMap().size()).isEqualTo(1);
+        assertThat(store.get(localPartition)).isEqualTo(offset(101));
+    }
+
+    @Test
+    public void testRemoveAndRebuild() {
+        RecordPartition partition = partition(0, 1);
+        assertThat(index.put(partition, offset(100))).isSameAs(partition);
+        assertThat(index.put(partition(0, 1), offset(101))).isSameAs(partition);
+        assertThat(index.remove(partition(0, 1))).isSameAs(partition);
+        assertThat(store.getKVMap()).isEmpty();
+        assertThat(index.size()).isEqualTo(0);
+
+        store.put(partition(0, 2), offset(200));
+        index.rebuild();
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.merge(Collections.singletonMap(partition(0, 2), offset(201)))).isTrue();
+        assertThat(store.getKVMap().size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testCollect() {
+        Set<RecordPartition> dirty = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            dirty.add(index.put(partition(0, i), offset(i)));
+        }
+        dirty.add(partition(1, 0));
+        Map<RecordPartition, RecordOffset> collected = index.collect(dirty);
+        assertThat(collected.size()).isEqualTo(10);
+        assertThat(collected.get(partition(0, 3))).isEqualTo(offset(3));
+    }
+
+    /**
+     * 10 workers each own 10000 partitions, every worker receives the positions of the others and syncs its own
+     * changed partitions.
+     */
+    @Test
+    public void testMergeManyWorkers() {
+        int workerNums = 10;
+        int partitionNums = 10000;
+        int dirtyNums = 100;
+        for (int worker = 0; worker < workerNums; worker++) {
+            for (int i = 0; i < partitionNums; i++) {
+                index.put(partition(worker, i), offset(i));
+            }
+        }
+
+        boolean changed = false;
+        for (int worker = 1; worker < workerNums; worker++) {
+            Map<RecordPartition, RecordOffset> received = new HashMap<>();
+            for (int i = 0; i < partitionNums; i++) {
+                received.put(partition(worker, i), offset(i % dirtyNums == 0 ? i + 1 : i));
+            }
+            changed |= index.merge(received);
+        }
+        assertThat(changed).isTrue();
+        assertThat(store.getKVMap().size()).isEqualTo(workerNums * partitionNums);
+        assertThat(store.get(partition(9, 100))).isEqualTo(offset(101));
+
+        Set<RecordPartition> dirty = new HashSet<>();
+        for (int i = 0; i < partitionNums; i += partitionNums / dirtyNums) {
+            dirty.add(index.put(partition(0, i), offset(i + 1)));
+        }
+        Map<RecordPartition, RecordOffset> collected = index.collect(dirty);
+        assertThat(collected.size()).isEqualTo(dirtyNums);
+    }
+
+    private static RecordPartition partition(int worker, int queueId) {
+        Map<String, Object> partition = new HashMap<>();
+        partition.put("topic", "testTopic");
+        partition.put("brokerName", "broker-" + worker);
+        partition.put("queueId", queueId);
+        return new RecordPartition(partition);
+    }
+
+    private static RecordOffset offset(long queueOffset) {
+        return new RecordOffset(Collections.singletonMap("queueOffset", queueOffset));
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.service.strategy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import org.apache.rocketmq.connect.runtime.common.ConnAndTaskConfigs;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.apache.rocketmq.connect.runtime.config.RuntimeConfigDefine;
+import org.apache.rocketmq.connect.runtime.utils.ConnectUtil;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LoadAwareAllocateConnAndTaskStrategyTest {
+
+    private static final String TASK_NAME = "task-name";
+
+    @Test
+    public void testAllocateCoversAll() {
+        Cluster cluster = new Cluster(LoadAwareAllocateConnAndTaskStrategy::new, connectorConfigs(5),
+            taskConfigs(5, 4), new HashMap<>());
+        cluster.join(workers(0, 3));
+        cluster.rebalance();
+        assertThat(cluster.taskOwners().size()).isEqualTo(20);
+        assertThat(cluster.duplicateNums()).isEqualTo(0);
+        assertThat(cluster.connectorNums()).isEqualTo(5);
+        // without reports the tasks are balanced by count
+        for (String worker : workers(0, 3)) {
+            assertThat(cluster.running.get(worker).size()).isBetween(6, 7);
+        }
+    }
+
+    @Test
+    public void testKeepReportedWorker() {
+        List<LoadAwareAllocateConnAndTaskStrategy.TaskLoad> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ConnectKeyValue taskConfig = new ConnectKeyValue();
+            taskConfig.put(TASK_NAME, "task" + i);
+            tasks.add(new LoadAwareAllocateConnAndTaskStrategy.TaskLoad("connector", i, taskConfig));
+        }
+        Map<String, Map<String, Double>> reports = new HashMap<>();
+        reports.computeIfAbsent("worker0", k -> new HashMap<>()).put(tasks.get(0).key, 100d);
+        reports.computeIfAbsent("worker0", k -> new HashMap<>()).put(tasks.get(1).key, 90d);
+        reports.computeIfAbsent("worker1", k -> new HashMap<>()).put(tasks.get(2).key, 100d);
+        reports.computeIfAbsent("worker1", k -> new HashMap<>()).put(tasks.get(3).key, 80d);
+        int moved = LoadAwareAllocateConnAndTaskStrategy.assign(tasks, workers(0, 2), reports, 0.2);
+        assertThat(moved).isEqualTo(0);
+        assertThat(tasks.get(0).worker).isEqualTo("worker0");
+        assertThat(tasks.get(3).worker).isEqualTo("worker1");
+
+        // a new worker takes load off the others
+        moved = LoadAwareAllocateConnAndTaskStrategy.assign(tasks, workers(0, 3), reports, 0.2);
+        assertThat(moved).isGreaterThan(0);
+        assertThat(tasks.stream().filter(task -> "worker2".equals(task.worker)).count()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testIdenticalTaskConfigs() {
+        Map<String, List<ConnectKeyValue>> taskConfigs = new HashMap<>();
+        List<ConnectKeyValue> tasks = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            tasks.add(new ConnectKeyValue());
+        }
+        taskConfigs.put("connector0", tasks);
+        Map<String, Map<String, Double>> reports = new HashMap<>();
+        reports.computeIfAbsent("worker0", k -> new HashMap<>())
+            .put(LoadAwareAllocateConnAndTaskStrategy.taskKey("connector0", 0), 10d);
+        int total = 0;
+        for (String worker : workers(0, 2)) {
+            LoadAwareAllocateConnAndTaskStrategy strategy = new LoadAwareAllocateConnAndTaskStrategy();
+            strategy.setWorkerTaskLoads(reports);
+            ConnAndTaskConfigs result = strategy.allocate(workers(0, 2), worker, connectorConfigs(1), taskConfigs);
+            // tasks with equal configs are told apart by their position and spread over the workers
+            assertThat(result.getTaskConfigs().get("connector0").size()).isBetween(1, 3);
+            total += result.getTaskConfigs().get("connector0").size();
+        }
+        assertThat(total).isEqualTo(4);
+    }
+
+    /**
+     * Simulate 20 workers running 1000 tasks where few heavy tasks carry most of the load, compare the peak to the
+     * mean worker load, and count the tasks moved while the loads vary by up to 10% between reports.
+     */
+    @Test
+    public void testSkewedLoadSimulation() {
+        Map<String, ConnectKeyValue> connectorConfigs = connectorConfigs(50);
+        Map<String, List<ConnectKeyValue>> taskConfigs = taskConfigs(50, 20);
+        Random random = new Random(7);
+        Map<String, Double> loads = new HashMap<>();
+        for (List<ConnectKeyValue> tasks : taskConfigs.values()) {
+            for (ConnectKeyValue task : tasks) {
+                double load = random.nextInt(100) < 5 ? 2000 + random.nextInt(3000) : 1 + random.nextInt(50);
+                loads.put(task.getString(TASK_NAME), load);
+            }
+        }
+        Map<String, Supplier<AllocateConnAndTaskStrategy>> strategies = new TreeMap<>();
+        strategies.put("load-aware", LoadAwareAllocateConnAndTaskStrategy::new);
+        strategies.put("default", DefaultAllocateConnAndTaskStrategy::new);
+        strategies.put("consistent-hash", AllocateConnAndTaskStrategyByConsistentHash::new);
+
+        Map<String, Double> peakToMean = new HashMap<>();
+        for (Map.Entry<String, Supplier<AllocateConnAndTaskStrategy>> strategy : strategies.entrySet()) {
+            Cluster cluster = new Cluster(strategy.getValue(), connectorConfigs, taskConfigs, loads);
+            cluster.join(workers(0, 20));
+            cluster.rebalance();
+            // the first reports reflect the placement by count
+            cluster.rebalance();
+            int moved = 0;
+            for (int round = 0; round < 10; round++) {
+                Map<String, String> before = cluster.taskOwners();
+                cluster.jitter = 0.1;
+                cluster.rebalance();
+                moved += movedNums(before, cluster.taskOwners());
+            }
+            assertThat(cluster.taskOwners().size()).isEqualTo(1000);
+            assertThat(cluster.duplicateNums()).isEqualTo(0);
+
+            Map<String, String> before = cluster.taskOwners();
+            cluster.join(workers(20, 21));
+            cluster.rebalance();
+            int joinMoved = movedNums(before, cluster.taskOwners());
+            double[] workerLoads = cluster.peakAndMeanLoad();
+            peakToMean.put(strategy.getKey(), workerLoads[0] / workerLoads[1]);
+            if ("load-aware".equals(strategy.getKey())) {
+                assertThat(moved).isEqualTo(0);
+                assertThat(joinMoved).isGreaterThan(0);
+                assertThat(cluster.running.get("worker20")).isNotEmpty();
+            }
+        }
+        assertThat(peakToMean.get("load-aware")).isLessThan(peakToMean.get("default"));
+        assertThat(peakToMean.get("load-aware")).isLessThan(1.25);
+    }
+
+    private static int movedNums(Map<String, String> before, Map<String, String> after) {
+        int moved = 0;
+        for (Map.Entry<String, String> entry : after.entrySet()) {
+            if (before.containsKey(entry.getKey()) && !before.get(entry.getKey()).equals(entry.getValue())) {
+                moved++;
+            }
+        }
+        return moved;
+    }
+
+    private static List<String> workers(int from, int to) {
+        List<String> workers = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            workers.add("worker" + i);
+        }
+        return workers;
+    }
+
+    private static Map<String, ConnectKeyValue> connectorConfigs(int connectorNums) {
+        Map<String, ConnectKeyValue> connectorConfigs = new HashMap<>();
+        for (int i = 0; i < connectorNums; i++) {
+            connectorConfigs.put("connector" + i, new ConnectKeyValue());
+        }
+        return connectorConfigs;
+    }
+
+    private static Map<String, List<ConnectKeyValue>> taskConfigs(int connectorNums, int taskNums) {
+        Map<String, List<ConnectKeyValue>> taskConfigs = new HashMap<>();
+        for (int i = 0; i < connectorNums; i++) {
+            List<ConnectKeyValue> tasks = new ArrayList<>();
+            for (int j = 0; j < taskNums; j++) {
+                ConnectKeyValue keyValue = new ConnectKeyValue();
+                keyValue.put(TASK_NAME, "connector" + i + "-task" + j);
+                keyValue.put(RuntimeConfigDefine.TASK_ID, ConnectUtil.taskId("connector" + i, j));
+                tasks.add(keyValue);
+            }
+            taskConfigs.put("connector" + i, tasks);
+        }
+        return taskConfigs;
+    }
+
+    /**
+     * Workers allocating from the load snapshot of the previous round, every worker runs what it was allocated.
+     */
+    private static class Cluster {
+
+        private final Supplier<AllocateConnAndTaskStrategy> strategySupplier;
+
+        private final Map<String, ConnectKeyValue> connectorConfigs;
+
+        private final Map<String, List<ConnectKeyValue>> taskConfigs;
+
+        private final Map<String, Double> loads;
+
+        private final Map<String, AllocateConnAndTaskStrategy> strategies = new TreeMap<>();
+
+        private final Map<String, List<ConnectKeyValue>> running = new TreeMap<>();
+
+        private final Map<String, Integer> connectors = new TreeMap<>();
+
+        private final Random random = new Random(11);
+
+        private double jitter;
+
+        Cluster(Supplier<AllocateConnAndTaskStrategy> strategySupplier, Map<String, ConnectKeyValue> connectorConfigs,
+            Map<String, List<ConnectKeyValue>> taskConfigs, Map<String, Double> loads) {
+            this.strategySupplier = strategySupplier;
+            this.connectorConfigs = connectorConfigs;
+            this.taskConfigs = taskConfigs;
+            this.loads = loads;
+        }
+
+        void join(List<String> workers) {
+            for (String worker : workers) {
+                strategies.put(worker, strategySupplier.get());
+                running.put(worker, new ArrayList<>());
+            }
+        }
+
+        void rebalance() {
+            Map<String, Map<String, Double>> reports = new HashMap<>();
+            for (Map.Entry<String, List<ConnectKeyValue>> entry : running.entrySet()) {
+                Map<String, Double> report = new HashMap<>();
+                for (ConnectKeyValue task : entry.getValue()) {
+                    double load = loads.getOrDefault(task.getString(TASK_NAME), 0d);
+                    report.put(task.getString(RuntimeConfigDefine.TASK_ID),
+                        load * (1 + jitter * (random.nextDouble() * 2 - 1)));
+                }
+                reports.put(entry.getKey(), report);
+            }
+            List<String> workers = new ArrayList<>(strategies.keySet());
+            connectors.clear();
+            for (Map.Entry<String, AllocateConnAndTaskStrategy> entry : strategies.entrySet()) {
+                if (entry.getValue() instanceof LoadAwareAllocateConnAndTaskStrategy) {
+                    ((LoadAwareAllocateConnAndTaskStrategy) entry.getValue()).setWorkerTaskLoads(reports);
+                }
+                ConnAndTaskConfigs result = entry.getValue().allocate(workers, entry.getKey(), connectorConfigs,
+                    taskConfigs);
+                List<ConnectKeyValue> tasks = new ArrayList<>();
+                result.getTaskConfigs().values().forEach(tasks::addAll);
+                running.put(entry.getKey(), tasks);
+                result.getConnectorConfigs().keySet().forEach(name -> connectors.merge(name, 1, Integer::sum));
+            }
+        }
+
+        Map<String, String> taskOwners() {
+            Map<String, String> owners = new HashMap<>();
+            for (Map.Entry<String, List<ConnectKeyValue>> entry : running.entrySet()) {
+                for (ConnectKeyValue task : entry.getValue()) {
+                    owners.put(task.getString(TASK_NAME), entry.getKey());
+                }
+            }
+            return owners;
+        }
+
+        int duplicateNums() {
+            int total = 0;
+            for (List<ConnectKeyValue> tasks : running.values()) {
+                total += tasks.size();
+            }
+            return total - taskOwners().size();
+        }
+
+        int connectorNums() {
+            for (int count : connectors.values()) {
+                assertThat(count).isEqualTo(1);
+            }
+            return connectors.size();
+        }
+
+        double[] peakAndMeanLoad() {
+            double peak = 0;
+            double total = 0;
+            for (List<ConnectKeyValue> tasks : running.values()) {
+                double workerLoad = 0;
+                for (ConnectKeyValue task : tasks) {
+                    workerLoad += loads.getOrDefault(task.getString(TASK_NAME), 0d);
+                }
+                peak = Math.max(peak, workerLoad);
+                total += workerLoad;
+            }
+            return new double[] {peak, total / running.size()};
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.service.strategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import org.apache.rocketmq.connect.runtime.common.ConnAndTaskConfigs;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StickyAllocateConnAndTaskStrategyTest {
+
+    private static final String TASK_NAME = "task-name";
+
+    @Test
+    public void testAssignBalanced() {
+        List<String> workers = workers(0, 7);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            keys.add("key" + i);
+        }
+        Map<String, String> owners = StickyAllocateConnAndTaskStrategy.assign(keys, workers);
+        assertThat(owners.size()).isEqualTo(100);
+        Map<String, Integer> counts = new HashMap<>();
+        owners.values().forEach(worker -> counts.merge(worker, 1, Integer::sum));
+        assertThat(counts.size()).isEqualTo(7);
+        assertThat(counts.values()).isSubsetOf(Arrays.asList(14, 15));
+        assertThat(StickyAllocateConnAndTaskStrategy.assign(keys, workers)).isEqualTo(owners);
+    }
+
+    @Test
+    public void testAllocateCoversAll() {
+        List<String> workers = workers(0, 3);
+        Map<String, ConnectKeyValue> connectorConfigs = connectorConfigs(5);
+        Map<String, List<ConnectKeyValue>> taskConfigs = taskConfigs(5, 4);
+        Map<String, Integer> connectorCounts = new HashMap<>();
+        Map<String, Integer> taskCounts = new HashMap<>();
+        for (String worker : workers) {
+            StickyAllocateConnAndTaskStrategy strategy = new StickyAllocateConnAndTaskStrategy();
+            // the first allocation defers whatever the other workers may run
+            strategy.allocate(workers, worker, connectorConfigs, taskConfigs);
+            ConnAndTaskConfigs result = strategy.allocate(workers, worker, connectorConfigs, taskConfigs);
+            result.getConnectorConfigs().keySet().forEach(name -> connectorCounts.merge(name, 1, Integer::sum));
+            result.getTaskConfigs().values().forEach(tasks -> tasks.forEach(task -> taskCounts.merge(task.getString(TASK_NAME), 1, Integer::sum)));
+        }
+        assertThat(connectorCounts.size()).isEqualTo(5);
+        assertThat(connectorCounts.values()).containsOnly(1);
+        assertThat(taskCounts.size()).isEqualTo(20);
+        assertThat(taskCounts.values()).containsOnly(1);
+    }
+
+    @Test
+    public void testSingleWorkerStartsImmediately() {
+        List<String> workers = workers(0, 1);
+        ConnAndTaskConfigs result = new StickyAllocateConnAndTaskStrategy().allocate(workers, workers.get(0),
+            connectorConfigs(2), taskConfigs(2, 2));
+        assertThat(result.getConnectorConfigs().size()).isEqualTo(2);
+        assertThat(result.getTaskConfigs().get("connector0").size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRevokeBeforeAssign() {
+        Map<String, ConnectKeyValue> connectorConfigs = connectorConfigs(10);
+        Map<String, List<ConnectKeyValue>> taskConfigs = taskConfigs(10, 10);
+        Cluster cluster = new Cluster(StickyAllocateConnAndTaskStrategy::new, connectorConfigs, taskConfigs);
+        cluster.join(workers(0, 5));
+        cluster.rebalanceUntilStable();
+
+        cluster.join(workers(5, 6));
+        Map<String, String> before = cluster.taskOwners();
+        cluster.rebalance();
+        assertThat(cluster.duplicateNums()).isEqualTo(0);
+        // the new worker waits for the others to stop the moved tasks
+        assertThat(cluster.running.get("worker5")).isEmpty();
+        assertThat(cluster.taskOwners().size()).isLessThan(before.size());
+        cluster.rebalance();
+        assertThat(cluster.running.get("worker5")).isNotEmpty();
+        assertThat(cluster.taskOwners().size()).isEqualTo(100);
+    }
+
+    /**
+     * Simulate the cluster rebalance with 50 workers and 5000 tasks when workers join and leave, the sticky strategy
+     * never runs a task twice and moves at most twice the minimal number of tasks.
+     */
+    @Test
+    public void testRebalanceSimulation() {
+        Map<String, ConnectKeyValue> connectorConfigs = connectorConfigs(100);
+        Map<String, List<ConnectKeyValue>> taskConfigs = taskConfigs(100, 50);
+        int taskNums = 5000;
+        Map<String, Supplier<AllocateConnAndTaskStrategy>> strategies = new TreeMap<>();
+        strategies.put("sticky", StickyAllocateConnAndTaskStrategy::new);
+        strategies.put("default", DefaultAllocateConnAndTaskStrategy::new);
+        strategies.put("consistent-hash", AllocateConnAndTaskStrategyByConsistentHash::new);
+
+        for (Map.Entry<String, Supplier<AllocateConnAndTaskStrategy>> strategy : strategies.entrySet()) {
+            Cluster cluster = new Cluster(strategy.getValue(), connectorConfigs, taskConfigs);
+            cluster.join(workers(0, 50));
+            cluster.rebalanceUntilStable();
+            assertThat(cluster.taskOwners().size()).isEqualTo(taskNums);
+
+            String[] scenarios = {"join 1", "leave 1", "join 5", "leave 5"};
+            for (String scenario : scenarios) {
+                Map<String, String> before = cluster.taskOwners();
+                switch (scenario) {
+                    case "join 1":
+                        cluster.join(workers(50, 51));
+                        break;
+                    case "leave 1":
+                        cluster.leave(workers(50, 51));
+                        break;
+                    case "join 5":
+                        cluster.join(workers(50, 55));
+                        break;
+                    default:
+                        cluster.leave(workers(50, 55));
+                        break;
+                }
+                cluster.rebalanceUntilStable();
+                Map<String, String> after = cluster.taskOwners();
+                assertThat(after.size()).isEqualTo(taskNums);
+                int moves = 0;
+                for (Map.Entry<String, String> entry : after.entrySet()) {
+                    if (!entry.getValue().equals(before.get(entry.getKey()))) {
+                        moves++;
+                    }
+                }
+                int minMoves = minMoves(before, cluster.running.keySet());
+                if ("sticky".equals(strategy.getKey())) {
+                    assertThat(cluster.duplicateRounds).isEqualTo(0);
+                    assertThat(moves).isLessThanOrEqualTo(minMoves * 2);
+                }
+            }
+        }
+    }
+
+    /**
+     * The least tasks that must move from the previous allocation so the counts of the workers differ by at most one.
+     */
+    private static int minMoves(Map<String, String> before, Collection<String> workers) {
+        Map<String, Integer> counts = new HashMap<>();
+        before.values().forEach(worker -> counts.merge(worker, 1, Integer::sum));
+        int floor = before.size() / workers.size();
+        int ceil = (before.size() + workers.size() - 1) / workers.size();
+        int movesOut = 0;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (!workers.contains(entry.getKey())) {
+                movesOut += entry.getValue();
+            } else if (entry.getValue() > ceil) {
+                movesOut += entry.getValue() - ceil;
+            }
+        }
+        int movesIn = 0;
+        for (String worker : workers) {
+            movesIn += Math.max(0, floor - counts.getOrDefault(worker, 0));
+        }
+        return Math.max(movesOut, movesIn);
+    }
+
+    private static List<String> workers(int from, int to) {
+        List<String> workers = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            workers.add("worker" + i);
+        }
+        return workers;
+    }
+
+    private static Map<String, ConnectKeyValue> connectorConfigs(int connectorNums) {
+        Map<String, ConnectKeyValue> connectorConfigs = new HashMap<>();
+        for (int i = 0; i < connectorNums; i++) {
+            ConnectKeyValue config = new ConnectKeyValue();
+            config.put("connector-class", "TestConnector");
+            connectorConfigs.put("connector" + i, config);
+        }
+        return connectorConfigs;
+    }
+
+    private static Map<String, List<ConnectKeyValue>> taskConfigs(int connectorNums, int taskNums) {
+        Map<String, List<ConnectKeyValue>> taskConfigs = new HashMap<>();
+        for (int i = 0; i < connectorNums; i++) {
+            List<ConnectKeyValue> tasks = new ArrayList<>();
+            for (int j = 0; j < taskNums; j++) {
+                ConnectKeyValue config = new ConnectKeyValue();
+                config.put(TASK_NAME, "connector" + i + "-task" + j);
+                tasks.add(config);
+            }
+            taskConfigs.put("connector" + i, tasks);
+        }
+        return taskConfigs;
+    }
+
+    /**
+     * Workers that rebalance in rounds, every worker runs the tasks returned by its own strategy instance. Workers
+     * rebalance one after another, so a task may run on two workers in between.
+     */
+    private static class Cluster {
+
+        private final Supplier<AllocateConnAndTaskStrategy> strategySupplier;
+
+        private final Map<String, ConnectKeyValue> connectorConfigs;
+
+        private final Map<String, List<ConnectKeyValue>> taskConfigs;
+
+        private final Map<String, AllocateConnAndTaskStrategy> strategies = new TreeMap<>();
+
+        private final Map<String, List<String>> running = new TreeMap<>();
+
+        private int duplicateRounds;
+
+        Cluster(Supplier<AllocateConnAndTaskStrategy> strategySupplier, Map<String, ConnectKeyValue> connectorConfigs,
+            Map<String, List<ConnectKeyValue>> taskConfigs) {
+            this.strategySupplier = strategySupplier;
+            this.connectorConfigs = connectorConfigs;
+            this.taskConfigs = taskConfigs;
+        }
+
+        void join(List<String> workers) {
+            for (String worker : workers) {
+                strategies.put(worker, strategySupplier.get());
+                running.put(worker, new ArrayList<>());
+            }
+        }
+
+        void leave(List<String> workers) {
+            for (String worker : workers) {
+                strategies.remove(worker);
+                running.remove(worker);
+            }
+        }
+
+        /**
+         * Every worker rebalance once.
+         *
+         * @return whether any worker changed its tasks
+         */
+        boolean rebalance() {
+            List<String> allWorker = new ArrayList<>(strategies.keySet());
+            boolean changed = false;
+            boolean duplicated = false;
+            for (Map.Entry<String, AllocateConnAndTaskStrategy> entry : strategies.entrySet()) {
+                ConnAndTaskConfigs result = entry.getValue().allocate(allWorker, entry.getKey(), connectorConfigs, taskConfigs);
+                List<String> tasks = new ArrayList<>();
+                result.getTaskConfigs().values().forEach(configs -> configs.forEach(config -> tasks.add(config.getString(TASK_NAME))));
+                tasks.sort(null);
+                if (!tasks.equals(running.get(entry.getKey()))) {
+                    changed = true;
+                }
+                running.put(entry.getKey(), tasks);
+                duplicated |= duplicateNums() > 0;
+            }
+            if (duplicated) {
+                duplicateRounds++;
+            }
+            return changed;
+        }
+
+        /**
+         * Rebalance until two rounds in a row change nothing, a deferred task may start in the round after an
+         * unchanged one.
+         *
+         * @return the rounds until the last change
+         */
+        int rebalanceUntilStable() {
+            duplicateRounds = 0;
+            int rounds = 0;
+            int lastChangedRound = 0;
+            while (rounds - lastChangedRound < 2) {
+                rounds++;
+                if (rebalance()) {
+                    lastChangedRound = rounds;
+                }
+                assertThat(rounds).isLessThan(10);
+            }
+            return lastChangedRound;
+        }
+
+        Map<String, String> taskOwners() {
+            Map<String, String> owners = new HashMap<>();
+            running.forEach((worker, tasks) -> tasks.forEach(task -> owners.put(task, worker)));
+            return owners;
+        }
+
+        int duplicateNums() {
+            int total = running.values().stream().mapToInt(List::size).sum();
+            return total - taskOwners().size();
+        }
+    }
+}
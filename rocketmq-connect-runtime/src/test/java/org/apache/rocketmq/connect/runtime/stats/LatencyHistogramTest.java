@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.stats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long value = 0; value < 1_000_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            long highest = LatencyHistogram.highestValueOfBucket(index);
+            assertThat(highest).isGreaterThanOrEqualTo(value);
+            assertThat(highest - value).isLessThanOrEqualTo(value / 64);
+            assertThat(LatencyHistogram.bucketIndex(highest)).isEqualTo(index);
+        }
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10000; i++) {
+            histogram.record(i);
+        }
+        assertThat(histogram.getCount()).isEqualTo(10000);
+        assertThat(histogram.getMax()).isEqualTo(10000);
+        assertThat(histogram.getMean()).isEqualTo(5000.5);
+        assertPercentile(histogram.getValueAtPercentile(50), 5000);
+        assertPercentile(histogram.getValueAtPercentile(99), 9900);
+        assertPercentile(histogram.getValueAtPercentile(99.9), 9990);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(10000);
+        assertThat(histogram.getValueAtPercentile(0)).isEqualTo(1);
+    }
+
+    @Test
+    public void testOutOfRange() {
+        LatencyHistogram histogram = new LatencyHistogram(1000);
+        assertThat(new LatencyHistogram().getValueAtPercentile(99)).isEqualTo(0);
+        histogram.record(-5);
+        histogram.record(1_000_000);
+        assertThat(histogram.getCount()).isEqualTo(2);
+        assertThat(histogram.getMax()).isEqualTo(1000);
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(0);
+        assertThat(histogram.getValueAtPercentile(100)).isEqualTo(1000);
+    }
+
+    @Test
+    public void testConcurrentRecord() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threadNums = 8;
+        int recordNums = 100000;
+        CountDownLatch latch = new CountDownLatch(threadNums);
+        for (int i = 0; i < threadNums; i++) {
+            new Thread(() -> {
+                for (int j = 0; j < recordNums; j++) {
+                    histogram.record(j % 100);
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+        assertThat(histogram.getCount()).isEqualTo((long) threadNums * recordNums);
+        assertThat(histogram.getValueAtPercentile(50)).isEqualTo(49);
+        assertThat(histogram.getMax()).isEqualTo(99);
+    }
+
+    @Test
+    public void testMergeTaskMetrics() {
+        ConnectConfig connectConfig = new ConnectConfig();
+        connectConfig.setWorkerId("worker");
+        ConnectStatsManager connectStatsManager = new ConnectStatsManager(connectConfig);
+        try {
+            TaskMetrics task1 = connectStatsManager.getTaskMetrics("connector1", "task1");
+            TaskMetrics task2 = connectStatsManager.getTaskMetrics("connector1", "task2");
+            TaskMetrics task3 = connectStatsManager.getTaskMetrics("connector2", null);
+            assertThat(connectStatsManager.getTaskMetrics("connector1", "task1")).isSameAs(task1);
+            assertThat(task3.getTaskId()).isEqualTo("connector2");
+
+            task1.recordSinkPut(10, 5);
+            task2.recordSinkPut(20, 5);
+            task3.recordSinkPut(1000, 1);
+            task3.recordSendRT(3);
+
+            LatencyHistogram connector1 = connectStatsManager.getConnectorHistogram(TaskMetrics.SINK_PUT_LATENCY, "connector1");
+            assertThat(connector1.getCount()).isEqualTo(2);
+            assertThat(connector1.getMax()).isEqualTo(20);
+            LatencyHistogram worker = connectStatsManager.getWorkerHistogram(TaskMetrics.SINK_PUT_LATENCY);
+            assertThat(worker.getCount()).isEqualTo(3);
+            assertPercentile(worker.getValueAtPercentile(99.9), 1000);
+            assertThat(connectStatsManager.getWorkerHistogram(TaskMetrics.SEND_RT).getCount()).isEqualTo(1);
+
+            assertThat(connectStatsManager.getConnectorCounter(TaskMetrics.SINK_PUT_RECORDS, "connector1")).isEqualTo(10);
+            assertThat(connectStatsManager.getWorkerCounter(TaskMetrics.SINK_PUT_RECORDS)).isEqualTo(11);
+            assertThat(connectStatsManager.getConnectorCounter(TaskMetrics.SINK_PUT_RECORDS, "absent")).isEqualTo(0);
+
+            List<String> taskIds = new ArrayList<>();
+            for (TaskMetrics taskMetrics : connectStatsManager.getAllTaskMetrics()) {
+                taskIds.add(taskMetrics.getTaskId());
+            }
+            assertThat(taskIds).containsOnly("task1", "task2", "connector2");
+        } finally {
+            connectStatsManager.shutdown();
+        }
+    }
+
+    @Test
+    public void testRemoveTaskMetrics() {
+        ConnectConfig connectConfig = new ConnectConfig();
+        connectConfig.setWorkerId("worker");
+        ConnectStatsManager connectStatsManager = new ConnectStatsManager(connectConfig);
+        try {
+            TaskMetrics task1 = connectStatsManager.getTaskMetrics("connector1", "task1");
+            connectStatsManager.getTaskMetrics("connector1", "task2").recordSinkPut(20, 5);
+
+            connectStatsManager.removeTaskMetrics("connector1", "task2");
+            assertThat(connectStatsManager.getTaskMetricsTable().get("connector1").keySet()).containsOnly("task1");
+            assertThat(connectStatsManager.getConnectorCounter(TaskMetrics.SINK_PUT_RECORDS, "connector1")).isEqualTo(0);
+
+            connectStatsManager.removeTaskMetrics("connector1", "task1");
+            assertThat(connectStatsManager.getTaskMetricsTable()).isEmpty();
+            assertThat(connectStatsManager.getTaskMetrics("connector1", "task1")).isNotSameAs(task1);
+        } finally {
+            connectStatsManager.shutdown();
+        }
+    }
+
+    private static void assertPercentile(long actual, long expected) {
+        assertThat(actual).isBetween(expected, expected + expected / 64);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.stats;
+
+import java.lang.management.ManagementFactory;
+import org.apache.rocketmq.connect.runtime.config.ConnectConfig;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PrometheusMetricsWriterTest {
+
+    private ConnectStatsManager connectStatsManager;
+
+    @Before
+    public void init() {
+        ConnectConfig connectConfig = new ConnectConfig();
+        connectConfig.setWorkerId("worker");
+        connectStatsManager = new ConnectStatsManager(connectConfig);
+    }
+
+    @After
+    public void destroy() {
+        connectStatsManager.shutdown();
+    }
+
+    @Test
+    public void testFormat() {
+        TaskMetrics task1 = connectStatsManager.getTaskMetrics("connector1", "task1");
+        TaskMetrics task2 = connectStatsManager.getTaskMetrics("connector1", "task2");
+        TaskMetrics task3 = connectStatsManager.getTaskMetrics("conn\"ector\\2", null);
+        task1.recordSinkPut(3, 5);
+        task1.incSinkPutBytes(1024);
+        task2.recordSinkPut(70, 5);
+        task3.recordSinkPut(100000, 1);
+        task1.setSourceInFlight(7, 700);
+
+        PrometheusMetricsWriter writer = new PrometheusMetricsWriter();
+        writer.write(connectStatsManager.getTaskMetricsTable());
+        String text = writer.toString();
+        assertThat(text).contains("# TYPE rocketmq_connect_sink_put_records_total counter\n");
+        assertThat(text).contains("rocketmq_connect_sink_put_records_total{connector=\"connector1\",task=\"task1\"} 5\n");
+        assertThat(text).contains("rocketmq_connect_sink_put_bytes_total{connector=\"connector1\",task=\"task1\"} 1024\n");
+        assertThat(text).contains("rocketmq_connect_source_inflight_bytes{connector=\"connector1\",task=\"task1\"} 700\n");
+        assertThat(text).contains("rocketmq_connect_sink_put_records_total{connector=\"conn\\\"ector\\\\2\",task=\"conn\\\"ector\\\\2\"} 1\n");
+
+        assertThat(text).contains("# TYPE rocketmq_connect_sink_put_latency_milliseconds histogram\n");
+        assertThat(text).contains("rocketmq_connect_sink_put_latency_milliseconds_bucket{connector=\"connector1\",le=\"1\"} 0\n");
+        assertThat(text).contains("rocketmq_connect_sink_put_latency_milliseconds_bucket{connector=\"connector1\",le=\"5\"} 1\n");
+        assertThat(text).contains("rocketmq_connect_sink_put_latency_milliseconds_bucket{connector=\"connector1\",le=\"100\"} 2\n");
+        assertThat(text).contains("rocketmq_connect_sink_put_latency_milliseconds_bucket{connector=\"connector1\",le=\"+Inf\"} 2\n");
+        assertThat(text).contains("rocketmq_connect_sink_put_latency_milliseconds_sum{connector=\"connector1\"} 73\n");
+        assertThat(text).contains("rocketmq_connect_sink_put_latency_milliseconds_count{connector=\"connector1\"} 2\n");
+        assertThat(text).contains("rocketmq_connect_sink_put_latency_milliseconds_bucket{connector=\"conn\\\"ector\\\\2\",le=\"60000\"} 0\n");
+        assertThat(text).contains("rocketmq_connect_sink_put_latency_milliseconds_bucket{connector=\"conn\\\"ector\\\\2\",le=\"+Inf\"} 1\n");
+
+        // the buffer is reused by the next scrape
+        task1.recordSinkPut(3, 5);
+        writer.write(connectStatsManager.getTaskMetricsTable());
+        assertThat(writer.toString()).contains("rocketmq_connect_sink_put_records_total{connector=\"connector1\",task=\"task1\"} 10\n");
+        assertThat(writer.size()).isEqualTo(writer.toString().length());
+    }
+
+    @Test
+    public void testEmpty() {
+        PrometheusMetricsWriter writer = new PrometheusMetricsWriter();
+        writer.write(connectStatsManager.getTaskMetricsTable());
+        assertThat(writer.size()).isEqualTo(0);
+    }
+
+    @Test
+    public void testRemovedTasks() {
+        for (int i = 0; i < 5000; i++) {
+            TaskMetrics taskMetrics = connectStatsManager.getTaskMetrics("connector-" + i % 100, "connector-" + i % 100 + "-" + i);
+            taskMetrics.recordSourcePut(i % 200, 10);
+        }
+        PrometheusMetricsWriter writer = new PrometheusMetricsWriter();
+        writer.write(connectStatsManager.getTaskMetricsTable());
+        assertThat(writer.toString()).contains("task=\"connector-1-4001\"");
+        int largeCapacity = writer.capacity();
+
+        for (int i = 1; i < 5000; i++) {
+            connectStatsManager.removeTaskMetrics("connector-" + i % 100, "connector-" + i % 100 + "-" + i);
+        }
+        writer.write(connectStatsManager.getTaskMetricsTable());
+        // the series of removed tasks are gone, and so is the buffer they needed
+        assertThat(writer.toString()).doesNotContain("task=\"connector-1-4001\"");
+        assertThat(writer.toString()).contains("task=\"connector-0-0\"");
+        writer.write(connectStatsManager.getTaskMetricsTable());
+        assertThat(writer.capacity()).isLessThan(largeCapacity);
+    }
+
+    /**
+     * Scrape 5000 tasks of 100 connectors, the bytes allocated per scrape stay far below the size of the text. The
+     * scrape time is measured by the PrometheusScrapeBenchmark of the benchmarks module.
+     */
+    @Test
+    public void testScrapeAllocation() {
+        for (int i = 0; i < 5000; i++) {
+            TaskMetrics taskMetrics = connectStatsManager.getTaskMetrics("connector-" + i % 100, "task-" + i);
+            taskMetrics.recordSourcePut(i % 200, 10);
+            taskMetrics.incSourcePutBytes(1000);
+            taskMetrics.recordSendRT(i % 3000);
+        }
+        PrometheusMetricsWriter writer = new PrometheusMetricsWriter();
+        for (int i = 0; i < 20; i++) {
+            writer.write(connectStatsManager.getTaskMetricsTable());
+        }
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int scrapes = 20;
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < scrapes; i++) {
+            writer.write(connectStatsManager.getTaskMetricsTable());
+        }
+        long allocatedBytes = (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / scrapes;
+
+        // iterators of the metrics table only, far below the size of the text
+        assertThat(allocatedBytes).isLessThan(writer.size() / 10);
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.store;
+
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.rocketmq.connect.runtime.converter.JsonConverter;
+import org.apache.rocketmq.connect.runtime.converter.RecordOffsetConverter;
+import org.apache.rocketmq.connect.runtime.converter.RecordPartitionConverter;
+import org.apache.rocketmq.connect.runtime.utils.FileAndPropertyUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LogStructuredKeyValueStoreTest {
+
+    private String storeDir;
+
+    @Before
+    public void init() {
+        storeDir = "target/unit_test_store/testLogStructuredKeyValueStore/" + System.nanoTime();
+    }
+
+    @After
+    public void destroy() {
+        deleteDir(new File(storeDir).getParentFile());
+    }
+
+    @Test
+    public void testPersistAndLoad() {
+        LogStructuredKeyValueStore<String, String> store = newStore(1024);
+        store.load();
+        for (int i = 0; i < 100; i++) {
+            store.put("key" + i, "value" + i);
+        }
+        store.persist();
+        store.put("key0", "newValue");
+        store.remove("key1");
+        store.persist();
+
+        LogStructuredKeyValueStore<String, String> reloaded = newStore(1024);
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.size()).isEqualTo(99);
+        assertThat(reloaded.get("key0")).isEqualTo("newValue");
+        assertThat(reloaded.containsKey("key1")).isFalse();
+        assertThat(reloaded.get("key99")).isEqualTo("value99");
+    }
+
+    @Test
+    public void testOnlyChangedEntriesAppended() {
+        LogStructuredKeyValueStore<String, String> store = newStore(1024 * 1024);
+        store.load();
+        for (int i = 0; i < 100; i++) {
+            store.put("key" + i, "value" + i);
+        }
+        store.persist();
+        assertThat(store.getTotalRecords()).isEqualTo(100);
+        store.persist();
+        assertThat(store.getTotalRecords()).isEqualTo(100);
+        store.put("key5", "newValue");
+        store.persist();
+        assertThat(store.getTotalRecords()).isEqualTo(101);
+    }
+
+    @Test
+    public void testRecoverFromTornRecord() throws Exception {
+        LogStructuredKeyValueStore<String, String> store = newStore(1024);
+        store.load();
+        store.put("key1", "value1");
+        store.persist();
+        store.put("key2", "value2");
+        store.persist();
+
+        // simulate a crash in the middle of the last append
+        File segment = lastSegment();
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        LogStructuredKeyValueStore<String, String> reloaded = newStore(1024);
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.get("key1")).isEqualTo("value1");
+        assertThat(reloaded.containsKey("key2")).isFalse();
+
+        // appends after recovery are not hidden by the torn record
+        reloaded.put("key3", "value3");
+        reloaded.persist();
+        LogStructuredKeyValueStore<String, String> again = newStore(1024);
+        assertThat(again.load()).isTrue();
+        assertThat(again.get("key1")).isEqualTo("value1");
+        assertThat(again.get("key3")).isEqualTo("value3");
+    }
+
+    @Test
+    public void testRecoverFromCorruptedRecord() throws Exception {
+        LogStructuredKeyValueStore<String, String> store = newStore(1024);
+        store.load();
+        store.put("key1", "value1");
+        store.persist();
+        store.put("key2", "value2");
+        store.persist();
+
+        File segment = lastSegment();
+        try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+            file.seek(file.length() - 1);
+            int last = file.read();
+            file.seek(file.length() - 1);
+            file.write(last ^ 0xff);
+        }
+
+        LogStructuredKeyValueStore<String, String> reloaded = newStore(1024);
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.get("key1")).isEqualTo("value1");
+        assertThat(reloaded.containsKey("key2")).isFalse();
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        LogStructuredKeyValueStore<String, String> store = newStore(16);
+        store.load();
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 10; i++) {
+                store.put("key" + i, "value" + round);
+            }
+            store.persist();
+        }
+        // compacted in the background once the dead records cross the threshold
+        long deadline = System.currentTimeMillis() + 5000;
+        while (store.getTotalRecords() >= 100 && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(store.getTotalRecords()).isLessThan(100);
+        store.compact();
+        assertThat(store.getTotalRecords()).isEqualTo(10);
+
+        LogStructuredKeyValueStore<String, String> reloaded = newStore(16);
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.size()).isEqualTo(10);
+        assertThat(reloaded.get("key3")).isEqualTo("value9");
+    }
+
+    @Test
+    public void testInterruptedCompactionIgnored() throws Exception {
+        LogStructuredKeyValueStore<String, String> store = newStore(1024);
+        store.load();
+        store.put("key1", "value1");
+        store.persist();
+        // leftover of a compaction which crashed before the rename
+        File tmpFile = new File(storeDir, String.format("%020d", 100) + LogStructuredKeyValueStore.SEGMENT_SUFFIX
+            + LogStructuredKeyValueStore.TMP_SUFFIX);
+        try (RandomAccessFile file = new RandomAccessFile(tmpFile, "rw")) {
+            file.write(new byte[] {0, 0, 0, 9, 1, 2, 3});
+        }
+
+        LogStructuredKeyValueStore<String, String> reloaded = newStore(1024);
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.get("key1")).isEqualTo("value1");
+        assertThat(tmpFile.exists()).isFalse();
+    }
+
+    @Test
+    public void testMigrateLegacyFile() throws Exception {
+        String legacyFile = storeDir + ".json";
+        FileBaseKeyValueStore<RecordPartition, RecordOffset> legacyStore = new FileBaseKeyValueStore<>(legacyFile,
+            new RecordPartitionConverter(), new RecordOffsetConverter());
+        Map<String, String> partition = new HashMap<>();
+        partition.put("file", "fileName1");
+        Map<String, String> offset = new HashMap<>();
+        offset.put("offset", "100");
+        legacyStore.put(new RecordPartition(partition), new RecordOffset(offset));
+        legacyStore.persist();
+        assertThat(FileAndPropertyUtil.file2String(legacyFile)).isNotEmpty();
+
+        LogStructuredKeyValueStore<RecordPartition, RecordOffset> store = new LogStructuredKeyValueStore<>(storeDir,
+            new RecordPartitionConverter(), new RecordOffsetConverter(), legacyFile, 1024 * 1024, 0.5, 1024);
+        assertThat(store.load()).isTrue();
+        assertThat(store.get(new RecordPartition(partition))).isEqualTo(new RecordOffset(offset));
+        store.persist();
+
+        LogStructuredKeyValueStore<RecordPartition, RecordOffset> reloaded = new LogStructuredKeyValueStore<>(storeDir,
+            new RecordPartitionConverter(), new RecordOffsetConverter());
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.get(new RecordPartition(partition))).isEqualTo(new RecordOffset(offset));
+    }
+
+    private LogStructuredKeyValueStore<String, String> newStore(int compactMinRecords) {
+        return new LogStructuredKeyValueStore<>(storeDir, new JsonConverter(String.class),
+            new JsonConverter(String.class), null, LogStructuredKeyValueStore.DEFAULT_MAX_SEGMENT_BYTES, 0.5,
+            compactMinRecords);
+    }
+
+    private File lastSegment() {
+        File[] segments = new File(storeDir).listFiles((dir, name) -> name.endsWith(LogStructuredKeyValueStore.SEGMENT_SUFFIX)
+            && new File(dir, name).length() > 0);
+        Arrays.sort(segments);
+        return segments[segments.length - 1];
+    }
+
+    static void deleteDir(File dir) {
+        File[] files = dir.listFiles();
+        if (null != files) {
+            for (File file : files) {
+                deleteDir(file);
+            }
+        }
+        dir.delete();
+    }
+}
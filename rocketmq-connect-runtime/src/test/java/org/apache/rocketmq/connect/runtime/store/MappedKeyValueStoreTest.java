@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.store;
+
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.rocketmq.connect.runtime.converter.JsonConverter;
+import org.apache.rocketmq.connect.runtime.converter.RecordOffsetConverter;
+import org.apache.rocketmq.connect.runtime.converter.RecordPartitionConverter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MappedKeyValueStoreTest {
+
+    private String storeFile;
+
+    @Before
+    public void init() {
+        storeFile = "target/unit_test_store/testMappedKeyValueStore/" + System.nanoTime() + "/position.mmap";
+    }
+
+    @After
+    public void destroy() {
+        LogStructuredKeyValueStoreTest.deleteDir(new File(storeFile).getParentFile().getParentFile());
+    }
+
+    @Test
+    public void testPersistAndLoad() {
+        MappedKeyValueStore<String, String> store = newStore(1024, 256);
+        assertThat(store.load()).isTrue();
+        for (int i = 0; i < 100; i++) {
+            store.put("key" + i, "value" + i);
+        }
+        store.persist();
+        store.put("key0", "newValue");
+        store.remove("key1");
+        store.persist();
+
+        MappedKeyValueStore<String, String> reloaded = newStore(1024, 256);
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.size()).isEqualTo(99);
+        assertThat(reloaded.get("key0")).isEqualTo("newValue");
+        assertThat(reloaded.containsKey("key1")).isFalse();
+        assertThat(reloaded.get("key99")).isEqualTo("value99");
+    }
+
+    @Test
+    public void testUpdateInPlace() {
+        MappedKeyValueStore<String, String> store = newStore(1024, 256);
+        store.load();
+        store.put("key1", "value0");
+        store.persist();
+        int slot = store.getSlot("key1");
+        long fileLength = new File(storeFile).length();
+        for (int i = 1; i <= 10; i++) {
+            store.put("key1", "value" + i);
+            store.persist();
+            assertThat(store.getSlot("key1")).isEqualTo(slot);
+        }
+        // updates alternate between the two copies of the slot and never grow the file
+        assertThat(store.getNewerCopy(slot)).isEqualTo(0);
+        assertThat(new File(storeFile).length()).isEqualTo(fileLength);
+
+        MappedKeyValueStore<String, String> reloaded = newStore(1024, 256);
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.get("key1")).isEqualTo("value10");
+    }
+
+    @Test
+    public void testRecoverFromTornWrite() throws Exception {
+        MappedKeyValueStore<String, String> store = newStore(1024, 256);
+        store.load();
+        store.put("key1", "value1");
+        store.put("key2", "value2");
+        store.persist();
+        store.put("key1", "newValue1");
+        store.persist();
+
+        // simulate a crash after the first half of the update reached the disk
+        int slot = store.getSlot("key1");
+        int offset = store.recordOffset(slot, store.getNewerCopy(slot));
+        try (RandomAccessFile file = new RandomAccessFile(storeFile, "rw")) {
+            file.seek(offset + MappedKeyValueStore.RECORD_HEADER_SIZE + 4);
+            file.write(new byte[16]);
+        }
+
+        MappedKeyValueStore<String, String> reloaded = newStore(1024, 256);
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.get("key1")).isEqualTo("value1");
+        assertThat(reloaded.get("key2")).isEqualTo("value2");
+
+        // the torn copy is overwritten by the next update
+        reloaded.put("key1", "value3");
+        reloaded.persist();
+        MappedKeyValueStore<String, String> again = newStore(1024, 256);
+        assertThat(again.load()).isTrue();
+        assertThat(again.get("key1")).isEqualTo("value3");
+    }
+
+    @Test
+    public void testRecoverFromCorruptedSlot() throws Exception {
+        MappedKeyValueStore<String, String> store = newStore(1024, 256);
+        store.load();
+        store.put("key1", "value1");
+        store.put("key2", "value2");
+        store.persist();
+
+        int slot = store.getSlot("key2");
+        try (RandomAccessFile file = new RandomAccessFile(storeFile, "rw")) {
+            for (int copy = 0; copy < 2; copy++) {
+                file.seek(store.recordOffset(slot, copy) + 6);
+                file.write(0x5a);
+            }
+        }
+
+        MappedKeyValueStore<String, String> reloaded = newStore(1024, 256);
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.get("key1")).isEqualTo("value1");
+        assertThat(reloaded.containsKey("key2")).isFalse();
+
+        // the slot is free again
+        reloaded.put("key3", "value3");
+        reloaded.persist();
+        MappedKeyValueStore<String, String> again = newStore(1024, 256);
+        assertThat(again.load()).isTrue();
+        assertThat(again.size()).isEqualTo(2);
+        assertThat(again.get("key3")).isEqualTo("value3");
+    }
+
+    @Test
+    public void testGrow() {
+        MappedKeyValueStore<String, String> store = newStore(4, 64);
+        store.load();
+        for (int i = 0; i < 100; i++) {
+            store.put("key" + i, "value" + i);
+        }
+        store.persist();
+        assertThat(store.getSlotNums()).isGreaterThanOrEqualTo(128);
+
+        // an entry larger than a slot rebuilds the file with larger slots
+        StringBuilder largeValue = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            largeValue.append("large");
+        }
+        store.put("key0", largeValue.toString());
+        store.persist();
+        assertThat(store.getRecordSize()).isGreaterThan(500);
+        assertThat(new File(storeFile + MappedKeyValueStore.TMP_SUFFIX).exists()).isFalse();
+
+        MappedKeyValueStore<String, String> reloaded = newStore(4, 64);
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.size()).isEqualTo(100);
+        assertThat(reloaded.get("key0")).isEqualTo(largeValue.toString());
+        assertThat(reloaded.get("key99")).isEqualTo("value99");
+    }
+
+    @Test
+    public void testMigrateLegacyFile() {
+        String legacyFile = new File(storeFile).getParent() + "/position.json";
+        FileBaseKeyValueStore<RecordPartition, RecordOffset> legacyStore = new FileBaseKeyValueStore<>(legacyFile,
+            new RecordPartitionConverter(), new RecordOffsetConverter());
+        Map<String, String> partition = new HashMap<>();
+        partition.put("file", "fileName1");
+        Map<String, String> offset = new HashMap<>();
+        offset.put("offset", "100");
+        legacyStore.put(new RecordPartition(partition), new RecordOffset(offset));
+        legacyStore.persist();
+
+        MappedKeyValueStore<RecordPartition, RecordOffset> store = new MappedKeyValueStore<>(storeFile,
+            new RecordPartitionConverter(), new RecordOffsetConverter(), legacyFile,
+            MappedKeyValueStore.DEFAULT_SLOT_NUMS, MappedKeyValueStore.DEFAULT_RECORD_SIZE);
+        assertThat(store.load()).isTrue();
+        assertThat(store.get(new RecordPartition(partition))).isEqualTo(new RecordOffset(offset));
+        store.persist();
+
+        MappedKeyValueStore<RecordPartition, RecordOffset> reloaded = new MappedKeyValueStore<>(storeFile,
+            new RecordPartitionConverter(), new RecordOffsetConverter());
+        assertThat(reloaded.load()).isTrue();
+        assertThat(reloaded.get(new RecordPartition(partition))).isEqualTo(new RecordOffset(offset));
+    }
+
+    private MappedKeyValueStore<String, String> newStore(int slotNums, int recordSize) {
+        return new MappedKeyValueStore<>(storeFile, new JsonConverter(String.class), new JsonConverter(String.class),
+            null, slotNums, recordSize);
+    }
+}
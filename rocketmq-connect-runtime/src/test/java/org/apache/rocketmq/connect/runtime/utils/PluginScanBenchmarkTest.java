@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.utils;
+
+import java.io.File;
+import java.util.Collections;
+import org.apache.rocketmq.connect.runtime.connectorwrapper.testimpl.TestConnector;
+import org.apache.rocketmq.connect.runtime.connectorwrapper.testimpl.TestSourceTask;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Worker startup time spent loading 50 plugin jars, with and without the plugin index.
+ */
+public class PluginScanBenchmarkTest {
+
+    private static final int JAR_NUMS = 50;
+
+    private static final int PADDING_CLASSES = 200;
+
+    private File baseDir;
+
+    private File pluginDir;
+
+    @BeforeClass
+    public static void checkBenchmark() {
+        TestUtils.assumeBenchmark();
+    }
+
+    @Before
+    public void init() throws Exception {
+        baseDir = new File("target/unit_test_store/testPluginScanBenchmark/" + System.nanoTime());
+        pluginDir = new File(baseDir, "plugins");
+        pluginDir.mkdirs();
+        for (int i = 0; i < JAR_NUMS; i++) {
+            PluginTest.writeJar(new File(pluginDir, "connector-" + i + ".jar"), PADDING_CLASSES,
+                TestConnector.class, TestSourceTask.class);
+        }
+    }
+
+    @After
+    public void destroy() {
+        TestUtils.deleteFile(baseDir);
+    }
+
+    @Test
+    public void testStartupTime() {
+        String indexFile = new File(baseDir, "pluginIndex.json").getPath();
+        // warm up the class loading of the scanner
+        load(null);
+
+        long cold = load(indexFile);
+        long warm = load(indexFile);
+        new File(pluginDir, "connector-0.jar").setLastModified(System.currentTimeMillis() + 2000);
+        long oneChanged = load(indexFile);
+        assertThat(warm).as("cold %d ms, from index %d ms, one jar changed %d ms", cold, warm, oneChanged)
+            .isLessThan(cold);
+    }
+
+    private long load(String indexFile) {
+        long start = System.currentTimeMillis();
+        Plugin plugin = new Plugin(Collections.singletonList(pluginDir.getPath()), Plugin.class.getClassLoader(),
+            indexFile);
+        plugin.initPlugin();
+        long elapsed = System.currentTimeMillis() - start;
+        assertThat(plugin.getPluginClassLoader(TestConnector.class.getName())).isNotNull();
+        return elapsed;
+    }
+}
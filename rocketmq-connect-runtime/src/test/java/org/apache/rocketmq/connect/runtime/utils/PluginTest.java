@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.utils;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import org.apache.rocketmq.connect.runtime.connectorwrapper.testimpl.TestConnector;
+import org.apache.rocketmq.connect.runtime.connectorwrapper.testimpl.TestSourceTask;
+import org.apache.rocketmq.connect.runtime.store.FileBaseKeyValueStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PluginTest {
+
+    private File baseDir;
+
+    private File pluginDir;
+
+    private String indexFile;
+
+    @Before
+    public void init() {
+        baseDir = new File("target/unit_test_store/testPlugin/" + System.nanoTime());
+        pluginDir = new File(baseDir, "plugins");
+        pluginDir.mkdirs();
+        indexFile = new File(baseDir, "pluginIndex.json").getPath();
+    }
+
+    @After
+    public void destroy() {
+        TestUtils.deleteFile(baseDir);
+    }
+
+    @Test
+    public void testLoadFromIndex() throws Exception {
+        writeJar(new File(pluginDir, "connector-a.jar"), 0, TestConnector.class, TestSourceTask.class);
+        writeJar(new File(pluginDir, "connector-b.jar"), 0, TestConnector.class);
+
+        Plugin plugin = new Plugin(Collections.singletonList(pluginDir.getPath()), Plugin.class.getClassLoader(),
+            indexFile);
+        plugin.initPlugin();
+        assertThat(plugin.getPluginClassLoader(TestConnector.class.getName())).isInstanceOf(PluginClassLoader.class);
+        assertThat(plugin.getPluginClassLoader(TestSourceTask.class.getName())).isInstanceOf(PluginClassLoader.class);
+        assertThat(new File(indexFile).exists()).isTrue();
+
+        // a restarted worker finds the plugins in the index
+        PluginIndex pluginIndex = new PluginIndex(indexFile);
+        pluginIndex.load();
+        assertThat(pluginIndex.getEntries()).hasSize(2);
+        Plugin restarted = new Plugin(Collections.singletonList(pluginDir.getPath()), Plugin.class.getClassLoader(),
+            indexFile);
+        restarted.initPlugin();
+        assertThat(restarted.getPluginClassLoader(TestConnector.class.getName())).isInstanceOf(PluginClassLoader.class);
+        assertThat(restarted.getPluginClassLoader(TestSourceTask.class.getName())).isInstanceOf(PluginClassLoader.class);
+    }
+
+    @Test
+    public void testRescanChangedJar() throws Exception {
+        File jar = new File(pluginDir, "connector-a.jar");
+        writeJar(jar, 0, TestConnector.class);
+        Plugin plugin = new Plugin(Collections.singletonList(pluginDir.getPath()), Plugin.class.getClassLoader(),
+            indexFile);
+        plugin.initPlugin();
+        ClassLoader loader = plugin.getPluginClassLoader(TestConnector.class.getName());
+        assertThat(plugin.getPluginClassLoader(TestSourceTask.class.getName())).isNull();
+
+        // an unchanged location keeps its class loader on reload
+        plugin.initPlugin();
+        assertThat(plugin.getPluginClassLoader(TestConnector.class.getName())).isSameAs(loader);
+
+        writeJar(jar, 0, TestConnector.class, TestSourceTask.class);
+        jar.setLastModified(jar.lastModified() + 2000);
+        plugin.initPlugin();
+        assertThat(plugin.getPluginClassLoader(TestConnector.class.getName())).isNotSameAs(loader);
+        assertThat(plugin.getPluginClassLoader(TestSourceTask.class.getName())).isInstanceOf(PluginClassLoader.class);
+
+        PluginIndex pluginIndex = new PluginIndex(indexFile);
+        pluginIndex.load();
+        List<String> classNames = pluginIndex.getEntries().values().iterator().next().getClassNames();
+        assertThat(classNames).contains(TestConnector.class.getName(), TestSourceTask.class.getName());
+    }
+
+    @Test
+    public void testRemoveJar() throws Exception {
+        File jarA = new File(pluginDir, "connector-a.jar");
+        writeJar(jarA, 0, TestSourceTask.class);
+        writeJar(new File(pluginDir, "connector-b.jar"), 0, TestConnector.class);
+        Plugin plugin = new Plugin(Collections.singletonList(pluginDir.getPath()), Plugin.class.getClassLoader(),
+            indexFile);
+        plugin.initPlugin();
+        assertThat(plugin.getPluginClassLoader(TestSourceTask.class.getName())).isNotNull();
+
+        assertThat(jarA.delete()).isTrue();
+        plugin.initPlugin();
+        assertThat(plugin.getPluginClassLoader(TestSourceTask.class.getName())).isNull();
+        assertThat(plugin.getPluginClassLoader(TestConnector.class.getName())).isNotNull();
+
+        PluginIndex pluginIndex = new PluginIndex(indexFile);
+        pluginIndex.load();
+        assertThat(pluginIndex.getEntries()).hasSize(1);
+    }
+
+    @Test
+    public void testFingerprint() throws Exception {
+        File jar = new File(pluginDir, "connector-a.jar");
+        writeJar(jar, 0, TestConnector.class);
+        List<Path> urls = Collections.singletonList(jar.toPath().toAbsolutePath());
+        String fingerprint = PluginIndex.fingerprint(urls);
+        assertThat(PluginIndex.fingerprint(urls)).isEqualTo(fingerprint);
+
+        jar.setLastModified(jar.lastModified() + 2000);
+        assertThat(PluginIndex.fingerprint(urls)).isNotEqualTo(fingerprint);
+
+        // class directories are always scanned
+        assertThat(PluginIndex.fingerprint(Collections.singletonList(pluginDir.toPath()))).isNull();
+
+        PluginIndex pluginIndex = new PluginIndex(null);
+        pluginIndex.put("location", fingerprint, Collections.singletonList("className"));
+        assertThat(pluginIndex.get("location", fingerprint)).containsOnly("className");
+        assertThat(pluginIndex.get("location", "otherFingerprint")).isNull();
+        assertThat(pluginIndex.get("location", null)).isNull();
+    }
+
+    /**
+     * Write a plugin jar containing the given classes, padded with {@code paddingClasses} runtime classes that are
+     * scanned but are no plugins.
+     */
+    static void writeJar(File jar, int paddingClasses, Class<?>... classes) throws IOException {
+        List<Class<?>> entries = new ArrayList<>();
+        Collections.addAll(entries, classes);
+        List<Path> padding = paddingClassFiles();
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(jar))) {
+            for (Class<?> klass : entries) {
+                String name = klass.getName().replace('.', '/') + ".class";
+                out.putNextEntry(new JarEntry(name));
+                try (InputStream in = klass.getClassLoader().getResourceAsStream(name)) {
+                    byte[] buffer = new byte[4096];
+                    int len;
+                    while ((len = in.read(buffer)) > 0) {
+                        out.write(buffer, 0, len);
+                    }
+                }
+                out.closeEntry();
+            }
+            for (int i = 0; i < paddingClasses && i < padding.size(); i++) {
+                Path classFile = padding.get(i);
+                out.putNextEntry(new JarEntry("padding/" + i + "/" + classFile.getFileName()));
+                out.write(Files.readAllBytes(classFile));
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static List<Path> paddingClassFiles() throws IOException {
+        List<Path> classFiles = new ArrayList<>();
+        Path classes;
+        try {
+            classes = Paths.get(FileBaseKeyValueStore.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (Exception e) {
+            return classFiles;
+        }
+        if (!Files.isDirectory(classes)) {
+            return classFiles;
+        }
+        Files.walk(classes).filter(path -> path.toString().endsWith(".class")).sorted().forEach(classFiles::add);
+        return classFiles;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.utils;
+
+import com.alibaba.fastjson.JSON;
+import io.openmessaging.connector.api.data.Field;
+import io.openmessaging.connector.api.data.FieldType;
+import io.openmessaging.connector.api.data.Schema;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RecordBodyUtilsTest {
+
+    @Test
+    public void testToBody() {
+        byte[] bytes = "body".getBytes(StandardCharsets.UTF_8);
+        assertThat(RecordBodyUtils.toBody(bytes)).isSameAs(bytes);
+        assertThat(RecordBodyUtils.toBody(ByteBuffer.wrap(bytes))).isSameAs(bytes);
+
+        ByteBuffer slice = ByteBuffer.wrap("xxbodyxx".getBytes(StandardCharsets.UTF_8), 2, 4);
+        assertThat(RecordBodyUtils.toBody(slice)).isEqualTo(bytes);
+        assertThat(slice.position()).isEqualTo(2);
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(4);
+        direct.put(bytes).flip();
+        assertThat(RecordBodyUtils.toBody(direct)).isEqualTo(bytes);
+
+        assertThat(RecordBodyUtils.toBody("数据")).isEqualTo("数据".getBytes(StandardCharsets.UTF_8));
+        assertThat(RecordBodyUtils.toBody(100L)).isEqualTo("100".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testToData() {
+        byte[] body = "body".getBytes(StandardCharsets.UTF_8);
+        assertThat(RecordBodyUtils.toData(body, null)).isEqualTo("body");
+        assertThat(RecordBodyUtils.toData(body, new Schema("s", FieldType.STRING, new ArrayList<>()))).isEqualTo("body");
+        assertThat(RecordBodyUtils.toData(body, new Schema("s", FieldType.BYTES, new ArrayList<>()))).isSameAs(body);
+    }
+
+    @Test
+    public void testStripExtPrefix() {
+        assertThat(RecordBodyUtils.stripExtPrefix("connect-ext-key")).isEqualTo("key");
+        assertThat(RecordBodyUtils.stripExtPrefix("key")).isEqualTo("key");
+        assertThat(RecordBodyUtils.stripExtPrefix("connect-ext-")).isEqualTo("");
+    }
+
+    @Test
+    public void testSchemaCache() {
+        SchemaCache schemaCache = new SchemaCache(2);
+        String schemaString = JSON.toJSONString(new Schema("s1", FieldType.STRING, new ArrayList<>()));
+        Schema schema = schemaCache.get(schemaString);
+        assertThat(schema.getName()).isEqualTo("s1");
+        assertThat(schemaCache.get(new String(schemaString))).isNotSameAs(schema);
+
+        String secondString = JSON.toJSONString(new Schema("s2", FieldType.STRING, new ArrayList<>()));
+        schemaCache.get(secondString);
+        assertThat(schemaCache.size()).isEqualTo(2);
+        // s1 is used again, s2 is the least recently used one when s3 is added
+        schemaCache.get(schemaString);
+        String thirdString = JSON.toJSONString(new Schema("s3", FieldType.STRING, new ArrayList<>()));
+        schemaCache.get(thirdString);
+        assertThat(schemaCache.size()).isEqualTo(2);
+        assertThat(schemaCache.contains(schemaString)).isTrue();
+        assertThat(schemaCache.contains(secondString)).isFalse();
+        assertThat(schemaCache.contains(thirdString)).isTrue();
+    }
+
+    @Test
+    public void testSchemaCacheCopy() {
+        SchemaCache schemaCache = new SchemaCache(16);
+        Schema struct = new Schema("struct", FieldType.STRUCT, new ArrayList<>());
+        struct.addField(new Field(0, "id", new Schema("id", FieldType.INT64, new ArrayList<>())));
+        String schemaString = JSON.toJSONString(struct);
+
+        Schema schema = schemaCache.get(schemaString);
+        schema.setName("renamed");
+        schema.getFields().get(0).getSchema().setFieldType(FieldType.STRING);
+        schema.addField(new Field(1, "name", new Schema("name", FieldType.STRING, new ArrayList<>())));
+
+        // changes of a record schema do not leak into the cached one
+        Schema cached = schemaCache.get(schemaString);
+        assertThat(cached.getName()).isEqualTo("struct");
+        assertThat(cached.getFields()).hasSize(1);
+        assertThat(cached.getField("id").getSchema().getFieldType()).isEqualTo(FieldType.INT64);
+    }
+
+    @Test
+    public void testSchemaCacheHashCollision() {
+        SchemaCache schemaCache = new SchemaCache(16);
+        // "Aa" and "BB" have the same hash code
+        String first = "{\"name\":\"Aa\",\"fieldType\":\"STRING\"}";
+        String second = "{\"name\":\"BB\",\"fieldType\":\"STRING\"}";
+        assertThat(first.hashCode()).isEqualTo(second.hashCode());
+        assertThat(schemaCache.get(first).getName()).isEqualTo("Aa");
+        assertThat(schemaCache.get(second).getName()).isEqualTo("BB");
+        assertThat(schemaCache.get(first).getName()).isEqualTo("Aa");
+    }
+}
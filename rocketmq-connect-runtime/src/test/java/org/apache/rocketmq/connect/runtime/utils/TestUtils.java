@@ -18,9 +18,18 @@
 package org.apache.rocketmq.connect.runtime.utils;
 
 import java.io.File;
+import org.junit.Assume;
 
 public class TestUtils {
 
+    /**
+     * Skip a test that compares timings unless it runs with {@code -Dconnect.benchmark=true}, timings depend on the
+     * machine and the load of the build host.
+     */
+    public static void assumeBenchmark() {
+        Assume.assumeTrue("benchmark, run with -Dconnect.benchmark=true", Boolean.getBoolean("connect.benchmark"));
+    }
+
     public static void deleteFile(File file) {
         if (!file.exists()) {
             return;
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.apache.rocketmq.connect.runtime.utils.datasync;
+
+import io.openmessaging.connector.api.data.RecordOffset;
+import io.openmessaging.connector.api.data.RecordPartition;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.apache.rocketmq.connect.runtime.common.ConnAndTaskConfigs;
+import org.apache.rocketmq.connect.runtime.common.ConnectKeyValue;
+import org.apache.rocketmq.connect.runtime.converter.ConnAndTaskConfigConverter;
+import org.apache.rocketmq.connect.runtime.converter.JsonConverter;
+import org.apache.rocketmq.connect.runtime.converter.RecordPositionMapConverter;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BinaryDataSyncCodecTest {
+
+    private final BinaryDataSyncCodec codec = new BinaryDataSyncCodec(4096);
+
+    @Test
+    public void testEncodeAndDecode() throws IOException {
+        byte[] body = codec.encode("key".getBytes(StandardCharsets.UTF_8), "value".getBytes(StandardCharsets.UTF_8));
+        assertThat(BinaryDataSyncCodec.isBinary(body)).isTrue();
+        assertThat(body[3] & BinaryDataSyncCodec.FLAG_DEFLATE).isEqualTo(0);
+        Map<String, String> decoded = decode(codec, body);
+        assertThat(decoded.size()).isEqualTo(1);
+        assertThat(decoded.get("key")).isEqualTo("value");
+    }
+
+    @Test
+    public void testCompressLargePayload() throws IOException {
+        byte[] value = new JsonConverter().objectToByte(positionSnapshot(1000));
+        byte[] body = codec.encode("key".getBytes(StandardCharsets.UTF_8), value);
+        assertThat(body[3] & BinaryDataSyncCodec.FLAG_DEFLATE).isEqualTo((int) BinaryDataSyncCodec.FLAG_DEFLATE);
+        assertThat(body.length).isLessThan(value.length);
+        Map<String, String> decoded = decode(codec, body);
+        assertThat(decoded.get("key")).isEqualTo(new String(value, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDecodeJsonFormat() throws IOException {
+        byte[] body = new JsonDataSyncCodec().encode("key".getBytes(StandardCharsets.UTF_8),
+            "value".getBytes(StandardCharsets.UTF_8));
+        assertThat(BinaryDataSyncCodec.isBinary(body)).isFalse();
+        Map<String, String> decoded = decode(codec, body);
+        assertThat(decoded.get("key")).isEqualTo("value");
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnsupportedVersion() throws IOException {
+        byte[] body = codec.encode("key".getBytes(StandardCharsets.UTF_8), "value".getBytes(StandardCharsets.UTF_8));
+        body[2] = 99;
+        decode(codec, body);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedBody() throws IOException {
+        byte[] body = codec.encode("key".getBytes(StandardCharsets.UTF_8), "value".getBytes(StandardCharsets.UTF_8));
+        byte[] truncated = new byte[body.length - 2];
+        System.arraycopy(body, 0, truncated, 0, truncated.length);
+        decode(codec, truncated);
+    }
+
+    /**
+     * Snapshots round trip through every codec, the binary body of a position snapshot is smaller than the json one
+     * and deflate shrinks it further. The encode and decode cost is measured by DataSyncCodecBenchmark.
+     */
+    @Test
+    public void testSnapshotSize() throws IOException {
+        byte[] key = new JsonConverter().objectToByte("POSITION_CHANG_KEY");
+        byte[] positions = new RecordPositionMapConverter().objectToByte(positionSnapshot(10000));
+        byte[] configs = new ConnAndTaskConfigConverter().objectToByte(configSnapshot(100, 8));
+        DataSyncCodec[] codecs = {new JsonDataSyncCodec(), new BinaryDataSyncCodec(-1), codec};
+        int[] positionSizes = new int[codecs.length];
+        for (int i = 0; i < codecs.length; i++) {
+            byte[] body = codecs[i].encode(key, positions);
+            positionSizes[i] = body.length;
+            assertThat(decode(codec, body).get(new String(key, StandardCharsets.UTF_8)))
+                .isEqualTo(new String(positions, StandardCharsets.UTF_8));
+            assertThat(decode(codec, codecs[i].encode(key, configs)).get(new String(key, StandardCharsets.UTF_8)))
+                .isEqualTo(new String(configs, StandardCharsets.UTF_8));
+        }
+        assertThat(positionSizes[1]).isLessThan(positionSizes[0]);
+        assertThat(positionSizes[2]).isLessThan(positionSizes[1]);
+    }
+
+    private static Map<String, String> decode(DataSyncCodec codec, byte[] body) throws IOException {
+        Map<String, String> decoded = new HashMap<>();
+        codec.decode(body, (key, value) -> decoded.put(new String(key, StandardCharsets.UTF_8),
+            new String(value, StandardCharsets.UTF_8)));
+        return decoded;
+    }
+
+    private static Map<RecordPartition, RecordOffset> positionSnapshot(int partitionNums) {
+        Map<RecordPartition, RecordOffset> positions = new HashMap<>();
+        for (int i = 0; i < partitionNums; i++) {
+            Map<String, String> partition = new HashMap<>();
+            partition.put("topic", "testTopic");
+            partition.put("brokerName", "broker-a");
+            partition.put("queueId", String.valueOf(i));
+            Map<String, String> offset = new HashMap<>();
+            offset.put("queueOffset", String.valueOf(i * 1000L));
+            positions.put(new RecordPartition(partition), new RecordOffset(offset));
+        }
+        return positions;
+    }
+
+    private static ConnAndTaskConfigs configSnapshot(int connectorNums, int taskNums) {
+        ConnAndTaskConfigs configs = new ConnAndTaskConfigs();
+        for (int i = 0; i < connectorNums; i++) {
+            ConnectKeyValue connectorConfig = new ConnectKeyValue();
+            connectorConfig.put("connector-class", "org.apache.rocketmq.connect.file.FileSourceConnector");
+            connectorConfig.put("connect-topicname", "fileTopic" + i);
+            connectorConfig.put("update-timestamp", System.currentTimeMillis());
+            configs.getConnectorConfigs().put("connector" + i, connectorConfig);
+            List<ConnectKeyValue> taskConfigs = new ArrayList<>();
+            for (int j = 0; j < taskNums; j++) {
+                ConnectKeyValue taskConfig = new ConnectKeyValue();
+                taskConfig.put("task-class", "org.apache.rocketmq.connect.file.FileSourceTask");
+                taskConfig.put("filename", "/home/connect/source-file-" + i + "-" + j + ".txt");
+                taskConfigs.add(taskConfig);
+            }
+            configs.getTaskConfigs().put("connector" + i, taskConfigs);
+        }
+        return configs;
+    }
+}